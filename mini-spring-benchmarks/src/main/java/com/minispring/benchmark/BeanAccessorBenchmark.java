@@ -0,0 +1,89 @@
+package com.minispring.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Value;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.beans.factory.support.MethodHandleBeanAccessorStrategy;
+import com.minispring.beans.factory.support.ReflectiveBeanAccessorStrategy;
+
+/**
+ * Prototype creation with the reflective and the method handle based bean accessor
+ * strategies, for a prototype using constructor, field, setter and value injection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@State(Scope.Benchmark)
+public class BeanAccessorBenchmark {
+
+    @Param({ "reflective", "methodHandle" })
+    private String accessorStrategy;
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Setup
+    public void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setBeanAccessorStrategy("reflective".equals(accessorStrategy)
+                ? new ReflectiveBeanAccessorStrategy() : new MethodHandleBeanAccessorStrategy());
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(Repository.class));
+
+        BeanDefinition prototype = new BeanDefinition(RequestHandler.class);
+        prototype.setScope("prototype");
+        beanFactory.registerBeanDefinition("requestHandler", prototype);
+    }
+
+    @Benchmark
+    public Object createPrototype() {
+        return beanFactory.getBean("requestHandler");
+    }
+
+    /**
+     * Singleton dependency shared by all prototypes.
+     */
+    public static class Repository {
+    }
+
+    /**
+     * Prototype using constructor, field, setter and value injection.
+     */
+    public static class RequestHandler {
+
+        private final Repository constructorRepository;
+
+        @Autowired
+        private Repository fieldRepository;
+
+        @Value("30")
+        private int timeout;
+
+        private Repository setterRepository;
+
+        @Autowired
+        public RequestHandler(Repository constructorRepository) {
+            this.constructorRepository = constructorRepository;
+        }
+
+        @Autowired
+        public void setSetterRepository(Repository setterRepository) {
+            this.setterRepository = setterRepository;
+        }
+    }
+}
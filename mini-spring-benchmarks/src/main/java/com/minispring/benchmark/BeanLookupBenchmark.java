@@ -0,0 +1,64 @@
+package com.minispring.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+
+/**
+ * Singleton lookups on a refreshed context: by name, by type, and all beans of a
+ * type, the latter over {@value BenchmarkComponents#HANDLER_COUNT} handler beans.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@State(Scope.Benchmark)
+public class BeanLookupBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Setup
+    public void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        BenchmarkComponents.registerBeans(beanFactory);
+        context = new AnnotationConfigApplicationContext(beanFactory);
+        context.refresh();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object getBeanByName() {
+        return context.getBean("repository");
+    }
+
+    @Benchmark
+    public Object getBeanByType() {
+        return context.getBean(BenchmarkComponents.Repository.class);
+    }
+
+    @Benchmark
+    public Map<String, BenchmarkComponents.Handler> getBeansOfType() {
+        return beanFactory.getBeansOfType(BenchmarkComponents.Handler.class);
+    }
+}
@@ -0,0 +1,140 @@
+package com.minispring.benchmark;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Value;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+
+/**
+ * Component classes shared by the benchmarks, and helpers registering them.
+ */
+public final class BenchmarkComponents {
+
+    /** Number of {@link Handler} beans registered for the {@code getBeansOfType} benchmark. */
+    public static final int HANDLER_COUNT = 16;
+
+    private BenchmarkComponents() {
+    }
+
+    /**
+     * Register the singletons, the handlers and the three prototype services.
+     *
+     * @param beanFactory the factory to register the beans with
+     */
+    public static void registerBeans(DefaultListableBeanFactory beanFactory) {
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(Repository.class));
+        beanFactory.registerBeanDefinition("auditLog", new BeanDefinition(AuditLog.class));
+        for (int i = 0; i < HANDLER_COUNT; i++) {
+            beanFactory.registerBeanDefinition("handler" + i, new BeanDefinition(DefaultHandler.class));
+        }
+        beanFactory.registerBeanDefinition("fieldInjectedService", prototype(FieldInjectedService.class));
+        beanFactory.registerBeanDefinition("setterInjectedService", prototype(SetterInjectedService.class));
+        beanFactory.registerBeanDefinition("constructorInjectedService", prototype(ConstructorInjectedService.class));
+    }
+
+    /**
+     * Register the given number of synthetic components: a repository and an audit
+     * log, and components that depend on both and read a configuration value.
+     *
+     * @param beanFactory the factory to register the beans with
+     * @param componentCount the total number of components
+     */
+    public static void registerSyntheticComponents(DefaultListableBeanFactory beanFactory, int componentCount) {
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(Repository.class));
+        beanFactory.registerBeanDefinition("auditLog", new BeanDefinition(AuditLog.class));
+        for (int i = 2; i < componentCount; i++) {
+            beanFactory.registerBeanDefinition("syntheticComponent" + i, new BeanDefinition(SyntheticComponent.class));
+        }
+    }
+
+    private static BeanDefinition prototype(Class<?> beanClass) {
+        BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+        beanDefinition.setScope("prototype");
+        return beanDefinition;
+    }
+
+    public static class Repository {
+
+        @Value("${benchmark.repository.url:jdbc:mem:benchmark}")
+        private String url;
+
+        public String getUrl() {
+            return url;
+        }
+    }
+
+    public static class AuditLog {
+
+        @Value("${benchmark.audit.capacity:1024}")
+        private int capacity;
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    public interface Handler {
+
+        boolean handles(Object message);
+    }
+
+    public static class DefaultHandler implements Handler {
+
+        @Override
+        public boolean handles(Object message) {
+            return message != null;
+        }
+    }
+
+    public static class FieldInjectedService {
+
+        @Autowired
+        private Repository repository;
+
+        @Autowired
+        private AuditLog auditLog;
+
+        @Value("${benchmark.service.timeout:30}")
+        private int timeout;
+    }
+
+    public static class SetterInjectedService {
+
+        private Repository repository;
+        private AuditLog auditLog;
+
+        @Autowired
+        public void setRepository(Repository repository) {
+            this.repository = repository;
+        }
+
+        @Autowired
+        public void setAuditLog(AuditLog auditLog) {
+            this.auditLog = auditLog;
+        }
+    }
+
+    public static class ConstructorInjectedService {
+
+        private final Repository repository;
+        private final AuditLog auditLog;
+
+        @Autowired
+        public ConstructorInjectedService(Repository repository, AuditLog auditLog) {
+            this.repository = repository;
+            this.auditLog = auditLog;
+        }
+    }
+
+    public static class SyntheticComponent {
+
+        @Autowired
+        private Repository repository;
+
+        @Autowired
+        private AuditLog auditLog;
+
+        @Value("${benchmark.component.enabled:true}")
+        private boolean enabled;
+    }
+}
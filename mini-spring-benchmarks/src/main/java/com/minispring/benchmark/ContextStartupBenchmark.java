@@ -0,0 +1,45 @@
+package com.minispring.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+
+/**
+ * Full context startup: registering the bean definitions of the synthetic
+ * components, refreshing the context, which creates every singleton, and closing it.
+ * The components are instances of a few classes, so the figures cover the container's
+ * own work and not class loading.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@State(Scope.Benchmark)
+public class ContextStartupBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int componentCount;
+
+    @Benchmark
+    public AnnotationConfigApplicationContext startup() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BenchmarkComponents.registerSyntheticComponents(beanFactory, componentCount);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(beanFactory);
+        context.refresh();
+        context.close();
+        return context;
+    }
+}
@@ -0,0 +1,141 @@
+package com.minispring.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.minispring.annotation.EventListener;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.context.ApplicationListener;
+import com.minispring.context.event.SimpleApplicationEventMulticaster;
+import com.minispring.core.task.TaskExecutors;
+
+/**
+ * Event publication to {@value #MATCHING_LISTENERS} listeners, half of them
+ * {@link ApplicationListener} beans and half {@link EventListener} methods, next to
+ * {@value #OTHER_LISTENERS} listeners for an unrelated event type. Each operation
+ * publishes an event and waits until all its deliveries are done, either
+ * synchronously or on a bounded platform pool; on Java 21+, pass
+ * {@code -p delivery=virtual} to deliver on virtual threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@State(Scope.Benchmark)
+public class EventPublishBenchmark {
+
+    static final int MATCHING_LISTENERS = 2_000;
+    static final int OTHER_LISTENERS = 1_000;
+    static final int EVENTS_PER_INVOCATION = 100;
+
+    private static final LongAdder deliveries = new LongAdder();
+
+    @Param({ "sync", "platform" })
+    private String delivery;
+
+    private AnnotationConfigApplicationContext context;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (int i = 0; i < MATCHING_LISTENERS / 2; i++) {
+            beanFactory.registerBeanDefinition("orderListener" + i, new BeanDefinition(OrderListener.class));
+            beanFactory.registerBeanDefinition("orderHandler" + i, new BeanDefinition(OrderHandler.class));
+        }
+        for (int i = 0; i < OTHER_LISTENERS; i++) {
+            beanFactory.registerBeanDefinition("auditListener" + i, new BeanDefinition(AuditListener.class));
+        }
+        context = new AnnotationConfigApplicationContext(beanFactory);
+        context.refresh();
+
+        if ("platform".equals(delivery)) {
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        } else if ("virtual".equals(delivery)) {
+            executor = TaskExecutors.newVirtualThreadPerTaskExecutor();
+        }
+        if (executor != null) {
+            ((SimpleApplicationEventMulticaster) context.getApplicationEventMulticaster()).setTaskExecutor(executor);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void publish() {
+        long expected = deliveries.sum() + (long) EVENTS_PER_INVOCATION * MATCHING_LISTENERS;
+        for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            context.publishEvent(new OrderPlacedEvent(i));
+        }
+        while (deliveries.sum() < expected) {
+            Thread.yield();
+        }
+    }
+
+    public static class OrderPlacedEvent {
+
+        private final long orderId;
+
+        public OrderPlacedEvent(long orderId) {
+            this.orderId = orderId;
+        }
+
+        public long getOrderId() {
+            return orderId;
+        }
+    }
+
+    public static class AuditEvent {
+    }
+
+    public static class OrderListener implements ApplicationListener<OrderPlacedEvent> {
+
+        @Override
+        public void onApplicationEvent(OrderPlacedEvent event) {
+            deliveries.increment();
+        }
+    }
+
+    public static class OrderHandler {
+
+        @EventListener
+        public void onOrderPlaced(OrderPlacedEvent event) {
+            deliveries.increment();
+        }
+    }
+
+    public static class AuditListener implements ApplicationListener<AuditEvent> {
+
+        @Override
+        public void onApplicationEvent(AuditEvent event) {
+            throw new IllegalStateException("Event delivered to a listener of another type");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.minispring.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+
+/**
+ * Creation of prototype beans depending on two singletons, injected through
+ * fields (plus a {@code @Value} field), setters or the constructor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@State(Scope.Benchmark)
+public class PrototypeCreationBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    @Setup
+    public void setUp() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BenchmarkComponents.registerBeans(beanFactory);
+        context = new AnnotationConfigApplicationContext(beanFactory);
+        context.refresh();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object fieldInjection() {
+        return context.getBean("fieldInjectedService");
+    }
+
+    @Benchmark
+    public Object setterInjection() {
+        return context.getBean("setterInjectedService");
+    }
+
+    @Benchmark
+    public Object constructorInjection() {
+        return context.getBean("constructorInjectedService");
+    }
+}
@@ -1,10 +1,15 @@
 package com.minispring;
 
+import java.nio.file.Paths;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.minispring.beans.factory.DefaultListableBeanFactory;
 import com.minispring.context.AnnotationConfigApplicationContext;
 import com.minispring.context.ApplicationContext;
+import com.minispring.core.env.SimpleCommandLinePropertySource;
+import com.minispring.core.env.StandardEnvironment;
 
 /**
  * Entry point for a Mini Spring application.
@@ -14,8 +19,18 @@ public class MiniSpringApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(MiniSpringApplication.class);
 
+    /**
+     * Property naming the file to keep a context snapshot in, restoring the bean
+     * definitions from it on startup instead of scanning the classpath.
+     */
+    public static final String SNAPSHOT_FILE_PROPERTY = "minispring.aot.snapshot";
+
     /**
      * Run a Mini Spring application, creating and refreshing a new ApplicationContext.
+     * Option arguments of the form {@code --name=value} are available as properties,
+     * taking precedence over all other property sources. If the
+     * {@value #SNAPSHOT_FILE_PROPERTY} property is set, the bean definitions are
+     * restored from that context snapshot when it is up to date.
      *
      * @param primarySource the primary source class for the application
      * @param args the application arguments
@@ -28,9 +43,25 @@ public class MiniSpringApplication {
 
     private static ApplicationContext doRun(Class<?> primarySource, String... args) {
         // Create and configure the ApplicationContext
-        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(primarySource);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(new DefaultListableBeanFactory());
+        StandardEnvironment environment = createEnvironment(args);
+        context.setEnvironment(environment);
+        String snapshotFile = environment.getProperty(SNAPSHOT_FILE_PROPERTY);
+        if (snapshotFile != null && !snapshotFile.isEmpty()) {
+            context.setSnapshotFile(Paths.get(snapshotFile));
+        }
+        context.register(primarySource);
+        context.refresh();
 
         logger.info("Mini Spring Application started");
         return context;
     }
-}
\ No newline at end of file
+
+    private static StandardEnvironment createEnvironment(String... args) {
+        StandardEnvironment environment = new StandardEnvironment();
+        if (args != null && args.length > 0) {
+            environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        }
+        return environment;
+    }
+}
@@ -0,0 +1,26 @@
+package com.minispring.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a bean to be executed asynchronously: calls through the bean's
+ * proxy hand the method to an executor and return immediately. The method must return
+ * {@code void} or a {@link java.util.concurrent.CompletableFuture}, which the caller
+ * receives completed with the method's result or failure. On a {@link Component}
+ * class, applies to all of its methods with such a return type.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Async {
+
+    /**
+     * The name of the {@link java.util.concurrent.Executor} bean to run the method on.
+     * @return the executor bean name, or empty for the default executor
+     */
+    String value() default "";
+}
@@ -0,0 +1,37 @@
+package com.minispring.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a bean that evicts the entry for its arguments, or all entries,
+ * from a cache. The entry is keyed like the results of {@link Cacheable} methods with
+ * the same arguments.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheEvict {
+
+    /**
+     * The name of the cache to evict from.
+     * @return the cache name
+     */
+    String value();
+
+    /**
+     * Whether to clear the whole cache rather than the entry for the arguments.
+     * @return whether to evict all entries
+     */
+    boolean allEntries() default false;
+
+    /**
+     * Whether to evict before the method is invoked, and so even if it fails, rather
+     * than after it has returned.
+     * @return whether to evict before the invocation
+     */
+    boolean beforeInvocation() default false;
+}
@@ -0,0 +1,25 @@
+package com.minispring.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a bean whose result is cached: a call through the bean's proxy
+ * returns the cached result for equal arguments, and only invokes the method if none
+ * is cached yet. The cache is obtained from the {@link com.minispring.cache.CacheManager}
+ * bean. On a {@link Component} class, applies to all of its non-void methods.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Cacheable {
+
+    /**
+     * The name of the cache to store results in.
+     * @return the cache name
+     */
+    String value();
+}
@@ -20,4 +20,11 @@ public @interface ComponentScan {
      * @return base packages to scan
      */
     String[] basePackages() default {};
+
+    /**
+     * Specify whether scanned beans should be registered for lazy initialization.
+     * Components annotated with {@link Lazy} keep their own setting.
+     * @return whether scanned components are lazy by default
+     */
+    boolean lazyInit() default false;
 }
\ No newline at end of file
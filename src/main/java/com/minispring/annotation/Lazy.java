@@ -0,0 +1,26 @@
+package com.minispring.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates whether a bean is to be lazily initialized.
+ * On a {@link Component} class, a lazy singleton is not created during the context
+ * refresh but on its first lookup. On an {@link Autowired} field, method, constructor
+ * or parameter, a lazy-resolution proxy is injected instead, which looks up the
+ * target bean on first use; such injection points must be declared as interfaces.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.CONSTRUCTOR, ElementType.PARAMETER, ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Lazy {
+
+    /**
+     * Whether lazy initialization should occur.
+     * @return whether the bean or injection point is lazy
+     */
+    boolean value() default true;
+}
@@ -0,0 +1,42 @@
+package com.minispring.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures the instance pool of a component declared with {@code @Scope("pooled")}.
+ * Each lookup of a pooled bean borrows an instance, which is handed back with
+ * {@link com.minispring.beans.factory.ConfigurableListableBeanFactory#releaseBean}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PoolConfig {
+
+    /**
+     * The number of idle instances to create up front and keep despite idle eviction.
+     * @return the minimum number of idle instances
+     */
+    int minIdle() default 0;
+
+    /**
+     * The maximum number of instances, borrowed or idle, at any time.
+     * @return the maximum pool size
+     */
+    int maxSize() default 8;
+
+    /**
+     * How long an instance may stay idle before it is evicted, in milliseconds.
+     * @return the idle timeout, or a negative value to never evict idle instances
+     */
+    long maxIdleMillis() default 60_000;
+
+    /**
+     * How long a lookup waits for an instance when the pool is exhausted, in milliseconds.
+     * @return the maximum wait, or a negative value to wait indefinitely
+     */
+    long maxWaitMillis() default 5_000;
+}
@@ -0,0 +1,20 @@
+package com.minispring.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a bean to be called when the bean is destroyed: for singletons
+ * when the application context is closed, for pooled instances when they are evicted
+ * or their pool is closed. The method must not declare parameters. Methods of a
+ * subclass are called before those of its superclasses, and before
+ * {@link com.minispring.beans.factory.DisposableBean#destroy()}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PreDestroy {
+}
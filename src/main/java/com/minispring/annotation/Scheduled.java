@@ -0,0 +1,52 @@
+package com.minispring.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a singleton bean to be run periodically once the context has
+ * been refreshed, until it is closed. The method must not declare parameters. Exactly
+ * one of {@link #fixedRate}, {@link #fixedDelay} and {@link #cron} must be specified.
+ * Runs of the same method never overlap.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scheduled {
+
+    /**
+     * Period in milliseconds between the starts of consecutive runs. A run that
+     * ends late is followed immediately by the next one.
+     * @return the period, or -1 if not rate-based
+     */
+    long fixedRate() default -1;
+
+    /**
+     * Delay in milliseconds between the end of a run and the start of the next.
+     * @return the delay, or -1 if not delay-based
+     */
+    long fixedDelay() default -1;
+
+    /**
+     * Cron expression of six fields, {@code second minute hour day-of-month month
+     * day-of-week}, or five fields without seconds; see
+     * {@link com.minispring.scheduling.support.CronExpression}.
+     * @return the cron expression, or empty if not cron-based
+     */
+    String cron() default "";
+
+    /**
+     * Time zone of the cron expression.
+     * @return the zone ID, or empty for the system default zone
+     */
+    String zone() default "";
+
+    /**
+     * Delay in milliseconds before the first run of a rate or delay based method.
+     * @return the initial delay, or -1 to start right after the refresh
+     */
+    long initialDelay() default -1;
+}
@@ -8,7 +8,10 @@ import java.lang.annotation.Target;
 
 /**
  * When used as a type-level annotation in conjunction with
- * {@link Component}, indicates the scope of a component.
+ * {@link Component}, indicates the scope of a component: {@code "singleton"},
+ * {@code "prototype"}, {@code "pooled"}, or the name of a
+ * {@link com.minispring.beans.factory.Scope} registered on the bean factory,
+ * such as {@code "thread"} or {@code "unitOfWork"}.
  */
 @Target({ElementType.TYPE, ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
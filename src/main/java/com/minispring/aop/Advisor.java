@@ -0,0 +1,23 @@
+package com.minispring.aop;
+
+/**
+ * A {@link MethodInterceptor} together with the {@link Pointcut} selecting the
+ * methods it applies to. Advisor beans of an application context are applied to
+ * every bean created after them.
+ */
+public interface Advisor {
+
+    /**
+     * Return the pointcut selecting the methods to intercept.
+     *
+     * @return the pointcut
+     */
+    Pointcut getPointcut();
+
+    /**
+     * Return the interceptor to apply to the selected methods.
+     *
+     * @return the interceptor
+     */
+    MethodInterceptor getInterceptor();
+}
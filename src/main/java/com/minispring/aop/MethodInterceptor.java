@@ -0,0 +1,19 @@
+package com.minispring.aop;
+
+/**
+ * Intercepts calls of proxied methods. An interceptor decides whether and when
+ * the call {@linkplain MethodInvocation#proceed() proceeds} and may change its
+ * arguments or result.
+ */
+@FunctionalInterface
+public interface MethodInterceptor {
+
+    /**
+     * Intercept the given call.
+     *
+     * @param invocation the call
+     * @return the result of the call
+     * @throws Throwable any exception to throw to the caller
+     */
+    Object invoke(MethodInvocation invocation) throws Throwable;
+}
@@ -0,0 +1,42 @@
+package com.minispring.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * A call of a proxied method, handed to each {@link MethodInterceptor} of the
+ * method's interceptor chain.
+ */
+public interface MethodInvocation {
+
+    /**
+     * Return the method being called, as declared by the target class or by the
+     * proxied interface.
+     *
+     * @return the method
+     */
+    Method getMethod();
+
+    /**
+     * Return the arguments of the call. Interceptors may replace elements of the
+     * array before proceeding.
+     *
+     * @return the arguments, an empty array for a method without parameters
+     */
+    Object[] getArguments();
+
+    /**
+     * Return the target object the method is called on.
+     *
+     * @return the target bean
+     */
+    Object getThis();
+
+    /**
+     * Proceed to the next interceptor in the chain, or call the target method
+     * after the last one.
+     *
+     * @return the result of the call
+     * @throws Throwable any exception thrown by the rest of the chain or the target method
+     */
+    Object proceed() throws Throwable;
+}
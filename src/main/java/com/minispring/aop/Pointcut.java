@@ -0,0 +1,35 @@
+package com.minispring.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * Selects the methods an interceptor applies to. Pointcuts are only evaluated when
+ * a proxy is created, once per bean class and method, never per call.
+ */
+public interface Pointcut {
+
+    /**
+     * Pointcut matching every method of every class.
+     */
+    Pointcut TRUE = (method, targetClass) -> true;
+
+    /**
+     * Return whether any method of the given class may match, so that the methods
+     * of classes that cannot match are not evaluated one by one.
+     *
+     * @param targetClass the bean class
+     * @return whether methods of the class may match
+     */
+    default boolean matches(Class<?> targetClass) {
+        return true;
+    }
+
+    /**
+     * Return whether the given method matches.
+     *
+     * @param method the method, as declared by the target class or by a proxied interface
+     * @param targetClass the bean class
+     * @return whether the method matches
+     */
+    boolean matches(Method method, Class<?> targetClass);
+}
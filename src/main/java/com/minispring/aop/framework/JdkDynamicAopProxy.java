@@ -0,0 +1,52 @@
+package com.minispring.aop.framework;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * {@link InvocationHandler} of a JDK proxy for the interfaces of a bean. The proxied
+ * methods, including {@code equals}, {@code hashCode} and {@code toString}, are looked
+ * up in a map that is shared by all proxies of the bean class. Unless intercepted,
+ * {@code equals} considers proxies equal if they proxy equal targets.
+ */
+final class JdkDynamicAopProxy implements InvocationHandler {
+
+    private final Object target;
+    private final Map<Method, ProxyMethod> proxyMethods;
+
+    JdkDynamicAopProxy(Object target, Map<Method, ProxyMethod> proxyMethods) {
+        this.target = target;
+        this.proxyMethods = proxyMethods;
+    }
+
+    Object getTarget() {
+        return target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        ProxyMethod proxyMethod = proxyMethods.get(method);
+        if (!proxyMethod.isIntercepted() && isEqualsMethod(method)) {
+            return equalsProxy(proxy, args[0]);
+        }
+        return proxyMethod.invoke(target, args);
+    }
+
+    private boolean equalsProxy(Object proxy, Object other) {
+        if (proxy == other) {
+            return true;
+        }
+        if (other == null || !Proxy.isProxyClass(other.getClass())) {
+            return false;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(other);
+        return (handler instanceof JdkDynamicAopProxy && target.equals(((JdkDynamicAopProxy) handler).target));
+    }
+
+    static boolean isEqualsMethod(Method method) {
+        return "equals".equals(method.getName()) && method.getParameterCount() == 1
+                && method.getParameterTypes()[0] == Object.class;
+    }
+}
@@ -0,0 +1,343 @@
+package com.minispring.aop.framework;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.minispring.aop.Advisor;
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.beans.BeanNameAware;
+import com.minispring.beans.factory.support.BeanAccessorStrategy;
+import com.minispring.beans.factory.support.MethodHandleBeanAccessorStrategy;
+import com.minispring.core.ClassUtils;
+import com.minispring.exception.AopConfigException;
+
+/**
+ * Creates proxies for the instances of one bean class. The advisors are matched
+ * against the class and its methods once, when the factory is created, and the
+ * resulting interceptor chains and target method invokers are shared by every proxy
+ * it creates, so a call on a proxy does no matching and no reflective lookup.
+ *
+ * <p>With {@code proxyTargetClass} set, a class is proxied with a generated subclass,
+ * which overrides its non-final public, protected and package-private methods, so that
+ * the proxy is an instance of the bean class. Otherwise, and for a final class, a class
+ * implementing interfaces is proxied with a JDK dynamic proxy for all of them, unless
+ * the interfaces are only callbacks and markers such as {@link BeanNameAware} or
+ * {@link Serializable}; any other class gets a subclass, and a final one cannot be proxied.
+ */
+public class ProxyFactory {
+
+    private static final String PROXY_CLASS_SUFFIX = "$$MiniSpringProxy$";
+
+    private static final Set<Class<?>> IGNORED_INTERFACES = new HashSet<>(Arrays.asList(
+            BeanNameAware.class, Serializable.class, Cloneable.class, AutoCloseable.class, Closeable.class));
+
+    private static final AtomicInteger proxyClassCounter = new AtomicInteger();
+
+    private final Class<?> targetClass;
+
+    private final Class<?>[] proxiedInterfaces;
+
+    /** Methods of a JDK proxy, keyed by the interface methods the proxy dispatches. */
+    private final Map<Method, ProxyMethod> interfaceMethods;
+
+    /** Methods of a subclass proxy, in the order of their indexes in the proxy class. */
+    private final ProxyMethod[] subclassMethods;
+
+    private final boolean proxyRequired;
+
+    private volatile Class<?> proxyClass;
+
+    private Field dispatcherField;
+
+    /**
+     * Create a proxy factory invoking target methods through method handles.
+     *
+     * @param targetClass the bean class
+     * @param advisors the advisors to match against the class
+     * @param proxyTargetClass whether to generate a subclass even if the class implements
+     * interfaces; a final class is proxied by its interfaces regardless
+     */
+    public ProxyFactory(Class<?> targetClass, List<? extends Advisor> advisors, boolean proxyTargetClass) {
+        this(targetClass, advisors, proxyTargetClass, new MethodHandleBeanAccessorStrategy());
+    }
+
+    /**
+     * Create a proxy factory.
+     *
+     * @param targetClass the bean class
+     * @param advisors the advisors to match against the class
+     * @param proxyTargetClass whether to generate a subclass even if the class implements
+     * interfaces; a final class is proxied by its interfaces regardless
+     * @param accessorStrategy the strategy creating the invokers of the target methods
+     */
+    public ProxyFactory(Class<?> targetClass, List<? extends Advisor> advisors, boolean proxyTargetClass,
+                        BeanAccessorStrategy accessorStrategy) {
+        this.targetClass = targetClass;
+        List<Advisor> candidateAdvisors = new ArrayList<>(advisors.size());
+        for (Advisor advisor : advisors) {
+            if (advisor.getPointcut().matches(targetClass)) {
+                candidateAdvisors.add(advisor);
+            }
+        }
+
+        boolean subclassable = !Modifier.isFinal(targetClass.getModifiers());
+        Class<?>[] interfaces = (proxyTargetClass && subclassable ? new Class<?>[0] : getProxiableInterfaces(targetClass));
+        boolean intercepted = false;
+        if (interfaces.length > 0) {
+            this.proxiedInterfaces = interfaces;
+            this.interfaceMethods = new HashMap<>();
+            this.subclassMethods = null;
+            for (Class<?> proxiedInterface : interfaces) {
+                for (Method method : proxiedInterface.getMethods()) {
+                    if (!Modifier.isStatic(method.getModifiers()) && !interfaceMethods.containsKey(method)) {
+                        ProxyMethod proxyMethod = createProxyMethod(method, candidateAdvisors, accessorStrategy);
+                        interfaceMethods.put(method, proxyMethod);
+                        intercepted |= proxyMethod.isIntercepted();
+                    }
+                }
+            }
+            for (String name : new String[] {"equals", "hashCode", "toString"}) {
+                for (Method method : Object.class.getMethods()) {
+                    if (method.getName().equals(name)) {
+                        ProxyMethod proxyMethod = createProxyMethod(method, candidateAdvisors, accessorStrategy);
+                        interfaceMethods.put(method, proxyMethod);
+                        intercepted |= proxyMethod.isIntercepted();
+                    }
+                }
+            }
+        } else {
+            this.proxiedInterfaces = null;
+            this.interfaceMethods = null;
+            List<Method> methods = getProxiableMethods(targetClass);
+            this.subclassMethods = new ProxyMethod[methods.size()];
+            for (int i = 0; i < subclassMethods.length; i++) {
+                subclassMethods[i] = createProxyMethod(methods.get(i), candidateAdvisors, accessorStrategy);
+                intercepted |= subclassMethods[i].isIntercepted();
+            }
+        }
+        this.proxyRequired = intercepted;
+    }
+
+    private ProxyMethod createProxyMethod(Method method, List<Advisor> advisors,
+                                          BeanAccessorStrategy accessorStrategy) {
+        List<MethodInterceptor> interceptors = new ArrayList<>(advisors.size());
+        for (Advisor advisor : advisors) {
+            if (advisor.getPointcut().matches(method, targetClass)) {
+                interceptors.add(advisor.getInterceptor());
+            }
+        }
+        BeanAccessorStrategy.MethodInvoker invoker = accessorStrategy.methodInvoker(method);
+        return new ProxyMethod(method, interceptors.toArray(new MethodInterceptor[0]), invoker);
+    }
+
+    /**
+     * Return whether any advisor applies to a method of the bean class, i.e. whether
+     * its instances need to be proxied at all.
+     *
+     * @return whether a proxy is required
+     */
+    public boolean isProxyRequired() {
+        return proxyRequired;
+    }
+
+    /**
+     * Return the interfaces the proxies implement if they are JDK dynamic proxies.
+     *
+     * @return the proxied interfaces, or {@code null} if the proxies are generated subclasses
+     */
+    public Class<?>[] getProxiedInterfaces() {
+        return (proxiedInterfaces != null ? proxiedInterfaces.clone() : null);
+    }
+
+    /**
+     * Return the bean class this factory creates proxies for.
+     *
+     * @return the bean class
+     */
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * Create a proxy for the given instance of the bean class.
+     *
+     * @param target the bean instance
+     * @return the proxy
+     * @throws AopConfigException if the proxy cannot be created
+     */
+    public Object getProxy(Object target) {
+        if (target.getClass() != targetClass) {
+            throw new IllegalArgumentException("Target " + target.getClass().getName()
+                    + " is not an instance of " + targetClass.getName());
+        }
+        if (interfaceMethods != null) {
+            return Proxy.newProxyInstance(targetClass.getClassLoader(), proxiedInterfaces,
+                    new JdkDynamicAopProxy(target, interfaceMethods));
+        }
+        Class<?> proxyClass = getProxyClass();
+        try {
+            Object proxy = SubclassProxyGenerator.allocateInstance(proxyClass);
+            dispatcherField.set(proxy, new SubclassProxyDispatcher(target, subclassMethods));
+            return proxy;
+        } catch (ReflectiveOperationException e) {
+            throw new AopConfigException("Could not instantiate proxy class " + proxyClass.getName(), e);
+        }
+    }
+
+    private Class<?> getProxyClass() {
+        Class<?> proxyClass = this.proxyClass;
+        if (proxyClass == null) {
+            synchronized (this) {
+                proxyClass = this.proxyClass;
+                if (proxyClass == null) {
+                    proxyClass = generateProxyClass();
+                    this.proxyClass = proxyClass;
+                }
+            }
+        }
+        return proxyClass;
+    }
+
+    private Class<?> generateProxyClass() {
+        if (Modifier.isFinal(targetClass.getModifiers())) {
+            throw new AopConfigException("Cannot proxy final class " + targetClass.getName()
+                    + ": let it implement an interface or make it non-final");
+        }
+        String className = targetClass.getName() + PROXY_CLASS_SUFFIX + proxyClassCounter.incrementAndGet();
+        List<Method> methods = new ArrayList<>(subclassMethods.length);
+        for (ProxyMethod proxyMethod : subclassMethods) {
+            methods.add(proxyMethod.getMethod());
+        }
+        try {
+            byte[] classFile = SubclassProxyGenerator.generate(className, targetClass, methods);
+            Class<?> proxyClass = SubclassProxyGenerator.defineClass(targetClass, className, classFile);
+            Field field = proxyClass.getField(SubclassProxyGenerator.DISPATCHER_FIELD);
+            field.setAccessible(true);
+            this.dispatcherField = field;
+            return proxyClass;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new AopConfigException("Could not generate proxy class for " + targetClass.getName(), e);
+        }
+    }
+
+    /**
+     * Return whether the given object is a proxy created by a {@code ProxyFactory}.
+     *
+     * @param object the object to check
+     * @return whether the object is a proxy
+     */
+    public static boolean isAopProxy(Object object) {
+        if (object == null) {
+            return false;
+        }
+        if (Proxy.isProxyClass(object.getClass())) {
+            return (Proxy.getInvocationHandler(object) instanceof JdkDynamicAopProxy);
+        }
+        return object.getClass().getName().contains(PROXY_CLASS_SUFFIX);
+    }
+
+    /**
+     * Return the method to call on the given bean in place of a method of its bean
+     * class: the method itself, unless the bean is a JDK proxy, in which case the
+     * corresponding method of one of the proxied interfaces.
+     *
+     * @param method the method declared by the bean class
+     * @param bean the bean, possibly a proxy
+     * @return the method to invoke on the bean
+     * @throws AopConfigException if the bean is a JDK proxy and no proxied interface declares the method
+     */
+    public static Method getInvocableMethod(Method method, Object bean) {
+        if (!Proxy.isProxyClass(bean.getClass())) {
+            return method;
+        }
+        return getInvocableMethod(method, bean.getClass().getInterfaces());
+    }
+
+    /**
+     * Return the method to call on a JDK proxy implementing the given interfaces in
+     * place of a method of the proxied bean class.
+     *
+     * @param method the method declared by the bean class
+     * @param proxiedInterfaces the interfaces implemented by the proxy
+     * @return the corresponding method of one of the interfaces
+     * @throws AopConfigException if no proxied interface declares the method
+     */
+    public static Method getInvocableMethod(Method method, Class<?>[] proxiedInterfaces) {
+        for (Class<?> proxiedInterface : proxiedInterfaces) {
+            try {
+                return proxiedInterface.getMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                // try the next interface
+            }
+        }
+        throw new AopConfigException("Method " + method + " cannot be called on a JDK proxy as no proxied "
+                + "interface declares it: declare it on an interface or proxy the bean class");
+    }
+
+    private static Class<?>[] getProxiableInterfaces(Class<?> targetClass) {
+        List<Class<?>> interfaces = new ArrayList<>();
+        boolean proxiable = false;
+        for (Class<?> type : ClassUtils.getAllSuperTypes(targetClass)) {
+            if (type.isInterface()) {
+                interfaces.add(type);
+                proxiable |= !IGNORED_INTERFACES.contains(type);
+            }
+        }
+        return (proxiable ? interfaces.toArray(new Class<?>[0]) : new Class<?>[0]);
+    }
+
+    /**
+     * Return the methods a subclass of the given class can override, most specific
+     * first: a final method hides the methods it overrides.
+     */
+    private static List<Method> getProxiableMethods(Class<?> targetClass) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        Set<String> signatures = new HashSet<>();
+        for (Class<?> type = targetClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                addProxiableMethod(method, targetClass, signatures, methods);
+            }
+        }
+        for (Method method : targetClass.getMethods()) {
+            addProxiableMethod(method, targetClass, signatures, methods);
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+    private static void addProxiableMethod(Method method, Class<?> targetClass, Set<String> signatures,
+                                           Map<String, Method> methods) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || method.isBridge()
+                || method.isSynthetic()) {
+            return;
+        }
+        boolean packagePrivate = !Modifier.isPublic(modifiers) && !Modifier.isProtected(modifiers);
+        if (packagePrivate && !packageName(method.getDeclaringClass()).equals(packageName(targetClass))) {
+            return;
+        }
+        String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+        if (!signatures.add(signature) || Modifier.isFinal(modifiers)) {
+            return;
+        }
+        methods.put(signature, method);
+    }
+
+    private static String packageName(Class<?> type) {
+        String className = type.getName();
+        int lastDot = className.lastIndexOf('.');
+        return (lastDot != -1 ? className.substring(0, lastDot) : "");
+    }
+}
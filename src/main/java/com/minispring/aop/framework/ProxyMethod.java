@@ -0,0 +1,45 @@
+package com.minispring.aop.framework;
+
+import java.lang.reflect.Method;
+
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.beans.factory.support.BeanAccessorStrategy;
+
+/**
+ * A proxied method with its interceptor chain and the invoker of the target method,
+ * both fixed when the proxy class is prepared.
+ */
+final class ProxyMethod {
+
+    static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Method method;
+    private final MethodInterceptor[] interceptors;
+    private final BeanAccessorStrategy.MethodInvoker invoker;
+
+    ProxyMethod(Method method, MethodInterceptor[] interceptors, BeanAccessorStrategy.MethodInvoker invoker) {
+        this.method = method;
+        this.interceptors = interceptors;
+        this.invoker = invoker;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    boolean isIntercepted() {
+        return interceptors.length > 0;
+    }
+
+    /**
+     * Call the method on the given target through the interceptor chain, or
+     * directly if no interceptor applies.
+     */
+    Object invoke(Object target, Object[] args) throws Throwable {
+        Object[] arguments = (args != null ? args : NO_ARGUMENTS);
+        if (interceptors.length == 0) {
+            return invoker.invoke(target, arguments);
+        }
+        return new ReflectiveMethodInvocation(target, method, arguments, interceptors, invoker).proceed();
+    }
+}
@@ -0,0 +1,58 @@
+package com.minispring.aop.framework;
+
+import java.lang.reflect.Method;
+
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.aop.MethodInvocation;
+import com.minispring.beans.factory.support.BeanAccessorStrategy;
+
+/**
+ * {@link MethodInvocation} walking a precomputed interceptor array. It is the only
+ * object allocated for a call of an intercepted method.
+ */
+final class ReflectiveMethodInvocation implements MethodInvocation {
+
+    private final Object target;
+    private final Method method;
+    private final Object[] arguments;
+    private final MethodInterceptor[] interceptors;
+    private final BeanAccessorStrategy.MethodInvoker invoker;
+    private int currentInterceptorIndex;
+
+    ReflectiveMethodInvocation(Object target, Method method, Object[] arguments,
+                               MethodInterceptor[] interceptors, BeanAccessorStrategy.MethodInvoker invoker) {
+        this.target = target;
+        this.method = method;
+        this.arguments = arguments;
+        this.interceptors = interceptors;
+        this.invoker = invoker;
+    }
+
+    @Override
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+        if (currentInterceptorIndex == interceptors.length) {
+            return invoker.invoke(target, arguments);
+        }
+        return interceptors[currentInterceptorIndex++].invoke(this);
+    }
+
+    @Override
+    public String toString() {
+        return "ReflectiveMethodInvocation: " + method + " on " + target.getClass().getName();
+    }
+}
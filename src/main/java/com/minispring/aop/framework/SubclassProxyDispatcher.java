@@ -0,0 +1,39 @@
+package com.minispring.aop.framework;
+
+/**
+ * Target of the methods of a generated subclass proxy, which pass the proxy, the index
+ * of the proxied method and the boxed arguments. Unless intercepted, {@code equals}
+ * considers the proxy equal to itself and to whatever its target is equal to. Public so that proxy classes defined in the
+ * packages of the bean classes can call it; not meant to be used otherwise.
+ */
+public final class SubclassProxyDispatcher {
+
+    private final Object target;
+    private final ProxyMethod[] proxyMethods;
+
+    SubclassProxyDispatcher(Object target, ProxyMethod[] proxyMethods) {
+        this.target = target;
+        this.proxyMethods = proxyMethods;
+    }
+
+    Object getTarget() {
+        return target;
+    }
+
+    /**
+     * Call the proxied method with the given index.
+     *
+     * @param proxy the proxy the method was called on
+     * @param methodIndex the index of the method in the proxy class
+     * @param args the arguments, or {@code null} for a method without parameters
+     * @return the result of the call, boxed for a primitive return type
+     * @throws Throwable any exception thrown by an interceptor or the target method
+     */
+    public Object invoke(Object proxy, int methodIndex, Object[] args) throws Throwable {
+        ProxyMethod proxyMethod = proxyMethods[methodIndex];
+        if (!proxyMethod.isIntercepted() && JdkDynamicAopProxy.isEqualsMethod(proxyMethod.getMethod())) {
+            return (proxy == args[0] || target.equals(args[0]));
+        }
+        return proxyMethod.invoke(target, args);
+    }
+}
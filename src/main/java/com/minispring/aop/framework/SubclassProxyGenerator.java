@@ -0,0 +1,424 @@
+package com.minispring.aop.framework;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the class file of a subclass proxy and defines it next to its superclass.
+ * Every proxied method is overridden with straight-line bytecode that boxes the
+ * arguments and calls {@link SubclassProxyDispatcher#invoke} with the proxy and the
+ * index of the method, so the class needs no stack map frames and no bytecode library.
+ * The class has no constructor: instances are allocated without running any
+ * constructor, and only the {@value #DISPATCHER_FIELD} field is set.
+ */
+final class SubclassProxyGenerator {
+
+    static final String DISPATCHER_FIELD = "$$dispatcher";
+
+    private static final int CLASS_FILE_VERSION = 52; // Java 8
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_VARARGS = 0x0080;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final String DISPATCHER_CLASS = internalName(SubclassProxyDispatcher.class);
+    private static final String DISPATCHER_DESCRIPTOR = "L" + DISPATCHER_CLASS + ";";
+
+    private static final MethodHandle PRIVATE_LOOKUP_IN;
+    private static final MethodHandle LOOKUP_DEFINE_CLASS;
+    private static final MethodHandle ALLOCATE_INSTANCE;
+
+    static {
+        MethodHandle privateLookupIn = null;
+        MethodHandle defineClass = null;
+        try {
+            privateLookupIn = MethodHandles.publicLookup().findStatic(MethodHandles.class, "privateLookupIn",
+                    MethodType.methodType(MethodHandles.Lookup.class, Class.class, MethodHandles.Lookup.class));
+            defineClass = MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class, "defineClass",
+                    MethodType.methodType(Class.class, byte[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            // Java 8: classes are defined through ClassLoader.defineClass
+        }
+        PRIVATE_LOOKUP_IN = privateLookupIn;
+        LOOKUP_DEFINE_CLASS = defineClass;
+
+        MethodHandle allocateInstance = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            allocateInstance = MethodHandles.lookup().findVirtual(unsafeClass, "allocateInstance",
+                    MethodType.methodType(Object.class, Class.class)).bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // subclass proxies are not available
+        }
+        ALLOCATE_INSTANCE = allocateInstance;
+    }
+
+    private SubclassProxyGenerator() {
+    }
+
+    /**
+     * Generate the class file of a proxy subclass.
+     *
+     * @param className the binary name of the proxy class, in the package of the superclass
+     * @param superclass the bean class
+     * @param methods the methods to override, in the order of their indexes
+     * @return the class file
+     */
+    static byte[] generate(String className, Class<?> superclass, List<Method> methods) {
+        ConstantPool constants = new ConstantPool();
+        int thisClass = constants.classInfo(className.replace('.', '/'));
+        int superClass = constants.classInfo(internalName(superclass));
+        int dispatcherField = constants.fieldRef(thisClass, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR);
+        int dispatcherInvoke = constants.methodRef(constants.classInfo(DISPATCHER_CLASS), "invoke",
+                "(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;");
+        int objectClass = constants.classInfo("java/lang/Object");
+        int codeAttribute = constants.utf8("Code");
+
+        ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(methodBytes);
+            for (int i = 0; i < methods.size(); i++) {
+                writeMethod(out, constants, methods.get(i), i, dispatcherField, dispatcherInvoke, objectClass,
+                        codeAttribute);
+            }
+
+            ByteArrayOutputStream classBytes = new ByteArrayOutputStream(1024 + methodBytes.size());
+            out = new DataOutputStream(classBytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION);
+            constants.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(1); // fields
+            out.writeShort(ACC_PUBLIC | ACC_SYNTHETIC);
+            out.writeShort(constants.utf8(DISPATCHER_FIELD));
+            out.writeShort(constants.utf8(DISPATCHER_DESCRIPTOR));
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            methodBytes.writeTo(out);
+            out.writeShort(0); // attributes
+            return classBytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, ConstantPool constants, Method method, int methodIndex,
+                                    int dispatcherField, int dispatcherInvoke, int objectClass,
+                                    int codeAttribute) throws IOException {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        ByteArrayOutputStream codeBytes = new ByteArrayOutputStream(32 + parameterTypes.length * 12);
+        DataOutputStream code = new DataOutputStream(codeBytes);
+
+        code.writeByte(0x2A); // aload_0
+        code.writeByte(0xB4); // getfield
+        code.writeShort(dispatcherField);
+        code.writeByte(0x2A); // aload_0
+        pushInt(code, constants, methodIndex);
+        int slot = 1;
+        if (parameterTypes.length == 0) {
+            code.writeByte(0x01); // aconst_null
+        } else {
+            pushInt(code, constants, parameterTypes.length);
+            code.writeByte(0xBD); // anewarray
+            code.writeShort(objectClass);
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Class<?> type = parameterTypes[i];
+                code.writeByte(0x59); // dup
+                pushInt(code, constants, i);
+                load(code, type, slot);
+                if (type.isPrimitive()) {
+                    Class<?> boxedType = box(type);
+                    code.writeByte(0xB8); // invokestatic
+                    code.writeShort(constants.methodRef(constants.classInfo(internalName(boxedType)), "valueOf",
+                            "(" + descriptor(type) + ")" + descriptor(boxedType)));
+                }
+                code.writeByte(0x53); // aastore
+                slot += (type == long.class || type == double.class ? 2 : 1);
+            }
+        }
+        code.writeByte(0xB6); // invokevirtual
+        code.writeShort(dispatcherInvoke);
+        writeReturn(code, constants, method.getReturnType());
+
+        int access = method.getModifiers() & (Modifier.PUBLIC | Modifier.PROTECTED);
+        if (method.isVarArgs()) {
+            access |= ACC_VARARGS;
+        }
+        out.writeShort(access);
+        out.writeShort(constants.utf8(method.getName()));
+        out.writeShort(constants.utf8(methodDescriptor(method)));
+        out.writeShort(1); // attributes
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + codeBytes.size());
+        out.writeShort(9); // max stack: dispatcher, proxy, index, array, array, index, two-slot value
+        out.writeShort(slot); // max locals
+        out.writeInt(codeBytes.size());
+        codeBytes.writeTo(out);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    private static void pushInt(DataOutputStream code, ConstantPool constants, int value) throws IOException {
+        if (value <= 5) {
+            code.writeByte(0x03 + value); // iconst_<n>
+        } else if (value <= Byte.MAX_VALUE) {
+            code.writeByte(0x10); // bipush
+            code.writeByte(value);
+        } else {
+            code.writeByte(0x11); // sipush
+            code.writeShort(value);
+        }
+    }
+
+    private static void load(DataOutputStream code, Class<?> type, int slot) throws IOException {
+        int opcode;
+        if (type == long.class) {
+            opcode = 0x16; // lload
+        } else if (type == float.class) {
+            opcode = 0x17; // fload
+        } else if (type == double.class) {
+            opcode = 0x18; // dload
+        } else if (type.isPrimitive()) {
+            opcode = 0x15; // iload
+        } else {
+            opcode = 0x19; // aload
+        }
+        if (slot > 0xFF) {
+            code.writeByte(0xC4); // wide
+            code.writeByte(opcode);
+            code.writeShort(slot);
+        } else {
+            code.writeByte(opcode);
+            code.writeByte(slot);
+        }
+    }
+
+    private static void writeReturn(DataOutputStream code, ConstantPool constants, Class<?> returnType)
+            throws IOException {
+        if (returnType == void.class) {
+            code.writeByte(0x57); // pop
+            code.writeByte(0xB1); // return
+            return;
+        }
+        if (!returnType.isPrimitive()) {
+            if (returnType != Object.class) {
+                code.writeByte(0xC0); // checkcast
+                code.writeShort(constants.classInfo(returnType.isArray()
+                        ? descriptor(returnType) : internalName(returnType)));
+            }
+            code.writeByte(0xB0); // areturn
+            return;
+        }
+        Class<?> boxedType = box(returnType);
+        int boxedClass = constants.classInfo(internalName(boxedType));
+        code.writeByte(0xC0); // checkcast
+        code.writeShort(boxedClass);
+        code.writeByte(0xB6); // invokevirtual
+        code.writeShort(constants.methodRef(boxedClass, returnType.getName() + "Value", "()" + descriptor(returnType)));
+        if (returnType == long.class) {
+            code.writeByte(0xAD); // lreturn
+        } else if (returnType == float.class) {
+            code.writeByte(0xAE); // freturn
+        } else if (returnType == double.class) {
+            code.writeByte(0xAF); // dreturn
+        } else {
+            code.writeByte(0xAC); // ireturn
+        }
+    }
+
+    /**
+     * Define the proxy class in the class loader and package of its superclass, so
+     * that it can override package-private methods.
+     *
+     * @param superclass the bean class
+     * @param className the binary name of the proxy class
+     * @param classFile the class file
+     * @return the proxy class
+     * @throws ReflectiveOperationException if the class cannot be defined
+     */
+    static Class<?> defineClass(Class<?> superclass, String className, byte[] classFile)
+            throws ReflectiveOperationException {
+        try {
+            if (PRIVATE_LOOKUP_IN != null) {
+                Object lookup = PRIVATE_LOOKUP_IN.invoke(superclass, MethodHandles.lookup());
+                return (Class<?>) LOOKUP_DEFINE_CLASS.invoke(lookup, classFile);
+            }
+            Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass",
+                    String.class, byte[].class, int.class, int.class, ProtectionDomain.class);
+            defineClass.setAccessible(true);
+            return (Class<?>) defineClass.invoke(superclass.getClassLoader(), className, classFile, 0,
+                    classFile.length, superclass.getProtectionDomain());
+        } catch (ReflectiveOperationException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ReflectiveOperationException(e);
+        }
+    }
+
+    /**
+     * Allocate an instance of a proxy class without running any constructor of the
+     * bean class, which may have none without parameters or one with side effects.
+     *
+     * @param proxyClass the proxy class
+     * @return the uninitialized proxy
+     * @throws ReflectiveOperationException if the instance cannot be allocated
+     */
+    static Object allocateInstance(Class<?> proxyClass) throws ReflectiveOperationException {
+        if (ALLOCATE_INSTANCE == null) {
+            throw new InstantiationException("sun.misc.Unsafe is not available");
+        }
+        try {
+            return ALLOCATE_INSTANCE.invoke(proxyClass);
+        } catch (ReflectiveOperationException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ReflectiveOperationException(e);
+        }
+    }
+
+    private static Class<?> box(Class<?> primitiveType) {
+        if (primitiveType == boolean.class) {
+            return Boolean.class;
+        } else if (primitiveType == byte.class) {
+            return Byte.class;
+        } else if (primitiveType == char.class) {
+            return Character.class;
+        } else if (primitiveType == short.class) {
+            return Short.class;
+        } else if (primitiveType == int.class) {
+            return Integer.class;
+        } else if (primitiveType == long.class) {
+            return Long.class;
+        } else if (primitiveType == float.class) {
+            return Float.class;
+        }
+        return Double.class;
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String methodDescriptor(Method method) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            descriptor.append(descriptor(parameterType));
+        }
+        return descriptor.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+    static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return internalName(type);
+        }
+        if (!type.isPrimitive()) {
+            return "L" + internalName(type) + ";";
+        }
+        if (type == void.class) {
+            return "V";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == long.class) {
+            return "J";
+        }
+        return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+    }
+
+    /**
+     * Constant pool of the class being written, deduplicating its entries.
+     */
+    private static final class ConstantPool {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classInfo(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, () -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int fieldRef(int owner, String name, String descriptor) {
+            int nameAndType = nameAndType(name, descriptor);
+            return entry("F" + owner + "." + nameAndType, () -> {
+                out.writeByte(9);
+                out.writeShort(owner);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int methodRef(int owner, String name, String descriptor) {
+            int nameAndType = nameAndType(name, descriptor);
+            return entry("M" + owner + "." + nameAndType, () -> {
+                out.writeByte(10);
+                out.writeShort(owner);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            return entry("N" + nameIndex + "." + descriptorIndex, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+        }
+
+        private int entry(String key, EntryWriter writer) {
+            Integer index = indexes.get(key);
+            if (index == null) {
+                try {
+                    writer.write();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                index = count++;
+                indexes.put(key, index);
+            }
+            return index;
+        }
+
+        void writeTo(DataOutputStream classFile) throws IOException {
+            classFile.writeShort(count);
+            bytes.writeTo(classFile);
+        }
+
+        private interface EntryWriter {
+
+            void write() throws IOException;
+        }
+    }
+}
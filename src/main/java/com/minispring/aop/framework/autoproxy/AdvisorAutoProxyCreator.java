@@ -0,0 +1,149 @@
+package com.minispring.aop.framework.autoproxy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.minispring.aop.Advisor;
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.aop.framework.ProxyFactory;
+import com.minispring.beans.factory.BeanPostProcessor;
+import com.minispring.beans.factory.support.BeanAccessorStrategy;
+import com.minispring.beans.factory.support.MethodHandleBeanAccessorStrategy;
+import com.minispring.core.Ordered;
+
+/**
+ * {@link BeanPostProcessor} that wraps beans in a proxy if any of its advisors applies
+ * to one of their methods. Bean classes no advisor can match are not processed at all;
+ * advisors and interceptors are never proxied. Runs after all other post processors,
+ * so that they see the raw bean.
+ */
+public class AdvisorAutoProxyCreator implements BeanPostProcessor, Ordered {
+
+    private final List<Advisor> advisors = new CopyOnWriteArrayList<>();
+
+    /** Proxy factory per bean class, holding the advisor chains matched once for the class. */
+    private final Map<Class<?>, ProxyFactory> proxyFactoryCache = new ConcurrentHashMap<>(64);
+
+    /** Raw beans whose early reference has already been wrapped in a proxy. */
+    private final Map<String, Object> earlyProxyReferences = new ConcurrentHashMap<>(16);
+
+    private volatile boolean proxyTargetClass = true;
+
+    private volatile BeanAccessorStrategy accessorStrategy = new MethodHandleBeanAccessorStrategy();
+
+    /**
+     * Add an advisor applying to the beans created from now on. Bean factories cache
+     * which processors apply to a bean definition, so add advisors through the factory
+     * once the processor is registered.
+     *
+     * @param advisor the advisor
+     */
+    public void addAdvisor(Advisor advisor) {
+        advisors.add(advisor);
+        proxyFactoryCache.clear();
+    }
+
+    /**
+     * Return the advisors, in the order they apply in.
+     *
+     * @return the advisors
+     */
+    public List<Advisor> getAdvisors() {
+        return advisors;
+    }
+
+    /**
+     * Set whether to proxy beans with a generated subclass even if they implement
+     * interfaces, so that they can be injected and looked up by their class. Default
+     * is {@code true}; with {@code false}, such beans get a JDK dynamic proxy that is
+     * only an instance of their interfaces.
+     *
+     * @param proxyTargetClass whether to always proxy the bean class
+     */
+    public void setProxyTargetClass(boolean proxyTargetClass) {
+        this.proxyTargetClass = proxyTargetClass;
+        this.proxyFactoryCache.clear();
+    }
+
+    /**
+     * Set the strategy creating the invokers of target methods.
+     *
+     * @param accessorStrategy the accessor strategy
+     */
+    public void setAccessorStrategy(BeanAccessorStrategy accessorStrategy) {
+        this.accessorStrategy = accessorStrategy;
+        this.proxyFactoryCache.clear();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> beanClass) {
+        if (Advisor.class.isAssignableFrom(beanClass) || MethodInterceptor.class.isAssignableFrom(beanClass)) {
+            return false;
+        }
+        for (Advisor advisor : advisors) {
+            if (advisor.getPointcut().matches(beanClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object getEarlyBeanReference(Object bean, String beanName) {
+        earlyProxyReferences.put(beanName, bean);
+        return wrapIfNecessary(bean);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (earlyProxyReferences.remove(beanName) != bean) {
+            return wrapIfNecessary(bean);
+        }
+        return bean;
+    }
+
+    /**
+     * Return the interfaces beans of the given class are exposed with, if this
+     * processor wraps them in a JDK dynamic proxy.
+     *
+     * @param beanClass the bean class
+     * @return the proxied interfaces, or {@code null} if the beans are not exposed as JDK proxies
+     */
+    public Class<?>[] getProxiedInterfaces(Class<?> beanClass) {
+        if (!appliesTo(beanClass)) {
+            return null;
+        }
+        ProxyFactory proxyFactory = getProxyFactory(beanClass);
+        return (proxyFactory.isProxyRequired() ? proxyFactory.getProxiedInterfaces() : null);
+    }
+
+    /**
+     * Wrap the given bean in a proxy if any advisor applies to one of its methods.
+     *
+     * @param bean the bean instance
+     * @return the proxy, or the bean itself if no advisor applies
+     */
+    protected Object wrapIfNecessary(Object bean) {
+        if (advisors.isEmpty() || bean instanceof Advisor || bean instanceof MethodInterceptor) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = getProxyFactory(bean.getClass());
+        return (proxyFactory.isProxyRequired() ? proxyFactory.getProxy(bean) : bean);
+    }
+
+    private ProxyFactory getProxyFactory(Class<?> beanClass) {
+        ProxyFactory proxyFactory = proxyFactoryCache.get(beanClass);
+        if (proxyFactory == null) {
+            proxyFactory = proxyFactoryCache.computeIfAbsent(beanClass,
+                    clazz -> new ProxyFactory(clazz, advisors, proxyTargetClass, accessorStrategy));
+        }
+        return proxyFactory;
+    }
+}
@@ -0,0 +1,64 @@
+package com.minispring.aop.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import com.minispring.annotation.Async;
+import com.minispring.aop.Advisor;
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.aop.Pointcut;
+import com.minispring.aop.support.AnnotationMatchingPointcut;
+import com.minispring.beans.factory.BeanFactory;
+import com.minispring.exception.AopConfigException;
+
+/**
+ * {@link Advisor} applying an {@link AsyncExecutionInterceptor} to {@link Async}
+ * methods. An {@code @Async} method returning anything but {@code void} or a
+ * {@link CompletableFuture} is rejected when its bean is proxied; on an {@code @Async}
+ * class, such methods are simply not intercepted.
+ */
+public class AsyncAnnotationAdvisor implements Advisor {
+
+    private final Pointcut pointcut = new AnnotationMatchingPointcut(Async.class) {
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            if (!super.matches(method, targetClass)) {
+                return false;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == void.class || returnType == CompletableFuture.class) {
+                return true;
+            }
+            if (!targetClass.isAnnotationPresent(Async.class)) {
+                throw new AopConfigException("@Async method " + method
+                        + " must return void or CompletableFuture, not " + returnType.getName());
+            }
+            return false;
+        }
+    };
+
+    private final AsyncExecutionInterceptor interceptor;
+
+    /**
+     * Create an advisor running {@code @Async} methods on executors from the given factory.
+     *
+     * @param beanFactory the factory to look up executor beans in
+     * @param defaultExecutor supplies the executor to use if no
+     * {@value AsyncExecutionInterceptor#DEFAULT_TASK_EXECUTOR_BEAN_NAME} bean is defined
+     */
+    public AsyncAnnotationAdvisor(BeanFactory beanFactory, Supplier<? extends Executor> defaultExecutor) {
+        this.interceptor = new AsyncExecutionInterceptor(beanFactory, defaultExecutor);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public MethodInterceptor getInterceptor() {
+        return interceptor;
+    }
+}
@@ -0,0 +1,111 @@
+package com.minispring.aop.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.minispring.annotation.Async;
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.aop.MethodInvocation;
+import com.minispring.aop.support.AnnotationMatchingPointcut;
+import com.minispring.beans.factory.BeanFactory;
+
+/**
+ * {@link MethodInterceptor} that proceeds with the invocation on an executor and
+ * returns at once. A {@code CompletableFuture} returned by the method is relayed to
+ * the caller through the future returned by the proxy; an exception thrown by a
+ * {@code void} method is logged.
+ *
+ * <p>The executor of a method is the bean named by its {@link Async} annotation, or
+ * the {@value #DEFAULT_TASK_EXECUTOR_BEAN_NAME} bean, or else the default executor
+ * given to the interceptor. It is resolved on the first call of the method.
+ */
+public class AsyncExecutionInterceptor implements MethodInterceptor {
+
+    /** Name of the executor bean used by {@link Async} methods that do not name one. */
+    public static final String DEFAULT_TASK_EXECUTOR_BEAN_NAME = "taskExecutor";
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncExecutionInterceptor.class);
+
+    private final BeanFactory beanFactory;
+
+    private final Supplier<? extends Executor> defaultExecutor;
+
+    private final Map<Method, Executor> executors = new ConcurrentHashMap<>(16);
+
+    /**
+     * Create an interceptor looking up executor beans in the given factory.
+     *
+     * @param beanFactory the factory to look up executor beans in
+     * @param defaultExecutor supplies the executor to use if no
+     * {@value #DEFAULT_TASK_EXECUTOR_BEAN_NAME} bean is defined
+     */
+    public AsyncExecutionInterceptor(BeanFactory beanFactory, Supplier<? extends Executor> defaultExecutor) {
+        this.beanFactory = beanFactory;
+        this.defaultExecutor = defaultExecutor;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Executor executor = executors.get(method);
+        if (executor == null) {
+            executor = executors.computeIfAbsent(method, m -> determineExecutor(m, invocation.getThis().getClass()));
+        }
+
+        if (method.getReturnType() == void.class) {
+            executor.execute(() -> {
+                try {
+                    invocation.proceed();
+                } catch (Throwable ex) {
+                    logger.error("Unexpected exception in @Async method {}", method, ex);
+                }
+            });
+            return null;
+        }
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                Object value = invocation.proceed();
+                if (value instanceof CompletionStage) {
+                    ((CompletionStage<?>) value).whenComplete((completed, failure) -> {
+                        if (failure != null) {
+                            result.completeExceptionally(failure);
+                        } else {
+                            result.complete(completed);
+                        }
+                    });
+                } else {
+                    result.complete(value);
+                }
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+
+    private Executor determineExecutor(Method method, Class<?> targetClass) {
+        String qualifier = findQualifier(method, targetClass);
+        if (!qualifier.isEmpty()) {
+            return beanFactory.getBean(qualifier, Executor.class);
+        }
+        if (beanFactory.containsBean(DEFAULT_TASK_EXECUTOR_BEAN_NAME)) {
+            return beanFactory.getBean(DEFAULT_TASK_EXECUTOR_BEAN_NAME, Executor.class);
+        }
+        return defaultExecutor.get();
+    }
+
+    private static String findQualifier(Method method, Class<?> targetClass) {
+        Async async = AnnotationMatchingPointcut.findAnnotation(method, targetClass, Async.class);
+        return (async != null ? async.value() : "");
+    }
+}
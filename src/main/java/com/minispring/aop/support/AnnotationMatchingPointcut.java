@@ -0,0 +1,96 @@
+package com.minispring.aop.support;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.minispring.aop.Pointcut;
+import com.minispring.core.ClassUtils;
+
+/**
+ * {@link Pointcut} matching the methods annotated with a given annotation, either
+ * on the method itself, on its implementation in the target class, or on the target
+ * class for all of its methods.
+ */
+public class AnnotationMatchingPointcut implements Pointcut {
+
+    private final Class<? extends Annotation> annotationType;
+
+    /** Whether a class declares the annotation on itself or on any of its methods. */
+    private final Map<Class<?>, Boolean> candidateClasses = new ConcurrentHashMap<>();
+
+    public AnnotationMatchingPointcut(Class<? extends Annotation> annotationType) {
+        this.annotationType = annotationType;
+    }
+
+    @Override
+    public boolean matches(Class<?> targetClass) {
+        return candidateClasses.computeIfAbsent(targetClass, this::isCandidateClass);
+    }
+
+    private boolean isCandidateClass(Class<?> targetClass) {
+        if (targetClass.isAnnotationPresent(annotationType)) {
+            return true;
+        }
+        for (Method method : ClassUtils.getAllMethods(targetClass)) {
+            if (method.isAnnotationPresent(annotationType)) {
+                return true;
+            }
+        }
+        for (Method method : targetClass.getMethods()) {
+            if (method.isAnnotationPresent(annotationType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        if (method.isAnnotationPresent(annotationType) || targetClass.isAnnotationPresent(annotationType)) {
+            return true;
+        }
+        if (method.getDeclaringClass() != targetClass) {
+            try {
+                return targetClass.getMethod(method.getName(), method.getParameterTypes())
+                        .isAnnotationPresent(annotationType);
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find an annotation of a method called through a proxy: on the method itself, on
+     * its public implementation in the target class, or on the target class or one of
+     * its superclasses.
+     *
+     * @param method the called method, possibly declared by an interface
+     * @param targetClass the class of the target object
+     * @param annotationType the annotation to find
+     * @return the annotation, or {@code null} if none is present
+     */
+    public static <A extends Annotation> A findAnnotation(Method method, Class<?> targetClass,
+                                                          Class<A> annotationType) {
+        A annotation = method.getAnnotation(annotationType);
+        if (annotation == null && method.getDeclaringClass() != targetClass) {
+            try {
+                annotation = targetClass.getMethod(method.getName(), method.getParameterTypes())
+                        .getAnnotation(annotationType);
+            } catch (NoSuchMethodException e) {
+                // not public on the target class, fall back to the class annotation
+            }
+        }
+        for (Class<?> type = targetClass; annotation == null && type != null; type = type.getSuperclass()) {
+            annotation = type.getAnnotation(annotationType);
+        }
+        return annotation;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": @" + annotationType.getName();
+    }
+}
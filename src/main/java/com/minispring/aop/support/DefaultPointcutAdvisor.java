@@ -0,0 +1,43 @@
+package com.minispring.aop.support;
+
+import com.minispring.aop.Advisor;
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.aop.Pointcut;
+
+/**
+ * {@link Advisor} holding a given pointcut and interceptor.
+ */
+public class DefaultPointcutAdvisor implements Advisor {
+
+    private final Pointcut pointcut;
+    private final MethodInterceptor interceptor;
+
+    /**
+     * Create an advisor applying the given interceptor to every method.
+     *
+     * @param interceptor the interceptor
+     */
+    public DefaultPointcutAdvisor(MethodInterceptor interceptor) {
+        this(Pointcut.TRUE, interceptor);
+    }
+
+    public DefaultPointcutAdvisor(Pointcut pointcut, MethodInterceptor interceptor) {
+        this.pointcut = pointcut;
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public MethodInterceptor getInterceptor() {
+        return interceptor;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": pointcut [" + pointcut + "], interceptor [" + interceptor + "]";
+    }
+}
@@ -6,9 +6,22 @@ package com.minispring.beans.factory;
  */
 public class BeanDefinition {
 
+    /** Scope name of a bean with a single shared instance. */
+    public static final String SCOPE_SINGLETON = "singleton";
+
+    /** Scope name of a bean with a new instance for each lookup. */
+    public static final String SCOPE_PROTOTYPE = "prototype";
+
+    /** Scope name of a bean with instances borrowed from and released to a pool. */
+    public static final String SCOPE_POOLED = "pooled";
+
     private Class<?> beanClass;
-    private String scope = "singleton";
-    private boolean lazyInit = false;
+    private String scope = SCOPE_SINGLETON;
+    private boolean singleton = true;
+    private boolean prototype;
+    private boolean pooled;
+    private Boolean lazyInit;
+    private BeanPoolConfig poolConfig;
 
     public BeanDefinition(Class<?> beanClass) {
         this.beanClass = beanClass;
@@ -26,23 +39,61 @@ public class BeanDefinition {
         return scope;
     }
 
+    /**
+     * Set the scope of the bean: one of the built-in scopes, or the name of a
+     * {@link Scope} registered on the factory.
+     *
+     * @param scope the scope name
+     */
     public void setScope(String scope) {
         this.scope = scope;
+        this.singleton = SCOPE_SINGLETON.equals(scope);
+        this.prototype = SCOPE_PROTOTYPE.equals(scope);
+        this.pooled = SCOPE_POOLED.equals(scope);
     }
 
     public boolean isSingleton() {
-        return "singleton".equals(scope);
+        return singleton;
     }
 
     public boolean isPrototype() {
-        return "prototype".equals(scope);
+        return prototype;
+    }
+
+    public boolean isPooled() {
+        return pooled;
     }
 
     public boolean isLazyInit() {
-        return lazyInit;
+        return (lazyInit != null && lazyInit);
     }
 
     public void setLazyInit(boolean lazyInit) {
         this.lazyInit = lazyInit;
     }
+
+    /**
+     * Return whether this bean should be lazily initialized, if explicitly specified.
+     *
+     * @return the lazy-init flag, or {@code null} to apply the factory's default
+     */
+    public Boolean getLazyInit() {
+        return lazyInit;
+    }
+
+    /**
+     * Return the pool settings of a pooled bean, falling back to the defaults.
+     *
+     * @return the pool settings
+     */
+    public BeanPoolConfig getPoolConfig() {
+        if (poolConfig == null) {
+            poolConfig = new BeanPoolConfig();
+        }
+        return poolConfig;
+    }
+
+    public void setPoolConfig(BeanPoolConfig poolConfig) {
+        this.poolConfig = poolConfig;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.minispring.beans.factory;
+
+import com.minispring.annotation.PoolConfig;
+
+/**
+ * Pool settings of a bean definition with the {@code "pooled"} scope.
+ *
+ * @see PoolConfig
+ */
+public class BeanPoolConfig {
+
+    private int minIdle = 0;
+    private int maxSize = 8;
+    private long maxIdleMillis = 60_000;
+    private long maxWaitMillis = 5_000;
+
+    public BeanPoolConfig() {
+    }
+
+    public BeanPoolConfig(PoolConfig poolConfig) {
+        this.minIdle = poolConfig.minIdle();
+        this.maxSize = poolConfig.maxSize();
+        this.maxIdleMillis = poolConfig.maxIdleMillis();
+        this.maxWaitMillis = poolConfig.maxWaitMillis();
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxIdleMillis() {
+        return maxIdleMillis;
+    }
+
+    public void setMaxIdleMillis(long maxIdleMillis) {
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+}
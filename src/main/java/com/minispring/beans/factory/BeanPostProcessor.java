@@ -0,0 +1,68 @@
+package com.minispring.beans.factory;
+
+/**
+ * Hook that lets the factory modify or wrap new bean instances, e.g. to check marker
+ * interfaces or to replace beans with proxies. Processors registered on a factory
+ * apply in their {@link com.minispring.core.Ordered order}; an application context
+ * registers its post-processor beans before creating any other bean.
+ *
+ * <p>Which processors apply to a bean is decided once per bean definition through
+ * {@link #appliesTo(Class)}, so that beans no processor applies to skip the chain.
+ */
+public interface BeanPostProcessor {
+
+    /**
+     * Return whether this processor applies to beans of the given class. Called once
+     * per bean definition, not per instance; a processor returning {@code false} is
+     * not called for the bean at all.
+     *
+     * @param beanClass the bean class of the definition
+     * @return whether to post-process beans of the class
+     */
+    default boolean appliesTo(Class<?> beanClass) {
+        return true;
+    }
+
+    /**
+     * Apply this processor to a new bean instance after its dependencies have been
+     * injected, before any initialization callback. Returning {@code null} keeps the
+     * given instance and skips the remaining processors' before-initialization calls;
+     * their {@link #postProcessAfterInitialization} calls are still made.
+     *
+     * @param bean the bean instance
+     * @param beanName the name of the bean
+     * @return the bean instance to use, either the original or a wrapped one, or
+     * {@code null} to keep the given instance and end the before-initialization chain
+     */
+    default Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    /**
+     * Apply this processor to a new bean instance after its initialization callbacks.
+     * Returning {@code null} keeps the given instance and skips the remaining
+     * processors' after-initialization calls, including the creation of a proxy.
+     *
+     * @param bean the bean instance
+     * @param beanName the name of the bean
+     * @return the bean instance to use, either the original or a wrapped one, or
+     * {@code null} to keep the given instance and end the after-initialization chain
+     */
+    default Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    /**
+     * Return the reference to expose for a singleton that is still being populated,
+     * to resolve a circular reference to it. A processor that wraps beans returns the
+     * wrapper here, and must then return the raw bean unchanged from
+     * {@link #postProcessAfterInitialization} so that the wrapper is exposed.
+     *
+     * @param bean the raw bean instance
+     * @param beanName the name of the bean
+     * @return the early reference, either the original or a wrapped one
+     */
+    default Object getEarlyBeanReference(Object bean, String beanName) {
+        return bean;
+    }
+}
@@ -1,5 +1,6 @@
 package com.minispring.beans.factory;
 
+import java.lang.reflect.Method;
 import java.util.Map;
 
 import com.minispring.exception.BeansException;
@@ -7,9 +8,10 @@ import com.minispring.exception.BeansException;
 /**
  * Extension of the {@link BeanFactory} interface to be implemented by bean factories
  * that can enumerate all their bean instances, rather than attempting bean lookup
- * by name one by one.
+ * by name one by one. Enumeration only covers the beans defined in the factory
+ * itself, not those of its {@linkplain HierarchicalBeanFactory parent}.
  */
-public interface ConfigurableListableBeanFactory extends BeanFactory {
+public interface ConfigurableListableBeanFactory extends HierarchicalBeanFactory {
 
     /**
      * Return the bean definition for the given bean name.
@@ -27,6 +29,15 @@ public interface ConfigurableListableBeanFactory extends BeanFactory {
      */
     String[] getBeanDefinitionNames();
 
+    /**
+     * Return the names of beans matching the given type (including subclasses),
+     * in registration order.
+     *
+     * @param type the class or interface to match
+     * @return the names of beans matching the given object type, or an empty array if none
+     */
+    String[] getBeanNamesForType(Class<?> type);
+
     /**
      * Return a map of all beans of the given type.
      *
@@ -37,10 +48,66 @@ public interface ConfigurableListableBeanFactory extends BeanFactory {
      */
     <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException;
 
+    /**
+     * Return an instance obtained from a {@code "pooled"} bean to its pool.
+     *
+     * @param beanName the name of the pooled bean
+     * @param bean the instance previously obtained through {@code getBean}
+     * @throws BeansException if the bean is not a pooled bean, or the instance is not
+     * currently borrowed from its pool
+     */
+    void releaseBean(String beanName, Object bean) throws BeansException;
+
+    /**
+     * Register the given scope, for beans whose definition names it as their scope.
+     *
+     * @param scopeName the scope name
+     * @param scope the scope implementation
+     * @throws IllegalArgumentException if the name is one of the built-in scopes
+     */
+    void registerScope(String scopeName, Scope scope);
+
+    /**
+     * Return the scope registered under the given name.
+     *
+     * @param scopeName the scope name
+     * @return the scope, or {@code null} if none is registered
+     */
+    Scope getRegisteredScope(String scopeName);
+
+    /**
+     * Add a post processor applying to the beans created from now on, in the
+     * {@link com.minispring.core.Ordered order} of the registered processors.
+     *
+     * @param beanPostProcessor the post processor
+     */
+    void addBeanPostProcessor(BeanPostProcessor beanPostProcessor);
+
+    /**
+     * Return the method to call on the exposed beans of the given class in place of
+     * one of its methods, which differs from it when the beans are exposed as JDK proxies.
+     *
+     * @param method the method declared by the bean class
+     * @param beanClass the bean class
+     * @return the method to invoke on the exposed beans
+     * @throws com.minispring.exception.AopConfigException if the beans are JDK proxies
+     * and no proxied interface declares the method
+     */
+    Method getInvocableMethod(Method method, Class<?> beanClass);
+
     /**
      * Pre-instantiate all singleton beans.
      *
      * @throws BeansException if a bean could not be instantiated
      */
     void preInstantiateSingletons() throws BeansException;
+
+    /**
+     * Destroy all singletons with destroy callbacks, each after the singletons that
+     * depend on it, and close the pools of pooled beans. Failing callbacks are logged
+     * and do not stop the shutdown.
+     *
+     * @param timeoutMillis the maximum time to wait for all callbacks to complete
+     */
+    void destroySingletons(long timeoutMillis);
 }
\ No newline at end of file
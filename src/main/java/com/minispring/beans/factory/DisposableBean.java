@@ -0,0 +1,18 @@
+package com.minispring.beans.factory;
+
+/**
+ * Interface to be implemented by beans that want to release resources on destruction.
+ * The container calls {@link #destroy()} on a singleton when the application context
+ * is closed, after the beans that depend on it have been destroyed.
+ *
+ * @see com.minispring.annotation.PreDestroy
+ */
+public interface DisposableBean {
+
+    /**
+     * Release the resources held by this bean.
+     *
+     * @throws Exception on failure, which is logged without stopping the shutdown
+     */
+    void destroy() throws Exception;
+}
@@ -0,0 +1,24 @@
+package com.minispring.beans.factory;
+
+/**
+ * Sub-interface implemented by bean factories that can be part of a hierarchy.
+ * Lookups of beans a factory does not define are delegated to its parent factory.
+ */
+public interface HierarchicalBeanFactory extends BeanFactory {
+
+    /**
+     * Return the parent bean factory.
+     *
+     * @return the parent factory, or {@code null} if there is none
+     */
+    BeanFactory getParentBeanFactory();
+
+    /**
+     * Return whether this factory itself defines a bean with the given name,
+     * ignoring the beans defined in its ancestors.
+     *
+     * @param name the name of the bean to query
+     * @return whether a bean with the given name is defined locally
+     */
+    boolean containsLocalBean(String name);
+}
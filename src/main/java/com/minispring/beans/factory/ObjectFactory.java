@@ -0,0 +1,21 @@
+package com.minispring.beans.factory;
+
+import com.minispring.exception.BeansException;
+
+/**
+ * Defines a factory which can return an Object instance (possibly shared or
+ * independent) when invoked.
+ *
+ * @param <T> the object type
+ */
+@FunctionalInterface
+public interface ObjectFactory<T> {
+
+    /**
+     * Return an instance (possibly shared or independent) of the object managed by this factory.
+     *
+     * @return the resulting instance
+     * @throws BeansException in case of creation errors
+     */
+    T getObject() throws BeansException;
+}
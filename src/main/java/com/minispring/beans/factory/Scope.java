@@ -0,0 +1,31 @@
+package com.minispring.beans.factory;
+
+/**
+ * Strategy for a bean scope other than the built-in {@code "singleton"},
+ * {@code "prototype"} and {@code "pooled"} scopes, registered on the factory under
+ * the name used in {@link com.minispring.annotation.Scope}. The factory asks the
+ * scope for the bean on every lookup and the scope decides whether to return an
+ * existing instance or to create one through the given factory.
+ */
+public interface Scope {
+
+    /**
+     * Return the object with the given name from this scope, creating it through
+     * the given factory if it is not present.
+     *
+     * @param name the name of the bean
+     * @param objectFactory the factory creating the bean if it is not present
+     * @return the scoped bean instance
+     * @throws IllegalStateException if the scope is not active for the current thread
+     */
+    Object get(String name, ObjectFactory<?> objectFactory);
+
+    /**
+     * Remove the object with the given name from this scope.
+     *
+     * @param name the name of the bean
+     * @return the removed object, or {@code null} if none was present
+     * @throws IllegalStateException if the scope is not active for the current thread
+     */
+    Object remove(String name);
+}
@@ -1,15 +1,28 @@
 package com.minispring.beans.factory.support;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import com.minispring.annotation.Autowired;
-import com.minispring.annotation.Value;
+import com.minispring.aop.Advisor;
+import com.minispring.aop.framework.ProxyFactory;
+import com.minispring.aop.framework.autoproxy.AdvisorAutoProxyCreator;
 import com.minispring.beans.BeanNameAware;
 import com.minispring.beans.factory.BeanDefinition;
-import com.minispring.core.ClassUtils;
+import com.minispring.beans.factory.BeanPostProcessor;
+import com.minispring.core.Ordered;
+import com.minispring.core.convert.ConversionService;
+import com.minispring.core.convert.support.DefaultConversionService;
+import com.minispring.core.env.Environment;
+import com.minispring.core.env.StandardEnvironment;
+import com.minispring.core.metrics.ApplicationStartup;
+import com.minispring.core.metrics.StartupStep;
+import com.minispring.exception.BeanCurrentlyInCreationException;
 import com.minispring.exception.BeansException;
 
 /**
@@ -18,156 +31,537 @@ import com.minispring.exception.BeansException;
  */
 public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory {
 
-    @Override
-    protected Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
-        // Create the bean instance
-        Object bean = doCreateBean(beanName, beanDefinition);
+    /** Injection metadata per bean class, introspected once and reused for every instance. */
+    private volatile Map<Class<?>, InjectionMetadata> injectionMetadataCache;
 
-        // Initialize the bean
-        try {
-            populateBean(beanName, bean, beanDefinition);
-            initializeBean(beanName, bean, beanDefinition);
-        } catch (Exception e) {
-            throw new BeansException("Error initializing bean: " + beanName, e);
-        }
+    /** Destroy callbacks per bean class, introspected once and reused for every instance. */
+    private volatile Map<Class<?>, DestructionMetadata> destructionMetadataCache;
+
+    /** The factory whose metadata is read where this factory has none, never written to. */
+    private final AbstractAutowireCapableBeanFactory parentBeanFactory;
+
+    /** Raw instances of the singletons with destroy callbacks, in creation order. */
+    private final Map<String, Object> disposableBeans = new LinkedHashMap<>();
+
+    private BeanAccessorStrategy beanAccessorStrategy;
 
-        return bean;
+    /** Bean post processors, sorted by their order and then by registration. */
+    private final List<BeanPostProcessor> beanPostProcessors = new CopyOnWriteArrayList<>();
+
+    /** The post processors that apply to a bean definition, decided on its first instantiation. */
+    private final Map<BeanDefinition, BeanPostProcessor[]> applicableBeanPostProcessors;
+
+    private volatile AdvisorAutoProxyCreator advisorAutoProxyCreator;
+
+    private volatile Environment environment;
+
+    private volatile ConversionService conversionService;
+
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    protected AbstractAutowireCapableBeanFactory() {
+        this(null);
     }
 
-    protected Object doCreateBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
-        Class<?> beanClass = beanDefinition.getBeanClass();
-        Object bean = null;
+    /**
+     * Create a factory that delegates lookups of beans it does not define to the given
+     * parent. The factory starts out with the parent's accessor strategy, environment,
+     * conversion service and application startup. Its per-class metadata is cached on
+     * its own, but falls back to the parent's, which is immutable and never written
+     * to, so that classes the parent has introspected are not introspected again.
+     *
+     * @param parentBeanFactory the parent factory, or {@code null} if there is none
+     */
+    protected AbstractAutowireCapableBeanFactory(AbstractAutowireCapableBeanFactory parentBeanFactory) {
+        super(parentBeanFactory);
+        this.parentBeanFactory = parentBeanFactory;
+        if (parentBeanFactory != null) {
+            this.injectionMetadataCache = new ConcurrentHashMap<>();
+            this.destructionMetadataCache = new ConcurrentHashMap<>();
+            this.beanAccessorStrategy = parentBeanFactory.beanAccessorStrategy;
+            this.environment = parentBeanFactory.getEnvironment();
+            this.conversionService = parentBeanFactory.conversionService;
+            this.applicationStartup = parentBeanFactory.applicationStartup;
+            this.applicableBeanPostProcessors = new ConcurrentHashMap<>();
+        } else {
+            this.injectionMetadataCache = new ConcurrentHashMap<>(256);
+            this.destructionMetadataCache = new ConcurrentHashMap<>(256);
+            this.beanAccessorStrategy = new GeneratedBeanAccessorStrategy();
+            this.applicableBeanPostProcessors = new ConcurrentHashMap<>(256);
+        }
+    }
 
+    @Override
+    protected Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        ApplicationStartup startup = applicationStartup;
+        StartupStep beanCreation = startup.start("minispring.beans.instantiate")
+                .tag("beanName", beanName)
+                .tag("beanType", beanDefinition.getBeanClass().getName());
         try {
-            // Try to use a constructor with @Autowired annotation first
-            Constructor<?>[] constructors = beanClass.getDeclaredConstructors();
-            Constructor<?> autowiredConstructor = null;
-
-            for (Constructor<?> constructor : constructors) {
-                if (constructor.isAnnotationPresent(Autowired.class)) {
-                    autowiredConstructor = constructor;
-                    break;
-                }
+            // Create the bean instance
+            Object bean;
+            StartupStep step = startup.start("minispring.beans.instantiate.construct");
+            try {
+                bean = doCreateBean(beanName, beanDefinition);
+            } finally {
+                step.end();
             }
 
-            if (autowiredConstructor != null) {
-                // Handle autowired constructor
-                Class<?>[] paramTypes = autowiredConstructor.getParameterTypes();
-                Object[] args = new Object[paramTypes.length];
+            // Expose an early reference so that circular references to this singleton can be resolved
+            if (beanDefinition.isSingleton() && isSingletonCurrentlyInCreation(beanName)) {
+                addSingletonFactory(beanName, () -> getEarlyBeanReference(beanName, beanDefinition, bean));
+            }
 
-                for (int i = 0; i < paramTypes.length; i++) {
-                    args[i] = getBean(paramTypes[i]);
+            // Initialize the bean
+            Object exposedObject;
+            try {
+                step = startup.start("minispring.beans.instantiate.populate");
+                try {
+                    populateBean(beanName, bean, beanDefinition);
+                } finally {
+                    step.end();
+                }
+                step = startup.start("minispring.beans.instantiate.initialize");
+                try {
+                    exposedObject = initializeBean(beanName, bean, beanDefinition);
+                } finally {
+                    step.end();
                 }
+            } catch (BeanCurrentlyInCreationException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new BeansException("Error initializing bean: " + beanName, e);
+            }
 
-                autowiredConstructor.setAccessible(true);
-                bean = autowiredConstructor.newInstance(args);
-            } else {
-                // Use default constructor
-                bean = beanClass.getDeclaredConstructor().newInstance();
+            // Expose the same object that circular references were resolved with
+            if (beanDefinition.isSingleton()) {
+                Object earlyReference = getExposedEarlySingletonReference(beanName);
+                if (earlyReference != null) {
+                    if (exposedObject == bean) {
+                        exposedObject = earlyReference;
+                    } else if (exposedObject != earlyReference) {
+                        throw new BeansException("Bean '" + beanName + "' has been injected into other beans "
+                                + "in its raw version as part of a circular reference, but has eventually been wrapped");
+                    }
+                }
+                if (findDestructionMetadata(beanDefinition.getBeanClass()).hasDestroyCallbacks()) {
+                    synchronized (disposableBeans) {
+                        disposableBeans.put(beanName, bean);
+                    }
+                }
             }
-        } catch (Exception e) {
-            throw new BeansException("Error creating bean with name '" + beanName + "': " + e.getMessage(), e);
+            return exposedObject;
+        } finally {
+            beanCreation.end();
         }
+    }
 
-        return bean;
+    protected Object doCreateBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        InjectionMetadata metadata = findInjectionMetadata(beanDefinition.getBeanClass());
+        return metadata.instantiate(beanName, this);
     }
 
     protected void populateBean(String beanName, Object bean, BeanDefinition beanDefinition) throws BeansException {
-        Class<?> beanClass = beanDefinition.getBeanClass();
+        InjectionMetadata metadata = findInjectionMetadata(beanDefinition.getBeanClass());
+        metadata.inject(bean, beanName, this);
+    }
 
-        // Handle field injection
-        Set<Field> fields = ClassUtils.getAllFields(beanClass);
+    /**
+     * Initialize the given bean instance and apply the {@link BeanPostProcessor}s that
+     * apply to its definition. A processor returning {@code null} ends the chain it
+     * belongs to, so the after-initialization chain runs even if a processor ended
+     * the before-initialization one.
+     *
+     * @param beanName the name of the bean
+     * @param bean the populated bean instance
+     * @param beanDefinition the bean definition
+     * @return the bean instance to expose, either the original or a wrapped one
+     */
+    protected Object initializeBean(String beanName, Object bean, BeanDefinition beanDefinition) {
+        // Call BeanNameAware
+        if (bean instanceof BeanNameAware) {
+            ((BeanNameAware) bean).setBeanName(beanName);
+        }
 
-        for (Field field : fields) {
-            Autowired autowired = field.getAnnotation(Autowired.class);
-            Value value = field.getAnnotation(Value.class);
+        BeanPostProcessor[] processors = getApplicableBeanPostProcessors(beanDefinition);
+        Object current = bean;
+        for (BeanPostProcessor processor : processors) {
+            Object result = processor.postProcessBeforeInitialization(current, beanName);
+            if (result == null) {
+                break;
+            }
+            current = result;
+        }
 
-            if (autowired != null) {
-                field.setAccessible(true);
-                Object dependencyBean = null;
+        // You could implement other initialization methods here
+        // such as InitializingBean.afterPropertiesSet() or custom @PostConstruct methods
 
-                try {
-                    // Get the dependency bean by type
-                    dependencyBean = getBean(field.getType());
-                    field.set(bean, dependencyBean);
-                } catch (Exception e) {
-                    if (autowired.required()) {
-                        throw new BeansException("Failed to inject field: " + field.getName() + " in bean: " + beanName, e);
-                    }
-                }
-            } else if (value != null) {
-                field.setAccessible(true);
+        for (BeanPostProcessor processor : processors) {
+            Object result = processor.postProcessAfterInitialization(current, beanName);
+            if (result == null) {
+                break;
+            }
+            current = result;
+        }
+        return current;
+    }
 
-                try {
-                    // Set the value directly (simple implementation)
-                    String propertyValue = value.value();
-
-                    // Remove the "${" and "}" if present
-                    if (propertyValue.startsWith("${") && propertyValue.endsWith("}")) {
-                        propertyValue = propertyValue.substring(2, propertyValue.length() - 1);
-                        // Ideally, you would lookup this property in a properties file
-                        // For this simple implementation, we'll just use the value as is
-                    }
+    @Override
+    protected void destroyBean(String beanName, BeanDefinition beanDefinition, Object bean) throws BeansException {
+        DestructionMetadata metadata = findDestructionMetadata(beanDefinition.getBeanClass());
+        if (metadata.hasDestroyCallbacks()) {
+            metadata.destroy(bean, beanName);
+        }
+    }
+
+    /**
+     * Remove the singletons with destroy callbacks from the registry of beans to destroy.
+     *
+     * @return the raw singleton instances by bean name, in creation order
+     */
+    protected Map<String, Object> removeDisposableBeans() {
+        synchronized (disposableBeans) {
+            Map<String, Object> beans = new LinkedHashMap<>(disposableBeans);
+            disposableBeans.clear();
+            return beans;
+        }
+    }
 
-                    setFieldValue(field, bean, propertyValue);
-                } catch (Exception e) {
-                    throw new BeansException("Failed to set value for field: " + field.getName() + " in bean: " + beanName, e);
+    /**
+     * Obtain a reference for early access to the specified bean,
+     * typically for the purpose of resolving a circular reference.
+     *
+     * @param beanName the name of the bean
+     * @param beanDefinition the bean definition
+     * @param bean the raw bean instance, not populated yet
+     * @return the object to expose as bean reference
+     */
+    protected Object getEarlyBeanReference(String beanName, BeanDefinition beanDefinition, Object bean) {
+        Object exposedObject = bean;
+        for (BeanPostProcessor processor : getApplicableBeanPostProcessors(beanDefinition)) {
+            exposedObject = processor.getEarlyBeanReference(exposedObject, beanName);
+        }
+        return exposedObject;
+    }
+
+    /**
+     * Return the post processors that apply to beans of the given definition, asking
+     * every processor once per definition.
+     *
+     * @param beanDefinition the bean definition
+     * @return the applicable post processors, in order; empty if none applies
+     */
+    protected BeanPostProcessor[] getApplicableBeanPostProcessors(BeanDefinition beanDefinition) {
+        BeanPostProcessor[] processors = applicableBeanPostProcessors.get(beanDefinition);
+        if (processors == null) {
+            List<BeanPostProcessor> applicable = new ArrayList<>();
+            for (BeanPostProcessor processor : beanPostProcessors) {
+                if (processor.appliesTo(beanDefinition.getBeanClass())) {
+                    applicable.add(processor);
                 }
             }
+            processors = applicable.toArray(new BeanPostProcessor[0]);
+            applicableBeanPostProcessors.put(beanDefinition, processors);
         }
+        return processors;
+    }
+
+    /**
+     * Add a post processor applying to the beans created from now on, after the
+     * processors of lower or equal {@link Ordered order}. Unordered processors have
+     * the lowest precedence.
+     *
+     * @param beanPostProcessor the post processor
+     */
+    public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+        synchronized (beanPostProcessors) {
+            int order = getOrder(beanPostProcessor);
+            int index = beanPostProcessors.size();
+            while (index > 0 && getOrder(beanPostProcessors.get(index - 1)) > order) {
+                index--;
+            }
+            beanPostProcessors.add(index, beanPostProcessor);
+            applicableBeanPostProcessors.clear();
+        }
+    }
 
-        // Handle method injection (setter injection)
-        Set<Method> methods = ClassUtils.getAllMethods(beanClass);
+    private static int getOrder(Object processor) {
+        return (processor instanceof Ordered ? ((Ordered) processor).getOrder() : Ordered.LOWEST_PRECEDENCE);
+    }
 
-        for (Method method : methods) {
-            Autowired autowired = method.getAnnotation(Autowired.class);
+    /**
+     * Return the registered post processors, in the order they apply in.
+     *
+     * @return the post processors
+     */
+    public List<BeanPostProcessor> getBeanPostProcessors() {
+        return Collections.unmodifiableList(beanPostProcessors);
+    }
 
-            if (autowired != null) {
-                method.setAccessible(true);
-                Class<?>[] paramTypes = method.getParameterTypes();
-                Object[] args = new Object[paramTypes.length];
+    /**
+     * Add an advisor applying to the beans created from now on, registering an
+     * {@link AdvisorAutoProxyCreator} on first use.
+     *
+     * @param advisor the advisor
+     */
+    public void addAdvisor(Advisor advisor) {
+        getAdvisorAutoProxyCreator().addAdvisor(advisor);
+        applicableBeanPostProcessors.clear();
+    }
 
-                try {
-                    // Get all dependencies by type
-                    for (int i = 0; i < paramTypes.length; i++) {
-                        args[i] = getBean(paramTypes[i]);
-                    }
+    /**
+     * Return the advisors applied to new beans, in the order they apply in.
+     *
+     * @return the advisors
+     */
+    public List<Advisor> getAdvisors() {
+        AdvisorAutoProxyCreator autoProxyCreator = advisorAutoProxyCreator;
+        return (autoProxyCreator != null ? autoProxyCreator.getAdvisors() : Collections.emptyList());
+    }
 
-                    method.invoke(bean, args);
-                } catch (Exception e) {
-                    if (autowired.required()) {
-                        throw new BeansException("Failed to inject method: " + method.getName() + " in bean: " + beanName, e);
-                    }
+    /**
+     * Set whether to proxy beans with a generated subclass even if they implement
+     * interfaces, so that they can be injected and looked up by their class. Default
+     * is {@code true}, so that advising a bean does not change the types it can be
+     * obtained by; with {@code false}, beans with interfaces get a JDK dynamic proxy.
+     *
+     * @param proxyTargetClass whether to always proxy the bean class
+     */
+    public void setProxyTargetClass(boolean proxyTargetClass) {
+        getAdvisorAutoProxyCreator().setProxyTargetClass(proxyTargetClass);
+    }
+
+    /**
+     * Return the method to call on the exposed beans of the given class in place of
+     * one of its methods: the method itself, unless the beans are exposed as JDK
+     * proxies, in which case the corresponding method of a proxied interface. The
+     * advisors have to be registered for the answer to hold.
+     *
+     * @param method the method declared by the bean class
+     * @param beanClass the bean class
+     * @return the method to invoke on the exposed beans
+     * @throws com.minispring.exception.AopConfigException if the beans are JDK proxies
+     * and no proxied interface declares the method
+     */
+    public Method getInvocableMethod(Method method, Class<?> beanClass) {
+        AdvisorAutoProxyCreator autoProxyCreator = advisorAutoProxyCreator;
+        Class<?>[] proxiedInterfaces = (autoProxyCreator != null ? autoProxyCreator.getProxiedInterfaces(beanClass) : null);
+        return (proxiedInterfaces != null ? ProxyFactory.getInvocableMethod(method, proxiedInterfaces) : method);
+    }
+
+    private AdvisorAutoProxyCreator getAdvisorAutoProxyCreator() {
+        AdvisorAutoProxyCreator autoProxyCreator = advisorAutoProxyCreator;
+        if (autoProxyCreator == null) {
+            synchronized (beanPostProcessors) {
+                autoProxyCreator = advisorAutoProxyCreator;
+                if (autoProxyCreator == null) {
+                    autoProxyCreator = new AdvisorAutoProxyCreator();
+                    autoProxyCreator.setAccessorStrategy(beanAccessorStrategy);
+                    addBeanPostProcessor(autoProxyCreator);
+                    advisorAutoProxyCreator = autoProxyCreator;
                 }
             }
         }
+        return autoProxyCreator;
     }
 
-    protected void initializeBean(String beanName, Object bean, BeanDefinition beanDefinition) {
-        // Call BeanNameAware
-        if (bean instanceof BeanNameAware) {
-            ((BeanNameAware) bean).setBeanName(beanName);
+    /**
+     * Set the strategy used to create constructor, field and method accessors.
+     * Default is a {@link GeneratedBeanAccessorStrategy}, which uses the accessors
+     * generated at compile time where present and method handles otherwise; use a
+     * {@link ReflectiveBeanAccessorStrategy} to force plain reflection.
+     * Metadata already built with the previous strategy is discarded, and the parent's
+     * metadata is only used while both factories use the same strategy.
+     *
+     * @param beanAccessorStrategy the accessor strategy to use
+     */
+    public void setBeanAccessorStrategy(BeanAccessorStrategy beanAccessorStrategy) {
+        this.beanAccessorStrategy = beanAccessorStrategy;
+        this.injectionMetadataCache = new ConcurrentHashMap<>(256);
+        this.destructionMetadataCache = new ConcurrentHashMap<>(256);
+        AdvisorAutoProxyCreator autoProxyCreator = advisorAutoProxyCreator;
+        if (autoProxyCreator != null) {
+            autoProxyCreator.setAccessorStrategy(beanAccessorStrategy);
         }
+    }
 
-        // You could implement other initialization methods here
-        // such as InitializingBean.afterPropertiesSet() or custom @PostConstruct methods
+    /**
+     * Return the strategy used to create constructor, field and method accessors.
+     *
+     * @return the accessor strategy
+     */
+    public BeanAccessorStrategy getBeanAccessorStrategy() {
+        return beanAccessorStrategy;
     }
 
-    private void setFieldValue(Field field, Object bean, String value) throws IllegalAccessException {
-        Class<?> fieldType = field.getType();
+    /**
+     * Set the environment that ${...} placeholders in {@link com.minispring.annotation.Value}
+     * expressions are resolved against.
+     *
+     * @param environment the environment to use
+     */
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
 
-        if (fieldType == String.class) {
-            field.set(bean, value);
-        } else if (fieldType == int.class || fieldType == Integer.class) {
-            field.set(bean, Integer.parseInt(value));
-        } else if (fieldType == long.class || fieldType == Long.class) {
-            field.set(bean, Long.parseLong(value));
-        } else if (fieldType == double.class || fieldType == Double.class) {
-            field.set(bean, Double.parseDouble(value));
-        } else if (fieldType == boolean.class || fieldType == Boolean.class) {
-            field.set(bean, Boolean.parseBoolean(value));
-        } else {
-            field.set(bean, value);
+    /**
+     * Return the environment that ${...} placeholders are resolved against,
+     * creating a {@link StandardEnvironment} if none has been set.
+     *
+     * @return the environment
+     */
+    public Environment getEnvironment() {
+        Environment environment = this.environment;
+        if (environment == null) {
+            synchronized (this) {
+                environment = this.environment;
+                if (environment == null) {
+                    environment = new StandardEnvironment();
+                    this.environment = environment;
+                }
+            }
+        }
+        return environment;
+    }
+
+    /**
+     * Set the conversion service that {@link com.minispring.annotation.Value} expressions
+     * are converted to the type of their injection point with.
+     *
+     * @param conversionService the conversion service to use
+     */
+    public void setConversionService(ConversionService conversionService) {
+        this.conversionService = conversionService;
+    }
+
+    /**
+     * Return the conversion service, falling back to the shared
+     * {@link DefaultConversionService} if none has been set.
+     *
+     * @return the conversion service
+     */
+    public ConversionService getConversionService() {
+        ConversionService conversionService = this.conversionService;
+        return (conversionService != null ? conversionService : DefaultConversionService.getSharedInstance());
+    }
+
+    /**
+     * Set the {@link ApplicationStartup} that records the creation of each bean:
+     * a {@code minispring.beans.instantiate} step with {@code construct}, {@code populate}
+     * and {@code initialize} child steps, under which the creation of dependencies nests.
+     *
+     * @param applicationStartup the application startup to use
+     */
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = (applicationStartup != null ? applicationStartup : ApplicationStartup.DEFAULT);
+    }
+
+    /**
+     * Return the {@link ApplicationStartup} bean creation is recorded with.
+     *
+     * @return the application startup, {@link ApplicationStartup#DEFAULT} unless set
+     */
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
+    }
+
+    /**
+     * Return the injection metadata for the given bean class, introspecting the
+     * class if it has not been introspected yet.
+     *
+     * @param beanClass the bean class
+     * @return the injection metadata for the class
+     */
+    public InjectionMetadata getInjectionMetadata(Class<?> beanClass) {
+        return findInjectionMetadata(beanClass);
+    }
+
+    /**
+     * Register injection metadata built ahead of time, e.g. from a context snapshot,
+     * so that its target class is not introspected. Must be built with the current
+     * {@linkplain #getBeanAccessorStrategy() accessor strategy}.
+     *
+     * @param metadata the injection metadata
+     */
+    public void registerInjectionMetadata(InjectionMetadata metadata) {
+        injectionMetadataCache.put(metadata.getTargetClass(), metadata);
+    }
+
+    /**
+     * Return the cached injection metadata for the given bean class, introspecting
+     * the class on first use.
+     *
+     * @param beanClass the bean class
+     * @return the injection metadata for the class
+     */
+    protected InjectionMetadata findInjectionMetadata(Class<?> beanClass) {
+        InjectionMetadata metadata = injectionMetadataCache.get(beanClass);
+        if (metadata == null) {
+            BeanAccessorStrategy accessorStrategy = beanAccessorStrategy;
+            metadata = injectionMetadataCache.computeIfAbsent(beanClass, clazz -> {
+                InjectionMetadata parentMetadata = (parentBeanFactory != null
+                        ? parentBeanFactory.getCachedInjectionMetadata(clazz, accessorStrategy) : null);
+                return (parentMetadata != null ? parentMetadata : InjectionMetadata.forClass(clazz, accessorStrategy));
+            });
+        }
+        return metadata;
+    }
+
+    /**
+     * Return the injection metadata this factory or one of its ancestors has cached
+     * for the given class, without introspecting it or caching anything.
+     *
+     * @param beanClass the bean class
+     * @param accessorStrategy the strategy the metadata has to be built with
+     * @return the cached injection metadata, or {@code null} if there is none
+     */
+    private InjectionMetadata getCachedInjectionMetadata(Class<?> beanClass, BeanAccessorStrategy accessorStrategy) {
+        if (beanAccessorStrategy != accessorStrategy) {
+            return null;
+        }
+        InjectionMetadata metadata = injectionMetadataCache.get(beanClass);
+        if (metadata == null && parentBeanFactory != null) {
+            metadata = parentBeanFactory.getCachedInjectionMetadata(beanClass, accessorStrategy);
+        }
+        return metadata;
+    }
+
+    /**
+     * Return the cached destroy callbacks of the given bean class, introspecting
+     * the class on first use.
+     *
+     * @param beanClass the bean class
+     * @return the destruction metadata for the class
+     */
+    protected DestructionMetadata findDestructionMetadata(Class<?> beanClass) {
+        DestructionMetadata metadata = destructionMetadataCache.get(beanClass);
+        if (metadata == null) {
+            BeanAccessorStrategy accessorStrategy = beanAccessorStrategy;
+            metadata = destructionMetadataCache.computeIfAbsent(beanClass, clazz -> {
+                DestructionMetadata parentMetadata = (parentBeanFactory != null
+                        ? parentBeanFactory.getCachedDestructionMetadata(clazz, accessorStrategy) : null);
+                return (parentMetadata != null ? parentMetadata : DestructionMetadata.forClass(clazz, accessorStrategy));
+            });
+        }
+        return metadata;
+    }
+
+    /**
+     * Return the destruction metadata this factory or one of its ancestors has cached
+     * for the given class, without introspecting it or caching anything.
+     *
+     * @param beanClass the bean class
+     * @param accessorStrategy the strategy the metadata has to be built with
+     * @return the cached destruction metadata, or {@code null} if there is none
+     */
+    private DestructionMetadata getCachedDestructionMetadata(Class<?> beanClass, BeanAccessorStrategy accessorStrategy) {
+        if (beanAccessorStrategy != accessorStrategy) {
+            return null;
+        }
+        DestructionMetadata metadata = destructionMetadataCache.get(beanClass);
+        if (metadata == null && parentBeanFactory != null) {
+            metadata = parentBeanFactory.getCachedDestructionMetadata(beanClass, accessorStrategy);
         }
+        return metadata;
     }
-}
\ No newline at end of file
+}
@@ -1,20 +1,93 @@
 package com.minispring.beans.factory.support;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.minispring.beans.factory.BeanDefinition;
 import com.minispring.beans.factory.BeanFactory;
+import com.minispring.beans.factory.HierarchicalBeanFactory;
+import com.minispring.beans.factory.ObjectFactory;
+import com.minispring.beans.factory.Scope;
+import com.minispring.exception.BeanCurrentlyInCreationException;
+import com.minispring.exception.BeanNotOfRequiredTypeException;
 import com.minispring.exception.BeansException;
 import com.minispring.exception.NoSuchBeanDefinitionException;
+import com.minispring.exception.NoUniqueBeanDefinitionException;
 
 /**
  * Abstract base class for {@link BeanFactory} implementations,
- * implementing the ConfigurableBeanFactory interface.
+ * implementing the ConfigurableBeanFactory interface. Beans not defined in the
+ * factory are looked up in its parent factory, if any, and parent singletons are
+ * cached so that repeated lookups do not walk the hierarchy again.
  */
-public abstract class AbstractBeanFactory implements BeanFactory {
+public abstract class AbstractBeanFactory implements HierarchicalBeanFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractBeanFactory.class);
 
+    /** How long a thread waits for a creation guard before checking for a cross-thread cycle. */
+    private static final long DEADLOCK_CHECK_INTERVAL_MILLIS = 20;
+
+    /** Completed singletons, bean name to bean instance. */
     private final ConcurrentHashMap<String, Object> singletonObjects = new ConcurrentHashMap<>();
 
+    /** Early references to singletons still being populated, exposed to resolve circular references. */
+    private final Map<String, Object> earlySingletonObjects = new HashMap<>();
+
+    /** Factories for early singleton references, registered right after instantiation. */
+    private final Map<String, ObjectFactory<?>> singletonFactories = new HashMap<>();
+
+    /** Names of the singletons currently in creation. */
+    private final Set<String> singletonsCurrentlyInCreation = ConcurrentHashMap.newKeySet();
+
+    /** Creation guards for singletons that are not created yet, removed once the singleton exists. */
+    private final ConcurrentHashMap<String, CreationLock> singletonCreationLocks = new ConcurrentHashMap<>();
+
+    /** Bean name each thread is waiting to create, used to detect cross-thread cycles. */
+    private final ConcurrentHashMap<Thread, String> threadsAwaitingCreation = new ConcurrentHashMap<>();
+
+    /** Instance pools of the pooled beans, created on first lookup. */
+    private final ConcurrentHashMap<String, BeanPool> beanPools = new ConcurrentHashMap<>();
+
+    /** Custom scopes by name. */
+    private final ConcurrentHashMap<String, Scope> scopes = new ConcurrentHashMap<>(8);
+
+    /** Beans being created by the current thread, in creation order. */
+    private final ThreadLocal<Deque<String>> creationChain = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /** The factory to delegate lookups of beans not defined here to, or {@code null}. */
+    private final AbstractBeanFactory parentBeanFactory;
+
+    /** Singletons of the ancestor factories by bean name, cached on first lookup. */
+    private final ConcurrentHashMap<String, Object> parentSingletonsByName = new ConcurrentHashMap<>();
+
+    /** Singletons of the ancestor factories by required type, cached on first lookup. */
+    private final ConcurrentHashMap<Class<?>, Object> parentSingletonsByType = new ConcurrentHashMap<>();
+
+    protected AbstractBeanFactory() {
+        this(null);
+    }
+
+    /**
+     * Create a factory that delegates lookups of beans it does not define to the given parent.
+     *
+     * @param parentBeanFactory the parent factory, or {@code null} if there is none
+     */
+    protected AbstractBeanFactory(AbstractBeanFactory parentBeanFactory) {
+        this.parentBeanFactory = parentBeanFactory;
+    }
+
     @Override
     public Object getBean(String name) throws BeansException {
         return doGetBean(name, null);
@@ -27,51 +100,469 @@ public abstract class AbstractBeanFactory implements BeanFactory {
 
     @Override
     public <T> T getBean(Class<T> requiredType) throws BeansException {
-        // Attempt to find a bean by type
-        String[] beanDefinitionNames = getBeanDefinitionNames();
-        for (String beanName : beanDefinitionNames) {
-            BeanDefinition bd = getBeanDefinition(beanName);
-            if (requiredType.isAssignableFrom(bd.getBeanClass())) {
-                return (T) getBean(beanName);
+        // Resolve the candidates through the type index rather than matching every definition
+        String[] candidateNames = doGetBeanNamesForType(requiredType);
+        if (candidateNames.length == 1) {
+            return doGetBean(candidateNames[0], requiredType);
+        }
+        if (candidateNames.length == 0) {
+            if (parentBeanFactory != null) {
+                return getParentBean(requiredType);
             }
+            throw new NoSuchBeanDefinitionException(requiredType);
         }
-        throw new NoSuchBeanDefinitionException("No qualifying bean of type " + requiredType.getName() + " found");
+        throw new NoUniqueBeanDefinitionException(requiredType, candidateNames);
     }
 
     @Override
     public boolean containsBean(String name) {
+        return (containsBeanDefinition(name) || (parentBeanFactory != null && parentBeanFactory.containsBean(name)));
+    }
+
+    @Override
+    public boolean containsLocalBean(String name) {
         return containsBeanDefinition(name);
     }
 
-    @SuppressWarnings("unchecked")
+    @Override
+    public BeanFactory getParentBeanFactory() {
+        return parentBeanFactory;
+    }
+
     protected <T> T doGetBean(String name, Class<T> requiredType) {
+        // Fast path for already created singletons, without any locking
         Object bean = getSingleton(name);
         if (bean != null) {
-            return (T) bean;
+            return adaptBeanInstance(name, bean, requiredType);
         }
 
-        BeanDefinition beanDefinition = getBeanDefinition(name);
-        bean = createBean(name, beanDefinition);
+        if (parentBeanFactory != null && !containsBeanDefinition(name)) {
+            return adaptBeanInstance(name, getParentBean(name, requiredType), requiredType);
+        }
 
+        BeanDefinition beanDefinition = getBeanDefinition(name);
         if (beanDefinition.isSingleton()) {
-            singletonObjects.put(name, bean);
+            bean = createSingleton(name, beanDefinition);
+        } else if (beanDefinition.isPooled()) {
+            bean = getBeanPool(name, beanDefinition).borrow();
+        } else if (beanDefinition.isPrototype()) {
+            bean = createPrototype(name, beanDefinition);
+        } else {
+            bean = getScopedBean(name, beanDefinition);
         }
 
+        return adaptBeanInstance(name, bean, requiredType);
+    }
+
+    /**
+     * Check that the given bean is of the required type, e.g. that it is not a JDK
+     * proxy looked up by the bean class.
+     *
+     * @throws BeanNotOfRequiredTypeException if the bean is not of the required type
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T adaptBeanInstance(String name, Object bean, Class<T> requiredType) {
+        if (requiredType != null && bean != null && !requiredType.isInstance(bean)) {
+            throw new BeanNotOfRequiredTypeException(name, requiredType, bean.getClass());
+        }
         return (T) bean;
     }
 
+    /**
+     * Obtain a bean defined by the closest ancestor factory that defines the given
+     * name, caching it if it is a singleton.
+     */
+    private Object getParentBean(String name, Class<?> requiredType) {
+        Object bean = parentSingletonsByName.get(name);
+        if (bean != null) {
+            return bean;
+        }
+        AbstractBeanFactory factory = parentBeanFactory;
+        while (!factory.containsBeanDefinition(name) && factory.parentBeanFactory != null) {
+            factory = factory.parentBeanFactory;
+        }
+        bean = factory.doGetBean(name, requiredType);
+        if (factory.getBeanDefinition(name).isSingleton()) {
+            parentSingletonsByName.putIfAbsent(name, bean);
+        }
+        return bean;
+    }
+
+    /**
+     * Obtain the unique bean of the given type defined by the closest ancestor
+     * factory that defines any bean of that type, caching it if it is a singleton.
+     */
+    private <T> T getParentBean(Class<T> requiredType) {
+        Object bean = parentSingletonsByType.get(requiredType);
+        if (bean != null) {
+            return requiredType.cast(bean);
+        }
+        AbstractBeanFactory factory = parentBeanFactory;
+        String[] candidateNames = factory.doGetBeanNamesForType(requiredType);
+        while (candidateNames.length == 0 && factory.parentBeanFactory != null) {
+            factory = factory.parentBeanFactory;
+            candidateNames = factory.doGetBeanNamesForType(requiredType);
+        }
+        if (candidateNames.length == 0) {
+            throw new NoSuchBeanDefinitionException(requiredType);
+        }
+        if (candidateNames.length > 1) {
+            throw new NoUniqueBeanDefinitionException(requiredType, candidateNames);
+        }
+        T parentBean = factory.doGetBean(candidateNames[0], requiredType);
+        if (factory.getBeanDefinition(candidateNames[0]).isSingleton()) {
+            parentSingletonsByType.putIfAbsent(requiredType, parentBean);
+        }
+        return parentBean;
+    }
+
+    /**
+     * Obtain a bean of a custom scope from its registered {@link Scope}, which
+     * creates it like a prototype when it holds no instance yet.
+     *
+     * @param beanName the name of the bean
+     * @param beanDefinition the bean definition
+     * @return the scoped bean instance
+     * @throws BeansException if the scope is not registered
+     * @throws IllegalStateException if the scope is not active for the current thread
+     */
+    protected Object getScopedBean(String beanName, BeanDefinition beanDefinition) {
+        String scopeName = beanDefinition.getScope();
+        Scope scope = scopes.get(scopeName);
+        if (scope == null) {
+            throw new BeansException("No scope registered for scope name '" + scopeName + "' of bean '" + beanName + "'");
+        }
+        return scope.get(beanName, () -> createPrototype(beanName, beanDefinition));
+    }
+
+    /**
+     * Register the given scope, for beans whose definition names it as their scope.
+     * A scope registered under the same name before is replaced.
+     *
+     * @param scopeName the scope name
+     * @param scope the scope implementation
+     * @throws IllegalArgumentException if the name is one of the built-in scopes
+     */
+    public void registerScope(String scopeName, Scope scope) {
+        if (BeanDefinition.SCOPE_SINGLETON.equals(scopeName) || BeanDefinition.SCOPE_PROTOTYPE.equals(scopeName)
+                || BeanDefinition.SCOPE_POOLED.equals(scopeName)) {
+            throw new IllegalArgumentException("Cannot replace built-in scope '" + scopeName + "'");
+        }
+        scopes.put(scopeName, scope);
+    }
+
+    /**
+     * Return the scope registered under the given name.
+     *
+     * @param scopeName the scope name
+     * @return the scope, or {@code null} if none is registered
+     */
+    public Scope getRegisteredScope(String scopeName) {
+        return scopes.get(scopeName);
+    }
+
+    /**
+     * Create a new instance of a non-singleton bean, failing fast when the bean
+     * is already being created further up the current thread's creation chain.
+     *
+     * @param beanName the name of the bean
+     * @param beanDefinition the bean definition
+     * @return the new bean instance
+     */
+    protected Object createPrototype(String beanName, BeanDefinition beanDefinition) {
+        Deque<String> chain = creationChain.get();
+        if (chain.contains(beanName)) {
+            throw circularReference(beanName);
+        }
+        chain.addLast(beanName);
+        try {
+            return createBean(beanName, beanDefinition);
+        } finally {
+            chain.removeLast();
+        }
+    }
+
+    /**
+     * Return an instance borrowed from a pooled bean to its pool.
+     *
+     * @param beanName the name of the pooled bean
+     * @param bean the instance previously obtained through {@code getBean}
+     * @throws BeansException if the bean is not a pooled bean, or the instance is not
+     * currently borrowed from its pool
+     */
+    public void releaseBean(String beanName, Object bean) throws BeansException {
+        BeanPool beanPool = beanPools.get(beanName);
+        if (beanPool == null && parentBeanFactory != null && !containsBeanDefinition(beanName)) {
+            parentBeanFactory.releaseBean(beanName, bean);
+            return;
+        }
+        if (beanPool == null) {
+            if (!getBeanDefinition(beanName).isPooled()) {
+                throw new BeansException("Bean '" + beanName + "' is not a pooled bean");
+            }
+            throw new BeansException("No instance of pooled bean '" + beanName + "' has been borrowed");
+        }
+        beanPool.release(bean);
+    }
+
+    private BeanPool getBeanPool(String beanName, BeanDefinition beanDefinition) {
+        BeanPool beanPool = beanPools.get(beanName);
+        if (beanPool == null) {
+            // Created outside of the map, as filling the pool may create other pooled beans
+            BeanPool newPool = new BeanPool(beanName, () -> createPrototype(beanName, beanDefinition),
+                    beanDefinition.getPoolConfig(), instance -> destroyPooledInstance(beanName, beanDefinition, instance));
+            beanPool = beanPools.putIfAbsent(beanName, newPool);
+            if (beanPool == null) {
+                beanPool = newPool;
+            } else {
+                newPool.close();
+            }
+        }
+        return beanPool;
+    }
+
+    private void destroyPooledInstance(String beanName, BeanDefinition beanDefinition, Object instance) {
+        try {
+            destroyBean(beanName, beanDefinition, instance);
+        } catch (RuntimeException e) {
+            logger.warn("Could not destroy instance of pooled bean '{}'", beanName, e);
+        }
+    }
+
+    /**
+     * Close the pools of all pooled beans, destroying their idle instances. Instances
+     * still borrowed are destroyed when they are returned, and so are instances
+     * borrowed from a closed pool afterwards.
+     */
+    protected void destroyBeanPools() {
+        for (BeanPool beanPool : beanPools.values()) {
+            beanPool.close();
+        }
+    }
+
+    /**
+     * Create the singleton with the given name exactly once, even when it is first
+     * requested by several threads at the same time. Only threads asking for the same
+     * bean name wait for each other, and a {@link ReentrantLock} rather than a monitor
+     * is used so that waiting virtual threads do not pin their carrier.
+     *
+     * <p>A circular reference whose singletons are first requested by different threads
+     * is created on one of them: the other thread backs off and starts over from its
+     * outermost singleton once the cycle is complete, so no thread ever sees a singleton
+     * that another thread is still populating.
+     *
+     * @param beanName the name of the singleton
+     * @param beanDefinition the bean definition
+     * @return the singleton instance
+     */
+    protected Object createSingleton(String beanName, BeanDefinition beanDefinition) {
+        for (String creatingBean : creationChain.get()) {
+            if (singletonsCurrentlyInCreation.contains(creatingBean)) {
+                return doCreateSingleton(beanName, beanDefinition);
+            }
+        }
+        while (true) {
+            try {
+                return doCreateSingleton(beanName, beanDefinition);
+            } catch (CreationDeadlockException e) {
+                logger.debug("Retrying creation of singleton '{}' after a circular reference across threads",
+                        beanName);
+                e.awaitCycle();
+            }
+        }
+    }
+
+    private Object doCreateSingleton(String beanName, BeanDefinition beanDefinition) {
+        CreationLock creationLock = singletonCreationLocks.computeIfAbsent(beanName, name -> new CreationLock());
+        acquireCreationLock(beanName, creationLock);
+        try {
+            Object singleton = singletonObjects.get(beanName);
+            if (singleton != null) {
+                return singleton;
+            }
+
+            // The guard is reentrant, so a singleton in creation here is requested by its own creation
+            if (singletonsCurrentlyInCreation.contains(beanName)) {
+                Object earlyReference = getEarlySingletonReference(beanName);
+                if (earlyReference == null) {
+                    throw circularReference(beanName);
+                }
+                return earlyReference;
+            }
+
+            Deque<String> chain = creationChain.get();
+            singletonsCurrentlyInCreation.add(beanName);
+            chain.addLast(beanName);
+            try {
+                singleton = createBean(beanName, beanDefinition);
+            } finally {
+                chain.removeLast();
+                singletonsCurrentlyInCreation.remove(beanName);
+                if (singleton == null) {
+                    removeEarlySingletonReference(beanName);
+                }
+            }
+            addSingleton(beanName, singleton);
+            // Late arrivals find the singleton before they need the guard again
+            singletonCreationLocks.remove(beanName, creationLock);
+            return singleton;
+        } finally {
+            creationLock.unlock();
+        }
+    }
+
+    /**
+     * Acquire the creation guard of a singleton. While waiting, detect whether the
+     * owner of the guard is itself waiting, directly or transitively, for a singleton
+     * that the current thread is creating. In that case the threads are resolving the
+     * same circular reference from different ends. The one with the highest id backs
+     * off with a {@link CreationDeadlockException}, releasing its guards, while the
+     * others keep waiting.
+     */
+    private void acquireCreationLock(String beanName, CreationLock creationLock) {
+        if (creationLock.tryLock()) {
+            return;
+        }
+        Thread currentThread = Thread.currentThread();
+        threadsAwaitingCreation.put(currentThread, beanName);
+        try {
+            while (!creationLock.tryLock(DEADLOCK_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (mustBackOffFromCycle(beanName, currentThread)) {
+                    throw new CreationDeadlockException(beanName, creationLock);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeansException("Interrupted while waiting for creation of singleton '" + beanName + "'", e);
+        } finally {
+            threadsAwaitingCreation.remove(currentThread);
+        }
+    }
+
+    private boolean mustBackOffFromCycle(String beanName, Thread currentThread) {
+        String awaitedBean = beanName;
+        for (int hops = 0; awaitedBean != null && hops <= threadsAwaitingCreation.size(); hops++) {
+            CreationLock lock = singletonCreationLocks.get(awaitedBean);
+            Thread owner = (lock != null ? lock.getOwner() : null);
+            if (owner == null || owner.getId() > currentThread.getId()) {
+                return false;
+            }
+            if (owner == currentThread) {
+                return true;
+            }
+            awaitedBean = threadsAwaitingCreation.get(owner);
+        }
+        return false;
+    }
+
+    private BeanCurrentlyInCreationException circularReference(String beanName) {
+        List<String> chain = new ArrayList<>(creationChain.get());
+        int start = chain.indexOf(beanName);
+        if (start > 0) {
+            chain = chain.subList(start, chain.size());
+        }
+        chain.add(beanName);
+        return new BeanCurrentlyInCreationException(beanName, chain);
+    }
+
+    /**
+     * Return the completed singleton registered under the given name.
+     *
+     * @param beanName the name of the bean
+     * @return the singleton, or {@code null} if none has been completed yet
+     */
     protected Object getSingleton(String beanName) {
         return singletonObjects.get(beanName);
     }
 
+    /**
+     * Return the early reference to a singleton that is still being populated,
+     * creating it through the registered singleton factory on first request.
+     *
+     * @param beanName the name of the bean
+     * @return the early reference, or {@code null} if none is available
+     */
+    protected Object getEarlySingletonReference(String beanName) {
+        synchronized (earlySingletonObjects) {
+            Object earlyReference = earlySingletonObjects.get(beanName);
+            if (earlyReference == null) {
+                ObjectFactory<?> singletonFactory = singletonFactories.remove(beanName);
+                if (singletonFactory != null) {
+                    earlyReference = singletonFactory.getObject();
+                    earlySingletonObjects.put(beanName, earlyReference);
+                }
+            }
+            return earlyReference;
+        }
+    }
+
+    /**
+     * Return the early reference to a singleton in creation if it has been handed out
+     * to resolve a circular reference, without creating it.
+     *
+     * @param beanName the name of the bean
+     * @return the early reference, or {@code null} if none has been requested
+     */
+    protected Object getExposedEarlySingletonReference(String beanName) {
+        synchronized (earlySingletonObjects) {
+            return earlySingletonObjects.get(beanName);
+        }
+    }
+
+    /**
+     * Register a factory for the early reference to a singleton in creation,
+     * allowing circular references to the singleton to be resolved.
+     *
+     * @param beanName the name of the bean
+     * @param singletonFactory the factory for the early reference
+     */
+    protected void addSingletonFactory(String beanName, ObjectFactory<?> singletonFactory) {
+        synchronized (earlySingletonObjects) {
+            singletonFactories.put(beanName, singletonFactory);
+            earlySingletonObjects.remove(beanName);
+        }
+    }
+
+    /**
+     * Return whether the given singleton is currently in creation.
+     *
+     * @param beanName the name of the bean
+     * @return whether the singleton is in creation
+     */
+    protected boolean isSingletonCurrentlyInCreation(String beanName) {
+        return singletonsCurrentlyInCreation.contains(beanName);
+    }
+
     protected void addSingleton(String beanName, Object singletonObject) {
         singletonObjects.put(beanName, singletonObject);
+        removeEarlySingletonReference(beanName);
+    }
+
+    private void removeEarlySingletonReference(String beanName) {
+        synchronized (earlySingletonObjects) {
+            singletonFactories.remove(beanName);
+            earlySingletonObjects.remove(beanName);
+        }
     }
 
     protected boolean containsSingleton(String beanName) {
         return singletonObjects.containsKey(beanName);
     }
 
+    /**
+     * Remove all singletons, e.g. once they have been destroyed, and forget the cached
+     * singletons of the ancestor factories. Singletons requested afterwards are created anew.
+     */
+    protected void clearSingletonCache() {
+        singletonObjects.clear();
+        parentSingletonsByName.clear();
+        parentSingletonsByType.clear();
+        synchronized (earlySingletonObjects) {
+            singletonFactories.clear();
+            earlySingletonObjects.clear();
+        }
+    }
+
     /**
      * Return whether this factory contains a bean definition with the given name.
      *
@@ -99,10 +590,62 @@ public abstract class AbstractBeanFactory implements BeanFactory {
      */
     protected abstract Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException;
 
+    /**
+     * Call the destroy callbacks of the given bean instance, if any.
+     *
+     * @param beanName the name of the bean
+     * @param beanDefinition the bean definition
+     * @param bean the raw bean instance
+     * @throws BeansException if a destroy callback failed
+     */
+    protected abstract void destroyBean(String beanName, BeanDefinition beanDefinition, Object bean) throws BeansException;
+
     /**
      * Return the names of all beans defined in this factory.
      *
      * @return the names of all beans defined in this factory
      */
     protected abstract String[] getBeanDefinitionNames();
-}
\ No newline at end of file
+
+    /**
+     * Return the names of beans whose class is assignable to the given type.
+     * The returned array is shared and must not be modified by the caller.
+     *
+     * @param type the class or interface to match
+     * @return the matching bean names, or an empty array if none
+     */
+    protected abstract String[] doGetBeanNamesForType(Class<?> type);
+
+    /**
+     * Thrown by a thread that backs off from a circular reference being created from
+     * another thread, and caught by the thread's outermost singleton creation.
+     */
+    private static final class CreationDeadlockException extends BeanCurrentlyInCreationException {
+
+        private final CreationLock awaitedLock;
+
+        CreationDeadlockException(String beanName, CreationLock awaitedLock) {
+            super(beanName, Collections.singletonList(beanName));
+            this.awaitedLock = awaitedLock;
+        }
+
+        /**
+         * Wait until the thread that held the awaited guard has completed the cycle.
+         */
+        void awaitCycle() {
+            awaitedLock.lock();
+            awaitedLock.unlock();
+        }
+    }
+
+    /**
+     * Reentrant creation guard that exposes its owner for deadlock detection.
+     */
+    private static final class CreationLock extends ReentrantLock {
+
+        @Override
+        protected Thread getOwner() {
+            return super.getOwner();
+        }
+    }
+}
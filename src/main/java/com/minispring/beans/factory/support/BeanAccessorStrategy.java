@@ -0,0 +1,66 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Strategy for creating the accessors used to instantiate and populate beans.
+ * Accessors are created once per constructor, field and method when the
+ * {@link InjectionMetadata} of a bean class is built, and reused for every instance.
+ * A strategy that goes through reflection makes the member accessible itself.
+ *
+ * @see ReflectiveBeanAccessorStrategy
+ * @see MethodHandleBeanAccessorStrategy
+ * @see GeneratedBeanAccessorStrategy
+ */
+public interface BeanAccessorStrategy {
+
+    /**
+     * Create an instantiator for the given constructor.
+     *
+     * @param constructor the constructor
+     * @return the instantiator
+     */
+    Instantiator instantiator(Constructor<?> constructor);
+
+    /**
+     * Create a writer for the given field.
+     *
+     * @param field the field
+     * @return the field writer
+     */
+    FieldWriter fieldWriter(Field field);
+
+    /**
+     * Create an invoker for the given method.
+     *
+     * @param method the method
+     * @return the method invoker
+     */
+    MethodInvoker methodInvoker(Method method);
+
+    /**
+     * Creates new instances through a specific constructor.
+     */
+    interface Instantiator {
+
+        Object newInstance(Object[] args) throws Throwable;
+    }
+
+    /**
+     * Assigns a specific field of a target object.
+     */
+    interface FieldWriter {
+
+        void set(Object target, Object value) throws Throwable;
+    }
+
+    /**
+     * Invokes a specific method on a target object.
+     */
+    interface MethodInvoker {
+
+        Object invoke(Object target, Object[] args) throws Throwable;
+    }
+}
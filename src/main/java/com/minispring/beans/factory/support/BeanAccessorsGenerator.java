@@ -0,0 +1,299 @@
+package com.minispring.beans.factory.support;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Component;
+import com.minispring.annotation.Value;
+
+/**
+ * Annotation processor that generates {@link GeneratedBeanAccessors} for every
+ * {@link Component} class of a compilation unit, named after the class with
+ * {@value GeneratedBeanAccessors#CLASS_NAME_SUFFIX} appended and placed in the same
+ * package, so that it can reach package-private members. It covers the constructor
+ * the bean is created with and the {@link Autowired} and {@link Value} injection
+ * points declared by the class that are neither private nor final.
+ * It is registered as a service, so it runs whenever Mini Spring is on the
+ * annotation processor path of a build.
+ */
+public class BeanAccessorsGenerator extends AbstractProcessor {
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Component.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            if (element.getKind() == ElementKind.CLASS && isAccessible((TypeElement) element)) {
+                generateAccessors((TypeElement) element);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A class nested in a private class, or declared in a method, cannot be referenced
+     * from another class of its package.
+     */
+    private boolean isAccessible(TypeElement type) {
+        for (Element element = type; element.getKind() != ElementKind.PACKAGE; element = element.getEnclosingElement()) {
+            if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+                return false;
+            }
+            TypeElement enclosing = (TypeElement) element;
+            if (enclosing.getNestingKind() != NestingKind.TOP_LEVEL && enclosing.getNestingKind() != NestingKind.MEMBER
+                    || enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generateAccessors(TypeElement type) {
+        List<ExecutableElement> constructors = new ArrayList<>(1);
+        ExecutableElement constructor = findConstructor(type);
+        if (constructor != null && isInstantiable(type) && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            constructors.add(constructor);
+        }
+        List<VariableElement> fields = new ArrayList<>();
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (Element member : type.getEnclosedElements()) {
+            Set<Modifier> modifiers = member.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (member.getKind() == ElementKind.FIELD && !modifiers.contains(Modifier.FINAL)
+                    && (member.getAnnotation(Autowired.class) != null || member.getAnnotation(Value.class) != null)) {
+                fields.add((VariableElement) member);
+            } else if (member.getKind() == ElementKind.METHOD && member.getAnnotation(Autowired.class) != null) {
+                methods.add((ExecutableElement) member);
+            }
+        }
+        if (constructors.isEmpty() && fields.isEmpty() && methods.isEmpty()) {
+            return;
+        }
+
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String className = binaryName + GeneratedBeanAccessors.CLASS_NAME_SUFFIX;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(className, type);
+            try (PrintWriter writer = new PrintWriter(file.openWriter())) {
+                writeAccessors(writer, type, className, constructors, fields, methods);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write bean accessors for " + binaryName + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Same rule as {@link InjectionMetadata#forClass}: the {@link Autowired}
+     * constructor, otherwise the no-arg constructor.
+     */
+    private ExecutableElement findConstructor(TypeElement type) {
+        ExecutableElement defaultConstructor = null;
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.CONSTRUCTOR) {
+                continue;
+            }
+            ExecutableElement candidate = (ExecutableElement) member;
+            if (candidate.getAnnotation(Autowired.class) != null) {
+                return candidate;
+            }
+            if (candidate.getParameters().isEmpty()) {
+                defaultConstructor = candidate;
+            }
+        }
+        return defaultConstructor;
+    }
+
+    /**
+     * Abstract classes cannot be instantiated, and inner classes need an enclosing instance.
+     */
+    private boolean isInstantiable(TypeElement type) {
+        return !type.getModifiers().contains(Modifier.ABSTRACT)
+                && (type.getNestingKind() == NestingKind.TOP_LEVEL || type.getModifiers().contains(Modifier.STATIC));
+    }
+
+    private void writeAccessors(PrintWriter writer, TypeElement type, String className,
+                                List<ExecutableElement> constructors, List<VariableElement> fields,
+                                List<ExecutableElement> methods) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        String beanType = sourceName(type.asType());
+
+        if (!pkg.isUnnamed()) {
+            writer.println("package " + pkg.getQualifiedName() + ";");
+            writer.println();
+        }
+        writer.println("/**");
+        writer.println(" * Bean accessors for {@link " + type.getQualifiedName() + "}, generated by "
+                + getClass().getSimpleName() + ".");
+        writer.println(" */");
+        writer.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+        writer.println("public final class " + simpleName + " extends " + GeneratedBeanAccessors.class.getName() + " {");
+        writer.println();
+
+        List<String> keys = new ArrayList<>();
+        for (ExecutableElement constructor : constructors) {
+            keys.add(memberKey("<init>", constructor));
+        }
+        for (VariableElement field : fields) {
+            keys.add(field.getSimpleName().toString());
+        }
+        for (ExecutableElement method : methods) {
+            keys.add(memberKey(method.getSimpleName().toString(), method));
+        }
+        writer.println("    public " + simpleName + "() {");
+        writer.print("        super(");
+        for (int i = 0; i < keys.size(); i++) {
+            writer.print((i > 0 ? ", " : "") + "\"" + keys.get(i) + "\"");
+        }
+        writer.println(");");
+        writer.println("    }");
+
+        int index = 0;
+        writer.println();
+        writer.println("    @Override");
+        writer.println("    public Object newInstance(int index, Object[] args) throws Throwable {");
+        writer.println("        switch (index) {");
+        for (ExecutableElement constructor : constructors) {
+            writer.println("            case " + index++ + ":");
+            writer.println("                return new " + beanType + "(" + arguments(constructor) + ");");
+        }
+        writer.println("            default:");
+        writer.println("                throw noSuchMember(index);");
+        writer.println("        }");
+        writer.println("    }");
+
+        writer.println();
+        writer.println("    @Override");
+        writer.println("    public void setField(int index, Object target, Object value) {");
+        writer.println("        switch (index) {");
+        for (VariableElement field : fields) {
+            writer.println("            case " + index++ + ":");
+            writer.println("                ((" + beanType + ") target)." + field.getSimpleName()
+                    + " = (" + castName(field.asType()) + ") value;");
+            writer.println("                return;");
+        }
+        writer.println("            default:");
+        writer.println("                throw noSuchMember(index);");
+        writer.println("        }");
+        writer.println("    }");
+
+        writer.println();
+        writer.println("    @Override");
+        writer.println("    public Object invoke(int index, Object target, Object[] args) throws Throwable {");
+        writer.println("        switch (index) {");
+        for (ExecutableElement method : methods) {
+            writer.println("            case " + index++ + ":");
+            String call = "((" + beanType + ") target)." + method.getSimpleName() + "(" + arguments(method) + ")";
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                writer.println("                " + call + ";");
+                writer.println("                return null;");
+            } else {
+                writer.println("                return " + call + ";");
+            }
+        }
+        writer.println("            default:");
+        writer.println("                throw noSuchMember(index);");
+        writer.println("        }");
+        writer.println("    }");
+        writer.println("}");
+    }
+
+    private String arguments(ExecutableElement executable) {
+        StringBuilder arguments = new StringBuilder();
+        List<? extends VariableElement> parameters = executable.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                arguments.append(", ");
+            }
+            arguments.append('(').append(castName(parameters.get(i).asType())).append(") args[").append(i).append(']');
+        }
+        return arguments.toString();
+    }
+
+    /**
+     * Same format as {@link GeneratedBeanAccessors#memberKey}.
+     */
+    private String memberKey(String name, ExecutableElement executable) {
+        StringBuilder key = new StringBuilder(name).append('(');
+        List<? extends VariableElement> parameters = executable.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(typeName(parameters.get(i).asType()));
+        }
+        return key.append(')').toString();
+    }
+
+    /**
+     * The name of the erased type as returned by {@link Class#getTypeName()}.
+     */
+    private String typeName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        return erased.toString();
+    }
+
+    /**
+     * The erased type to cast an {@code Object} to, boxed for a primitive type
+     * so that it is unboxed on assignment.
+     */
+    private String castName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return sourceName(type);
+    }
+
+    private String sourceName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return sourceName(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+        }
+        return erased.toString();
+    }
+}
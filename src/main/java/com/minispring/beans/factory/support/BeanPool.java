@@ -0,0 +1,227 @@
+package com.minispring.beans.factory.support;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.minispring.beans.factory.BeanPoolConfig;
+import com.minispring.beans.factory.ObjectFactory;
+import com.minispring.exception.BeansException;
+
+/**
+ * Bounded pool of bean instances for the {@code "pooled"} scope.
+ * Idle instances are kept in a lock-free deque and handed out most recently
+ * returned first, so that hot instances are reused and cold ones age towards
+ * the tail, where they are evicted once idle for too long. The bound on live
+ * instances is enforced with a {@link Semaphore}, which only parks borrowers
+ * while the pool is exhausted. Eviction happens on return, without a
+ * background thread. Evicted instances, and all instances once the pool is
+ * closed, are handed to the pool's destroy callback. Borrowed instances are
+ * tracked by identity, so that an instance cannot be returned twice or to the
+ * wrong pool.
+ */
+public class BeanPool {
+
+    private final String beanName;
+    private final ObjectFactory<?> objectFactory;
+    private final BeanPoolConfig config;
+    private final Consumer<Object> destroyCallback;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<IdleInstance> idleInstances = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Set<InstanceKey> borrowedInstances = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    public BeanPool(String beanName, ObjectFactory<?> objectFactory, BeanPoolConfig config) {
+        this(beanName, objectFactory, config, instance -> { });
+    }
+
+    /**
+     * Create a pool whose evicted instances are passed to the given callback.
+     *
+     * @param beanName the name of the pooled bean
+     * @param objectFactory the factory creating new instances
+     * @param config the pool settings
+     * @param destroyCallback the callback releasing the resources of an instance leaving the pool
+     */
+    public BeanPool(String beanName, ObjectFactory<?> objectFactory, BeanPoolConfig config,
+                    Consumer<Object> destroyCallback) {
+        if (config.getMaxSize() < 1 || config.getMinIdle() > config.getMaxSize()) {
+            throw new BeansException("Invalid pool configuration for bean '" + beanName + "': minIdle="
+                    + config.getMinIdle() + ", maxSize=" + config.getMaxSize());
+        }
+        this.beanName = beanName;
+        this.objectFactory = objectFactory;
+        this.config = config;
+        this.destroyCallback = destroyCallback;
+        this.permits = new Semaphore(config.getMaxSize());
+
+        long now = System.nanoTime();
+        for (int i = 0; i < config.getMinIdle(); i++) {
+            idleInstances.addLast(new IdleInstance(objectFactory.getObject(), now));
+            idleCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Borrow an instance, reusing an idle one if possible. Waits for a returned
+     * instance when the maximum number of instances is in use.
+     *
+     * @return the borrowed instance
+     * @throws BeansException if the pool stays exhausted or the instance cannot be created
+     */
+    public Object borrow() throws BeansException {
+        acquirePermit();
+
+        Object instance;
+        IdleInstance idle = idleInstances.pollFirst();
+        if (idle != null) {
+            idleCount.decrementAndGet();
+            instance = idle.instance;
+        } else {
+            try {
+                instance = objectFactory.getObject();
+            } catch (RuntimeException | Error e) {
+                permits.release();
+                throw e;
+            }
+        }
+        borrowedInstances.add(new InstanceKey(instance));
+        return instance;
+    }
+
+    /**
+     * Return a borrowed instance to the pool and evict instances that have been idle too long.
+     * Every borrowed instance must be returned exactly once.
+     *
+     * @param instance the instance to return
+     * @throws BeansException if the instance is not currently borrowed from this pool
+     */
+    public void release(Object instance) throws BeansException {
+        if (!borrowedInstances.remove(new InstanceKey(instance))) {
+            throw new BeansException("Instance of type '" + instance.getClass().getName()
+                    + "' is not currently borrowed from the pool for bean '" + beanName + "'");
+        }
+        if (closed) {
+            permits.release();
+            destroyCallback.accept(instance);
+            return;
+        }
+        long now = System.nanoTime();
+        idleInstances.addFirst(new IdleInstance(instance, now));
+        idleCount.incrementAndGet();
+        permits.release();
+        if (closed) {
+            // Closed while returning the instance, which close() may have missed
+            close();
+        } else {
+            evictIdleInstances(now);
+        }
+    }
+
+    /**
+     * Close the pool and destroy its idle instances. Instances still borrowed are
+     * destroyed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        IdleInstance idle;
+        while ((idle = idleInstances.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            destroyCallback.accept(idle.instance);
+        }
+    }
+
+    /**
+     * Return the number of instances currently idle in the pool.
+     *
+     * @return the idle instance count
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * Return the number of instances currently borrowed from the pool.
+     *
+     * @return the borrowed instance count
+     */
+    public int getBorrowedCount() {
+        return config.getMaxSize() - permits.availablePermits();
+    }
+
+    private void acquirePermit() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        try {
+            long maxWait = config.getMaxWaitMillis();
+            if (maxWait < 0) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                throw new BeansException("Pool for bean '" + beanName + "' exhausted: all " + config.getMaxSize()
+                        + " instances in use after waiting " + maxWait + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeansException("Interrupted while waiting for pooled bean '" + beanName + "'", e);
+        }
+    }
+
+    private void evictIdleInstances(long now) {
+        long maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxIdleMillis());
+        if (maxIdleNanos < 0) {
+            return;
+        }
+        // The oldest instances sit at the tail of the deque
+        Iterator<IdleInstance> oldestFirst = idleInstances.descendingIterator();
+        while (idleCount.get() > config.getMinIdle() && oldestFirst.hasNext()) {
+            IdleInstance idle = oldestFirst.next();
+            if (now - idle.idleSince < maxIdleNanos) {
+                return;
+            }
+            if (idleInstances.removeLastOccurrence(idle)) {
+                idleCount.decrementAndGet();
+                destroyCallback.accept(idle.instance);
+            }
+        }
+    }
+
+    /**
+     * Identity of a borrowed instance, regardless of how the bean class defines equality.
+     */
+    private static final class InstanceKey {
+
+        private final Object instance;
+
+        private InstanceKey(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof InstanceKey && ((InstanceKey) other).instance == instance);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance);
+        }
+    }
+
+    private static final class IdleInstance {
+
+        private final Object instance;
+        private final long idleSince;
+
+        private IdleInstance(Object instance, long idleSince) {
+            this.instance = instance;
+            this.idleSince = idleSince;
+        }
+    }
+}
@@ -1,12 +1,32 @@
 package com.minispring.beans.factory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.minispring.beans.factory.support.AbstractAutowireCapableBeanFactory;
+import com.minispring.core.ClassUtils;
+import com.minispring.core.metrics.StartupStep;
+import com.minispring.core.task.TaskExecutors;
 import com.minispring.exception.BeansException;
 import com.minispring.exception.NoSuchBeanDefinitionException;
 
@@ -16,9 +36,47 @@ import com.minispring.exception.NoSuchBeanDefinitionException;
  */
 public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFactory implements ConfigurableListableBeanFactory {
 
-    private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);
+    private static final Logger logger = LoggerFactory.getLogger(DefaultListableBeanFactory.class);
+
+    private static final String[] EMPTY_NAMES = new String[0];
+
+    private final Map<String, BeanDefinition> beanDefinitionMap;
     private final List<String> beanDefinitionNames = new ArrayList<>();
 
+    /** Bean names keyed by every superclass and interface of their bean class, in registration order. */
+    private final Map<Class<?>, String[]> beanNamesByType;
+
+    /** Snapshot of the bean definition names, rebuilt lazily after registrations. */
+    private volatile String[] frozenBeanDefinitionNames;
+
+    /** Executor for parallel singleton pre-instantiation, or {@code null} to create singletons one by one. */
+    private Executor preInstantiationExecutor;
+
+    /** Whether beans without an explicit lazy-init flag are initialized lazily. */
+    private boolean defaultLazyInit = false;
+
+    public DefaultListableBeanFactory() {
+        super();
+        this.beanDefinitionMap = new ConcurrentHashMap<>(256);
+        this.beanNamesByType = new ConcurrentHashMap<>(256);
+    }
+
+    /**
+     * Create a factory whose beans can depend on the beans of the given parent factory.
+     * Lookups of beans not defined here are delegated to the parent and its singletons
+     * are cached by this factory. Listing, pre-instantiating and destroying beans only
+     * covers the beans defined here, and the parent's post processors do not apply to them.
+     *
+     * @param parentBeanFactory the parent factory
+     * @see AbstractAutowireCapableBeanFactory#AbstractAutowireCapableBeanFactory(AbstractAutowireCapableBeanFactory)
+     */
+    public DefaultListableBeanFactory(DefaultListableBeanFactory parentBeanFactory) {
+        super(parentBeanFactory);
+        // A child typically defines a handful of beans, so do not presize for a full application
+        this.beanDefinitionMap = new ConcurrentHashMap<>();
+        this.beanNamesByType = new ConcurrentHashMap<>();
+    }
+
     @Override
     public BeanDefinition getBeanDefinition(String beanName) throws BeansException {
         BeanDefinition bd = beanDefinitionMap.get(beanName);
@@ -30,29 +88,257 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public String[] getBeanDefinitionNames() {
-        return beanDefinitionNames.toArray(new String[0]);
+        return beanDefinitionNameSnapshot().clone();
+    }
+
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        return doGetBeanNamesForType(type).clone();
     }
 
     @Override
     public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
-        Map<String, T> result = new HashMap<>();
-        for (String beanName : beanDefinitionNames) {
-            BeanDefinition bd = beanDefinitionMap.get(beanName);
-            if (type.isAssignableFrom(bd.getBeanClass())) {
-                result.put(beanName, getBean(beanName, type));
-            }
+        String[] beanNames = doGetBeanNamesForType(type);
+        Map<String, T> result = new LinkedHashMap<>(beanNames.length * 2);
+        for (String beanName : beanNames) {
+            result.put(beanName, getBean(beanName, type));
         }
         return result;
     }
 
     @Override
     public void preInstantiateSingletons() throws BeansException {
-        for (String beanName : beanDefinitionNames) {
+        List<String> beanNames = new ArrayList<>();
+        for (String beanName : beanDefinitionNameSnapshot()) {
             BeanDefinition bd = beanDefinitionMap.get(beanName);
-            if (bd.isSingleton() && !bd.isLazyInit()) {
-                getBean(beanName);
+            if (bd.isSingleton() && !isLazyInit(bd)) {
+                beanNames.add(beanName);
             }
         }
+
+        if (preInstantiationExecutor != null) {
+            preInstantiateSingletonsInParallel(beanNames, preInstantiationExecutor);
+            return;
+        }
+        for (String beanName : beanNames) {
+            getBean(beanName);
+        }
+    }
+
+    /**
+     * Destroy the singletons with destroy callbacks in reverse dependency order: a
+     * singleton is destroyed once all singletons depending on it through constructor,
+     * field or setter injection have been destroyed, so independent singletons are
+     * destroyed concurrently. The pools of pooled beans, whose instances may depend
+     * on any singleton, are closed first. The time each callback took is logged at
+     * debug level and recorded as a {@code minispring.beans.destroy} step of the
+     * {@link #getApplicationStartup() application startup}. Callbacks still pending or
+     * running when the timeout elapses are abandoned and reported.
+     *
+     * @param timeoutMillis the maximum time to wait for all callbacks to complete
+     */
+    @Override
+    public void destroySingletons(long timeoutMillis) {
+        try {
+            destroyBeanPools();
+            Map<String, Object> disposableBeans = removeDisposableBeans();
+            if (!disposableBeans.isEmpty()) {
+                destroyInReverseDependencyOrder(disposableBeans, timeoutMillis);
+            }
+        } finally {
+            clearSingletonCache();
+        }
+    }
+
+    private void destroyInReverseDependencyOrder(Map<String, Object> disposableBeans, long timeoutMillis) {
+        // Invert the dependencies: each singleton waits for the singletons that depend on it
+        Map<String, Set<String>> dependentBeans = new HashMap<>();
+        Map<String, Set<String>> singletonDependencies = new HashMap<>();
+        for (String beanName : disposableBeans.keySet()) {
+            Set<String> dependencies = new LinkedHashSet<>();
+            collectDisposableDependencies(beanName, disposableBeans.keySet(), singletonDependencies,
+                    dependencies, new HashSet<>());
+            for (String dependencyName : dependencies) {
+                dependentBeans.computeIfAbsent(dependencyName, name -> new LinkedHashSet<>()).add(beanName);
+            }
+        }
+
+        // Destroy callbacks typically block on I/O, so use more threads than CPUs
+        int poolSize = Math.min(disposableBeans.size(), Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = TaskExecutors.newBoundedThreadPool(poolSize, disposableBeans.size(),
+                "minispring-destroy-");
+        Map<String, Long> destructionNanos = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<Void>> destructions = new HashMap<>();
+        long start = System.nanoTime();
+        for (String beanName : disposableBeans.keySet()) {
+            scheduleDestruction(beanName, disposableBeans, dependentBeans, destructions, new HashSet<>(),
+                    destructionNanos, executor);
+        }
+
+        boolean completed = false;
+        Map<String, Long> destroyed;
+        try {
+            CompletableFuture.allOf(destructions.values().toArray(new CompletableFuture<?>[0]))
+                    .get(timeoutMillis, TimeUnit.MILLISECONDS);
+            completed = true;
+        } catch (TimeoutException e) {
+            List<String> pending = new ArrayList<>();
+            for (Map.Entry<String, CompletableFuture<Void>> destruction : destructions.entrySet()) {
+                if (!destruction.getValue().isDone()) {
+                    pending.add(destruction.getKey());
+                }
+            }
+            logger.warn("Destruction of singletons timed out after {}ms, abandoning {}", timeoutMillis, pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while destroying singletons");
+        } catch (ExecutionException e) {
+            logger.warn("Error destroying singletons", e.getCause());
+        } finally {
+            // Callbacks interrupted by shutting down the threads do not count as completed
+            destroyed = new HashMap<>(destructionNanos);
+            if (completed) {
+                executor.shutdown();
+            } else {
+                executor.shutdownNow();
+            }
+        }
+
+        if (logger.isInfoEnabled()) {
+            String slowest = null;
+            long slowestNanos = -1;
+            for (Map.Entry<String, Long> entry : destroyed.entrySet()) {
+                if (entry.getValue() > slowestNanos) {
+                    slowest = entry.getKey();
+                    slowestNanos = entry.getValue();
+                }
+            }
+            logger.info("Destroyed {} of {} singletons in {}ms, slowest '{}' took {}ms", destroyed.size(),
+                    disposableBeans.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), slowest,
+                    TimeUnit.NANOSECONDS.toMillis(slowestNanos));
+        }
+    }
+
+    /**
+     * Schedule the destruction of a singleton after the destruction of all singletons
+     * that depend on it. Edges closing a dependency cycle are ignored for ordering purposes.
+     */
+    private CompletableFuture<Void> scheduleDestruction(String beanName, Map<String, Object> disposableBeans,
+                                                        Map<String, Set<String>> dependentBeans,
+                                                        Map<String, CompletableFuture<Void>> destructions,
+                                                        Set<String> currentPath, Map<String, Long> destructionNanos,
+                                                        Executor executor) {
+        CompletableFuture<Void> destruction = destructions.get(beanName);
+        if (destruction != null || !currentPath.add(beanName)) {
+            return destruction;
+        }
+
+        List<CompletableFuture<Void>> dependents = new ArrayList<>();
+        for (String dependentName : dependentBeans.getOrDefault(beanName, Collections.emptySet())) {
+            CompletableFuture<Void> dependent = scheduleDestruction(dependentName, disposableBeans, dependentBeans,
+                    destructions, currentPath, destructionNanos, executor);
+            if (dependent != null) {
+                dependents.add(dependent);
+            }
+        }
+        currentPath.remove(beanName);
+
+        Object bean = disposableBeans.get(beanName);
+        destruction = CompletableFuture.allOf(dependents.toArray(new CompletableFuture<?>[0]))
+                .thenRunAsync(() -> destroySingleton(beanName, bean, destructionNanos), executor);
+        destructions.put(beanName, destruction);
+        return destruction;
+    }
+
+    private void destroySingleton(String beanName, Object bean, Map<String, Long> destructionNanos) {
+        StartupStep step = getApplicationStartup().start("minispring.beans.destroy").tag("beanName", beanName);
+        long start = System.nanoTime();
+        try {
+            destroyBean(beanName, getBeanDefinition(beanName), bean);
+        } catch (RuntimeException e) {
+            logger.warn("Could not destroy singleton '{}'", beanName, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            destructionNanos.put(beanName, elapsed);
+            step.end();
+            logger.debug("Destroyed singleton '{}' in {}us", beanName, TimeUnit.NANOSECONDS.toMicros(elapsed));
+        }
+    }
+
+    /**
+     * Determine the singletons with destroy callbacks that the given bean depends on,
+     * following singletons without destroy callbacks transitively.
+     */
+    private void collectDisposableDependencies(String beanName, Set<String> disposableNames,
+                                               Map<String, Set<String>> singletonDependencies,
+                                               Set<String> disposableDependencies, Set<String> visited) {
+        Set<String> dependencies = singletonDependencies.get(beanName);
+        if (dependencies == null) {
+            dependencies = getSingletonDependencies(beanName);
+            singletonDependencies.put(beanName, dependencies);
+        }
+        for (String dependencyName : dependencies) {
+            if (!visited.add(dependencyName)) {
+                continue;
+            }
+            if (disposableNames.contains(dependencyName)) {
+                disposableDependencies.add(dependencyName);
+            } else {
+                collectDisposableDependencies(dependencyName, disposableNames, singletonDependencies,
+                        disposableDependencies, visited);
+            }
+        }
+    }
+
+    /**
+     * Set whether singletons without an explicit {@link com.minispring.annotation.Lazy}
+     * setting are created lazily on first access rather than by {@link #preInstantiateSingletons()}.
+     *
+     * @param defaultLazyInit whether beans are lazy by default
+     */
+    public void setDefaultLazyInit(boolean defaultLazyInit) {
+        this.defaultLazyInit = defaultLazyInit;
+    }
+
+    /**
+     * Return whether beans are lazily initialized by default.
+     *
+     * @return whether beans are lazy by default
+     */
+    public boolean isDefaultLazyInit() {
+        return defaultLazyInit;
+    }
+
+    /**
+     * Set the executor to pre-instantiate singletons on. Each singleton is scheduled
+     * once all singletons it depends on through constructor, field or setter injection
+     * have been created, so independent parts of the dependency graph are created
+     * concurrently and the refresh takes roughly as long as its critical path.
+     *
+     * @param preInstantiationExecutor the executor to use, or {@code null} to create
+     *                                 singletons sequentially in registration order (the default)
+     */
+    public void setPreInstantiationExecutor(Executor preInstantiationExecutor) {
+        this.preInstantiationExecutor = preInstantiationExecutor;
+    }
+
+    /**
+     * Switch parallel singleton pre-instantiation on the common {@link ForkJoinPool} on or off.
+     *
+     * @param parallel whether to pre-instantiate singletons in parallel
+     * @see #setPreInstantiationExecutor(Executor)
+     */
+    public void setParallelPreInstantiation(boolean parallel) {
+        this.preInstantiationExecutor = (parallel ? ForkJoinPool.commonPool() : null);
+    }
+
+    /**
+     * Return the executor used to pre-instantiate singletons.
+     *
+     * @return the executor, or {@code null} if singletons are created sequentially
+     */
+    public Executor getPreInstantiationExecutor() {
+        return preInstantiationExecutor;
     }
 
     @Override
@@ -60,20 +346,149 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         return beanDefinitionMap.containsKey(beanName);
     }
 
+    @Override
+    protected String[] doGetBeanNamesForType(Class<?> type) {
+        String[] beanNames = beanNamesByType.get(type);
+        return (beanNames != null ? beanNames : EMPTY_NAMES);
+    }
+
     /**
      * Register a new bean definition with this registry.
+     * The bean class is indexed under all of its supertypes at this point, so a
+     * definition whose bean class changes afterwards has to be registered again.
      *
      * @param beanName the name of the bean
      * @param beanDefinition definition of the bean
      * @throws BeansException if registration fails
      */
     public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) throws BeansException {
-        if (beanDefinitionMap.containsKey(beanName)) {
-            // For this simple implementation, we're just replacing the existing definition
-            beanDefinitionMap.put(beanName, beanDefinition);
-        } else {
-            beanDefinitionMap.put(beanName, beanDefinition);
-            beanDefinitionNames.add(beanName);
+        synchronized (beanDefinitionMap) {
+            BeanDefinition existingDefinition = beanDefinitionMap.put(beanName, beanDefinition);
+            if (existingDefinition != null) {
+                // For this simple implementation, we're just replacing the existing definition
+                removeFromTypeIndex(beanName, existingDefinition.getBeanClass());
+            } else {
+                beanDefinitionNames.add(beanName);
+                frozenBeanDefinitionNames = null;
+            }
+            addToTypeIndex(beanName, beanDefinition.getBeanClass());
+        }
+    }
+
+    private boolean isLazyInit(BeanDefinition bd) {
+        Boolean lazyInit = bd.getLazyInit();
+        return (lazyInit != null ? lazyInit : defaultLazyInit);
+    }
+
+    private void preInstantiateSingletonsInParallel(List<String> beanNames, Executor executor) {
+        Map<String, CompletableFuture<Void>> creations = new HashMap<>();
+        for (String beanName : beanNames) {
+            scheduleSingletonCreation(beanName, creations, new HashSet<>(), executor);
+        }
+
+        try {
+            CompletableFuture.allOf(creations.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BeansException) {
+                throw (BeansException) cause;
+            }
+            throw new BeansException("Error pre-instantiating singletons", cause);
+        }
+    }
+
+    /**
+     * Schedule the creation of a singleton after the creation of all singletons it
+     * depends on. Edges closing a dependency cycle are ignored for ordering purposes.
+     */
+    private CompletableFuture<Void> scheduleSingletonCreation(String beanName,
+                                                              Map<String, CompletableFuture<Void>> creations,
+                                                              Set<String> currentPath, Executor executor) {
+        CompletableFuture<Void> creation = creations.get(beanName);
+        if (creation != null || !currentPath.add(beanName)) {
+            return creation;
+        }
+
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        for (String dependencyName : getSingletonDependencies(beanName)) {
+            CompletableFuture<Void> dependency = scheduleSingletonCreation(dependencyName, creations, currentPath, executor);
+            if (dependency != null) {
+                dependencies.add(dependency);
+            }
+        }
+        currentPath.remove(beanName);
+
+        creation = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                .thenRunAsync(() -> getBean(beanName), executor);
+        creations.put(beanName, creation);
+        return creation;
+    }
+
+    /**
+     * Determine the singletons that creating the given bean resolves. Non-singleton
+     * dependencies are created as part of the bean, so their singleton dependencies
+     * are followed transitively.
+     */
+    private Set<String> getSingletonDependencies(String beanName) {
+        Set<String> singletonDependencies = new LinkedHashSet<>();
+        collectSingletonDependencies(beanName, singletonDependencies, new HashSet<>());
+        singletonDependencies.remove(beanName);
+        return singletonDependencies;
+    }
+
+    private void collectSingletonDependencies(String beanName, Set<String> singletonDependencies, Set<String> visited) {
+        if (!visited.add(beanName)) {
+            return;
+        }
+        Class<?> beanClass = getBeanDefinition(beanName).getBeanClass();
+        for (Class<?> dependencyType : findInjectionMetadata(beanClass).getDependencyTypes()) {
+            for (String dependencyName : doGetBeanNamesForType(dependencyType)) {
+                if (getBeanDefinition(dependencyName).isSingleton()) {
+                    singletonDependencies.add(dependencyName);
+                } else {
+                    collectSingletonDependencies(dependencyName, singletonDependencies, visited);
+                }
+            }
+        }
+    }
+
+    private String[] beanDefinitionNameSnapshot() {
+        String[] names = frozenBeanDefinitionNames;
+        if (names == null) {
+            synchronized (beanDefinitionMap) {
+                names = beanDefinitionNames.toArray(new String[0]);
+                frozenBeanDefinitionNames = names;
+            }
+        }
+        return names;
+    }
+
+    private void addToTypeIndex(String beanName, Class<?> beanClass) {
+        for (Class<?> type : ClassUtils.getAllSuperTypes(beanClass)) {
+            String[] existingNames = beanNamesByType.get(type);
+            if (existingNames == null) {
+                beanNamesByType.put(type, new String[] { beanName });
+            } else {
+                String[] names = Arrays.copyOf(existingNames, existingNames.length + 1);
+                names[existingNames.length] = beanName;
+                beanNamesByType.put(type, names);
+            }
+        }
+    }
+
+    private void removeFromTypeIndex(String beanName, Class<?> beanClass) {
+        for (Class<?> type : ClassUtils.getAllSuperTypes(beanClass)) {
+            String[] existingNames = beanNamesByType.get(type);
+            if (existingNames == null) {
+                continue;
+            }
+            List<String> names = new ArrayList<>(Arrays.asList(existingNames));
+            names.remove(beanName);
+            if (names.isEmpty()) {
+                beanNamesByType.remove(type);
+            } else {
+                beanNamesByType.put(type, names.toArray(new String[0]));
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.minispring.annotation.PreDestroy;
+import com.minispring.beans.factory.DisposableBean;
+import com.minispring.exception.BeansException;
+
+/**
+ * Pre-computed destroy callbacks of a bean class: its {@link PreDestroy} methods,
+ * each bound to an accessor, and whether it implements {@link DisposableBean}.
+ * Instances are immutable and built once per class, like {@link InjectionMetadata}.
+ */
+public final class DestructionMetadata {
+
+    private static final String DISPOSABLE_BEAN_METHOD_NAME = "destroy";
+
+    private final Class<?> targetClass;
+    private final Method[] preDestroyMethods;
+    private final BeanAccessorStrategy.MethodInvoker[] preDestroyInvokers;
+    private final boolean disposableBean;
+
+    private DestructionMetadata(Class<?> targetClass, Method[] preDestroyMethods,
+                                BeanAccessorStrategy.MethodInvoker[] preDestroyInvokers, boolean disposableBean) {
+        this.targetClass = targetClass;
+        this.preDestroyMethods = preDestroyMethods;
+        this.preDestroyInvokers = preDestroyInvokers;
+        this.disposableBean = disposableBean;
+    }
+
+    /**
+     * Introspect the given class for its destroy callbacks. A method overridden in a
+     * subclass is called once, and a {@link PreDestroy} method that implements
+     * {@link DisposableBean#destroy()} is not called twice.
+     *
+     * @param clazz the bean class
+     * @param accessorStrategy the strategy creating the invoker for each method
+     * @return the destruction metadata for the class
+     * @throws BeansException if a {@link PreDestroy} method is static or declares parameters
+     */
+    public static DestructionMetadata forClass(Class<?> clazz, BeanAccessorStrategy accessorStrategy) {
+        boolean disposableBean = DisposableBean.class.isAssignableFrom(clazz);
+        List<Method> methods = new ArrayList<>();
+        Set<String> seenNames = new HashSet<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(PreDestroy.class)) {
+                    continue;
+                }
+                if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())) {
+                    throw new BeansException("@PreDestroy method " + method
+                            + " must be an instance method without parameters");
+                }
+                // Without parameters, the name identifies a method overridden further down the hierarchy
+                boolean overridden = !Modifier.isPrivate(method.getModifiers()) && !seenNames.add(method.getName());
+                if (!overridden && !(disposableBean && method.getName().equals(DISPOSABLE_BEAN_METHOD_NAME))) {
+                    methods.add(method);
+                }
+            }
+        }
+
+        Method[] preDestroyMethods = methods.toArray(new Method[0]);
+        BeanAccessorStrategy.MethodInvoker[] invokers = new BeanAccessorStrategy.MethodInvoker[preDestroyMethods.length];
+        for (int i = 0; i < preDestroyMethods.length; i++) {
+            invokers[i] = accessorStrategy.methodInvoker(preDestroyMethods[i]);
+        }
+        return new DestructionMetadata(clazz, preDestroyMethods, invokers, disposableBean);
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * Return whether beans of the target class have any destroy callback.
+     *
+     * @return whether there is anything to call on destruction
+     */
+    public boolean hasDestroyCallbacks() {
+        return (disposableBean || preDestroyMethods.length > 0);
+    }
+
+    /**
+     * Call the destroy callbacks on the given bean: the {@link PreDestroy} methods
+     * and then {@link DisposableBean#destroy()}. All callbacks are called even if
+     * one of them fails.
+     *
+     * @param bean the raw bean instance, not a proxy
+     * @param beanName the name of the bean
+     * @throws BeansException if a callback failed, with the first failure as cause
+     */
+    public void destroy(Object bean, String beanName) throws BeansException {
+        Throwable failure = null;
+        for (int i = 0; i < preDestroyInvokers.length; i++) {
+            try {
+                preDestroyInvokers[i].invoke(bean, new Object[0]);
+            } catch (Throwable e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (disposableBean) {
+            try {
+                ((DisposableBean) bean).destroy();
+            } catch (Throwable e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw new BeansException("Destroy callback of bean '" + beanName + "' failed", failure);
+        }
+    }
+}
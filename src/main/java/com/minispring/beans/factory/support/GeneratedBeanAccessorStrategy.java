@@ -0,0 +1,105 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link BeanAccessorStrategy} that prefers the {@link GeneratedBeanAccessors} of the
+ * declaring class of a member, which construct, assign and invoke directly and need
+ * no {@code setAccessible} call. Members of classes that were not compiled with
+ * {@link BeanAccessorsGenerator}, and members the generated class cannot access,
+ * are delegated to another strategy.
+ */
+public class GeneratedBeanAccessorStrategy implements BeanAccessorStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneratedBeanAccessorStrategy.class);
+
+    private final BeanAccessorStrategy delegate;
+
+    /** Generated accessors per declaring class, empty if the class has none. */
+    private final Map<Class<?>, Optional<GeneratedBeanAccessors>> accessorsCache = new ConcurrentHashMap<>(256);
+
+    /**
+     * Create a strategy that falls back to a {@link MethodHandleBeanAccessorStrategy}.
+     */
+    public GeneratedBeanAccessorStrategy() {
+        this(new MethodHandleBeanAccessorStrategy());
+    }
+
+    /**
+     * Create a strategy that falls back to the given strategy.
+     *
+     * @param delegate the strategy for members without generated accessors
+     */
+    public GeneratedBeanAccessorStrategy(BeanAccessorStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Instantiator instantiator(Constructor<?> constructor) {
+        GeneratedBeanAccessors accessors = findAccessors(constructor);
+        if (accessors == null) {
+            return delegate.instantiator(constructor);
+        }
+        int index = accessors.indexOf(constructor);
+        return args -> accessors.newInstance(index, args);
+    }
+
+    @Override
+    public FieldWriter fieldWriter(Field field) {
+        GeneratedBeanAccessors accessors = findAccessors(field);
+        if (accessors == null) {
+            return delegate.fieldWriter(field);
+        }
+        int index = accessors.indexOf(field);
+        return (target, value) -> accessors.setField(index, target, value);
+    }
+
+    @Override
+    public MethodInvoker methodInvoker(Method method) {
+        GeneratedBeanAccessors accessors = findAccessors(method);
+        if (accessors == null) {
+            return delegate.methodInvoker(method);
+        }
+        int index = accessors.indexOf(method);
+        return (target, args) -> accessors.invoke(index, target, args);
+    }
+
+    /**
+     * Return the generated accessors of the declaring class of the given member,
+     * if they cover the member.
+     */
+    private GeneratedBeanAccessors findAccessors(Member member) {
+        GeneratedBeanAccessors accessors = accessorsCache
+                .computeIfAbsent(member.getDeclaringClass(), this::loadAccessors).orElse(null);
+        return (accessors != null && accessors.indexOf(member) >= 0 ? accessors : null);
+    }
+
+    private Optional<GeneratedBeanAccessors> loadAccessors(Class<?> beanClass) {
+        ClassLoader classLoader = beanClass.getClassLoader();
+        if (classLoader == null) {
+            return Optional.empty();
+        }
+        String className = beanClass.getName() + GeneratedBeanAccessors.CLASS_NAME_SUFFIX;
+        try {
+            Class<?> accessorsClass = Class.forName(className, false, classLoader);
+            if (!GeneratedBeanAccessors.class.isAssignableFrom(accessorsClass)) {
+                return Optional.empty();
+            }
+            return Optional.of((GeneratedBeanAccessors) accessorsClass.getDeclaredConstructor().newInstance());
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.debug("Ignoring generated accessors {}", className, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class of the accessors that {@link BeanAccessorsGenerator} generates at compile
+ * time for every {@link com.minispring.annotation.Component} class. A generated
+ * subclass calls the constructor and assigns or invokes the injection points of its
+ * bean class directly, selected by the index of the member, so creating and populating
+ * a bean is plain bytecode without reflection.
+ *
+ * <p>Only members that the generated class can access are covered: private members,
+ * final fields and members inherited from other classes are left to reflection.
+ *
+ * @see GeneratedBeanAccessorStrategy
+ */
+public abstract class GeneratedBeanAccessors {
+
+    /**
+     * Suffix appended to the binary name of a bean class to get the name of its
+     * generated accessors class, in the same package.
+     */
+    public static final String CLASS_NAME_SUFFIX = "__BeanAccessors";
+
+    private final Map<String, Integer> memberIndexes;
+
+    /**
+     * Create accessors for the given members.
+     *
+     * @param memberKeys the {@linkplain #memberKey(Member) keys} of the covered members,
+     * in the order of their indexes
+     */
+    protected GeneratedBeanAccessors(String... memberKeys) {
+        this.memberIndexes = new HashMap<>(memberKeys.length * 2);
+        for (int i = 0; i < memberKeys.length; i++) {
+            memberIndexes.put(memberKeys[i], i);
+        }
+    }
+
+    /**
+     * Return the index of the given member.
+     *
+     * @param member a constructor, field or method of the bean class
+     * @return the index of the member, or {@code -1} if it is not covered
+     */
+    public int indexOf(Member member) {
+        Integer index = memberIndexes.get(memberKey(member));
+        return (index != null ? index : -1);
+    }
+
+    /**
+     * Create a new bean instance through the constructor with the given index.
+     *
+     * @param index the index of the constructor
+     * @param args the constructor arguments
+     * @return the new instance
+     * @throws Throwable any exception thrown by the constructor
+     */
+    public abstract Object newInstance(int index, Object[] args) throws Throwable;
+
+    /**
+     * Assign the field with the given index.
+     *
+     * @param index the index of the field
+     * @param target the bean instance
+     * @param value the value to assign
+     */
+    public abstract void setField(int index, Object target, Object value);
+
+    /**
+     * Invoke the method with the given index.
+     *
+     * @param index the index of the method
+     * @param target the bean instance
+     * @param args the method arguments
+     * @return the return value, or {@code null} for a void method
+     * @throws Throwable any exception thrown by the method
+     */
+    public abstract Object invoke(int index, Object target, Object[] args) throws Throwable;
+
+    /**
+     * Exception for an index that no member of the generated class has.
+     *
+     * @param index the index
+     * @return the exception to throw
+     */
+    protected IllegalArgumentException noSuchMember(int index) {
+        return new IllegalArgumentException("No member with index " + index + " in " + getClass().getName());
+    }
+
+    /**
+     * Return the key identifying a member in generated code: the field name, or the
+     * method name followed by the parameter type names, with {@code <init>} as the
+     * name of a constructor, e.g. {@code setName(java.lang.String)}.
+     *
+     * @param member the member
+     * @return the key of the member
+     */
+    public static String memberKey(Member member) {
+        if (member instanceof Field) {
+            return member.getName();
+        }
+        StringBuilder key = new StringBuilder(member instanceof Constructor ? "<init>" : member.getName());
+        key.append('(');
+        Class<?>[] parameterTypes = ((Executable) member).getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameterTypes[i].getTypeName());
+        }
+        return key.append(')').toString();
+    }
+}
@@ -0,0 +1,469 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Lazy;
+import com.minispring.annotation.Value;
+import com.minispring.beans.factory.BeanFactory;
+import com.minispring.core.ClassUtils;
+import com.minispring.core.convert.TypeDescriptor;
+import com.minispring.exception.BeanCurrentlyInCreationException;
+import com.minispring.exception.BeansException;
+
+/**
+ * Pre-computed injection metadata for a bean class: the constructor to instantiate it
+ * with and the annotated fields and methods to populate, each bound to an accessor.
+ * Instances are immutable and built once per class, so populating a bean is a plain
+ * loop over the collected injection points.
+ */
+public class InjectionMetadata {
+
+    private final Class<?> targetClass;
+    private final Constructor<?> constructor;
+    private final Class<?>[] constructorParameterTypes;
+    private final boolean[] lazyConstructorParameters;
+    private final ValueExpression[] valueConstructorParameters;
+    private final boolean autowiredConstructor;
+    private final BeanAccessorStrategy.Instantiator instantiator;
+    private final InjectedElement[] injectedElements;
+
+    private InjectionMetadata(Class<?> targetClass, Constructor<?> constructor, boolean autowiredConstructor,
+                              BeanAccessorStrategy.Instantiator instantiator, InjectedElement[] injectedElements) {
+        this.targetClass = targetClass;
+        this.constructor = constructor;
+        this.constructorParameterTypes = (constructor != null ? constructor.getParameterTypes() : new Class<?>[0]);
+        this.lazyConstructorParameters = (constructor != null ? lazyParameters(constructor) : new boolean[0]);
+        this.valueConstructorParameters = (constructor != null ? valueParameters(constructor) : new ValueExpression[0]);
+        this.autowiredConstructor = autowiredConstructor;
+        this.instantiator = instantiator;
+        this.injectedElements = injectedElements;
+    }
+
+    /**
+     * Introspect the given class for its constructor and annotated injection points.
+     *
+     * @param clazz the bean class
+     * @param accessorStrategy the strategy creating the accessors for each member
+     * @return the injection metadata for the class
+     */
+    public static InjectionMetadata forClass(Class<?> clazz, BeanAccessorStrategy accessorStrategy) {
+        Constructor<?> constructor = null;
+        boolean autowired = false;
+
+        // Prefer a constructor with @Autowired annotation, otherwise use the default constructor
+        for (Constructor<?> candidate : clazz.getDeclaredConstructors()) {
+            if (candidate.isAnnotationPresent(Autowired.class)) {
+                constructor = candidate;
+                autowired = true;
+                break;
+            }
+        }
+        if (constructor == null) {
+            try {
+                constructor = clazz.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                // Reported when the bean is instantiated
+            }
+        }
+
+        List<Member> members = new ArrayList<>();
+        for (Field field : ClassUtils.getAllFields(clazz)) {
+            if (field.isAnnotationPresent(Autowired.class) || field.isAnnotationPresent(Value.class)) {
+                members.add(field);
+            }
+        }
+        for (Method method : ClassUtils.getAllMethods(clazz)) {
+            if (method.isAnnotationPresent(Autowired.class)) {
+                members.add(method);
+            }
+        }
+
+        return forMembers(clazz, constructor, autowired, members, accessorStrategy);
+    }
+
+    /**
+     * Build the metadata for injection points that are already known, e.g. from a
+     * context snapshot, without introspecting the other members of the class.
+     *
+     * @param clazz the bean class
+     * @param constructor the constructor to instantiate the class with, or {@code null} if there is none
+     * @param autowiredConstructor whether the constructor is annotated with {@link Autowired}
+     * @param members the fields annotated with {@link Autowired} or {@link Value} and the
+     * methods annotated with {@link Autowired}, in injection order
+     * @param accessorStrategy the strategy creating the accessors for each member
+     * @return the injection metadata for the class
+     * @throws BeansException if a member is not an injection point
+     */
+    public static InjectionMetadata forMembers(Class<?> clazz, Constructor<?> constructor, boolean autowiredConstructor,
+                                               List<? extends Member> members, BeanAccessorStrategy accessorStrategy) {
+        BeanAccessorStrategy.Instantiator instantiator = null;
+        if (constructor != null) {
+            instantiator = accessorStrategy.instantiator(constructor);
+        }
+
+        List<InjectedElement> elements = new ArrayList<>();
+
+        for (Member member : members) {
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                Autowired autowiredAnnotation = field.getAnnotation(Autowired.class);
+                if (autowiredAnnotation != null) {
+                    boolean lazy = isLazy(field);
+                    if (lazy) {
+                        checkLazyInjectionPoint(field.getType(), field);
+                    }
+                    elements.add(new AutowiredFieldElement(field, accessorStrategy.fieldWriter(field),
+                            autowiredAnnotation.required(), lazy));
+                    continue;
+                }
+                Value value = field.getAnnotation(Value.class);
+                if (value != null) {
+                    elements.add(new ValueFieldElement(field, accessorStrategy.fieldWriter(field), value.value()));
+                    continue;
+                }
+            } else if (member instanceof Method) {
+                Method method = (Method) member;
+                Autowired autowiredAnnotation = method.getAnnotation(Autowired.class);
+                if (autowiredAnnotation != null) {
+                    elements.add(new AutowiredMethodElement(method, accessorStrategy.methodInvoker(method),
+                            autowiredAnnotation.required()));
+                    continue;
+                }
+            }
+            throw new BeansException("Not an injection point of " + clazz.getName() + ": " + member);
+        }
+
+        return new InjectionMetadata(clazz, constructor, autowiredConstructor, instantiator,
+                elements.toArray(new InjectedElement[0]));
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    public Class<?>[] getConstructorParameterTypes() {
+        return constructorParameterTypes;
+    }
+
+    public boolean isAutowiredConstructor() {
+        return autowiredConstructor;
+    }
+
+    public InjectedElement[] getInjectedElements() {
+        return injectedElements;
+    }
+
+    /**
+     * Return the fields and methods this metadata injects, in injection order.
+     *
+     * @return the injected members
+     */
+    public List<Member> getInjectedMembers() {
+        List<Member> members = new ArrayList<>(injectedElements.length);
+        for (InjectedElement element : injectedElements) {
+            members.add(element.getMember());
+        }
+        return members;
+    }
+
+    /**
+     * Return the types of all beans this class depends on, through its constructor
+     * and through its autowired fields and methods. Lazy injection points and
+     * {@link Value} parameters are not included, as they do not resolve a bean
+     * while the bean is created.
+     *
+     * @return the dependency types, in injection order
+     */
+    public Set<Class<?>> getDependencyTypes() {
+        Set<Class<?>> dependencyTypes = new LinkedHashSet<>();
+        for (int i = 0; i < constructorParameterTypes.length; i++) {
+            if (!lazyConstructorParameters[i] && valueConstructorParameters[i] == null) {
+                dependencyTypes.add(constructorParameterTypes[i]);
+            }
+        }
+        for (InjectedElement element : injectedElements) {
+            Collections.addAll(dependencyTypes, element.getDependencyTypes());
+        }
+        return dependencyTypes;
+    }
+
+    /**
+     * Create a new instance of the target class, resolving constructor arguments by type
+     * or, for {@link Value} parameters, from the environment.
+     *
+     * @param beanName the name of the bean
+     * @param beanFactory the factory to resolve dependencies from
+     * @return the new bean instance
+     * @throws BeansException if the instantiation fails
+     */
+    public Object instantiate(String beanName, BeanFactory beanFactory) throws BeansException {
+        try {
+            if (constructor == null) {
+                throw new NoSuchMethodException(targetClass.getName() + ".<init>()");
+            }
+            Object[] args = new Object[constructorParameterTypes.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = resolveArgument(constructorParameterTypes[i], lazyConstructorParameters[i],
+                        valueConstructorParameters[i], beanFactory);
+            }
+            return instantiator.newInstance(args);
+        } catch (Error | BeanCurrentlyInCreationException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeansException("Error creating bean with name '" + beanName + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Inject all collected fields and methods of the given bean.
+     *
+     * @param bean the bean instance to populate
+     * @param beanName the name of the bean
+     * @param beanFactory the factory to resolve dependencies from
+     * @throws BeansException if a required injection fails
+     */
+    public void inject(Object bean, String beanName, BeanFactory beanFactory) throws BeansException {
+        for (InjectedElement element : injectedElements) {
+            element.inject(bean, beanName, beanFactory);
+        }
+    }
+
+    /**
+     * Resolve a dependency by type, or create a lazy-resolution proxy for it.
+     */
+    static Object resolveDependency(Class<?> type, boolean lazy, BeanFactory beanFactory) {
+        return (lazy ? LazyResolutionProxy.create(type, beanFactory) : beanFactory.getBean(type));
+    }
+
+    /**
+     * Resolve a constructor or method argument: a {@link Value} expression if present,
+     * otherwise a dependency by type.
+     */
+    static Object resolveArgument(Class<?> type, boolean lazy, ValueExpression value, BeanFactory beanFactory) {
+        return (value != null ? value.resolve(beanFactory) : resolveDependency(type, lazy, beanFactory));
+    }
+
+    private static boolean isLazy(AnnotatedElement element) {
+        Lazy lazy = element.getAnnotation(Lazy.class);
+        return (lazy != null && lazy.value());
+    }
+
+    /**
+     * Determine for each parameter whether it is lazy, either through its own
+     * {@link Lazy} annotation or through one on the method or constructor.
+     */
+    private static boolean[] lazyParameters(Executable executable) {
+        boolean lazyExecutable = isLazy(executable);
+        Parameter[] parameters = executable.getParameters();
+        boolean[] lazy = new boolean[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Lazy parameterLazy = parameters[i].getAnnotation(Lazy.class);
+            lazy[i] = (parameterLazy != null ? parameterLazy.value() : lazyExecutable);
+            if (lazy[i]) {
+                checkLazyInjectionPoint(parameters[i].getType(), executable);
+            }
+        }
+        return lazy;
+    }
+
+    /**
+     * Compile the {@link Value} expression of each parameter that declares one.
+     */
+    private static ValueExpression[] valueParameters(Executable executable) {
+        Parameter[] parameters = executable.getParameters();
+        ValueExpression[] values = new ValueExpression[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Value value = parameters[i].getAnnotation(Value.class);
+            if (value != null) {
+                values[i] = new ValueExpression(value.value(), TypeDescriptor.forParameter(parameters[i]));
+            }
+        }
+        return values;
+    }
+
+    private static void checkLazyInjectionPoint(Class<?> type, Member member) {
+        if (!type.isInterface()) {
+            throw new BeansException("@Lazy injection point " + member + " must be declared as an interface type, but is "
+                    + type.getName());
+        }
+    }
+
+    /**
+     * A single injection point of a bean class.
+     */
+    public abstract static class InjectedElement {
+
+        /**
+         * Inject this element into the given bean.
+         *
+         * @param bean the bean instance to populate
+         * @param beanName the name of the bean
+         * @param beanFactory the factory to resolve dependencies from
+         * @throws BeansException if a required injection fails
+         */
+        protected abstract void inject(Object bean, String beanName, BeanFactory beanFactory) throws BeansException;
+
+        /**
+         * Return the types of the beans this element resolves from the factory.
+         *
+         * @return the dependency types, or an empty array if none
+         */
+        protected Class<?>[] getDependencyTypes() {
+            return new Class<?>[0];
+        }
+
+        /**
+         * Return the field or method this element injects.
+         *
+         * @return the injected member
+         */
+        protected abstract Member getMember();
+    }
+
+    /**
+     * Field annotated with {@link Autowired}, resolved by type.
+     */
+    static class AutowiredFieldElement extends InjectedElement {
+
+        private final Field field;
+        private final BeanAccessorStrategy.FieldWriter writer;
+        private final boolean required;
+        private final boolean lazy;
+
+        AutowiredFieldElement(Field field, BeanAccessorStrategy.FieldWriter writer, boolean required, boolean lazy) {
+            this.field = field;
+            this.writer = writer;
+            this.required = required;
+            this.lazy = lazy;
+        }
+
+        @Override
+        protected void inject(Object bean, String beanName, BeanFactory beanFactory) throws BeansException {
+            try {
+                // Get the dependency bean by type
+                Object dependencyBean = resolveDependency(field.getType(), lazy, beanFactory);
+                writer.set(bean, dependencyBean);
+            } catch (Error | BeanCurrentlyInCreationException e) {
+                throw e;
+            } catch (Throwable e) {
+                if (required) {
+                    throw new BeansException("Failed to inject field: " + field.getName() + " in bean: " + beanName, e);
+                }
+            }
+        }
+
+        @Override
+        protected Class<?>[] getDependencyTypes() {
+            return (lazy ? new Class<?>[0] : new Class<?>[] { field.getType() });
+        }
+
+        @Override
+        protected Member getMember() {
+            return field;
+        }
+    }
+
+    /**
+     * Field annotated with {@link Value}; the expression is compiled once when the metadata is built.
+     */
+    static class ValueFieldElement extends InjectedElement {
+
+        private final Field field;
+        private final BeanAccessorStrategy.FieldWriter writer;
+        private final ValueExpression expression;
+
+        ValueFieldElement(Field field, BeanAccessorStrategy.FieldWriter writer, String expression) {
+            this.field = field;
+            this.writer = writer;
+            this.expression = new ValueExpression(expression, TypeDescriptor.forField(field));
+        }
+
+        @Override
+        protected void inject(Object bean, String beanName, BeanFactory beanFactory) throws BeansException {
+            try {
+                writer.set(bean, expression.resolve(beanFactory));
+            } catch (Error | BeanCurrentlyInCreationException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeansException("Failed to set value for field: " + field.getName() + " in bean: " + beanName, e);
+            }
+        }
+
+        @Override
+        protected Member getMember() {
+            return field;
+        }
+    }
+
+    /**
+     * Method annotated with {@link Autowired}, with all parameters resolved by type.
+     */
+    static class AutowiredMethodElement extends InjectedElement {
+
+        private final Method method;
+        private final BeanAccessorStrategy.MethodInvoker invoker;
+        private final Class<?>[] parameterTypes;
+        private final boolean[] lazyParameters;
+        private final ValueExpression[] valueParameters;
+        private final boolean required;
+
+        AutowiredMethodElement(Method method, BeanAccessorStrategy.MethodInvoker invoker, boolean required) {
+            this.method = method;
+            this.invoker = invoker;
+            this.parameterTypes = method.getParameterTypes();
+            this.lazyParameters = lazyParameters(method);
+            this.valueParameters = valueParameters(method);
+            this.required = required;
+        }
+
+        @Override
+        protected void inject(Object bean, String beanName, BeanFactory beanFactory) throws BeansException {
+            try {
+                // Get all dependencies by type
+                Object[] args = new Object[parameterTypes.length];
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    args[i] = resolveArgument(parameterTypes[i], lazyParameters[i], valueParameters[i], beanFactory);
+                }
+                invoker.invoke(bean, args);
+            } catch (Error | BeanCurrentlyInCreationException e) {
+                throw e;
+            } catch (Throwable e) {
+                if (required) {
+                    throw new BeansException("Failed to inject method: " + method.getName() + " in bean: " + beanName, e);
+                }
+            }
+        }
+
+        @Override
+        protected Class<?>[] getDependencyTypes() {
+            List<Class<?>> dependencyTypes = new ArrayList<>(parameterTypes.length);
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (!lazyParameters[i] && valueParameters[i] == null) {
+                    dependencyTypes.add(parameterTypes[i]);
+                }
+            }
+            return dependencyTypes.toArray(new Class<?>[0]);
+        }
+
+        @Override
+        protected Member getMember() {
+            return method;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import com.minispring.beans.factory.BeanFactory;
+
+/**
+ * JDK proxy injected for {@link com.minispring.annotation.Lazy} injection points.
+ * The target bean is resolved by type on the first method call and reused afterwards,
+ * so an injection point still sees a single instance, as with eager injection.
+ */
+final class LazyResolutionProxy implements InvocationHandler {
+
+    private final Class<?> dependencyType;
+    private final BeanFactory beanFactory;
+    private volatile Object target;
+
+    private LazyResolutionProxy(Class<?> dependencyType, BeanFactory beanFactory) {
+        this.dependencyType = dependencyType;
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Create a proxy for the given interface that resolves its target from the factory on first use.
+     *
+     * @param dependencyType the interface type of the injection point
+     * @param beanFactory the factory to resolve the target from
+     * @return the lazy-resolution proxy
+     */
+    static Object create(Class<?> dependencyType, BeanFactory beanFactory) {
+        return Proxy.newProxyInstance(dependencyType.getClassLoader(), new Class<?>[] { dependencyType },
+                new LazyResolutionProxy(dependencyType, beanFactory));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(getTarget(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private Object getTarget() {
+        Object resolved = target;
+        if (resolved == null) {
+            synchronized (this) {
+                resolved = target;
+                if (resolved == null) {
+                    resolved = beanFactory.getBean(dependencyType);
+                    target = resolved;
+                }
+            }
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,113 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link BeanAccessorStrategy} that binds members to {@link MethodHandle}s, adapted
+ * to a fixed erased signature so they can be called with {@code invokeExact}.
+ * Public no-arg constructors of public classes are bound to a {@link Supplier}
+ * generated by the {@link LambdaMetafactory}, which the JIT inlines like a plain
+ * {@code new} expression. Members that cannot be bound fall back to reflection.
+ */
+public class MethodHandleBeanAccessorStrategy implements BeanAccessorStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandleBeanAccessorStrategy.class);
+
+    private static final MethodType INSTANTIATOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType FIELD_WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType METHOD_INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private final BeanAccessorStrategy fallback = new ReflectiveBeanAccessorStrategy();
+
+    @Override
+    public Instantiator instantiator(Constructor<?> constructor) {
+        try {
+            constructor.setAccessible(true);
+            if (constructor.getParameterCount() == 0 && isLambdaAccessible(constructor)) {
+                Supplier<?> supplier = createSupplier(constructor);
+                return args -> supplier.get();
+            }
+            MethodHandle handle = lookup.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(INSTANTIATOR_TYPE);
+            return args -> (Object) handle.invokeExact(args);
+        } catch (Throwable e) {
+            logger.debug("Falling back to reflection for constructor {}", constructor, e);
+            return fallback.instantiator(constructor);
+        }
+    }
+
+    @Override
+    public FieldWriter fieldWriter(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle handle = lookup.unreflectSetter(field).asType(FIELD_WRITER_TYPE);
+            return (target, value) -> {
+                handle.invokeExact(target, value);
+            };
+        } catch (Throwable e) {
+            logger.debug("Falling back to reflection for field {}", field, e);
+            return fallback.fieldWriter(field);
+        }
+    }
+
+    @Override
+    public MethodInvoker methodInvoker(Method method) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = lookup.unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(METHOD_INVOKER_TYPE);
+            return (target, args) -> (Object) handle.invokeExact(target, args);
+        } catch (Throwable e) {
+            logger.debug("Falling back to reflection for method {}", method, e);
+            return fallback.methodInvoker(method);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<?> createSupplier(Constructor<?> constructor) throws Throwable {
+        Class<?> beanClass = constructor.getDeclaringClass();
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "get",
+                MethodType.methodType(Supplier.class),
+                MethodType.methodType(Object.class),
+                lookup.unreflectConstructor(constructor),
+                MethodType.methodType(beanClass));
+        return (Supplier<Object>) callSite.getTarget().invokeExact();
+    }
+
+    /**
+     * The generated lambda class links against the bean class from this class's
+     * loader, so the class has to be public, top-level or static, and visible there.
+     */
+    private boolean isLambdaAccessible(Constructor<?> constructor) {
+        Class<?> beanClass = constructor.getDeclaringClass();
+        if (!Modifier.isPublic(constructor.getModifiers()) || !Modifier.isPublic(beanClass.getModifiers())) {
+            return false;
+        }
+        for (Class<?> enclosing = beanClass.getEnclosingClass(); enclosing != null;
+             enclosing = enclosing.getEnclosingClass()) {
+            if (!Modifier.isPublic(enclosing.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(beanClass.getName(), false, lookup.lookupClass().getClassLoader()) == beanClass;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * {@link BeanAccessorStrategy} based on core reflection. Works for every accessible
+ * member and serves as the fallback for {@link MethodHandleBeanAccessorStrategy}.
+ */
+public class ReflectiveBeanAccessorStrategy implements BeanAccessorStrategy {
+
+    @Override
+    public Instantiator instantiator(Constructor<?> constructor) {
+        constructor.setAccessible(true);
+        return args -> {
+            try {
+                return constructor.newInstance(args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+    }
+
+    @Override
+    public FieldWriter fieldWriter(Field field) {
+        field.setAccessible(true);
+        return field::set;
+    }
+
+    @Override
+    public MethodInvoker methodInvoker(Method method) {
+        method.setAccessible(true);
+        return (target, args) -> {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.minispring.beans.factory.support;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.minispring.beans.factory.BeanFactory;
+import com.minispring.core.convert.ConversionService;
+import com.minispring.core.convert.TypeDescriptor;
+import com.minispring.core.convert.support.DefaultConversionService;
+import com.minispring.core.env.Environment;
+import com.minispring.core.env.PlaceholderTemplate;
+
+/**
+ * The expression of a {@link com.minispring.annotation.Value} injection point,
+ * compiled once when the injection metadata is built. Placeholders are resolved
+ * against the {@link Environment} of the factory and the result is converted to the
+ * declared type of the injection point with its {@link ConversionService}.
+ *
+ * <p>The resolved String is kept until the property sources of the environment
+ * change, and so is the converted value, unless it is a mutable array, collection or
+ * map: those are converted again for every injection, so that no two beans share one
+ * instance.
+ */
+final class ValueExpression {
+
+    private final PlaceholderTemplate template;
+    private final TypeDescriptor targetType;
+    private final boolean memoizable;
+
+    private volatile ResolvedValue resolvedValue;
+
+    ValueExpression(String expression, TypeDescriptor targetType) {
+        this.template = PlaceholderTemplate.compile(expression);
+        this.targetType = targetType;
+        Class<?> type = targetType.getType();
+        this.memoizable = !(type.isArray() || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type));
+    }
+
+    /**
+     * Resolve the expression and convert it to the target type.
+     *
+     * @param beanFactory the factory whose environment and conversion service to use
+     * @return the converted value
+     * @throws IllegalArgumentException if a placeholder cannot be resolved
+     * @throws com.minispring.exception.ConversionException if the value cannot be converted
+     */
+    Object resolve(BeanFactory beanFactory) {
+        Environment environment = null;
+        ConversionService conversionService = DefaultConversionService.getSharedInstance();
+        if (beanFactory instanceof AbstractAutowireCapableBeanFactory) {
+            AbstractAutowireCapableBeanFactory autowireCapableBeanFactory = (AbstractAutowireCapableBeanFactory) beanFactory;
+            environment = (template.isLiteral() ? null : autowireCapableBeanFactory.getEnvironment());
+            conversionService = autowireCapableBeanFactory.getConversionService();
+        }
+        int revision = (environment != null ? environment.getPropertySources().getRevision() : 0);
+
+        ResolvedValue resolved = resolvedValue;
+        if (resolved == null || resolved.environment != environment || resolved.revision != revision) {
+            String text = (template.isLiteral() ? template.getText()
+                    : environment != null ? environment.resolvePlaceholders(template)
+                    : template.resolve(placeholderName -> null));
+            resolved = new ResolvedValue(environment, revision, text);
+            resolvedValue = resolved;
+        }
+        if (!memoizable) {
+            return conversionService.convert(resolved.text, targetType);
+        }
+        ConvertedValue converted = resolved.convertedValue;
+        if (converted == null || converted.conversionService != conversionService) {
+            converted = new ConvertedValue(conversionService, conversionService.convert(resolved.text, targetType));
+            resolved.convertedValue = converted;
+        }
+        return converted.value;
+    }
+
+    @Override
+    public String toString() {
+        return template.getText();
+    }
+
+    private static final class ResolvedValue {
+
+        private final Environment environment;
+        private final int revision;
+        private final String text;
+        private volatile ConvertedValue convertedValue;
+
+        private ResolvedValue(Environment environment, int revision, String text) {
+            this.environment = environment;
+            this.revision = revision;
+            this.text = text;
+        }
+    }
+
+    private static final class ConvertedValue {
+
+        private final ConversionService conversionService;
+        private final Object value;
+
+        private ConvertedValue(ConversionService conversionService, Object value) {
+            this.conversionService = conversionService;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.minispring.cache;
+
+/**
+ * A named cache of values by key, as used by {@link com.minispring.annotation.Cacheable}
+ * methods. Implementations must be thread-safe.
+ */
+public interface Cache {
+
+    /**
+     * Return the name of this cache.
+     *
+     * @return the cache name
+     */
+    String getName();
+
+    /**
+     * Return the value cached for the given key, recording a hit or a miss.
+     *
+     * @param key the key
+     * @return the cached value, or {@code null} if none is cached or it has expired
+     */
+    Object get(Object key);
+
+    /**
+     * Cache the given value for the given key, replacing any value cached for it.
+     * The cache may evict other entries to stay within its bounds.
+     *
+     * @param key the key
+     * @param value the value, not {@code null}
+     */
+    void put(Object key, Object value);
+
+    /**
+     * Remove the value cached for the given key, if any.
+     *
+     * @param key the key
+     */
+    void evict(Object key);
+
+    /**
+     * Remove all values from this cache.
+     */
+    void clear();
+
+    /**
+     * Return a snapshot of the statistics of this cache.
+     *
+     * @return the statistics
+     */
+    CacheStats getStats();
+}
@@ -0,0 +1,27 @@
+package com.minispring.cache;
+
+import java.util.Collection;
+
+/**
+ * Provides the caches used by {@link com.minispring.annotation.Cacheable} and
+ * {@link com.minispring.annotation.CacheEvict} methods. An application context uses
+ * its {@code CacheManager} bean.
+ */
+public interface CacheManager {
+
+    /**
+     * Return the cache with the given name, creating it if the manager creates caches
+     * on demand.
+     *
+     * @param name the cache name
+     * @return the cache, or {@code null} if there is no such cache
+     */
+    Cache getCache(String name);
+
+    /**
+     * Return the names of the caches known to this manager.
+     *
+     * @return the cache names
+     */
+    Collection<String> getCacheNames();
+}
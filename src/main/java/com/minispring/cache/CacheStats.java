@@ -0,0 +1,60 @@
+package com.minispring.cache;
+
+/**
+ * Immutable snapshot of the statistics of a {@link Cache}.
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public CacheStats(long hitCount, long missCount, long evictionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Return the number of lookups that found a cached value.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Return the number of lookups that found no value or an expired one.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Return the number of entries removed to keep the cache within its bounds,
+     * not counting explicit evictions and expired entries.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Return the ratio of lookups that found a cached value.
+     *
+     * @return the hit rate, {@code 1.0} if there has been no lookup
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return (requestCount == 0 ? 1.0 : (double) hitCount / requestCount);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats[hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "]";
+    }
+}
@@ -0,0 +1,72 @@
+package com.minispring.cache.concurrent;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.minispring.cache.Cache;
+import com.minispring.cache.CacheManager;
+
+/**
+ * {@link CacheManager} creating a {@link BoundedConcurrentCache} with the default
+ * settings on the first request for a cache name. Caches with other settings can be
+ * added up front.
+ */
+public class BoundedCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>(16);
+
+    private final int maximumSize;
+
+    private final BoundedConcurrentCache.EvictionPolicy evictionPolicy;
+
+    private final Duration timeToLive;
+
+    /**
+     * Create a manager whose caches hold at most 10,000 entries each, evicted with
+     * {@link BoundedConcurrentCache.EvictionPolicy#TINY_LFU TinyLFU}, without expiry.
+     */
+    public BoundedCacheManager() {
+        this(10_000, BoundedConcurrentCache.EvictionPolicy.TINY_LFU, null);
+    }
+
+    /**
+     * Create a manager whose caches are created with the given settings.
+     *
+     * @param maximumSize the maximum number of entries of each cache
+     * @param evictionPolicy the eviction policy
+     * @param timeToLive how long an entry stays valid after it was written, or {@code null} for no expiry
+     */
+    public BoundedCacheManager(int maximumSize, BoundedConcurrentCache.EvictionPolicy evictionPolicy,
+                               Duration timeToLive) {
+        this.maximumSize = maximumSize;
+        this.evictionPolicy = evictionPolicy;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Add a cache with its own settings, replacing any cache of the same name.
+     *
+     * @param cache the cache
+     */
+    public void addCache(Cache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(name,
+                    cacheName -> new BoundedConcurrentCache(cacheName, maximumSize, evictionPolicy, timeToLive));
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+}
@@ -0,0 +1,351 @@
+package com.minispring.cache.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.minispring.cache.Cache;
+import com.minispring.cache.CacheStats;
+
+/**
+ * {@link Cache} holding at most a fixed number of entries in a {@link ConcurrentHashMap},
+ * with an optional time to live after writing.
+ *
+ * <p>The entries are kept in access order in a linked list guarded by an eviction lock.
+ * Reads do not take the lock: they record the entry they found in one of several
+ * striped ring buffers, which are applied to the list in batches by whichever thread
+ * finds a buffer full or writes next. Buffers are lossy, so under contention some
+ * reads are not reflected in the order, which only affects the choice of victims.
+ * Writes take the lock, apply the pending reads and evict as needed.
+ *
+ * <p>With {@link EvictionPolicy#LRU} the least recently used entry is evicted. With
+ * {@link EvictionPolicy#TINY_LFU} a frequency sketch estimates how often each key has
+ * been used; a new entry that would evict the least recently used one is only admitted
+ * if its key is used more often, which keeps scans and one-hit wonders from flushing
+ * popular entries.
+ */
+public class BoundedConcurrentCache implements Cache {
+
+    /**
+     * Policy deciding which entry to evict when the cache is full.
+     */
+    public enum EvictionPolicy {
+
+        /** Evict the least recently used entry. */
+        LRU,
+
+        /** Admit a new entry only if its key is used more often than the least recently used entry's. */
+        TINY_LFU
+    }
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_STRIPES =
+            Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+
+    private final String name;
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final EvictionPolicy evictionPolicy;
+
+    private final ConcurrentHashMap<Object, Node> data;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    private final FrequencySketch sketch;
+
+    /** Sentinel of the access order list: {@code head.next} is the least recently used entry. */
+    private final Node head = new Node(null, null, 0L);
+    private int size;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Create a cache whose entries do not expire.
+     *
+     * @param name the cache name
+     * @param maximumSize the maximum number of entries
+     * @param evictionPolicy the eviction policy
+     */
+    public BoundedConcurrentCache(String name, int maximumSize, EvictionPolicy evictionPolicy) {
+        this(name, maximumSize, evictionPolicy, null);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param name the cache name
+     * @param maximumSize the maximum number of entries
+     * @param evictionPolicy the eviction policy
+     * @param timeToLive how long an entry stays valid after it was written, or {@code null} for no expiry
+     */
+    public BoundedConcurrentCache(String name, int maximumSize, EvictionPolicy evictionPolicy, Duration timeToLive) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.evictionPolicy = evictionPolicy;
+        this.timeToLiveNanos = (timeToLive != null ? timeToLive.toNanos() : 0L);
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        this.sketch = (evictionPolicy == EvictionPolicy.TINY_LFU ? new FrequencySketch(maximumSize) : null);
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+        head.prev = head;
+        head.next = head;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Return the number of entries, including expired ones not removed yet.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public Object get(Object key) {
+        Node node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        if (timeToLiveNanos != 0L && node.expiresAt - System.nanoTime() <= 0) {
+            missCount.increment();
+            removeExpired(node);
+            return null;
+        }
+        hitCount.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot cache null value for key " + key);
+        }
+        long expiresAt = (timeToLiveNanos != 0L ? System.nanoTime() + timeToLiveNanos : 0L);
+        Node node = new Node(key, value, expiresAt);
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node prior = data.put(key, node);
+            if (prior != null) {
+                unlink(prior);
+            }
+            linkLast(node);
+            if (sketch != null) {
+                sketch.increment(key);
+            }
+            while (size > maximumSize) {
+                evict(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictionLock.lock();
+        try {
+            Node node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            data.clear();
+            for (Node node = head.next; node != head; ) {
+                Node next = node.next;
+                node.prev = null;
+                node.next = null;
+                node = next;
+            }
+            head.prev = head;
+            head.next = head;
+            size = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
+    /**
+     * Evict one entry to make room for the given new entry: the least recently used
+     * one, or, with TinyLFU, the new entry itself if its key is not used more often.
+     * An expired least recently used entry is always evicted.
+     */
+    private void evict(Node candidate) {
+        Node victim = head.next;
+        if (sketch != null && victim != candidate && !isExpired(victim)
+                && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+            victim = candidate;
+        }
+        data.remove(victim.key, victim);
+        unlink(victim);
+        evictionCount.increment();
+    }
+
+    private boolean isExpired(Node node) {
+        return (timeToLiveNanos != 0L && node.expiresAt - System.nanoTime() <= 0);
+    }
+
+    private void removeExpired(Node node) {
+        if (data.remove(node.key, node)) {
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void afterRead(Node node) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (READ_BUFFER_STRIPES - 1)];
+        if (!buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drainTo(this);
+        }
+    }
+
+    /** Apply a buffered read: move the entry to the tail of the list and count the use of its key. */
+    private void onAccess(Node node) {
+        if (node.next != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            if (sketch != null) {
+                sketch.increment(node.key);
+            }
+        }
+    }
+
+    private void linkLast(Node node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+        size++;
+    }
+
+    private void unlink(Node node) {
+        if (node.next != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + name + ", " + evictionPolicy + ", maximumSize=" + maximumSize + "]";
+    }
+
+    /**
+     * Cache entry and access order list node. The links are only accessed under the
+     * eviction lock; a node that has been unlinked has {@code null} links.
+     */
+    private static final class Node {
+
+        final Object key;
+        final Object value;
+        final long expiresAt;
+        Node prev;
+        Node next;
+
+        Node(Object key, Object value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Bounded ring buffer of entries that have been read. Readers claim a slot with a
+     * CAS on the write counter and drop the read if the buffer is full; the buffer is
+     * drained under the eviction lock.
+     */
+    private static final class ReadBuffer {
+
+        private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCount = new AtomicLong();
+        private volatile long readCount;
+
+        /** Record a read, returning {@code false} if the buffer is full and should be drained. */
+        boolean offer(Node node) {
+            long writes = writeCount.get();
+            if (writes - readCount >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writeCount.compareAndSet(writes, writes + 1)) {
+                slots.lazySet((int) writes & READ_BUFFER_MASK, node);
+            }
+            return true;
+        }
+
+        void drainTo(BoundedConcurrentCache cache) {
+            long reads = readCount;
+            long writes = writeCount.get();
+            while (reads < writes) {
+                int index = (int) reads & READ_BUFFER_MASK;
+                Node node = slots.get(index);
+                if (node == null) {
+                    // claimed but not yet published
+                    break;
+                }
+                slots.lazySet(index, null);
+                cache.onAccess(node);
+                reads++;
+            }
+            readCount = reads;
+        }
+    }
+}
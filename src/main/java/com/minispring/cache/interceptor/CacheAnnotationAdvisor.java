@@ -0,0 +1,71 @@
+package com.minispring.cache.interceptor;
+
+import java.lang.reflect.Method;
+
+import com.minispring.annotation.CacheEvict;
+import com.minispring.annotation.Cacheable;
+import com.minispring.aop.Advisor;
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.aop.Pointcut;
+import com.minispring.aop.support.AnnotationMatchingPointcut;
+import com.minispring.beans.factory.BeanFactory;
+import com.minispring.exception.AopConfigException;
+
+/**
+ * {@link Advisor} applying a {@link CacheInterceptor} to {@link Cacheable} and
+ * {@link CacheEvict} methods. A {@code void} method annotated with {@code @Cacheable}
+ * is rejected when its bean is proxied; on a {@code @Cacheable} class, {@code void}
+ * methods and the methods declared by {@code Object} are not cached.
+ */
+public class CacheAnnotationAdvisor implements Advisor {
+
+    private final AnnotationMatchingPointcut cacheablePointcut = new AnnotationMatchingPointcut(Cacheable.class);
+
+    private final AnnotationMatchingPointcut cacheEvictPointcut = new AnnotationMatchingPointcut(CacheEvict.class);
+
+    private final Pointcut pointcut = new Pointcut() {
+        @Override
+        public boolean matches(Class<?> targetClass) {
+            return cacheablePointcut.matches(targetClass) || cacheEvictPointcut.matches(targetClass);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            if (cacheEvictPointcut.matches(method, targetClass)) {
+                return true;
+            }
+            if (!cacheablePointcut.matches(method, targetClass) || method.getDeclaringClass() == Object.class) {
+                return false;
+            }
+            if (method.getReturnType() != void.class) {
+                return true;
+            }
+            if (!targetClass.isAnnotationPresent(Cacheable.class)) {
+                throw new AopConfigException("@Cacheable method " + method + " must not return void");
+            }
+            return false;
+        }
+    };
+
+    private final CacheInterceptor interceptor;
+
+    /**
+     * Create an advisor caching method results in the caches of the
+     * {@link com.minispring.cache.CacheManager} bean of the given factory.
+     *
+     * @param beanFactory the factory to look up the cache manager in
+     */
+    public CacheAnnotationAdvisor(BeanFactory beanFactory) {
+        this.interceptor = new CacheInterceptor(beanFactory);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public MethodInterceptor getInterceptor() {
+        return interceptor;
+    }
+}
@@ -0,0 +1,130 @@
+package com.minispring.cache.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.minispring.annotation.CacheEvict;
+import com.minispring.annotation.Cacheable;
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.aop.MethodInvocation;
+import com.minispring.aop.support.AnnotationMatchingPointcut;
+import com.minispring.beans.factory.BeanFactory;
+import com.minispring.cache.Cache;
+import com.minispring.cache.CacheManager;
+import com.minispring.exception.BeansException;
+
+/**
+ * {@link MethodInterceptor} applying the {@link Cacheable} and {@link CacheEvict}
+ * annotations of a method. The caches of a method are looked up in the
+ * {@link CacheManager} bean on its first call and then reused, so a call costs one
+ * map lookup for the method, the key generation and the cache access. {@code null}
+ * results are cached too.
+ */
+public class CacheInterceptor implements MethodInterceptor {
+
+    /** Stands in for a cached {@code null} result. */
+    private static final Object NULL_VALUE = new Object();
+
+    private final BeanFactory beanFactory;
+
+    private final Map<Method, CacheOperation> operations = new ConcurrentHashMap<>(32);
+
+    private volatile CacheManager cacheManager;
+
+    /**
+     * Create an interceptor using the {@link CacheManager} bean of the given factory.
+     *
+     * @param beanFactory the factory to look up the cache manager in
+     */
+    public CacheInterceptor(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        CacheOperation operation = operations.get(method);
+        if (operation == null) {
+            operation = operations.computeIfAbsent(method,
+                    m -> createOperation(m, invocation.getThis().getClass()));
+        }
+
+        Object key = SimpleKeyGenerator.generateKey(invocation.getArguments());
+        if (operation.evictCache != null && operation.evictBeforeInvocation) {
+            operation.evict(key);
+        }
+        if (operation.cache != null) {
+            Object cached = operation.cache.get(key);
+            if (cached != null) {
+                return (cached == NULL_VALUE ? null : cached);
+            }
+        }
+        Object result = invocation.proceed();
+        if (operation.cache != null) {
+            operation.cache.put(key, (result != null ? result : NULL_VALUE));
+        }
+        if (operation.evictCache != null && !operation.evictBeforeInvocation) {
+            operation.evict(key);
+        }
+        return result;
+    }
+
+    private CacheOperation createOperation(Method method, Class<?> targetClass) {
+        Cacheable cacheable = AnnotationMatchingPointcut.findAnnotation(method, targetClass, Cacheable.class);
+        CacheEvict cacheEvict = AnnotationMatchingPointcut.findAnnotation(method, targetClass, CacheEvict.class);
+        Cache cache = (cacheable != null && method.getReturnType() != void.class
+                ? getCache(cacheable.value(), method) : null);
+        Cache evictCache = (cacheEvict != null ? getCache(cacheEvict.value(), method) : null);
+        return new CacheOperation(cache, evictCache, cacheEvict != null && cacheEvict.allEntries(),
+                cacheEvict != null && cacheEvict.beforeInvocation());
+    }
+
+    private Cache getCache(String name, Method method) {
+        CacheManager cacheManager = getCacheManager(method);
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new BeansException("Cache '" + name + "' of method " + method + " not found in " + cacheManager);
+        }
+        return cache;
+    }
+
+    private CacheManager getCacheManager(Method method) {
+        CacheManager cacheManager = this.cacheManager;
+        if (cacheManager == null) {
+            try {
+                cacheManager = beanFactory.getBean(CacheManager.class);
+            } catch (BeansException e) {
+                throw new BeansException("No CacheManager bean for caching method " + method, e);
+            }
+            this.cacheManager = cacheManager;
+        }
+        return cacheManager;
+    }
+
+    /**
+     * The resolved caches of a method.
+     */
+    private static final class CacheOperation {
+
+        final Cache cache;
+        final Cache evictCache;
+        final boolean evictAllEntries;
+        final boolean evictBeforeInvocation;
+
+        CacheOperation(Cache cache, Cache evictCache, boolean evictAllEntries, boolean evictBeforeInvocation) {
+            this.cache = cache;
+            this.evictCache = evictCache;
+            this.evictAllEntries = evictAllEntries;
+            this.evictBeforeInvocation = evictBeforeInvocation;
+        }
+
+        void evict(Object key) {
+            if (evictAllEntries) {
+                evictCache.clear();
+            } else {
+                evictCache.evict(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.minispring.cache.interceptor;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Cache key made of method arguments, compared element by element. Keys of two
+ * arguments hold them in fields; only keys of three or more arguments hold an array.
+ */
+public final class SimpleKey {
+
+    /** Key of a method without arguments. */
+    public static final SimpleKey EMPTY = new SimpleKey(null, null, new Object[0], 0);
+
+    private final Object first;
+    private final Object second;
+    private final Object[] params;
+    private final int hashCode;
+
+    private SimpleKey(Object first, Object second, Object[] params, int hashCode) {
+        this.first = first;
+        this.second = second;
+        this.params = params;
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * Create a key of two arguments.
+     *
+     * @param first the first argument
+     * @param second the second argument
+     * @return the key
+     */
+    public static SimpleKey of(Object first, Object second) {
+        return new SimpleKey(first, second, null, 31 * hash(first) + hash(second));
+    }
+
+    /**
+     * Create a key of any number of arguments, copying the array. A key of no
+     * arguments is {@link #EMPTY}, and a key of two arguments is the same as the
+     * one created by {@link #of(Object, Object)}.
+     *
+     * @param params the arguments
+     * @return the key
+     */
+    public static SimpleKey of(Object... params) {
+        if (params.length == 0) {
+            return EMPTY;
+        }
+        if (params.length == 2) {
+            return of(params[0], params[1]);
+        }
+        Object[] copy = params.clone();
+        return new SimpleKey(null, null, copy, Arrays.deepHashCode(copy));
+    }
+
+    private static int hash(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        return (value.getClass().isArray() ? Arrays.deepHashCode(new Object[] {value}) : value.hashCode());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SimpleKey)) {
+            return false;
+        }
+        SimpleKey that = (SimpleKey) other;
+        if (hashCode != that.hashCode) {
+            return false;
+        }
+        if (params != null || that.params != null) {
+            return Arrays.deepEquals(params, that.params);
+        }
+        return Objects.deepEquals(first, that.first) && Objects.deepEquals(second, that.second);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleKey " + (params != null ? Arrays.deepToString(params) : "[" + first + ", " + second + "]");
+    }
+}
@@ -0,0 +1,32 @@
+package com.minispring.cache.interceptor;
+
+/**
+ * Generates cache keys from method arguments without allocating for methods of one
+ * argument, which is its own key unless it is {@code null} or an array, and with a
+ * single allocation for methods of two arguments.
+ */
+public final class SimpleKeyGenerator {
+
+    private SimpleKeyGenerator() {
+    }
+
+    /**
+     * Generate the cache key for the given arguments.
+     *
+     * @param args the method arguments
+     * @return the key
+     */
+    public static Object generateKey(Object[] args) {
+        switch (args.length) {
+            case 0:
+                return SimpleKey.EMPTY;
+            case 1:
+                Object arg = args[0];
+                return (arg != null && !arg.getClass().isArray() ? arg : SimpleKey.of(args));
+            case 2:
+                return SimpleKey.of(args[0], args[1]);
+            default:
+                return SimpleKey.of(args);
+        }
+    }
+}
@@ -1,42 +1,169 @@
 package com.minispring.context;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.minispring.annotation.Async;
 import com.minispring.annotation.ComponentScan;
+import com.minispring.aop.Advisor;
+import com.minispring.aop.interceptor.AsyncAnnotationAdvisor;
+import com.minispring.annotation.EventListener;
+import com.minispring.annotation.Scheduled;
 import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.BeanPostProcessor;
 import com.minispring.beans.factory.ConfigurableListableBeanFactory;
 import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.beans.factory.support.BeanAccessorStrategy;
+import com.minispring.cache.interceptor.CacheAnnotationAdvisor;
+import com.minispring.context.aot.ClasspathFingerprint;
+import com.minispring.context.aot.ContextSnapshot;
+import com.minispring.context.event.ApplicationEventMulticaster;
+import com.minispring.context.event.ApplicationListenerMethodAdapter;
+import com.minispring.context.event.ContextClosedEvent;
+import com.minispring.context.event.ContextRefreshedEvent;
+import com.minispring.context.event.SimpleApplicationEventMulticaster;
+import com.minispring.context.scope.SimpleThreadScope;
+import com.minispring.context.scope.UnitOfWorkScope;
 import com.minispring.context.support.ClassPathBeanDefinitionScanner;
 import com.minispring.core.ClassUtils;
+import com.minispring.core.convert.ConversionService;
+import com.minispring.core.convert.support.DefaultConversionService;
+import com.minispring.core.env.Environment;
+import com.minispring.core.metrics.ApplicationStartup;
+import com.minispring.core.metrics.StartupStep;
+import com.minispring.core.metrics.buffering.BufferingApplicationStartup;
+import com.minispring.core.metrics.buffering.StartupTimeline;
+import com.minispring.core.task.TaskExecutors;
 import com.minispring.exception.BeansException;
+import com.minispring.scheduling.concurrent.HashedWheelTaskScheduler;
+import com.minispring.scheduling.support.ScheduledAnnotationBeanPostProcessor;
 
 /**
  * Standalone application context, accepting component classes as input.
+ * A context can be the child of another context, e.g. one per tenant below a
+ * context with the infrastructure beans all tenants share.
  */
 public class AnnotationConfigApplicationContext implements ApplicationContext {
 
+    /**
+     * Property selecting the default executor of {@link Async} methods: {@code virtual}
+     * for a virtual thread per task, or {@code pool} for a bounded pool of platform
+     * threads. Defaults to {@code virtual} on Java 21 or later, {@code pool} otherwise.
+     */
+    public static final String TASK_EXECUTION_MODE_PROPERTY = "minispring.task.execution.mode";
+
+    /** Property with the number of threads of the default {@code pool} executor, the number of CPUs by default. */
+    public static final String TASK_EXECUTION_POOL_SIZE_PROPERTY = "minispring.task.execution.pool-size";
+
+    /** Property with the task queue capacity of the default {@code pool} executor, 1024 by default. */
+    public static final String TASK_EXECUTION_QUEUE_CAPACITY_PROPERTY = "minispring.task.execution.queue-capacity";
+
+    /** Property with the maximum time in milliseconds {@link #close()} waits for destroy callbacks, 30000 by default. */
+    public static final String SHUTDOWN_TIMEOUT_PROPERTY = "minispring.shutdown.timeout";
+
     private static final Logger logger = LoggerFactory.getLogger(AnnotationConfigApplicationContext.class);
 
+    private final AnnotationConfigApplicationContext parent;
     private final DefaultListableBeanFactory beanFactory;
     private final ClassPathBeanDefinitionScanner scanner;
     private final String applicationName;
     private final long startupDate;
     private boolean active = true;
+    private volatile ApplicationEventMulticaster applicationEventMulticaster;
+    private Path snapshotFile;
+    private boolean registering;
+    private final List<String> registrationSources = new ArrayList<>();
+    private final List<Runnable> pendingRegistrations = new ArrayList<>();
+    private volatile ExecutorService defaultAsyncExecutor;
+    private volatile HashedWheelTaskScheduler defaultTaskScheduler;
+    private ScheduledAnnotationBeanPostProcessor scheduledAnnotationProcessor;
 
     /**
-     * Create a new AnnotationConfigApplicationContext with the given configuration classes.
+     * Create a new AnnotationConfigApplicationContext with the given bean factory.
+     * The context needs to be populated through {@link #register} or {@link #scan}
+     * calls and then manually {@linkplain #refresh refreshed}. The {@link SimpleThreadScope}
+     * and the {@link UnitOfWorkScope} are registered unless the factory already has
+     * scopes of those names.
      *
-     * @param componentClasses one or more component or configuration classes
+     * @param beanFactory the bean factory to use, possibly pre-configured
      */
-    public AnnotationConfigApplicationContext(Class<?>... componentClasses) {
+    public AnnotationConfigApplicationContext(DefaultListableBeanFactory beanFactory) {
         this.applicationName = "MiniSpringContext-" + System.currentTimeMillis();
         this.startupDate = System.currentTimeMillis();
 
-        this.beanFactory = new DefaultListableBeanFactory();
+        this.parent = null;
+        this.beanFactory = beanFactory;
         this.scanner = new ClassPathBeanDefinitionScanner(beanFactory);
+        registerDefaultScopes();
+    }
+
+    /**
+     * Create a new child context of the given parent context, to be populated through
+     * {@link #register} or {@link #scan} calls and then manually {@linkplain #refresh refreshed}.
+     * The beans of the child can depend on the beans of the parent, and lookups of beans
+     * the child does not define are delegated to the parent. The child shares the
+     * parent's environment, class metadata, scanned packages and default executors, so
+     * that creating it only costs its own beans. The parent must outlive its children.
+     *
+     * @param parent the parent context
+     */
+    public AnnotationConfigApplicationContext(AnnotationConfigApplicationContext parent) {
+        this.applicationName = parent.getApplicationName() + "-" + System.currentTimeMillis();
+        this.startupDate = System.currentTimeMillis();
+
+        this.parent = parent;
+        this.beanFactory = new DefaultListableBeanFactory(parent.beanFactory);
+        this.scanner = new ClassPathBeanDefinitionScanner(beanFactory, parent.scanner);
+        registerDefaultScopes();
+    }
+
+    /**
+     * Create a new child context of the given parent context with the given
+     * configuration classes, and refresh it.
+     *
+     * @param parent the parent context
+     * @param componentClasses one or more component or configuration classes
+     * @see #AnnotationConfigApplicationContext(AnnotationConfigApplicationContext)
+     */
+    public AnnotationConfigApplicationContext(AnnotationConfigApplicationContext parent, Class<?>... componentClasses) {
+        this(parent);
+        if (componentClasses != null && componentClasses.length > 0) {
+            register(componentClasses);
+        }
+        refresh();
+    }
+
+    private void registerDefaultScopes() {
+        if (beanFactory.getRegisteredScope(SimpleThreadScope.SCOPE_NAME) == null) {
+            beanFactory.registerScope(SimpleThreadScope.SCOPE_NAME, new SimpleThreadScope());
+        }
+        if (beanFactory.getRegisteredScope(UnitOfWorkScope.SCOPE_NAME) == null) {
+            beanFactory.registerScope(UnitOfWorkScope.SCOPE_NAME, new UnitOfWorkScope());
+        }
+    }
+
+    /**
+     * Create a new AnnotationConfigApplicationContext with the given configuration classes.
+     *
+     * @param componentClasses one or more component or configuration classes
+     */
+    public AnnotationConfigApplicationContext(Class<?>... componentClasses) {
+        this(new DefaultListableBeanFactory());
 
         // Register the component classes
         if (componentClasses != null && componentClasses.length > 0) {
@@ -53,6 +180,23 @@ public class AnnotationConfigApplicationContext implements ApplicationContext {
      * @param componentClasses the component classes to register
      */
     public void register(Class<?>... componentClasses) {
+        if (deferRegistration()) {
+            for (Class<?> componentClass : componentClasses) {
+                registrationSources.add("class:" + componentClass.getName());
+            }
+            pendingRegistrations.add(() -> register(componentClasses));
+            return;
+        }
+        StartupStep step = getApplicationStartup().start("minispring.context.register")
+                .tag("classes", Arrays.toString(componentClasses));
+        try {
+            doRegister(componentClasses);
+        } finally {
+            step.end();
+        }
+    }
+
+    private void doRegister(Class<?>... componentClasses) {
         for (Class<?> componentClass : componentClasses) {
             registerBean(componentClass);
 
@@ -66,7 +210,12 @@ public class AnnotationConfigApplicationContext implements ApplicationContext {
                     basePackages = new String[] { componentClass.getPackage().getName() };
                 }
 
-                scan(basePackages);
+                scanner.setLazyInit(componentScan.lazyInit());
+                try {
+                    scan(basePackages);
+                } finally {
+                    scanner.setLazyInit(false);
+                }
             }
         }
     }
@@ -91,22 +240,382 @@ public class AnnotationConfigApplicationContext implements ApplicationContext {
      * @param basePackages the packages to scan
      */
     public void scan(String... basePackages) {
+        if (deferRegistration()) {
+            for (String basePackage : basePackages) {
+                registrationSources.add("scan:" + basePackage);
+            }
+            pendingRegistrations.add(() -> scan(basePackages));
+            return;
+        }
         int beanCount = scanner.scan(basePackages);
         logger.info("Found {} components in packages: {}", beanCount, Arrays.toString(basePackages));
     }
 
     /**
-     * Refresh the context, creating all non-lazy singleton beans.
+     * Set the file to keep a {@link ContextSnapshot} of the registered bean definitions
+     * and their injection metadata in. With a snapshot file, {@link #register} and
+     * {@link #scan} calls are deferred to {@link #refresh()}: if the file holds a
+     * snapshot taken with the same classpath and the same registered classes and
+     * packages, the bean definitions are restored from it without scanning the
+     * classpath or introspecting the bean classes; otherwise the registrations are
+     * performed and a new snapshot is written after a successful refresh.
+     *
+     * @param snapshotFile the snapshot file, or {@code null} to always scan
+     */
+    public void setSnapshotFile(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    private boolean deferRegistration() {
+        return (snapshotFile != null && !registering);
+    }
+
+    /**
+     * Set whether all beans without an explicit {@link com.minispring.annotation.Lazy}
+     * setting are initialized lazily, on first access rather than during {@link #refresh()}.
+     *
+     * @param lazyInitialization whether to initialize beans lazily by default
+     */
+    public void setLazyInitialization(boolean lazyInitialization) {
+        beanFactory.setDefaultLazyInit(lazyInitialization);
+    }
+
+    /**
+     * Set the environment to resolve ${...} placeholders against, e.g. one carrying
+     * the command-line arguments. Must be called before {@link #refresh()}.
+     *
+     * @param environment the environment to use
+     */
+    public void setEnvironment(Environment environment) {
+        beanFactory.setEnvironment(environment);
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return beanFactory.getEnvironment();
+    }
+
+    /**
+     * Refresh the context: set up the conversion service, the {@link BeanPostProcessor}
+     * and {@link Advisor} beans and the event multicaster, register the listener beans
+     * and {@link EventListener} methods, create all non-lazy singleton beans, schedule
+     * their {@link Scheduled} methods and publish a {@link ContextRefreshedEvent}.
      */
     public void refresh() {
+        ApplicationStartup startup = getApplicationStartup();
+        StartupStep refreshStep = startup.start("minispring.context.refresh");
         try {
+            String fingerprint = (snapshotFile != null ? loadOrRegisterBeanDefinitions() : null);
+            initConversionService();
+            registerBeanPostProcessors();
+            registerAdvisors();
+            scheduledAnnotationProcessor = new ScheduledAnnotationBeanPostProcessor(beanFactory,
+                    beanFactory.getBeanAccessorStrategy(), this::getDefaultTaskScheduler);
+            beanFactory.addBeanPostProcessor(scheduledAnnotationProcessor);
+            initApplicationEventMulticaster();
+            StartupStep step = startup.start("minispring.context.listeners.register");
+            try {
+                registerListeners();
+            } finally {
+                step.end();
+            }
+
             // Pre-instantiate all singleton beans
-            beanFactory.preInstantiateSingletons();
+            step = startup.start("minispring.context.beans.pre-instantiate");
+            try {
+                beanFactory.preInstantiateSingletons();
+            } finally {
+                step.end();
+            }
+            scheduledAnnotationProcessor.start();
+            if (fingerprint != null) {
+                writeSnapshot(fingerprint);
+            }
             logger.info("Context refreshed: {}", applicationName);
         } catch (BeansException e) {
             logger.error("Error refreshing context", e);
             throw e;
+        } finally {
+            refreshStep.end();
+        }
+        publishEvent(new ContextRefreshedEvent(this));
+    }
+
+    /**
+     * Restore the bean definitions from the snapshot file if it matches the classpath
+     * and the registered sources, otherwise perform the deferred registrations.
+     *
+     * @return the fingerprint to write a new snapshot with, or {@code null} if the
+     * bean definitions were restored from the snapshot
+     */
+    private String loadOrRegisterBeanDefinitions() {
+        StartupStep step = getApplicationStartup().start("minispring.context.snapshot.load");
+        String fingerprint = null;
+        try {
+            fingerprint = ClasspathFingerprint.compute(System.getProperty("java.class.path"),
+                    registrationSources, snapshotFile);
+            if (Files.isRegularFile(snapshotFile)) {
+                ContextSnapshot snapshot = ContextSnapshot.readFrom(snapshotFile);
+                if (fingerprint.equals(snapshot.getFingerprint())) {
+                    snapshot.applyTo(beanFactory, AnnotationConfigApplicationContext.class.getClassLoader());
+                    step.tag("restored", "true");
+                    logger.info("Restored {} bean definitions from context snapshot {}",
+                            snapshot.getBeanNames().size(), snapshotFile);
+                    pendingRegistrations.clear();
+                    return null;
+                }
+                logger.info("Context snapshot {} is stale, scanning components", snapshotFile);
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.warn("Could not restore context snapshot {}, scanning components: {}", snapshotFile, e.toString());
+        } finally {
+            step.end();
+        }
+
+        registering = true;
+        try {
+            for (Runnable registration : pendingRegistrations) {
+                registration.run();
+            }
+        } finally {
+            registering = false;
+            pendingRegistrations.clear();
         }
+        return fingerprint;
+    }
+
+    private void writeSnapshot(String fingerprint) {
+        try {
+            ContextSnapshot.capture(beanFactory, fingerprint).writeTo(snapshotFile);
+            logger.info("Wrote context snapshot {}", snapshotFile);
+        } catch (IOException | BeansException e) {
+            logger.warn("Could not write context snapshot {}: {}", snapshotFile, e.toString());
+        }
+    }
+
+    /**
+     * Set the {@link ApplicationStartup} that records the registration, scanning and
+     * refresh phases of this context and the creation of each bean, e.g. a
+     * {@link BufferingApplicationStartup} to inspect with {@link #getStartupTimeline()}.
+     * Must be called before any component class is registered.
+     *
+     * @param applicationStartup the application startup to use
+     */
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        beanFactory.setApplicationStartup(applicationStartup);
+    }
+
+    /**
+     * Return the {@link ApplicationStartup} this context records its startup with.
+     *
+     * @return the application startup, {@link ApplicationStartup#DEFAULT} unless set
+     */
+    public ApplicationStartup getApplicationStartup() {
+        return beanFactory.getApplicationStartup();
+    }
+
+    /**
+     * Return the timeline of the recorded startup steps, if this context uses a
+     * {@link BufferingApplicationStartup}.
+     *
+     * @return the startup timeline, or {@code null} if startup steps are not buffered
+     */
+    public StartupTimeline getStartupTimeline() {
+        ApplicationStartup startup = getApplicationStartup();
+        return (startup instanceof BufferingApplicationStartup
+                ? ((BufferingApplicationStartup) startup).getBufferedTimeline() : null);
+    }
+
+    /**
+     * Use the bean named "conversionService" if defined, e.g. a {@link DefaultConversionService}
+     * with additional converters, to convert {@link com.minispring.annotation.Value} expressions.
+     * A child context that does not define one keeps the conversion service of its parent.
+     */
+    private void initConversionService() {
+        String beanName = DefaultConversionService.CONVERSION_SERVICE_BEAN_NAME;
+        if (beanFactory.containsLocalBean(beanName)) {
+            beanFactory.setConversionService(beanFactory.getBean(beanName, ConversionService.class));
+        }
+    }
+
+    /**
+     * Apply the {@link BeanPostProcessor} beans to the beans created from now on, in
+     * their order. Post processors are created before them, so they and their own
+     * dependencies are not post-processed by each other.
+     */
+    private void registerBeanPostProcessors() {
+        for (String beanName : beanFactory.getBeanNamesForType(BeanPostProcessor.class)) {
+            beanFactory.addBeanPostProcessor(beanFactory.getBean(beanName, BeanPostProcessor.class));
+        }
+    }
+
+    /**
+     * Apply the {@link Async} and caching advisors and then the {@link Advisor} beans
+     * to the beans created from now on, in the order of their bean definitions.
+     */
+    private void registerAdvisors() {
+        beanFactory.addAdvisor(new AsyncAnnotationAdvisor(beanFactory, this::getDefaultAsyncExecutor));
+        beanFactory.addAdvisor(new CacheAnnotationAdvisor(beanFactory));
+        for (String beanName : beanFactory.getBeanNamesForType(Advisor.class)) {
+            beanFactory.addAdvisor(beanFactory.getBean(beanName, Advisor.class));
+        }
+    }
+
+    /**
+     * Return the executor of {@link Async} methods if no executor bean is defined,
+     * creating it on first use as configured by {@value #TASK_EXECUTION_MODE_PROPERTY}.
+     * Child contexts use the executor of the root context.
+     */
+    private ExecutorService getDefaultAsyncExecutor() {
+        if (parent != null) {
+            return parent.getDefaultAsyncExecutor();
+        }
+        ExecutorService executor = defaultAsyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = defaultAsyncExecutor;
+                if (executor == null) {
+                    executor = createDefaultAsyncExecutor();
+                    defaultAsyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private ExecutorService createDefaultAsyncExecutor() {
+        Environment environment = getEnvironment();
+        String mode = environment.getProperty(TASK_EXECUTION_MODE_PROPERTY,
+                TaskExecutors.isVirtualThreadSupported() ? "virtual" : "pool");
+        if ("virtual".equals(mode)) {
+            logger.debug("Running @Async methods on virtual threads");
+            return TaskExecutors.newVirtualThreadPerTaskExecutor();
+        }
+        if (!"pool".equals(mode)) {
+            throw new BeansException("Unknown " + TASK_EXECUTION_MODE_PROPERTY + " '" + mode
+                    + "', expected 'virtual' or 'pool'");
+        }
+        int poolSize = Integer.parseInt(environment.getProperty(TASK_EXECUTION_POOL_SIZE_PROPERTY,
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int queueCapacity = Integer.parseInt(environment.getProperty(TASK_EXECUTION_QUEUE_CAPACITY_PROPERTY, "1024"));
+        logger.debug("Running @Async methods on {} pooled threads", poolSize);
+        return TaskExecutors.newBoundedThreadPool(poolSize, queueCapacity, "minispring-async-");
+    }
+
+    /**
+     * Return the scheduler of {@link Scheduled} methods if no scheduler bean is
+     * defined, creating it on first use. Its tasks run on the default executor of
+     * {@link Async} methods. Child contexts use the scheduler of the root context.
+     */
+    private HashedWheelTaskScheduler getDefaultTaskScheduler() {
+        if (parent != null) {
+            return parent.getDefaultTaskScheduler();
+        }
+        HashedWheelTaskScheduler scheduler = defaultTaskScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = defaultTaskScheduler;
+                if (scheduler == null) {
+                    scheduler = new HashedWheelTaskScheduler(getDefaultAsyncExecutor());
+                    defaultTaskScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Use the bean named "applicationEventMulticaster" if defined in this context, e.g. a
+     * {@link SimpleApplicationEventMulticaster} with a task executor for asynchronous
+     * delivery, otherwise a synchronous {@link SimpleApplicationEventMulticaster}.
+     */
+    private void initApplicationEventMulticaster() {
+        String beanName = ApplicationEventMulticaster.APPLICATION_EVENT_MULTICASTER_BEAN_NAME;
+        if (beanFactory.containsLocalBean(beanName)) {
+            applicationEventMulticaster = beanFactory.getBean(beanName, ApplicationEventMulticaster.class);
+            logger.debug("Using ApplicationEventMulticaster [{}]", applicationEventMulticaster);
+        } else {
+            applicationEventMulticaster = new SimpleApplicationEventMulticaster();
+        }
+    }
+
+    /**
+     * Register the {@link ApplicationListener} beans and {@link EventListener} methods
+     * of all bean definitions with the multicaster. Listener beans are only looked up
+     * when the first event reaches them, so lazy listeners stay lazy. Listener methods
+     * are discovered and their invokers created once per bean class. Once registered,
+     * the dispatch table of every declared event type is computed up front.
+     */
+    @SuppressWarnings("unchecked")
+    private void registerListeners() {
+        ApplicationEventMulticaster multicaster = applicationEventMulticaster;
+        Set<Class<?>> eventTypes = new LinkedHashSet<>();
+        eventTypes.add(ContextRefreshedEvent.class);
+        eventTypes.add(ContextClosedEvent.class);
+        Map<Class<?>, Map<Method, BeanAccessorStrategy.MethodInvoker>> listenerMethodsCache = new HashMap<>();
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            if (beanName.equals(ApplicationEventMulticaster.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)) {
+                continue;
+            }
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            Class<?> beanClass = beanDefinition.getBeanClass();
+
+            if (ApplicationListener.class.isAssignableFrom(beanClass)) {
+                Class<Object> eventType = (Class<Object>) ClassUtils.resolveTypeArgument(beanClass, ApplicationListener.class);
+                ApplicationListener<Object> listener = (beanDefinition.isSingleton()
+                        ? new SingletonListenerBean(beanName)
+                        : event -> ((ApplicationListener<Object>) beanFactory.getBean(beanName)).onApplicationEvent(event));
+                multicaster.addApplicationListener(eventType, listener);
+                eventTypes.add(eventType);
+            }
+
+            Map<Method, BeanAccessorStrategy.MethodInvoker> listenerMethods =
+                    listenerMethodsCache.computeIfAbsent(beanClass, this::findEventListenerMethods);
+            for (Map.Entry<Method, BeanAccessorStrategy.MethodInvoker> entry : listenerMethods.entrySet()) {
+                ApplicationListenerMethodAdapter adapter = new ApplicationListenerMethodAdapter(beanName, beanFactory,
+                        entry.getKey(), entry.getValue(), beanDefinition.isSingleton());
+                multicaster.addApplicationListener(adapter.getEventType(), adapter);
+                eventTypes.add(adapter.getEventType());
+            }
+        }
+
+        if (multicaster instanceof SimpleApplicationEventMulticaster) {
+            for (Class<?> eventType : eventTypes) {
+                ((SimpleApplicationEventMulticaster) multicaster).prepareEventType(eventType);
+            }
+        }
+    }
+
+    private Map<Method, BeanAccessorStrategy.MethodInvoker> findEventListenerMethods(Class<?> beanClass) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : ClassUtils.getAllMethods(beanClass)) {
+            if (method.isAnnotationPresent(EventListener.class)) {
+                if (method.getParameterCount() != 1) {
+                    throw new BeansException("@EventListener method " + method + " must declare exactly one parameter");
+                }
+                methods.add(method);
+            }
+        }
+        if (methods.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // Listener methods are called on the exposed bean, through its proxied interface for a JDK proxy
+        Map<Method, BeanAccessorStrategy.MethodInvoker> invokers = new LinkedHashMap<>();
+        for (Method method : methods) {
+            Method invocableMethod = beanFactory.getInvocableMethod(method, beanClass);
+            invokers.put(method, beanFactory.getBeanAccessorStrategy().methodInvoker(invocableMethod));
+        }
+        return invokers;
+    }
+
+    /**
+     * Return the multicaster events are published with.
+     *
+     * @return the multicaster, or {@code null} if the context has not been refreshed yet
+     */
+    public ApplicationEventMulticaster getApplicationEventMulticaster() {
+        return applicationEventMulticaster;
     }
 
     @Override
@@ -134,6 +643,11 @@ public class AnnotationConfigApplicationContext implements ApplicationContext {
         return applicationName;
     }
 
+    @Override
+    public ApplicationContext getParent() {
+        return parent;
+    }
+
     @Override
     public long getStartupDate() {
         return startupDate;
@@ -141,14 +655,40 @@ public class AnnotationConfigApplicationContext implements ApplicationContext {
 
     @Override
     public void publishEvent(Object event) {
-        // Simple implementation - just log the event
-        logger.info("Event published: {}", event);
+        ApplicationEventMulticaster multicaster = applicationEventMulticaster;
+        if (multicaster == null) {
+            logger.info("Event published before refresh, no listeners registered: {}", event);
+            return;
+        }
+        multicaster.multicastEvent(event);
     }
 
+    /**
+     * Close the context: publish a {@link ContextClosedEvent}, cancel the
+     * {@link Scheduled} tasks and destroy the singletons, waiting for their destroy
+     * callbacks as long as {@value #SHUTDOWN_TIMEOUT_PROPERTY} allows. The default
+     * executors are shut down last, so destroy callbacks can still use them.
+     */
     @Override
     public void close() throws BeansException {
-        active = false;
         logger.info("Closing application context: {}", applicationName);
+        if (active) {
+            publishEvent(new ContextClosedEvent(this));
+        }
+        active = false;
+        if (scheduledAnnotationProcessor != null) {
+            scheduledAnnotationProcessor.cancelScheduledTasks();
+        }
+        HashedWheelTaskScheduler scheduler = defaultTaskScheduler;
+        if (scheduler != null) {
+            scheduler.close();
+        }
+        long timeoutMillis = Long.parseLong(getEnvironment().getProperty(SHUTDOWN_TIMEOUT_PROPERTY, "30000"));
+        beanFactory.destroySingletons(timeoutMillis);
+        ExecutorService executor = defaultAsyncExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 
     @Override
@@ -164,4 +704,28 @@ public class AnnotationConfigApplicationContext implements ApplicationContext {
     public ConfigurableListableBeanFactory getBeanFactory() {
         return beanFactory;
     }
-}
\ No newline at end of file
+
+    /**
+     * Listener for a singleton {@link ApplicationListener} bean, resolved on first use.
+     */
+    private final class SingletonListenerBean implements ApplicationListener<Object> {
+
+        private final String beanName;
+        private volatile ApplicationListener<Object> listener;
+
+        private SingletonListenerBean(String beanName) {
+            this.beanName = beanName;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onApplicationEvent(Object event) {
+            ApplicationListener<Object> target = listener;
+            if (target == null) {
+                target = (ApplicationListener<Object>) beanFactory.getBean(beanName);
+                listener = target;
+            }
+            target.onApplicationEvent(event);
+        }
+    }
+}
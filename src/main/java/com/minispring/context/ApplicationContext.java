@@ -1,6 +1,7 @@
 package com.minispring.context;
 
 import com.minispring.beans.factory.BeanFactory;
+import com.minispring.core.env.Environment;
 import com.minispring.exception.BeansException;
 
 /**
@@ -17,6 +18,13 @@ public interface ApplicationContext extends BeanFactory {
      */
     String getApplicationName();
 
+    /**
+     * Return the parent context, whose beans the beans of this context can depend on.
+     *
+     * @return the parent context, or {@code null} if there is none
+     */
+    ApplicationContext getParent();
+
     /**
      * Return the timestamp when this context was first loaded.
      *
@@ -24,6 +32,13 @@ public interface ApplicationContext extends BeanFactory {
      */
     long getStartupDate();
 
+    /**
+     * Return the environment this context resolves properties and placeholders against.
+     *
+     * @return the environment
+     */
+    Environment getEnvironment();
+
     /**
      * Notify all listeners registered with this application of an application event.
      * Events may be framework events or application-specific events.
@@ -0,0 +1,22 @@
+package com.minispring.context;
+
+import java.util.EventListener;
+
+/**
+ * Interface to be implemented by application event listeners.
+ * Beans implementing this interface are registered with the context's event
+ * multicaster on refresh. The event type is resolved from the generic type argument,
+ * so a listener is only invoked for events assignable to it.
+ *
+ * @param <E> the specific event type to listen to
+ */
+@FunctionalInterface
+public interface ApplicationListener<E> extends EventListener {
+
+    /**
+     * Handle an application event.
+     *
+     * @param event the event to respond to
+     */
+    void onApplicationEvent(E event);
+}
@@ -0,0 +1,97 @@
+package com.minispring.context.aot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes a fingerprint of the classpath that a {@link ContextSnapshot} was taken
+ * with. Every classpath entry contributes its path, and the size and modification
+ * time of the jar or of every file below the directory; the registered component
+ * classes and scanned packages contribute their names. File contents are not read,
+ * so the fingerprint is cheap compared with scanning, yet changes whenever a class
+ * is added, removed or recompiled.
+ */
+public final class ClasspathFingerprint {
+
+    private ClasspathFingerprint() {
+    }
+
+    /**
+     * Compute the fingerprint of the given classpath and sources.
+     *
+     * @param classPath the classpath, entries separated by {@link File#pathSeparator}
+     * @param sources the registered component classes and scanned packages, in order
+     * @param snapshotFile the snapshot file, left out in case it lies on the classpath
+     * @return the fingerprint as a hex String
+     */
+    public static String compute(String classPath, List<String> sources, Path snapshotFile) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (String source : sources) {
+            update(digest, "source:" + source);
+        }
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            Path path = new File(entry).getAbsoluteFile().toPath();
+            update(digest, "entry:" + path);
+            try {
+                if (Files.isDirectory(path)) {
+                    for (String file : listFiles(path, snapshotFile.toAbsolutePath())) {
+                        update(digest, file);
+                    }
+                } else if (Files.exists(path)) {
+                    update(digest, Files.size(path) + "@" + Files.getLastModifiedTime(path).toMillis());
+                }
+            } catch (IOException e) {
+                update(digest, "unreadable");
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static List<String> listFiles(Path directory, Path excludedFile) throws IOException {
+        List<String> files = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (file.getParent().equals(excludedFile.getParent())
+                        && file.getFileName().toString().startsWith(excludedFile.getFileName().toString())) {
+                    // The snapshot and its temporary files
+                    return FileVisitResult.CONTINUE;
+                }
+                files.add(directory.relativize(file) + ":" + attributes.size() + "@"
+                        + attributes.lastModifiedTime().toMillis());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        // Directory listings come in no particular order
+        Collections.sort(files);
+        return files;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,450 @@
+package com.minispring.context.aot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.BeanPoolConfig;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.beans.factory.support.InjectionMetadata;
+
+/**
+ * Snapshot of a resolved bean registry: the name, class, scope and lazy-init flag
+ * of every bean definition, and for every bean class the chosen constructor and the
+ * injection points. Bean definitions are kept in a creation plan order, dependencies
+ * before the beans that depend on them.
+ *
+ * <p>Applying a snapshot registers the bean definitions in plan order and the
+ * injection metadata of every class, looking up each recorded member directly, so
+ * neither the classpath is scanned nor are the bean classes introspected. A snapshot
+ * carries the {@link ClasspathFingerprint} it was taken with and is only valid for
+ * that fingerprint.
+ */
+public final class ContextSnapshot {
+
+    private static final int MAGIC = 0x4D534E50;
+
+    private static final int VERSION = 1;
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>(16);
+
+    static {
+        for (Class<?> type : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class }) {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    private final String fingerprint;
+    private final List<BeanEntry> beans;
+    private final List<ClassEntry> classes;
+
+    private ContextSnapshot(String fingerprint, List<BeanEntry> beans, List<ClassEntry> classes) {
+        this.fingerprint = fingerprint;
+        this.beans = beans;
+        this.classes = classes;
+    }
+
+    /**
+     * Capture the bean definitions and injection metadata of the given factory.
+     *
+     * @param beanFactory the factory, with all bean definitions registered
+     * @param fingerprint the fingerprint of the classpath and sources
+     * @return the snapshot
+     */
+    public static ContextSnapshot capture(DefaultListableBeanFactory beanFactory, String fingerprint) {
+        Map<String, ClassEntry> classes = new LinkedHashMap<>();
+        List<BeanEntry> beans = new ArrayList<>();
+        for (String beanName : creationPlan(beanFactory)) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            Class<?> beanClass = beanDefinition.getBeanClass();
+            beans.add(new BeanEntry(beanName, beanClass.getName(), beanDefinition.getScope(),
+                    beanDefinition.getLazyInit(), (beanDefinition.isPooled() ? beanDefinition.getPoolConfig() : null)));
+            classes.computeIfAbsent(beanClass.getName(),
+                    className -> ClassEntry.of(beanFactory.getInjectionMetadata(beanClass)));
+        }
+        return new ContextSnapshot(fingerprint, beans, new ArrayList<>(classes.values()));
+    }
+
+    /**
+     * Order all bean definitions so that every bean comes after the beans it depends
+     * on. Dependencies that form a cycle keep their registration order.
+     */
+    private static List<String> creationPlan(DefaultListableBeanFactory beanFactory) {
+        Set<String> ordered = new LinkedHashSet<>();
+        Set<String> visiting = new HashSet<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            visit(beanName, beanFactory, ordered, visiting);
+        }
+        return new ArrayList<>(ordered);
+    }
+
+    private static void visit(String beanName, DefaultListableBeanFactory beanFactory, Set<String> ordered,
+                              Set<String> visiting) {
+        if (ordered.contains(beanName) || !visiting.add(beanName)) {
+            return;
+        }
+        Class<?> beanClass = beanFactory.getBeanDefinition(beanName).getBeanClass();
+        for (Class<?> dependencyType : beanFactory.getInjectionMetadata(beanClass).getDependencyTypes()) {
+            for (String dependencyName : beanFactory.getBeanNamesForType(dependencyType)) {
+                visit(dependencyName, beanFactory, ordered, visiting);
+            }
+        }
+        visiting.remove(beanName);
+        ordered.add(beanName);
+    }
+
+    /**
+     * Return the fingerprint this snapshot was taken with.
+     *
+     * @return the fingerprint
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Return the names of the beans in creation plan order.
+     *
+     * @return the bean names
+     */
+    public List<String> getBeanNames() {
+        List<String> beanNames = new ArrayList<>(beans.size());
+        for (BeanEntry bean : beans) {
+            beanNames.add(bean.beanName);
+        }
+        return beanNames;
+    }
+
+    /**
+     * Register the bean definitions and injection metadata of this snapshot with the
+     * given factory. All classes and members are resolved before anything is
+     * registered, so a snapshot that no longer matches the classes leaves the factory
+     * untouched. Bean definitions already present in the factory are kept.
+     *
+     * @param beanFactory the factory to register with
+     * @param classLoader the class loader to load the bean classes with
+     * @throws IllegalStateException if a recorded class or member cannot be resolved
+     */
+    public void applyTo(DefaultListableBeanFactory beanFactory, ClassLoader classLoader) {
+        Map<String, Class<?>> beanClasses = new HashMap<>();
+        List<InjectionMetadata> metadata = new ArrayList<>(classes.size());
+        try {
+            for (ClassEntry entry : classes) {
+                Class<?> beanClass = loadClass(entry.className, classLoader);
+                beanClasses.put(entry.className, beanClass);
+                metadata.add(entry.resolve(beanClass, classLoader, beanFactory));
+            }
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Context snapshot does not match the bean classes: " + e, e);
+        }
+
+        Set<String> existingBeanNames = new HashSet<>(Arrays.asList(beanFactory.getBeanDefinitionNames()));
+        for (BeanEntry bean : beans) {
+            if (existingBeanNames.contains(bean.beanName)) {
+                continue;
+            }
+            BeanDefinition beanDefinition = new BeanDefinition(beanClasses.get(bean.className));
+            beanDefinition.setScope(bean.scope);
+            if (bean.lazyInit != null) {
+                beanDefinition.setLazyInit(bean.lazyInit);
+            }
+            if (bean.poolConfig != null) {
+                beanDefinition.setPoolConfig(bean.poolConfig);
+            }
+            beanFactory.registerBeanDefinition(bean.beanName, beanDefinition);
+        }
+        for (InjectionMetadata injectionMetadata : metadata) {
+            beanFactory.registerInjectionMetadata(injectionMetadata);
+        }
+    }
+
+    /**
+     * Write this snapshot to the given file. The snapshot is written to a temporary
+     * file first and then moved into place, so concurrent readers never see a partial file.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                write(out);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Read a snapshot from the given file.
+     *
+     * @param file the file to read
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of this version
+     */
+    public static ContextSnapshot readFrom(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(new DataInputStream(new BufferedInputStream(in)));
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(fingerprint);
+        out.writeInt(beans.size());
+        for (BeanEntry bean : beans) {
+            bean.write(out);
+        }
+        out.writeInt(classes.size());
+        for (ClassEntry entry : classes) {
+            entry.write(out);
+        }
+    }
+
+    private static ContextSnapshot read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a context snapshot");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported context snapshot version " + version);
+        }
+        String fingerprint = in.readUTF();
+        int beanCount = in.readInt();
+        List<BeanEntry> beans = new ArrayList<>(beanCount);
+        for (int i = 0; i < beanCount; i++) {
+            beans.add(BeanEntry.read(in));
+        }
+        int classCount = in.readInt();
+        List<ClassEntry> classes = new ArrayList<>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            classes.add(ClassEntry.read(in));
+        }
+        return new ContextSnapshot(fingerprint, beans, classes);
+    }
+
+    private static Class<?> loadClass(String className, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitiveType = PRIMITIVE_TYPES.get(className);
+        return (primitiveType != null ? primitiveType : Class.forName(className, false, classLoader));
+    }
+
+    private static Class<?>[] loadClasses(String[] classNames, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?>[] classes = new Class<?>[classNames.length];
+        for (int i = 0; i < classNames.length; i++) {
+            classes[i] = loadClass(classNames[i], classLoader);
+        }
+        return classes;
+    }
+
+    private static String[] classNames(Class<?>[] classes) {
+        String[] classNames = new String[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            classNames[i] = classes[i].getName();
+        }
+        return classNames;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+
+    /**
+     * A bean definition in the snapshot.
+     */
+    private static final class BeanEntry {
+
+        private final String beanName;
+        private final String className;
+        private final String scope;
+        private final Boolean lazyInit;
+        private final BeanPoolConfig poolConfig;
+
+        private BeanEntry(String beanName, String className, String scope, Boolean lazyInit, BeanPoolConfig poolConfig) {
+            this.beanName = beanName;
+            this.className = className;
+            this.scope = scope;
+            this.lazyInit = lazyInit;
+            this.poolConfig = poolConfig;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(beanName);
+            out.writeUTF(className);
+            out.writeUTF(scope);
+            out.writeByte(lazyInit == null ? -1 : (lazyInit ? 1 : 0));
+            out.writeBoolean(poolConfig != null);
+            if (poolConfig != null) {
+                out.writeInt(poolConfig.getMinIdle());
+                out.writeInt(poolConfig.getMaxSize());
+                out.writeLong(poolConfig.getMaxIdleMillis());
+                out.writeLong(poolConfig.getMaxWaitMillis());
+            }
+        }
+
+        private static BeanEntry read(DataInputStream in) throws IOException {
+            String beanName = in.readUTF();
+            String className = in.readUTF();
+            String scope = in.readUTF();
+            byte lazyInit = in.readByte();
+            BeanPoolConfig poolConfig = null;
+            if (in.readBoolean()) {
+                poolConfig = new BeanPoolConfig();
+                poolConfig.setMinIdle(in.readInt());
+                poolConfig.setMaxSize(in.readInt());
+                poolConfig.setMaxIdleMillis(in.readLong());
+                poolConfig.setMaxWaitMillis(in.readLong());
+            }
+            return new BeanEntry(beanName, className, scope, (lazyInit == -1 ? null : lazyInit == 1), poolConfig);
+        }
+    }
+
+    /**
+     * The constructor and injection points of a bean class.
+     */
+    private static final class ClassEntry {
+
+        private final String className;
+        private final String[] constructorParameterTypes;
+        private final boolean autowiredConstructor;
+        private final List<MemberEntry> members;
+
+        private ClassEntry(String className, String[] constructorParameterTypes, boolean autowiredConstructor,
+                           List<MemberEntry> members) {
+            this.className = className;
+            this.constructorParameterTypes = constructorParameterTypes;
+            this.autowiredConstructor = autowiredConstructor;
+            this.members = members;
+        }
+
+        private static ClassEntry of(InjectionMetadata metadata) {
+            Constructor<?> constructor = metadata.getConstructor();
+            List<MemberEntry> members = new ArrayList<>();
+            for (Member member : metadata.getInjectedMembers()) {
+                members.add(MemberEntry.of(member));
+            }
+            return new ClassEntry(metadata.getTargetClass().getName(),
+                    (constructor != null ? classNames(constructor.getParameterTypes()) : null),
+                    metadata.isAutowiredConstructor(), members);
+        }
+
+        private InjectionMetadata resolve(Class<?> beanClass, ClassLoader classLoader,
+                                          DefaultListableBeanFactory beanFactory) throws ReflectiveOperationException {
+            Constructor<?> constructor = (constructorParameterTypes != null
+                    ? beanClass.getDeclaredConstructor(loadClasses(constructorParameterTypes, classLoader)) : null);
+            List<Member> resolvedMembers = new ArrayList<>(members.size());
+            for (MemberEntry member : members) {
+                resolvedMembers.add(member.resolve(classLoader));
+            }
+            return InjectionMetadata.forMembers(beanClass, constructor, autowiredConstructor, resolvedMembers,
+                    beanFactory.getBeanAccessorStrategy());
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(className);
+            out.writeBoolean(constructorParameterTypes != null);
+            if (constructorParameterTypes != null) {
+                writeStrings(out, constructorParameterTypes);
+            }
+            out.writeBoolean(autowiredConstructor);
+            out.writeInt(members.size());
+            for (MemberEntry member : members) {
+                member.write(out);
+            }
+        }
+
+        private static ClassEntry read(DataInputStream in) throws IOException {
+            String className = in.readUTF();
+            String[] constructorParameterTypes = (in.readBoolean() ? readStrings(in) : null);
+            boolean autowiredConstructor = in.readBoolean();
+            int memberCount = in.readInt();
+            List<MemberEntry> members = new ArrayList<>(memberCount);
+            for (int i = 0; i < memberCount; i++) {
+                members.add(MemberEntry.read(in));
+            }
+            return new ClassEntry(className, constructorParameterTypes, autowiredConstructor, members);
+        }
+    }
+
+    /**
+     * An injected field or method, identified by its declaring class, name and,
+     * for a method, its parameter types.
+     */
+    private static final class MemberEntry {
+
+        private final String declaringClassName;
+        private final String name;
+        private final String[] parameterTypes;
+
+        private MemberEntry(String declaringClassName, String name, String[] parameterTypes) {
+            this.declaringClassName = declaringClassName;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+
+        private static MemberEntry of(Member member) {
+            String[] parameterTypes = (member instanceof Method
+                    ? classNames(((Method) member).getParameterTypes()) : null);
+            return new MemberEntry(member.getDeclaringClass().getName(), member.getName(), parameterTypes);
+        }
+
+        private Member resolve(ClassLoader classLoader) throws ReflectiveOperationException {
+            Class<?> declaringClass = loadClass(declaringClassName, classLoader);
+            if (parameterTypes == null) {
+                return declaringClass.getDeclaredField(name);
+            }
+            return declaringClass.getDeclaredMethod(name, loadClasses(parameterTypes, classLoader));
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(declaringClassName);
+            out.writeUTF(name);
+            out.writeBoolean(parameterTypes != null);
+            if (parameterTypes != null) {
+                writeStrings(out, parameterTypes);
+            }
+        }
+
+        private static MemberEntry read(DataInputStream in) throws IOException {
+            String declaringClassName = in.readUTF();
+            String name = in.readUTF();
+            String[] parameterTypes = (in.readBoolean() ? readStrings(in) : null);
+            return new MemberEntry(declaringClassName, name, parameterTypes);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.minispring.context.event;
+
+import java.util.EventObject;
+
+/**
+ * Base class for application events. Any object can be published as an event;
+ * this class adds the time at which the event happened.
+ */
+public abstract class ApplicationEvent extends EventObject {
+
+    private final long timestamp;
+
+    /**
+     * Create a new ApplicationEvent.
+     *
+     * @param source the object on which the event initially occurred
+     */
+    public ApplicationEvent(Object source) {
+        super(source);
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Return the system time in milliseconds when the event occurred.
+     *
+     * @return the event timestamp
+     */
+    public final long getTimestamp() {
+        return this.timestamp;
+    }
+}
@@ -0,0 +1,53 @@
+package com.minispring.context.event;
+
+import com.minispring.context.ApplicationListener;
+
+/**
+ * Interface to be implemented by objects that can manage a number of
+ * {@link ApplicationListener} objects and publish events to them.
+ * A bean named {@value #APPLICATION_EVENT_MULTICASTER_BEAN_NAME} replaces the
+ * context's default {@link SimpleApplicationEventMulticaster}.
+ */
+public interface ApplicationEventMulticaster {
+
+    /**
+     * Name of the multicaster bean picked up by the context, if defined.
+     */
+    String APPLICATION_EVENT_MULTICASTER_BEAN_NAME = "applicationEventMulticaster";
+
+    /**
+     * Add a listener to be notified of all events it accepts, the event type being
+     * resolved from the listener's generic type argument.
+     *
+     * @param listener the listener to add
+     */
+    void addApplicationListener(ApplicationListener<?> listener);
+
+    /**
+     * Add a listener to be notified of events of the given type.
+     *
+     * @param eventType the type of events the listener accepts
+     * @param listener the listener to add
+     * @param <E> the event type
+     */
+    <E> void addApplicationListener(Class<E> eventType, ApplicationListener<? super E> listener);
+
+    /**
+     * Remove a listener from the notification list.
+     *
+     * @param listener the listener to remove
+     */
+    void removeApplicationListener(ApplicationListener<?> listener);
+
+    /**
+     * Remove all listeners registered with this multicaster.
+     */
+    void removeAllListeners();
+
+    /**
+     * Multicast the given application event to appropriate listeners.
+     *
+     * @param event the event to multicast
+     */
+    void multicastEvent(Object event);
+}
@@ -0,0 +1,85 @@
+package com.minispring.context.event;
+
+import java.lang.reflect.Method;
+
+import com.minispring.beans.factory.BeanFactory;
+import com.minispring.beans.factory.support.BeanAccessorStrategy;
+import com.minispring.context.ApplicationListener;
+import com.minispring.exception.BeansException;
+
+/**
+ * {@link ApplicationListener} adapter that delegates the handling of an event to
+ * an {@link com.minispring.annotation.EventListener} annotated method.
+ * The target bean is looked up by name, so the listener can be registered before
+ * the bean is created; singleton targets are resolved once and then kept.
+ */
+public class ApplicationListenerMethodAdapter implements ApplicationListener<Object> {
+
+    private final String beanName;
+    private final BeanFactory beanFactory;
+    private final Method method;
+    private final BeanAccessorStrategy.MethodInvoker invoker;
+    private final Class<?> eventType;
+    private final boolean singleton;
+
+    private volatile Object target;
+
+    /**
+     * Create a new adapter for the given listener method.
+     *
+     * @param beanName the name of the bean declaring the method
+     * @param beanFactory the factory to obtain the bean from
+     * @param method the listener method, declaring exactly one parameter
+     * @param invoker the invoker for the method as exposed by the bean, e.g. for the
+     * method of its proxied interface if the bean is a JDK proxy
+     * @param singleton whether the bean is a singleton and can be resolved once
+     */
+    public ApplicationListenerMethodAdapter(String beanName, BeanFactory beanFactory, Method method,
+                                            BeanAccessorStrategy.MethodInvoker invoker, boolean singleton) {
+        this.beanName = beanName;
+        this.beanFactory = beanFactory;
+        this.method = method;
+        this.invoker = invoker;
+        Class<?> parameterType = method.getParameterTypes()[0];
+        this.eventType = (parameterType.isPrimitive() ? Object.class : parameterType);
+        this.singleton = singleton;
+    }
+
+    /**
+     * Return the event type the method listens to.
+     *
+     * @return the declared parameter type of the method
+     */
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    @Override
+    public void onApplicationEvent(Object event) {
+        Object bean = getTarget();
+        try {
+            invoker.invoke(bean, new Object[] { event });
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable ex) {
+            throw new BeansException("Error invoking event listener method " + method + " on bean '" + beanName + "'", ex);
+        }
+    }
+
+    private Object getTarget() {
+        if (!singleton) {
+            return beanFactory.getBean(beanName);
+        }
+        Object bean = target;
+        if (bean == null) {
+            bean = beanFactory.getBean(beanName);
+            target = bean;
+        }
+        return bean;
+    }
+
+    @Override
+    public String toString() {
+        return "ApplicationListenerMethodAdapter: " + method + " on bean '" + beanName + "'";
+    }
+}
@@ -0,0 +1,17 @@
+package com.minispring.context.event;
+
+import com.minispring.context.ApplicationContext;
+
+/**
+ * Event raised when an {@link ApplicationContext} gets closed.
+ */
+public class ContextClosedEvent extends ApplicationEvent {
+
+    public ContextClosedEvent(ApplicationContext source) {
+        super(source);
+    }
+
+    public ApplicationContext getApplicationContext() {
+        return (ApplicationContext) getSource();
+    }
+}
@@ -0,0 +1,17 @@
+package com.minispring.context.event;
+
+import com.minispring.context.ApplicationContext;
+
+/**
+ * Event raised when an {@link ApplicationContext} gets refreshed.
+ */
+public class ContextRefreshedEvent extends ApplicationEvent {
+
+    public ContextRefreshedEvent(ApplicationContext source) {
+        super(source);
+    }
+
+    public ApplicationContext getApplicationContext() {
+        return (ApplicationContext) getSource();
+    }
+}
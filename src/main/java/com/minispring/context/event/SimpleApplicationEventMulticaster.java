@@ -0,0 +1,181 @@
+package com.minispring.context.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.minispring.context.ApplicationListener;
+import com.minispring.core.ClassUtils;
+
+/**
+ * Simple implementation of the {@link ApplicationEventMulticaster} interface.
+ * The listeners interested in an event type are computed once per event class and
+ * kept in an array, so publishing an event is a map lookup followed by a loop over
+ * that array. Registering or removing a listener swaps in a new registry with an
+ * empty dispatch cache.
+ *
+ * <p>By default, all listeners are invoked in the publishing thread, and a failing
+ * listener propagates its exception to the publisher. With a
+ * {@linkplain #setTaskExecutor task executor}, listener invocations are handed to
+ * the executor in batches, and failures are logged without affecting other listeners.
+ */
+public class SimpleApplicationEventMulticaster implements ApplicationEventMulticaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimpleApplicationEventMulticaster.class);
+
+    /**
+     * Number of listeners invoked per task on asynchronous delivery, so that an event
+     * with thousands of listeners does not submit thousands of tasks.
+     */
+    private static final int ASYNC_BATCH_SIZE = 64;
+
+    private volatile ListenerRegistry registry = new ListenerRegistry(new ListenerRegistration[0]);
+
+    private volatile Executor taskExecutor;
+
+    /**
+     * Set the executor to invoke each listener with, for asynchronous delivery,
+     * e.g. {@link com.minispring.core.task.TaskExecutors#newVirtualThreadPerTaskExecutor()}.
+     *
+     * @param taskExecutor the executor, or {@code null} to invoke listeners in the publishing thread
+     */
+    public void setTaskExecutor(Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Return the executor listeners are invoked with.
+     *
+     * @return the executor, or {@code null} for synchronous delivery
+     */
+    public Executor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    @Override
+    public void addApplicationListener(ApplicationListener<?> listener) {
+        addRegistration(new ListenerRegistration(
+                ClassUtils.resolveTypeArgument(listener.getClass(), ApplicationListener.class), listener));
+    }
+
+    @Override
+    public <E> void addApplicationListener(Class<E> eventType, ApplicationListener<? super E> listener) {
+        addRegistration(new ListenerRegistration(eventType, listener));
+    }
+
+    private synchronized void addRegistration(ListenerRegistration registration) {
+        ListenerRegistration[] current = registry.registrations;
+        ListenerRegistration[] registrations = new ListenerRegistration[current.length + 1];
+        System.arraycopy(current, 0, registrations, 0, current.length);
+        registrations[current.length] = registration;
+        registry = new ListenerRegistry(registrations);
+    }
+
+    @Override
+    public synchronized void removeApplicationListener(ApplicationListener<?> listener) {
+        List<ListenerRegistration> registrations = new ArrayList<>();
+        for (ListenerRegistration registration : registry.registrations) {
+            if (registration.listener != listener) {
+                registrations.add(registration);
+            }
+        }
+        registry = new ListenerRegistry(registrations.toArray(new ListenerRegistration[0]));
+    }
+
+    @Override
+    public synchronized void removeAllListeners() {
+        registry = new ListenerRegistry(new ListenerRegistration[0]);
+    }
+
+    /**
+     * Compute the dispatch table for the given event type ahead of the first publication.
+     *
+     * @param eventType the event type to prepare
+     */
+    public void prepareEventType(Class<?> eventType) {
+        registry.getListeners(eventType);
+    }
+
+    @Override
+    public void multicastEvent(Object event) {
+        ApplicationListener<Object>[] listeners = registry.getListeners(event.getClass());
+        Executor executor = taskExecutor;
+        if (executor == null) {
+            for (ApplicationListener<Object> listener : listeners) {
+                listener.onApplicationEvent(event);
+            }
+        } else {
+            for (int from = 0; from < listeners.length; from += ASYNC_BATCH_SIZE) {
+                int start = from;
+                int end = Math.min(from + ASYNC_BATCH_SIZE, listeners.length);
+                executor.execute(() -> {
+                    for (int i = start; i < end; i++) {
+                        invokeListener(listeners[i], event);
+                    }
+                });
+            }
+        }
+    }
+
+    private void invokeListener(ApplicationListener<Object> listener, Object event) {
+        try {
+            listener.onApplicationEvent(event);
+        } catch (RuntimeException | Error e) {
+            logger.error("Listener {} failed to handle event {}", listener, event, e);
+        }
+    }
+
+    /**
+     * Immutable set of registrations together with the dispatch cache computed from it.
+     */
+    private static final class ListenerRegistry {
+
+        private static final ApplicationListener<Object>[] NO_LISTENERS = newListenerArray(0);
+
+        private final ListenerRegistration[] registrations;
+        private final ConcurrentHashMap<Class<?>, ApplicationListener<Object>[]> dispatchCache = new ConcurrentHashMap<>(64);
+
+        private ListenerRegistry(ListenerRegistration[] registrations) {
+            this.registrations = registrations;
+        }
+
+        private ApplicationListener<Object>[] getListeners(Class<?> eventType) {
+            ApplicationListener<Object>[] listeners = dispatchCache.get(eventType);
+            if (listeners == null) {
+                listeners = dispatchCache.computeIfAbsent(eventType, this::retrieveListeners);
+            }
+            return listeners;
+        }
+
+        private ApplicationListener<Object>[] retrieveListeners(Class<?> eventType) {
+            List<ApplicationListener<Object>> matching = new ArrayList<>();
+            for (ListenerRegistration registration : registrations) {
+                if (registration.eventType.isAssignableFrom(eventType)) {
+                    matching.add(registration.listener);
+                }
+            }
+            return (matching.isEmpty() ? NO_LISTENERS : matching.toArray(newListenerArray(matching.size())));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static ApplicationListener<Object>[] newListenerArray(int length) {
+            return (ApplicationListener<Object>[]) new ApplicationListener<?>[length];
+        }
+    }
+
+    private static final class ListenerRegistration {
+
+        private final Class<?> eventType;
+        private final ApplicationListener<Object> listener;
+
+        @SuppressWarnings("unchecked")
+        private ListenerRegistration(Class<?> eventType, ApplicationListener<?> listener) {
+            this.eventType = (eventType.isPrimitive() ? Object.class : eventType);
+            this.listener = (ApplicationListener<Object>) listener;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.minispring.context.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Component index written at compile time by {@link CandidateComponentsIndexer}.
+ * Each entry maps a component class name to its bean name, scope and explicit
+ * lazy-init flag, stored as {@code className=beanName,scope[,lazyInit]} lines.
+ */
+public class CandidateComponentsIndex {
+
+    private final List<Entry> entries;
+
+    CandidateComponentsIndex(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Return the components located in the given package or any of its sub-packages.
+     *
+     * @param basePackage the package to filter on
+     * @return the matching index entries
+     */
+    public List<Entry> getCandidateComponents(String basePackage) {
+        String prefix = basePackage + ".";
+        List<Entry> candidates = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.getClassName().startsWith(prefix)) {
+                candidates.add(entry);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Return all components of this index.
+     *
+     * @return the index entries
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    static void read(InputStream in, List<Entry> entries) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        for (Map.Entry<Object, Object> property : properties.entrySet()) {
+            String className = (String) property.getKey();
+            String[] values = ((String) property.getValue()).split(",");
+            String scope = (values.length > 1 ? values[1].trim() : "singleton");
+            Boolean lazyInit = (values.length > 2 ? Boolean.valueOf(values[2].trim()) : null);
+            entries.add(new Entry(className, values[0].trim(), scope, lazyInit));
+        }
+    }
+
+    static void write(Collection<Entry> entries, OutputStream out) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (Entry entry : entries) {
+            content.append(entry.getClassName()).append('=')
+                    .append(entry.getBeanName()).append(',').append(entry.getScope());
+            if (entry.getLazyInit() != null) {
+                content.append(',').append(entry.getLazyInit());
+            }
+            content.append('\n');
+        }
+        out.write(content.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * A single indexed component.
+     */
+    public static class Entry {
+
+        private final String className;
+        private final String beanName;
+        private final String scope;
+        private final Boolean lazyInit;
+
+        public Entry(String className, String beanName, String scope, Boolean lazyInit) {
+            this.className = className;
+            this.beanName = beanName;
+            this.scope = scope;
+            this.lazyInit = lazyInit;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public Boolean getLazyInit() {
+            return lazyInit;
+        }
+    }
+}
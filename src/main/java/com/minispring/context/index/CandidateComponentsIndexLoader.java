@@ -0,0 +1,75 @@
+package com.minispring.context.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.minispring.exception.BeansException;
+
+/**
+ * Loads the {@link CandidateComponentsIndex} of all resources on the classpath.
+ */
+public final class CandidateComponentsIndexLoader {
+
+    /**
+     * The location to look for components index files. Can be present in multiple JAR files.
+     */
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/mini-spring.components";
+
+    /**
+     * System property that instructs to ignore the index, i.e. to always scan the classpath.
+     */
+    public static final String IGNORE_INDEX_PROPERTY = "minispring.index.ignore";
+
+    private static final Logger logger = LoggerFactory.getLogger(CandidateComponentsIndexLoader.class);
+
+    private static final CandidateComponentsIndex NO_INDEX = new CandidateComponentsIndex(new ArrayList<>());
+
+    private static final Map<ClassLoader, CandidateComponentsIndex> cache = new ConcurrentHashMap<>();
+
+    private CandidateComponentsIndexLoader() {
+    }
+
+    /**
+     * Load and instantiate the index from {@value #COMPONENTS_RESOURCE_LOCATION}.
+     *
+     * @param classLoader the class loader to use to load the index resources
+     * @return the index to use, or {@code null} if no index was found
+     * @throws BeansException if an index resource cannot be read
+     */
+    public static CandidateComponentsIndex loadIndex(ClassLoader classLoader) throws BeansException {
+        if (Boolean.getBoolean(IGNORE_INDEX_PROPERTY)) {
+            return null;
+        }
+        CandidateComponentsIndex index = cache.computeIfAbsent(classLoader, CandidateComponentsIndexLoader::doLoadIndex);
+        return (index != NO_INDEX ? index : null);
+    }
+
+    private static CandidateComponentsIndex doLoadIndex(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return NO_INDEX;
+            }
+            List<CandidateComponentsIndex.Entry> entries = new ArrayList<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (InputStream in = url.openStream()) {
+                    CandidateComponentsIndex.read(in, entries);
+                }
+            }
+            logger.info("Loaded {} indexed components", entries.size());
+            return new CandidateComponentsIndex(entries);
+        } catch (IOException e) {
+            throw new BeansException("Unable to load indexes from location [" + COMPONENTS_RESOURCE_LOCATION + "]", e);
+        }
+    }
+}
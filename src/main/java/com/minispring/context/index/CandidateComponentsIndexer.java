@@ -0,0 +1,88 @@
+package com.minispring.context.index;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.minispring.annotation.Component;
+import com.minispring.annotation.Lazy;
+import com.minispring.annotation.Scope;
+import com.minispring.core.ClassUtils;
+
+/**
+ * Annotation processor that writes a {@link CandidateComponentsIndex} for all
+ * {@link Component} classes of a compilation unit to
+ * {@value CandidateComponentsIndexLoader#COMPONENTS_RESOURCE_LOCATION}.
+ * It is registered as a service, so it runs whenever Mini Spring is on the
+ * annotation processor path of a build.
+ */
+public class CandidateComponentsIndexer extends AbstractProcessor {
+
+    private final Map<String, CandidateComponentsIndex.Entry> entries = new TreeMap<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Component.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+            entries.put(className, createEntry(className, type));
+        }
+
+        if (roundEnv.processingOver() && !entries.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private CandidateComponentsIndex.Entry createEntry(String className, TypeElement type) {
+        String beanName = type.getAnnotation(Component.class).value();
+        if (beanName.isEmpty()) {
+            // Same rule as ClassPathCandidateComponentProvider
+            beanName = ClassUtils.lowerFirstLetter(className.substring(className.lastIndexOf('.') + 1));
+        }
+
+        Scope scope = type.getAnnotation(Scope.class);
+        Lazy lazy = type.getAnnotation(Lazy.class);
+        return new CandidateComponentsIndex.Entry(className, beanName, (scope != null ? scope.value() : "singleton"),
+                (lazy != null ? lazy.value() : null));
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(
+                    StandardLocation.CLASS_OUTPUT, "", CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+            try (OutputStream out = file.openOutputStream()) {
+                CandidateComponentsIndex.write(entries.values(), out);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write component index: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.minispring.context.scope;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.minispring.beans.factory.ObjectFactory;
+import com.minispring.beans.factory.Scope;
+
+/**
+ * {@link Scope} with one instance of each bean per thread, registered as
+ * {@value #SCOPE_NAME} by the application context. Instances live as long as their
+ * thread, which suits virtual threads and short-lived worker threads; on pooled
+ * threads, prefer the {@link UnitOfWorkScope}, whose instances end with the unit of work.
+ */
+public class SimpleThreadScope implements Scope {
+
+    /** The name the application context registers this scope under. */
+    public static final String SCOPE_NAME = "thread";
+
+    private final ThreadLocal<Map<String, Object>> threadScope = ThreadLocal.withInitial(HashMap::new);
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        Map<String, Object> scope = threadScope.get();
+        Object bean = scope.get(name);
+        if (bean == null) {
+            bean = objectFactory.getObject();
+            scope.put(name, bean);
+        }
+        return bean;
+    }
+
+    @Override
+    public Object remove(String name) {
+        return threadScope.get().remove(name);
+    }
+}
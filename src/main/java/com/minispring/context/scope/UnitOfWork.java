@@ -0,0 +1,238 @@
+package com.minispring.context.scope;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.minispring.beans.factory.ObjectFactory;
+
+/**
+ * A unit of work, such as the handling of one request, that holds the beans of the
+ * {@link UnitOfWorkScope}. A unit of work is bound for the dynamic extent of a call,
+ * like a {@code ScopedValue}: {@link #run} and {@link #call} bind a new unit of work
+ * while the task runs and unbind it when the task returns, and {@link #wrap} carries
+ * the current unit of work over to a task run on another thread.
+ *
+ * <p>On Java 25 and later the binding is a {@code java.lang.ScopedValue}, used through
+ * method handles, so it costs virtual threads no thread-local map. On earlier Java
+ * versions a thread-local variable is set and restored around each call and removed
+ * again when the outermost call returns, so no value outlives the call.
+ */
+public final class UnitOfWork {
+
+    private static final Binding BINDING = createBinding();
+
+    private final Map<String, Object> beans = new ConcurrentHashMap<>();
+
+    private final ReentrantLock creationLock = new ReentrantLock();
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Run the given task in a new unit of work.
+     *
+     * @param task the task
+     */
+    public static void run(Runnable task) {
+        BINDING.run(new UnitOfWork(), task);
+    }
+
+    /**
+     * Call the given task in a new unit of work.
+     *
+     * @param task the task
+     * @param <T> the result type
+     * @return the result of the task
+     * @throws Exception any exception thrown by the task
+     */
+    public static <T> T call(Callable<T> task) throws Exception {
+        return new UnitOfWork().callBound(task);
+    }
+
+    /**
+     * Return the unit of work bound to the current thread.
+     *
+     * @return the current unit of work, or {@code null} if none is bound
+     */
+    public static UnitOfWork current() {
+        return BINDING.get();
+    }
+
+    /**
+     * Return a task that runs the given task with this unit of work bound, e.g. to
+     * hand part of the work to an executor.
+     *
+     * @param task the task
+     * @return the task running in this unit of work
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> BINDING.run(this, task);
+    }
+
+    /**
+     * Return a task that calls the given task with this unit of work bound.
+     *
+     * @param task the task
+     * @param <T> the result type
+     * @return the task running in this unit of work
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> callBound(task);
+    }
+
+    private <T> T callBound(Callable<T> task) throws Exception {
+        Object[] result = new Object[1];
+        Exception[] failure = new Exception[1];
+        BINDING.run(this, () -> {
+            try {
+                result[0] = task.call();
+            } catch (Exception e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    /**
+     * Return the bean with the given name, creating it on first request. Creation
+     * is guarded by a {@link ReentrantLock}, so tasks sharing this unit of work
+     * create each bean once, and waiting virtual threads do not pin their carrier.
+     */
+    Object getBean(String name, ObjectFactory<?> objectFactory) {
+        Object bean = beans.get(name);
+        if (bean == null) {
+            creationLock.lock();
+            try {
+                bean = beans.get(name);
+                if (bean == null) {
+                    bean = objectFactory.getObject();
+                    beans.put(name, bean);
+                }
+            } finally {
+                creationLock.unlock();
+            }
+        }
+        return bean;
+    }
+
+    Object removeBean(String name) {
+        return beans.remove(name);
+    }
+
+    private static Binding createBinding() {
+        try {
+            return new ScopedValueBinding();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return new ThreadLocalBinding();
+        }
+    }
+
+    /**
+     * Binds a unit of work for the duration of a task.
+     */
+    private interface Binding {
+
+        UnitOfWork get();
+
+        void run(UnitOfWork unitOfWork, Runnable task);
+    }
+
+    private static final class ThreadLocalBinding implements Binding {
+
+        private final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+
+        @Override
+        public UnitOfWork get() {
+            return current.get();
+        }
+
+        @Override
+        public void run(UnitOfWork unitOfWork, Runnable task) {
+            UnitOfWork previous = current.get();
+            current.set(unitOfWork);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    current.set(previous);
+                } else {
+                    current.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Binding through {@code java.lang.ScopedValue}, final as of Java 25.
+     */
+    private static final class ScopedValueBinding implements Binding {
+
+        private final Object scopedValue;
+        private final MethodHandle where;
+        private final MethodHandle run;
+        private final MethodHandle isBound;
+        private final MethodHandle get;
+
+        ScopedValueBinding() throws ReflectiveOperationException {
+            if (javaVersion() < 25) {
+                throw new ClassNotFoundException("java.lang.ScopedValue requires Java 25 or later");
+            }
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> scopedValueClass = Class.forName("java.lang.ScopedValue");
+            Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+            MethodHandle newInstance = lookup.findStatic(scopedValueClass, "newInstance",
+                    MethodType.methodType(scopedValueClass));
+            this.where = lookup.findStatic(scopedValueClass, "where",
+                    MethodType.methodType(carrierClass, scopedValueClass, Object.class));
+            this.run = lookup.findVirtual(carrierClass, "run", MethodType.methodType(void.class, Runnable.class));
+            this.isBound = lookup.findVirtual(scopedValueClass, "isBound", MethodType.methodType(boolean.class));
+            this.get = lookup.findVirtual(scopedValueClass, "get", MethodType.methodType(Object.class));
+            try {
+                this.scopedValue = newInstance.invoke();
+            } catch (Throwable e) {
+                throw new ReflectiveOperationException("Could not create ScopedValue", e);
+            }
+        }
+
+        @Override
+        public UnitOfWork get() {
+            try {
+                return ((boolean) isBound.invoke(scopedValue) ? (UnitOfWork) get.invoke(scopedValue) : null);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void run(UnitOfWork unitOfWork, Runnable task) {
+            try {
+                run.invoke(where.invoke(scopedValue, unitOfWork), task);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static int javaVersion() {
+            String version = System.getProperty("java.specification.version");
+            try {
+                return (version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.minispring.context.scope;
+
+import com.minispring.beans.factory.ObjectFactory;
+import com.minispring.beans.factory.Scope;
+
+/**
+ * {@link Scope} with one instance of each bean per {@link UnitOfWork}, registered as
+ * {@value #SCOPE_NAME} by the application context. Beans of this scope can only be
+ * obtained within {@link UnitOfWork#run} or {@link UnitOfWork#call}, and are shared
+ * by all tasks that the unit of work is {@linkplain UnitOfWork#wrap handed to}.
+ */
+public class UnitOfWorkScope implements Scope {
+
+    /** The name the application context registers this scope under. */
+    public static final String SCOPE_NAME = "unitOfWork";
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        return currentUnitOfWork().getBean(name, objectFactory);
+    }
+
+    @Override
+    public Object remove(String name) {
+        return currentUnitOfWork().removeBean(name);
+    }
+
+    private static UnitOfWork currentUnitOfWork() {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork == null) {
+            throw new IllegalStateException("No unit of work is active for the current thread");
+        }
+        return unitOfWork;
+    }
+}
@@ -1,29 +1,95 @@
 package com.minispring.context.support;
 
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.minispring.annotation.Component;
-import com.minispring.annotation.Scope;
+import com.minispring.annotation.Lazy;
+import com.minispring.annotation.PoolConfig;
 import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.BeanPoolConfig;
 import com.minispring.beans.factory.DefaultListableBeanFactory;
-import com.minispring.core.ClassUtils;
+import com.minispring.context.index.CandidateComponentsIndex;
+import com.minispring.context.index.CandidateComponentsIndexLoader;
+import com.minispring.core.metrics.StartupStep;
 import com.minispring.exception.BeansException;
 
 /**
  * Scanner for component classes to be auto-registered as beans.
+ * Uses the compile-time {@link CandidateComponentsIndex} when one is present on
+ * the classpath and falls back to reading the class files of the scanned packages
+ * with a {@link ClassPathCandidateComponentProvider} otherwise. Either way, only
+ * the classes of the components found are loaded.
+ *
+ * <p>The index is used per package: a package without any indexed component,
+ * e.g. one compiled without the indexer or packaged in a jar without an index,
+ * is scanned on the classpath instead, with a warning. A package that does have
+ * indexed components is resolved from the index only, so unindexed components
+ * in the same package, from another jar for instance, are not found; set the
+ * {@value CandidateComponentsIndexLoader#IGNORE_INDEX_PROPERTY} system property to
+ * always scan the classpath.
  */
 public class ClassPathBeanDefinitionScanner {
 
     private static final Logger logger = LoggerFactory.getLogger(ClassPathBeanDefinitionScanner.class);
 
     private final DefaultListableBeanFactory beanFactory;
+    private final ClassLoader classLoader;
+    private final CandidateComponentsIndex componentsIndex;
+    private final ClassPathCandidateComponentProvider componentProvider;
+
+    /** Components found on the classpath per package, shared with the scanners of child contexts. */
+    private final Map<String, List<CandidateComponentsIndex.Entry>> scannedComponents;
+
+    private boolean lazyInit = false;
 
     public ClassPathBeanDefinitionScanner(DefaultListableBeanFactory beanFactory) {
+        this(beanFactory, ClassPathBeanDefinitionScanner.class.getClassLoader());
+    }
+
+    /**
+     * Create a scanner that reads the components index, the class files and the
+     * component classes through the given class loader.
+     *
+     * @param beanFactory the bean factory to register the components with
+     * @param classLoader the class loader to find components with
+     */
+    public ClassPathBeanDefinitionScanner(DefaultListableBeanFactory beanFactory, ClassLoader classLoader) {
         this.beanFactory = beanFactory;
+        this.classLoader = classLoader;
+        this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(classLoader);
+        this.componentProvider = new ClassPathCandidateComponentProvider(classLoader);
+        this.scannedComponents = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Create a scanner for the bean factory of a child context that reuses the
+     * components the parent's scanner found, so that a package scanned by several
+     * contexts of a hierarchy is read from the classpath only once.
+     *
+     * @param beanFactory the bean factory to register the components with
+     * @param parentScanner the scanner of the parent context
+     */
+    public ClassPathBeanDefinitionScanner(DefaultListableBeanFactory beanFactory,
+                                          ClassPathBeanDefinitionScanner parentScanner) {
+        this.beanFactory = beanFactory;
+        this.classLoader = parentScanner.classLoader;
+        this.componentsIndex = parentScanner.componentsIndex;
+        this.componentProvider = parentScanner.componentProvider;
+        this.scannedComponents = parentScanner.scannedComponents;
+    }
+
+    /**
+     * Set whether scanned components without a {@link Lazy} annotation are
+     * registered for lazy initialization.
+     *
+     * @param lazyInit whether scanned components are lazy by default
+     */
+    public void setLazyInit(boolean lazyInit) {
+        this.lazyInit = lazyInit;
     }
 
     /**
@@ -36,77 +102,103 @@ public class ClassPathBeanDefinitionScanner {
         int beanCount = 0;
 
         for (String basePackage : basePackages) {
-            beanCount += doScan(basePackage);
+            StartupStep step = beanFactory.getApplicationStartup().start("minispring.context.component-scan")
+                    .tag("package", basePackage);
+            try {
+                int packageBeanCount = doScan(basePackage);
+                step.tag("beanCount", Integer.toString(packageBeanCount));
+                beanCount += packageBeanCount;
+            } finally {
+                step.end();
+            }
         }
 
         return beanCount;
     }
 
     /**
-     * Scan a package and register beans.
+     * Scan a package and register beans, from the index if it has entries for the
+     * package and from the classpath otherwise.
      *
      * @param basePackage the package to scan
      * @return the number of bean definitions registered
      */
     protected int doScan(String basePackage) {
-        logger.info("Scanning package: {}", basePackage);
-
-        int beanCount = 0;
-        Reflections reflections = new Reflections(basePackage);
-
-        // Find all classes annotated with @Component
-        Set<Class<?>> componentClasses = reflections.getTypesAnnotatedWith(Component.class);
-
-        for (Class<?> componentClass : componentClasses) {
-            String beanName = determineBeanName(componentClass);
-            BeanDefinition beanDefinition = createBeanDefinition(componentClass);
-
-            try {
-                // Register the bean definition
-                beanFactory.registerBeanDefinition(beanName, beanDefinition);
-                beanCount++;
-                logger.info("Registered bean: {} of type {}", beanName, componentClass.getName());
-            } catch (BeansException e) {
-                logger.error("Failed to register bean: {} of type {}", beanName, componentClass.getName(), e);
+        if (componentsIndex != null) {
+            List<CandidateComponentsIndex.Entry> indexed = componentsIndex.getCandidateComponents(basePackage);
+            if (!indexed.isEmpty()) {
+                logger.info("Reading indexed components of package: {}", basePackage);
+                return registerCandidateComponents(indexed);
             }
+            logger.warn("No indexed components in package {}, scanning the classpath instead. "
+                    + "Add the components indexer to the compilation of this package to avoid scanning.", basePackage);
         }
 
-        return beanCount;
+        List<CandidateComponentsIndex.Entry> candidates = scannedComponents.get(basePackage);
+        if (candidates == null) {
+            logger.info("Scanning package: {}", basePackage);
+            candidates = componentProvider.findCandidateComponents(basePackage);
+            scannedComponents.putIfAbsent(basePackage, candidates);
+        }
+        return registerCandidateComponents(candidates);
     }
 
     /**
-     * Create a bean definition for the given class.
+     * Register the given candidate components, loading only their classes.
      *
-     * @param beanClass the class of the bean
-     * @return the bean definition
+     * @param candidates the components found in the index or on the classpath
+     * @return the number of bean definitions registered
      */
-    protected BeanDefinition createBeanDefinition(Class<?> beanClass) {
-        BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+    protected int registerCandidateComponents(List<CandidateComponentsIndex.Entry> candidates) {
+        int beanCount = 0;
+        for (CandidateComponentsIndex.Entry entry : candidates) {
+            Class<?> componentClass;
+            try {
+                componentClass = Class.forName(entry.getClassName(), false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new BeansException("Component class not found: " + entry.getClassName(), e);
+            }
+
+            BeanDefinition beanDefinition = new BeanDefinition(componentClass);
+            beanDefinition.setScope(entry.getScope());
+            applyLazyInit(beanDefinition, entry.getLazyInit());
+            if (beanDefinition.isPooled()) {
+                applyPoolConfig(beanDefinition);
+            }
 
-        // Handle scope
-        Scope scope = beanClass.getAnnotation(Scope.class);
-        if (scope != null) {
-            beanDefinition.setScope(scope.value());
+            if (registerBeanDefinition(entry.getBeanName(), beanDefinition)) {
+                beanCount++;
+            }
         }
 
-        return beanDefinition;
+        return beanCount;
     }
 
-    /**
-     * Determine the bean name for the given bean class.
-     *
-     * @param beanClass the class of the bean
-     * @return the bean name
-     */
-    protected String determineBeanName(Class<?> beanClass) {
-        Component component = beanClass.getAnnotation(Component.class);
-        String value = component.value();
+    private boolean registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        try {
+            // Register the bean definition
+            beanFactory.registerBeanDefinition(beanName, beanDefinition);
+            logger.info("Registered bean: {} of type {}", beanName, beanClass.getName());
+            return true;
+        } catch (BeansException e) {
+            logger.error("Failed to register bean: {} of type {}", beanName, beanClass.getName(), e);
+            return false;
+        }
+    }
 
-        if (value.isEmpty()) {
-            // Use the class name with first letter lowercase
-            value = ClassUtils.lowerFirstLetter(ClassUtils.getSimpleName(beanClass));
+    private void applyPoolConfig(BeanDefinition beanDefinition) {
+        PoolConfig poolConfig = beanDefinition.getBeanClass().getAnnotation(PoolConfig.class);
+        if (poolConfig != null) {
+            beanDefinition.setPoolConfig(new BeanPoolConfig(poolConfig));
         }
+    }
 
-        return value;
+    private void applyLazyInit(BeanDefinition beanDefinition, Boolean explicitLazyInit) {
+        if (explicitLazyInit != null) {
+            beanDefinition.setLazyInit(explicitLazyInit);
+        } else if (lazyInit) {
+            beanDefinition.setLazyInit(true);
+        }
     }
-}
\ No newline at end of file
+}
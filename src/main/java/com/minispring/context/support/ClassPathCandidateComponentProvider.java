@@ -0,0 +1,154 @@
+package com.minispring.context.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.minispring.annotation.Component;
+import com.minispring.annotation.Lazy;
+import com.minispring.annotation.Scope;
+import com.minispring.context.index.CandidateComponentsIndex;
+import com.minispring.core.ClassUtils;
+import com.minispring.core.type.classreading.AnnotationMetadata;
+import com.minispring.core.type.classreading.ClassFileAnnotationReader;
+import com.minispring.exception.BeansException;
+
+/**
+ * Finds the {@link Component} classes of a package and its subpackages by reading
+ * class files, without loading any class. Directories are walked with NIO and jars
+ * are opened as zip file systems; the class files found are read in parallel, and
+ * only the class-level annotations of those that refer to {@link Component} are parsed.
+ * The result has the same form as the entries of a {@link CandidateComponentsIndex}.
+ */
+public class ClassPathCandidateComponentProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassPathCandidateComponentProvider.class);
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    private static final String COMPONENT = Component.class.getName();
+    private static final String SCOPE = Scope.class.getName();
+    private static final String LAZY = Lazy.class.getName();
+
+    private final ClassLoader classLoader;
+
+    public ClassPathCandidateComponentProvider(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Find the component classes of the given package and its subpackages.
+     *
+     * @param basePackage the package to scan
+     * @return the candidate components, one per class name, in classpath order
+     * @throws BeansException if the classpath cannot be read
+     */
+    public List<CandidateComponentsIndex.Entry> findCandidateComponents(String basePackage) {
+        String packagePath = basePackage.replace('.', '/');
+        List<Path> classFiles = new ArrayList<>();
+        List<FileSystem> jarFileSystems = new ArrayList<>();
+        try {
+            Enumeration<URL> roots = classLoader.getResources(packagePath);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    collectClassFiles(Paths.get(root.toURI()), classFiles);
+                } else if ("jar".equals(root.getProtocol())) {
+                    String spec = root.getPath();
+                    Path jarFile = Paths.get(new URI(spec.substring(0, spec.indexOf("!/"))));
+                    FileSystem fileSystem = FileSystems.newFileSystem(jarFile, (ClassLoader) null);
+                    jarFileSystems.add(fileSystem);
+                    collectClassFiles(fileSystem.getPath("/" + packagePath), classFiles);
+                } else {
+                    logger.warn("Skipping unsupported classpath location {}", root);
+                }
+            }
+
+            Map<String, CandidateComponentsIndex.Entry> candidates = new LinkedHashMap<>();
+            for (CandidateComponentsIndex.Entry entry : classFiles.parallelStream()
+                    .map(ClassPathCandidateComponentProvider::readCandidate)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())) {
+                candidates.putIfAbsent(entry.getClassName(), entry);
+            }
+            return new ArrayList<>(candidates.values());
+        } catch (IOException | URISyntaxException | UncheckedIOException e) {
+            throw new BeansException("Failed to scan package " + basePackage, e);
+        } finally {
+            for (FileSystem fileSystem : jarFileSystems) {
+                try {
+                    fileSystem.close();
+                } catch (IOException e) {
+                    logger.debug("Could not close {}", fileSystem, e);
+                }
+            }
+        }
+    }
+
+    private static void collectClassFiles(Path directory, List<Path> classFiles) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.filter(path -> path.getFileName() != null && path.getFileName().toString().endsWith(CLASS_FILE_SUFFIX))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .forEach(classFiles::add);
+        }
+    }
+
+    private static CandidateComponentsIndex.Entry readCandidate(Path classFile) {
+        AnnotationMetadata metadata;
+        try {
+            metadata = ClassFileAnnotationReader.read(Files.readAllBytes(classFile), COMPONENT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + classFile, e);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Skipping unreadable class file {}: {}", classFile, e.getMessage());
+            return null;
+        }
+        if (metadata == null || !metadata.isClass() || !metadata.hasAnnotation(COMPONENT)) {
+            return null;
+        }
+        return createEntry(metadata);
+    }
+
+    private static CandidateComponentsIndex.Entry createEntry(AnnotationMetadata metadata) {
+        String className = metadata.getClassName();
+        String beanName = (String) metadata.getAnnotationAttributes(COMPONENT).get("value");
+        if (beanName == null || beanName.isEmpty()) {
+            // Same rule as CandidateComponentsIndexer
+            beanName = ClassUtils.lowerFirstLetter(className.substring(className.lastIndexOf('.') + 1));
+        }
+
+        String scope = "singleton";
+        Map<String, Object> scopeAttributes = metadata.getAnnotationAttributes(SCOPE);
+        if (scopeAttributes != null && scopeAttributes.containsKey("value")) {
+            scope = (String) scopeAttributes.get("value");
+        }
+        Boolean lazyInit = null;
+        Map<String, Object> lazyAttributes = metadata.getAnnotationAttributes(LAZY);
+        if (lazyAttributes != null) {
+            lazyInit = (Boolean) lazyAttributes.getOrDefault("value", Boolean.TRUE);
+        }
+        return new CandidateComponentsIndex.Entry(className, beanName, scope, lazyInit);
+    }
+}
@@ -2,8 +2,13 @@ package com.minispring.core;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -11,6 +16,20 @@ import java.util.Set;
  */
 public class ClassUtils {
 
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_WRAPPER_TYPES = new HashMap<>(16);
+
+    static {
+        PRIMITIVE_WRAPPER_TYPES.put(boolean.class, Boolean.class);
+        PRIMITIVE_WRAPPER_TYPES.put(byte.class, Byte.class);
+        PRIMITIVE_WRAPPER_TYPES.put(char.class, Character.class);
+        PRIMITIVE_WRAPPER_TYPES.put(double.class, Double.class);
+        PRIMITIVE_WRAPPER_TYPES.put(float.class, Float.class);
+        PRIMITIVE_WRAPPER_TYPES.put(int.class, Integer.class);
+        PRIMITIVE_WRAPPER_TYPES.put(long.class, Long.class);
+        PRIMITIVE_WRAPPER_TYPES.put(short.class, Short.class);
+        PRIMITIVE_WRAPPER_TYPES.put(void.class, Void.class);
+    }
+
     /**
      * Gets all declared fields including those from superclasses.
      *
@@ -47,6 +66,93 @@ public class ClassUtils {
         return methods;
     }
 
+    /**
+     * Gets the given class together with all of its superclasses and all
+     * interfaces it implements, directly or through its hierarchy.
+     *
+     * @param clazz the class to analyze
+     * @return set of all types the class is assignable to, starting with the class itself
+     */
+    public static Set<Class<?>> getAllSuperTypes(Class<?> clazz) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Class<?> currentClass = clazz;
+
+        while (currentClass != null) {
+            types.add(currentClass);
+            collectInterfaces(currentClass, types);
+            currentClass = currentClass.getSuperclass();
+        }
+
+        return types;
+    }
+
+    private static void collectInterfaces(Class<?> clazz, Set<Class<?>> types) {
+        for (Class<?> ifc : clazz.getInterfaces()) {
+            if (types.add(ifc)) {
+                collectInterfaces(ifc, types);
+            }
+        }
+    }
+
+    /**
+     * Returns the wrapper class for the given primitive class, or the class itself
+     * if it is not primitive.
+     *
+     * @param clazz the class to check
+     * @return the wrapper class for a primitive, otherwise the class itself
+     */
+    public static Class<?> resolvePrimitiveIfNecessary(Class<?> clazz) {
+        if (!clazz.isPrimitive()) {
+            return clazz;
+        }
+        return PRIMITIVE_WRAPPER_TYPES.get(clazz);
+    }
+
+    /**
+     * Resolves the first type argument the given class declares for a generic
+     * interface, through its superclasses and superinterfaces.
+     *
+     * @param clazz the class to analyze
+     * @param genericInterface the generic interface, e.g. a listener interface
+     * @return the resolved type argument, or {@code Object.class} if it cannot be resolved
+     */
+    public static Class<?> resolveTypeArgument(Class<?> clazz, Class<?> genericInterface) {
+        for (Class<?> currentClass = clazz; currentClass != null; currentClass = currentClass.getSuperclass()) {
+            Class<?> resolved = resolveTypeArgument(currentClass.getGenericInterfaces(), genericInterface);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        return Object.class;
+    }
+
+    private static Class<?> resolveTypeArgument(Type[] types, Class<?> genericInterface) {
+        for (Type type : types) {
+            Class<?> rawType = (type instanceof ParameterizedType
+                    ? (Class<?>) ((ParameterizedType) type).getRawType() : (type instanceof Class ? (Class<?>) type : null));
+            if (rawType == null || !genericInterface.isAssignableFrom(rawType)) {
+                continue;
+            }
+            if (rawType == genericInterface) {
+                if (type instanceof ParameterizedType) {
+                    Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+                    if (argument instanceof Class) {
+                        return (Class<?>) argument;
+                    }
+                    if (argument instanceof ParameterizedType) {
+                        return (Class<?>) ((ParameterizedType) argument).getRawType();
+                    }
+                }
+                return Object.class;
+            }
+            Class<?> resolved = resolveTypeArgument(rawType.getGenericInterfaces(), genericInterface);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        return null;
+    }
+
     /**
      * Determines the simple class name for the supplied class.
      *
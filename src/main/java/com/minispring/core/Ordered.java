@@ -0,0 +1,22 @@
+package com.minispring.core;
+
+/**
+ * Interface to be implemented by objects that apply in an order, such as bean post
+ * processors. Lower values have higher priority; objects with equal order keep the
+ * order they were registered in.
+ */
+public interface Ordered {
+
+    /** The order of an object that applies before all others. */
+    int HIGHEST_PRECEDENCE = Integer.MIN_VALUE;
+
+    /** The order of an object that applies after all others, and of unordered objects. */
+    int LOWEST_PRECEDENCE = Integer.MAX_VALUE;
+
+    /**
+     * Return the order of this object.
+     *
+     * @return the order value
+     */
+    int getOrder();
+}
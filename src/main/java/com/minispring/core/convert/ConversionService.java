@@ -0,0 +1,44 @@
+package com.minispring.core.convert;
+
+import com.minispring.exception.ConversionException;
+
+/**
+ * A service interface for type conversion. This is the entry point into the
+ * convert system; {@link com.minispring.annotation.Value} expressions are converted
+ * to the type of their injection point with it.
+ *
+ * @see com.minispring.core.convert.support.DefaultConversionService
+ */
+public interface ConversionService {
+
+    /**
+     * Return whether objects of {@code sourceType} can be converted to {@code targetType}.
+     *
+     * @param sourceType the source type to convert from
+     * @param targetType the target type to convert to
+     * @return whether a conversion is possible
+     */
+    boolean canConvert(Class<?> sourceType, Class<?> targetType);
+
+    /**
+     * Convert the given source to the specified target type.
+     *
+     * @param source the source object to convert, may be {@code null}
+     * @param targetType the target type to convert to
+     * @param <T> the target type
+     * @return the converted object, an instance of {@code targetType}
+     * @throws ConversionException if a conversion exception occurred
+     */
+    <T> T convert(Object source, Class<T> targetType);
+
+    /**
+     * Convert the given source to the type described by the given descriptor,
+     * which may carry the element type of an array or collection.
+     *
+     * @param source the source object to convert, may be {@code null}
+     * @param targetType the type descriptor of the target
+     * @return the converted object
+     * @throws ConversionException if a conversion exception occurred
+     */
+    Object convert(Object source, TypeDescriptor targetType);
+}
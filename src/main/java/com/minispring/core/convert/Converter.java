@@ -0,0 +1,21 @@
+package com.minispring.core.convert;
+
+/**
+ * A converter converts a source object of type {@code S} to a target of type {@code T}.
+ * Implementations must be thread-safe.
+ *
+ * @param <S> the source type
+ * @param <T> the target type
+ */
+@FunctionalInterface
+public interface Converter<S, T> {
+
+    /**
+     * Convert the source object to the target type.
+     *
+     * @param source the source object to convert, never {@code null}
+     * @return the converted object, possibly {@code null}
+     * @throws IllegalArgumentException if the source cannot be converted
+     */
+    T convert(S source);
+}
@@ -0,0 +1,20 @@
+package com.minispring.core.convert;
+
+/**
+ * A factory for converters that convert objects from {@code S} to subtypes of
+ * {@code R}, e.g. from String to any enum type.
+ *
+ * @param <S> the source type
+ * @param <R> the base type of the targets
+ */
+public interface ConverterFactory<S, R> {
+
+    /**
+     * Get the converter to convert from {@code S} to the given target type.
+     *
+     * @param targetType the target type to convert to
+     * @param <T> the target type
+     * @return a converter from {@code S} to {@code T}
+     */
+    <T extends R> Converter<S, T> getConverter(Class<T> targetType);
+}
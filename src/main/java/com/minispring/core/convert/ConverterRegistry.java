@@ -0,0 +1,38 @@
+package com.minispring.core.convert;
+
+/**
+ * For registering converters with a type conversion system.
+ */
+public interface ConverterRegistry {
+
+    /**
+     * Add a plain converter to this registry.
+     *
+     * @param sourceType the source type to convert from
+     * @param targetType the target type to convert to
+     * @param converter the converter
+     * @param <S> the source type
+     * @param <T> the target type
+     */
+    <S, T> void addConverter(Class<S> sourceType, Class<T> targetType, Converter<? super S, ? extends T> converter);
+
+    /**
+     * Add a converter factory, converting to any subtype of {@code targetType}.
+     *
+     * @param sourceType the source type to convert from
+     * @param targetType the base type of the targets
+     * @param converterFactory the converter factory
+     * @param <S> the source type
+     * @param <R> the base type of the targets
+     */
+    <S, R> void addConverterFactory(Class<S> sourceType, Class<R> targetType, ConverterFactory<S, R> converterFactory);
+
+    /**
+     * Add a generic converter to this registry.
+     *
+     * @param sourceType the source type to convert from
+     * @param targetType the target type to convert to
+     * @param converter the generic converter
+     */
+    void addConverter(Class<?> sourceType, Class<?> targetType, GenericConverter converter);
+}
@@ -0,0 +1,20 @@
+package com.minispring.core.convert;
+
+/**
+ * Converter that has access to the full target type descriptor, e.g. the element
+ * type of a target collection. Used for conversions between arrays and collections,
+ * whose elements are converted with the enclosing {@link ConversionService}.
+ */
+@FunctionalInterface
+public interface GenericConverter {
+
+    /**
+     * Convert the source object to the type described by the {@code TypeDescriptor}.
+     *
+     * @param source the source object to convert, never {@code null}
+     * @param targetType the type descriptor of the target
+     * @return the converted object
+     * @throws IllegalArgumentException if the source cannot be converted
+     */
+    Object convert(Object source, TypeDescriptor targetType);
+}
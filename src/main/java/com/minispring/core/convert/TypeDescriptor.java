@@ -0,0 +1,162 @@
+package com.minispring.core.convert;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import com.minispring.core.ClassUtils;
+
+/**
+ * Describes the type to convert to: the raw class and, for arrays and collections,
+ * the element type taken from the generic declaration of a field or parameter.
+ * Descriptors are immutable and meant to be created once per injection point.
+ */
+public final class TypeDescriptor {
+
+    private final Class<?> type;
+    private final Class<?> elementType;
+
+    private TypeDescriptor(Class<?> type, Class<?> elementType) {
+        this.type = type;
+        this.elementType = elementType;
+    }
+
+    /**
+     * Create a descriptor for the given class. The element type of a collection
+     * class is unknown and treated as {@code Object}.
+     *
+     * @param type the class
+     * @return the type descriptor
+     */
+    public static TypeDescriptor valueOf(Class<?> type) {
+        return of(type, type);
+    }
+
+    /**
+     * Create a descriptor for a collection with the given element type.
+     *
+     * @param collectionType the collection class, e.g. {@code List.class}
+     * @param elementType the element type
+     * @return the type descriptor
+     */
+    public static TypeDescriptor collection(Class<?> collectionType, Class<?> elementType) {
+        return new TypeDescriptor(collectionType, elementType);
+    }
+
+    /**
+     * Create a descriptor for the declared type of the given field.
+     *
+     * @param field the field
+     * @return the type descriptor
+     */
+    public static TypeDescriptor forField(Field field) {
+        return of(field.getType(), field.getGenericType());
+    }
+
+    /**
+     * Create a descriptor for the declared type of the given method or constructor parameter.
+     *
+     * @param parameter the parameter
+     * @return the type descriptor
+     */
+    public static TypeDescriptor forParameter(Parameter parameter) {
+        return of(parameter.getType(), parameter.getParameterizedType());
+    }
+
+    private static TypeDescriptor of(Class<?> type, Type genericType) {
+        Class<?> elementType = null;
+        if (type.isArray()) {
+            elementType = type.getComponentType();
+        } else if (Collection.class.isAssignableFrom(type)) {
+            elementType = Object.class;
+            if (genericType instanceof ParameterizedType) {
+                elementType = rawClass(((ParameterizedType) genericType).getActualTypeArguments()[0]);
+            }
+        }
+        return new TypeDescriptor(type, elementType);
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        return Object.class;
+    }
+
+    /**
+     * Return the raw class of the described type, possibly a primitive class.
+     *
+     * @return the type
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Return the described type, with primitives replaced by their wrapper class.
+     *
+     * @return the object type
+     */
+    public Class<?> getObjectType() {
+        return ClassUtils.resolvePrimitiveIfNecessary(type);
+    }
+
+    /**
+     * Return the element type of an array or collection type.
+     *
+     * @return the element type, or {@code null} if this is neither an array nor a collection
+     */
+    public Class<?> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * Return whether the described type is an array type.
+     *
+     * @return whether this is an array type
+     */
+    public boolean isArray() {
+        return type.isArray();
+    }
+
+    /**
+     * Return whether the described type is a {@link Collection} type.
+     *
+     * @return whether this is a collection type
+     */
+    public boolean isCollection() {
+        return Collection.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TypeDescriptor)) {
+            return false;
+        }
+        TypeDescriptor that = (TypeDescriptor) other;
+        return (type == that.type && elementType == that.elementType);
+    }
+
+    @Override
+    public int hashCode() {
+        return type.hashCode() * 31 + (elementType != null ? elementType.hashCode() : 0);
+    }
+
+    @Override
+    public String toString() {
+        return (elementType != null && !type.isArray() ? type.getName() + "<" + elementType.getName() + ">" : type.getName());
+    }
+}
@@ -0,0 +1,115 @@
+package com.minispring.core.convert.support;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.minispring.core.convert.ConversionService;
+import com.minispring.core.convert.ConverterRegistry;
+import com.minispring.core.convert.GenericConverter;
+import com.minispring.core.convert.TypeDescriptor;
+
+/**
+ * Generic converters between comma-delimited Strings, arrays and collections.
+ * Each element is converted to the element type of the target with the enclosing
+ * {@link ConversionService}, so any type that a single value converts to can also
+ * be collected into an array or collection.
+ */
+final class CollectionConverters {
+
+    private CollectionConverters() {
+    }
+
+    /**
+     * Register the collection converters with the given registry.
+     *
+     * @param registry the registry to add the converters to
+     * @param conversionService the service to convert the elements with
+     */
+    static void register(ConverterRegistry registry, ConversionService conversionService) {
+        registry.addConverter(String.class, Object[].class,
+                (source, targetType) -> toArray(split((String) source), targetType, conversionService));
+        registry.addConverter(String.class, Collection.class,
+                (source, targetType) -> toCollection(split((String) source), targetType, conversionService));
+        registry.addConverter(Object[].class, Object[].class,
+                (source, targetType) -> toArray(arrayToList(source), targetType, conversionService));
+        registry.addConverter(Object[].class, Collection.class,
+                (source, targetType) -> toCollection(arrayToList(source), targetType, conversionService));
+        registry.addConverter(Collection.class, Object[].class,
+                (source, targetType) -> toArray((Collection<?>) source, targetType, conversionService));
+        registry.addConverter(Collection.class, Collection.class,
+                (source, targetType) -> toCollection((Collection<?>) source, targetType, conversionService));
+    }
+
+    private static List<String> split(String source) {
+        List<String> elements = new ArrayList<>();
+        if (source.trim().isEmpty()) {
+            return elements;
+        }
+        int start = 0;
+        int end;
+        while ((end = source.indexOf(',', start)) != -1) {
+            elements.add(source.substring(start, end).trim());
+            start = end + 1;
+        }
+        elements.add(source.substring(start).trim());
+        return elements;
+    }
+
+    private static List<Object> arrayToList(Object array) {
+        int length = Array.getLength(array);
+        List<Object> elements = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            elements.add(Array.get(array, i));
+        }
+        return elements;
+    }
+
+    private static Object toArray(Collection<?> elements, TypeDescriptor targetType, ConversionService conversionService) {
+        Class<?> elementType = (targetType.isArray() ? targetType.getElementType() : Object.class);
+        TypeDescriptor elementDescriptor = TypeDescriptor.valueOf(elementType);
+        Object array = Array.newInstance(elementType, elements.size());
+        int i = 0;
+        for (Object element : elements) {
+            Array.set(array, i++, conversionService.convert(element, elementDescriptor));
+        }
+        return array;
+    }
+
+    private static Collection<Object> toCollection(Collection<?> elements, TypeDescriptor targetType,
+                                                   ConversionService conversionService) {
+        Class<?> elementType = (targetType.getElementType() != null ? targetType.getElementType() : Object.class);
+        TypeDescriptor elementDescriptor = TypeDescriptor.valueOf(elementType);
+        Collection<Object> collection = createCollection(targetType.getType(), elements.size());
+        for (Object element : elements) {
+            collection.add(conversionService.convert(element, elementDescriptor));
+        }
+        return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> createCollection(Class<?> collectionType, int capacity) {
+        if (collectionType.isInterface() || Modifier.isAbstract(collectionType.getModifiers())) {
+            if (SortedSet.class.isAssignableFrom(collectionType) || NavigableSet.class.isAssignableFrom(collectionType)) {
+                return new TreeSet<>();
+            } else if (Set.class.isAssignableFrom(collectionType)) {
+                return new LinkedHashSet<>(Math.max((int) (capacity / .75f) + 1, 16));
+            }
+            return new ArrayList<>(capacity);
+        }
+        try {
+            Constructor<?> constructor = collectionType.getDeclaredConstructor();
+            return (Collection<Object>) constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Could not instantiate collection type: " + collectionType.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.minispring.core.convert.support;
+
+import java.time.Duration;
+
+import com.minispring.core.convert.ConverterRegistry;
+
+/**
+ * A specialization of {@link GenericConversionService} configured by default with
+ * converters appropriate for configuration values: Strings to numbers, booleans,
+ * characters, enums and {@link Duration Durations}, comma-delimited Strings to arrays
+ * and collections, conversions between arrays and collections, and any object to
+ * a String.
+ *
+ * <p>Additional converters can be registered through the {@link ConverterRegistry}
+ * methods, e.g. in the constructor of a subclass declared as the
+ * {@code "conversionService"} bean.
+ */
+public class DefaultConversionService extends GenericConversionService {
+
+    /** Name of the bean that replaces the default conversion service of a context. */
+    public static final String CONVERSION_SERVICE_BEAN_NAME = "conversionService";
+
+    private static volatile DefaultConversionService sharedInstance;
+
+    /**
+     * Create a new {@code DefaultConversionService} with the set of default converters.
+     */
+    public DefaultConversionService() {
+        addDefaultConverters(this);
+    }
+
+    /**
+     * Return a shared default {@code ConversionService} instance, lazily building it once needed.
+     *
+     * @return the shared instance
+     */
+    public static DefaultConversionService getSharedInstance() {
+        DefaultConversionService instance = sharedInstance;
+        if (instance == null) {
+            synchronized (DefaultConversionService.class) {
+                instance = sharedInstance;
+                if (instance == null) {
+                    instance = new DefaultConversionService();
+                    sharedInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Add the default converters to the given registry.
+     *
+     * @param registry the conversion service to add the converters to, also used to
+     * convert the elements of arrays and collections
+     */
+    public static void addDefaultConverters(GenericConversionService registry) {
+        registry.addConverterFactory(String.class, Number.class, new StringToNumberConverterFactory());
+        registry.addConverterFactory(Number.class, Number.class, new NumberToNumberConverterFactory());
+        registry.addConverter(String.class, Boolean.class, new StringToBooleanConverter());
+        registry.addConverter(String.class, Character.class, source -> {
+            if (source.isEmpty()) {
+                return null;
+            }
+            if (source.length() > 1) {
+                throw new IllegalArgumentException("Can only convert a [String] with length of 1 to a [Character]; "
+                        + "string value '" + source + "' has length of " + source.length());
+            }
+            return source.charAt(0);
+        });
+        registry.addConverterFactory(String.class, Enum.class, new StringToEnumConverterFactory());
+        registry.addConverter(String.class, Duration.class, new StringToDurationConverter());
+        registry.addConverter(Object.class, String.class, String::valueOf);
+        CollectionConverters.register(registry, registry);
+    }
+}
@@ -0,0 +1,245 @@
+package com.minispring.core.convert.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.minispring.core.ClassUtils;
+import com.minispring.core.convert.ConversionService;
+import com.minispring.core.convert.Converter;
+import com.minispring.core.convert.ConverterFactory;
+import com.minispring.core.convert.ConverterRegistry;
+import com.minispring.core.convert.GenericConverter;
+import com.minispring.core.convert.TypeDescriptor;
+import com.minispring.exception.ConversionException;
+
+/**
+ * Base {@link ConversionService} implementation suitable for use in most environments.
+ * Converters are registered for a (source type, target type) pair. The first lookup
+ * for a concrete pair searches the registrations along the class hierarchy of the
+ * source and the target; the converter found, or the absence of one, is then cached
+ * for the pair. Registering a converter clears that cache.
+ *
+ * <p>A plain {@link Converter} only applies to its exact target type, while
+ * {@link ConverterFactory converter factories} and {@link GenericConverter generic
+ * converters} also apply to subtypes of their target type.
+ */
+public class GenericConversionService implements ConversionService, ConverterRegistry {
+
+    private static final GenericConverter NO_MATCH = (source, targetType) -> {
+        throw new IllegalStateException("No converter");
+    };
+
+    private final Map<ConvertiblePair, GenericConverter> converters = new ConcurrentHashMap<>(64);
+
+    private final Map<ConvertiblePair, GenericConverter> converterCache = new ConcurrentHashMap<>(64);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S, T> void addConverter(Class<S> sourceType, Class<T> targetType, Converter<? super S, ? extends T> converter) {
+        Converter<Object, Object> objectConverter = (Converter<Object, Object>) converter;
+        register(sourceType, targetType, new ConverterAdapter(objectConverter));
+    }
+
+    @Override
+    public <S, R> void addConverterFactory(Class<S> sourceType, Class<R> targetType,
+                                           ConverterFactory<S, R> converterFactory) {
+        register(sourceType, targetType, new ConverterFactoryAdapter(converterFactory));
+    }
+
+    @Override
+    public void addConverter(Class<?> sourceType, Class<?> targetType, GenericConverter converter) {
+        register(sourceType, targetType, converter);
+    }
+
+    private void register(Class<?> sourceType, Class<?> targetType, GenericConverter converter) {
+        converters.put(new ConvertiblePair(ClassUtils.resolvePrimitiveIfNecessary(sourceType),
+                ClassUtils.resolvePrimitiveIfNecessary(targetType)), converter);
+        converterCache.clear();
+    }
+
+    @Override
+    public boolean canConvert(Class<?> sourceType, Class<?> targetType) {
+        Class<?> targetObjectType = ClassUtils.resolvePrimitiveIfNecessary(targetType);
+        return (sourceType == null || targetObjectType.isAssignableFrom(sourceType)
+                || getConverter(sourceType, targetObjectType) != null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T convert(Object source, Class<T> targetType) {
+        return (T) convert(source, TypeDescriptor.valueOf(targetType));
+    }
+
+    @Override
+    public Object convert(Object source, TypeDescriptor targetType) {
+        if (source == null) {
+            if (targetType.getType().isPrimitive()) {
+                throw new ConversionException("A null value cannot be assigned to a primitive type: " + targetType);
+            }
+            return null;
+        }
+        Class<?> targetObjectType = targetType.getObjectType();
+        if (targetObjectType.isInstance(source)
+                && !(targetType.isCollection() && targetType.getElementType() != Object.class)) {
+            return source;
+        }
+        GenericConverter converter = getConverter(source.getClass(), targetObjectType);
+        if (converter == null) {
+            throw new ConversionException("No converter found capable of converting from type ["
+                    + source.getClass().getName() + "] to type [" + targetType + "]");
+        }
+        Object result;
+        try {
+            result = converter.convert(source, targetType);
+        } catch (ConversionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ConversionException("Failed to convert from type [" + source.getClass().getName()
+                    + "] to type [" + targetType + "] for value '" + source + "'", e);
+        }
+        if (result == null && targetType.getType().isPrimitive()) {
+            throw new ConversionException("Value '" + source + "' converted to null, which cannot be assigned to "
+                    + "primitive type " + targetType);
+        }
+        return result;
+    }
+
+    /**
+     * Find the converter for the given source and target type, consulting the cache first.
+     *
+     * @param sourceType the source type
+     * @param targetType the target type, with primitives resolved to their wrapper
+     * @return the converter, or {@code null} if none is registered for the types
+     */
+    protected GenericConverter getConverter(Class<?> sourceType, Class<?> targetType) {
+        ConvertiblePair key = new ConvertiblePair(sourceType, targetType);
+        GenericConverter converter = converterCache.get(key);
+        if (converter == null) {
+            converter = findConverter(sourceType, targetType);
+            converterCache.put(key, (converter != null ? converter : NO_MATCH));
+        }
+        return (converter != NO_MATCH ? converter : null);
+    }
+
+    private GenericConverter findConverter(Class<?> sourceType, Class<?> targetType) {
+        List<Class<?>> targetHierarchy = getClassHierarchy(targetType);
+        for (Class<?> sourceCandidate : getClassHierarchy(ClassUtils.resolvePrimitiveIfNecessary(sourceType))) {
+            for (Class<?> targetCandidate : targetHierarchy) {
+                GenericConverter converter = converters.get(new ConvertiblePair(sourceCandidate, targetCandidate));
+                if (converter == null) {
+                    continue;
+                }
+                if (converter instanceof ConverterFactoryAdapter) {
+                    return ((ConverterFactoryAdapter) converter).forTargetType(targetType);
+                }
+                if (converter instanceof ConverterAdapter && targetCandidate != targetType) {
+                    // A plain converter produces exactly its declared target type
+                    continue;
+                }
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the class itself, its superclasses and interfaces, ending with {@code Object}.
+     * Any array type also matches {@code Object[]}, which generic array converters are
+     * registered for.
+     */
+    private static List<Class<?>> getClassHierarchy(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        if (type.isArray()) {
+            hierarchy.add(type);
+            if (type != Object[].class) {
+                hierarchy.add(Object[].class);
+            }
+        } else {
+            Set<Class<?>> superTypes = ClassUtils.getAllSuperTypes(type);
+            superTypes.remove(Object.class);
+            hierarchy.addAll(superTypes);
+        }
+        hierarchy.add(Object.class);
+        return hierarchy;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " with " + converters.size() + " converters";
+    }
+
+    /**
+     * Adapts a plain {@link Converter} to a {@link GenericConverter}.
+     */
+    private static final class ConverterAdapter implements GenericConverter {
+
+        private final Converter<Object, Object> converter;
+
+        private ConverterAdapter(Converter<Object, Object> converter) {
+            this.converter = converter;
+        }
+
+        @Override
+        public Object convert(Object source, TypeDescriptor targetType) {
+            return converter.convert(source);
+        }
+    }
+
+    /**
+     * Adapts a {@link ConverterFactory}; the converter for a concrete target type is
+     * obtained from the factory once and cached with the pair.
+     */
+    private static final class ConverterFactoryAdapter implements GenericConverter {
+
+        private final ConverterFactory<Object, Object> converterFactory;
+
+        @SuppressWarnings("unchecked")
+        private ConverterFactoryAdapter(ConverterFactory<?, ?> converterFactory) {
+            this.converterFactory = (ConverterFactory<Object, Object>) converterFactory;
+        }
+
+        @SuppressWarnings("unchecked")
+        private GenericConverter forTargetType(Class<?> targetType) {
+            return new ConverterAdapter(converterFactory.getConverter((Class<Object>) targetType));
+        }
+
+        @Override
+        public Object convert(Object source, TypeDescriptor targetType) {
+            return forTargetType(targetType.getObjectType()).convert(source, targetType);
+        }
+    }
+
+    /**
+     * Holder for a source-to-target class pair.
+     */
+    private static final class ConvertiblePair {
+
+        private final Class<?> sourceType;
+        private final Class<?> targetType;
+
+        private ConvertiblePair(Class<?> sourceType, Class<?> targetType) {
+            this.sourceType = sourceType;
+            this.targetType = targetType;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ConvertiblePair)) {
+                return false;
+            }
+            ConvertiblePair that = (ConvertiblePair) other;
+            return (sourceType == that.sourceType && targetType == that.targetType);
+        }
+
+        @Override
+        public int hashCode() {
+            return sourceType.hashCode() * 31 + targetType.hashCode();
+        }
+    }
+}
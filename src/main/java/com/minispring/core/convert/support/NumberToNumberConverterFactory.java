@@ -0,0 +1,71 @@
+package com.minispring.core.convert.support;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.minispring.core.convert.Converter;
+import com.minispring.core.convert.ConverterFactory;
+
+/**
+ * Converts from any JDK-standard {@link Number} type to any other, failing instead
+ * of silently truncating when an integral value does not fit the target type.
+ */
+final class NumberToNumberConverterFactory implements ConverterFactory<Number, Number> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Number> Converter<Number, T> getConverter(Class<T> targetType) {
+        return source -> (T) convertNumber(source, targetType);
+    }
+
+    private static Number convertNumber(Number number, Class<?> targetType) {
+        if (targetType.isInstance(number)) {
+            return number;
+        } else if (targetType == Long.class) {
+            return checkedLongValue(number, targetType);
+        } else if (targetType == Integer.class) {
+            long value = checkedLongValue(number, targetType);
+            checkRange(number, value, Integer.MIN_VALUE, Integer.MAX_VALUE, targetType);
+            return (int) value;
+        } else if (targetType == Short.class) {
+            long value = checkedLongValue(number, targetType);
+            checkRange(number, value, Short.MIN_VALUE, Short.MAX_VALUE, targetType);
+            return (short) value;
+        } else if (targetType == Byte.class) {
+            long value = checkedLongValue(number, targetType);
+            checkRange(number, value, Byte.MIN_VALUE, Byte.MAX_VALUE, targetType);
+            return (byte) value;
+        } else if (targetType == Double.class) {
+            return number.doubleValue();
+        } else if (targetType == Float.class) {
+            return number.floatValue();
+        } else if (targetType == BigInteger.class) {
+            return (number instanceof BigDecimal ? ((BigDecimal) number).toBigInteger() : BigInteger.valueOf(number.longValue()));
+        } else if (targetType == BigDecimal.class) {
+            return new BigDecimal(number.toString());
+        }
+        throw new IllegalArgumentException("Cannot convert [" + number + "] of type [" + number.getClass().getName()
+                + "] to target class [" + targetType.getName() + "]");
+    }
+
+    private static long checkedLongValue(Number number, Class<?> targetType) {
+        BigInteger bigInteger = null;
+        if (number instanceof BigInteger) {
+            bigInteger = (BigInteger) number;
+        } else if (number instanceof BigDecimal) {
+            bigInteger = ((BigDecimal) number).toBigInteger();
+        }
+        if (bigInteger != null && bigInteger.bitLength() > 63) {
+            throw new IllegalArgumentException("Could not convert number [" + number + "] of type ["
+                    + number.getClass().getName() + "] to target class [" + targetType.getName() + "]: overflow");
+        }
+        return number.longValue();
+    }
+
+    private static void checkRange(Number number, long value, long min, long max, Class<?> targetType) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("Could not convert number [" + number + "] of type ["
+                    + number.getClass().getName() + "] to target class [" + targetType.getName() + "]: overflow");
+        }
+    }
+}
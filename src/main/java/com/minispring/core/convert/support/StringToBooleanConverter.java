@@ -0,0 +1,32 @@
+package com.minispring.core.convert.support;
+
+import com.minispring.core.convert.Converter;
+
+/**
+ * Converts from a String to a {@link Boolean}: {@code true}, {@code on}, {@code yes}
+ * and {@code 1} are true, {@code false}, {@code off}, {@code no} and {@code 0} are
+ * false, ignoring case. An empty String converts to {@code null}; anything else fails.
+ */
+final class StringToBooleanConverter implements Converter<String, Boolean> {
+
+    @Override
+    public Boolean convert(String source) {
+        String value = source.trim().toLowerCase();
+        switch (value) {
+            case "":
+                return null;
+            case "true":
+            case "on":
+            case "yes":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "off":
+            case "no":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("Invalid boolean value '" + source + "'");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.minispring.core.convert.support;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.minispring.core.convert.Converter;
+
+/**
+ * Converts from a String to a {@link Duration}. Accepts the ISO-8601 format, e.g.
+ * {@code PT30S}, and the simple format of a number with an optional unit suffix:
+ * {@code ns}, {@code us}, {@code ms}, {@code s}, {@code m}, {@code h} or {@code d},
+ * e.g. {@code 30s}. A number without a unit is taken as milliseconds.
+ */
+final class StringToDurationConverter implements Converter<String, Duration> {
+
+    private static final Pattern SIMPLE_PATTERN = Pattern.compile("^([+-]?\\d+)([a-zA-Z]{0,2})$");
+
+    @Override
+    public Duration convert(String source) {
+        String value = source.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (value.startsWith("P") || value.startsWith("-P") || value.startsWith("p") || value.startsWith("-p")) {
+            return Duration.parse(value);
+        }
+        Matcher matcher = SIMPLE_PATTERN.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("'" + value + "' is not a valid duration");
+        }
+        return Duration.of(Long.parseLong(matcher.group(1)), unitFromSuffix(matcher.group(2)));
+    }
+
+    private static ChronoUnit unitFromSuffix(String suffix) {
+        switch (suffix.toLowerCase()) {
+            case "ns":
+                return ChronoUnit.NANOS;
+            case "us":
+                return ChronoUnit.MICROS;
+            case "":
+            case "ms":
+                return ChronoUnit.MILLIS;
+            case "s":
+                return ChronoUnit.SECONDS;
+            case "m":
+                return ChronoUnit.MINUTES;
+            case "h":
+                return ChronoUnit.HOURS;
+            case "d":
+                return ChronoUnit.DAYS;
+            default:
+                throw new IllegalArgumentException("Unknown duration unit suffix '" + suffix + "'");
+        }
+    }
+}
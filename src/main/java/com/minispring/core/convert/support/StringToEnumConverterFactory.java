@@ -0,0 +1,28 @@
+package com.minispring.core.convert.support;
+
+import com.minispring.core.convert.Converter;
+import com.minispring.core.convert.ConverterFactory;
+
+/**
+ * Converts from a String to the {@link Enum} constant of the same name.
+ * Surrounding whitespace is ignored; an empty String converts to {@code null}.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+final class StringToEnumConverterFactory implements ConverterFactory<String, Enum> {
+
+    @Override
+    public <T extends Enum> Converter<String, T> getConverter(Class<T> targetType) {
+        Class<?> enumType = targetType;
+        while (enumType != null && !enumType.isEnum()) {
+            enumType = enumType.getSuperclass();
+        }
+        if (enumType == null) {
+            throw new IllegalArgumentException("The target type " + targetType.getName() + " does not refer to an enum");
+        }
+        Class<T> resolvedType = (Class<T>) enumType;
+        return source -> {
+            String value = source.trim();
+            return (value.isEmpty() ? null : (T) Enum.valueOf(resolvedType, value));
+        };
+    }
+}
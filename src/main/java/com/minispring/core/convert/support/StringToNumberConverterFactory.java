@@ -0,0 +1,52 @@
+package com.minispring.core.convert.support;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.minispring.core.convert.Converter;
+import com.minispring.core.convert.ConverterFactory;
+
+/**
+ * Converts from a String to any JDK-standard {@link Number} type. Integral values
+ * may be given in hexadecimal with a {@code 0x} or {@code #} prefix. Surrounding
+ * whitespace is ignored; an empty String converts to {@code null}.
+ */
+final class StringToNumberConverterFactory implements ConverterFactory<String, Number> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Number> Converter<String, T> getConverter(Class<T> targetType) {
+        return source -> {
+            String value = source.trim();
+            return (value.isEmpty() ? null : (T) parseNumber(value, targetType));
+        };
+    }
+
+    private static Number parseNumber(String value, Class<?> targetType) {
+        boolean hex = isHexNumber(value);
+        if (targetType == Integer.class) {
+            return (hex ? Integer.decode(value) : Integer.valueOf(value));
+        } else if (targetType == Long.class) {
+            return (hex ? Long.decode(value) : Long.valueOf(value));
+        } else if (targetType == Short.class) {
+            return (hex ? Short.decode(value) : Short.valueOf(value));
+        } else if (targetType == Byte.class) {
+            return (hex ? Byte.decode(value) : Byte.valueOf(value));
+        } else if (targetType == Double.class) {
+            return Double.valueOf(value);
+        } else if (targetType == Float.class) {
+            return Float.valueOf(value);
+        } else if (targetType == BigInteger.class) {
+            return new BigInteger(value);
+        } else if (targetType == BigDecimal.class || targetType == Number.class) {
+            return new BigDecimal(value);
+        }
+        throw new IllegalArgumentException("Cannot convert String [" + value + "] to target class ["
+                + targetType.getName() + "]");
+    }
+
+    private static boolean isHexNumber(String value) {
+        int index = (value.startsWith("-") ? 1 : 0);
+        return (value.startsWith("0x", index) || value.startsWith("0X", index) || value.startsWith("#", index));
+    }
+}
@@ -0,0 +1,19 @@
+package com.minispring.core.env;
+
+/**
+ * Interface representing the environment in which the current application is
+ * running: an ordered set of {@link PropertySource property sources} that
+ * properties and ${...} placeholders are resolved against.
+ *
+ * @see StandardEnvironment
+ */
+public interface Environment extends PropertyResolver {
+
+    /**
+     * Return the property sources of this environment in mutable form, allowing
+     * sources to be added or removed before the context is refreshed.
+     *
+     * @return the property sources, highest precedence first
+     */
+    MutablePropertySources getPropertySources();
+}
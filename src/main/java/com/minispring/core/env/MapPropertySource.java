@@ -0,0 +1,29 @@
+package com.minispring.core.env;
+
+import java.util.Map;
+
+/**
+ * {@link PropertySource} that reads keys and values from a {@code Map} object.
+ */
+public class MapPropertySource extends PropertySource<Map<String, Object>> {
+
+    /**
+     * Create a new {@code MapPropertySource} with the given name and {@code Map}.
+     *
+     * @param name the associated name
+     * @param source the map of properties
+     */
+    public MapPropertySource(String name, Map<String, Object> source) {
+        super(name, source);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return source.get(name);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return source.containsKey(name);
+    }
+}
@@ -0,0 +1,116 @@
+package com.minispring.core.env;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Ordered collection of {@link PropertySource} objects, searched from first to last.
+ * Every modification increments the {@linkplain #getRevision() revision}, which lets
+ * callers cache values resolved against the sources until the sources change.
+ */
+public class MutablePropertySources implements Iterable<PropertySource<?>> {
+
+    private final List<PropertySource<?>> propertySourceList = new CopyOnWriteArrayList<>();
+
+    private volatile int revision;
+
+    @Override
+    public Iterator<PropertySource<?>> iterator() {
+        return propertySourceList.iterator();
+    }
+
+    /**
+     * Return whether a property source with the given name is contained.
+     *
+     * @param name the name of the property source
+     * @return whether the property source is present
+     */
+    public boolean contains(String name) {
+        return (get(name) != null);
+    }
+
+    /**
+     * Return the property source with the given name.
+     *
+     * @param name the name of the property source
+     * @return the property source, or {@code null} if not found
+     */
+    public PropertySource<?> get(String name) {
+        for (PropertySource<?> propertySource : propertySourceList) {
+            if (propertySource.getName().equals(name)) {
+                return propertySource;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add the given property source with highest precedence, replacing an existing
+     * source of the same name.
+     *
+     * @param propertySource the property source to add
+     */
+    public synchronized void addFirst(PropertySource<?> propertySource) {
+        removeIfPresent(propertySource.getName());
+        propertySourceList.add(0, propertySource);
+        revision++;
+    }
+
+    /**
+     * Add the given property source with lowest precedence, replacing an existing
+     * source of the same name.
+     *
+     * @param propertySource the property source to add
+     */
+    public synchronized void addLast(PropertySource<?> propertySource) {
+        removeIfPresent(propertySource.getName());
+        propertySourceList.add(propertySource);
+        revision++;
+    }
+
+    /**
+     * Remove the property source with the given name.
+     *
+     * @param name the name of the property source
+     * @return the removed property source, or {@code null} if not found
+     */
+    public synchronized PropertySource<?> remove(String name) {
+        PropertySource<?> removed = removeIfPresent(name);
+        if (removed != null) {
+            revision++;
+        }
+        return removed;
+    }
+
+    /**
+     * Return the number of property sources.
+     *
+     * @return the number of property sources
+     */
+    public int size() {
+        return propertySourceList.size();
+    }
+
+    /**
+     * Return the revision of this collection, incremented on every modification.
+     *
+     * @return the current revision
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    private PropertySource<?> removeIfPresent(String name) {
+        PropertySource<?> propertySource = get(name);
+        if (propertySource != null) {
+            propertySourceList.remove(propertySource);
+        }
+        return propertySource;
+    }
+
+    @Override
+    public String toString() {
+        return propertySourceList.toString();
+    }
+}
@@ -0,0 +1,222 @@
+package com.minispring.core.env;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A String with ${...} placeholders, parsed once into literal and placeholder parts
+ * so that it can be resolved repeatedly without scanning the text again.
+ * A placeholder may declare a default value after a colon, {@code ${name:default}},
+ * and both the name and the default may contain nested placeholders, e.g.
+ * {@code ${db.${profile}.url:${db.url:jdbc:h2:mem:test}}}. Property values that
+ * contain placeholders themselves are resolved recursively; circular references
+ * between properties are detected. A text without placeholders resolves to itself
+ * without any allocation.
+ *
+ * <p>Instances are immutable and thread-safe.
+ */
+public final class PlaceholderTemplate {
+
+    private static final String PLACEHOLDER_PREFIX = "${";
+    private static final char PLACEHOLDER_SUFFIX = '}';
+    private static final char VALUE_SEPARATOR = ':';
+
+    private final String text;
+    private final Part[] parts;
+
+    private PlaceholderTemplate(String text, Part[] parts) {
+        this.text = text;
+        this.parts = parts;
+    }
+
+    /**
+     * Parse the given text into a template. An opening {@code ${} without a
+     * matching closing brace is kept as literal text.
+     *
+     * @param text the text to parse
+     * @return the compiled template
+     */
+    public static PlaceholderTemplate compile(String text) {
+        List<Part> parts = new ArrayList<>();
+        int index = 0;
+        while (index < text.length()) {
+            int start = text.indexOf(PLACEHOLDER_PREFIX, index);
+            int end = (start != -1 ? findPlaceholderEnd(text, start + PLACEHOLDER_PREFIX.length()) : -1);
+            if (end == -1) {
+                parts.add(new LiteralPart(text.substring(index)));
+                break;
+            }
+            if (start > index) {
+                parts.add(new LiteralPart(text.substring(index, start)));
+            }
+            String body = text.substring(start + PLACEHOLDER_PREFIX.length(), end);
+            int separator = findValueSeparator(body);
+            if (separator == -1) {
+                parts.add(new PlaceholderPart(text, compile(body), null));
+            } else {
+                parts.add(new PlaceholderPart(text, compile(body.substring(0, separator)),
+                        compile(body.substring(separator + 1))));
+            }
+            index = end + 1;
+        }
+        return new PlaceholderTemplate(text, parts.toArray(new Part[0]));
+    }
+
+    private static int findPlaceholderEnd(String text, int from) {
+        int nesting = 0;
+        int index = from;
+        while (index < text.length()) {
+            if (text.startsWith(PLACEHOLDER_PREFIX, index)) {
+                nesting++;
+                index += PLACEHOLDER_PREFIX.length();
+            } else if (text.charAt(index) == PLACEHOLDER_SUFFIX) {
+                if (nesting == 0) {
+                    return index;
+                }
+                nesting--;
+                index++;
+            } else {
+                index++;
+            }
+        }
+        return -1;
+    }
+
+    private static int findValueSeparator(String body) {
+        int nesting = 0;
+        for (int index = 0; index < body.length(); index++) {
+            if (body.startsWith(PLACEHOLDER_PREFIX, index)) {
+                nesting++;
+                index++;
+            } else if (body.charAt(index) == PLACEHOLDER_SUFFIX) {
+                nesting--;
+            } else if (body.charAt(index) == VALUE_SEPARATOR && nesting == 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the text this template was compiled from.
+     *
+     * @return the original text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Return whether this template contains no placeholders at all.
+     *
+     * @return whether the text resolves to itself
+     */
+    public boolean isLiteral() {
+        return (parts.length == 0 || (parts.length == 1 && parts[0] instanceof LiteralPart));
+    }
+
+    /**
+     * Resolve all placeholders of this template.
+     *
+     * @param resolver the resolver to look up the raw value of each placeholder
+     * @return the resolved text
+     * @throws IllegalArgumentException if a placeholder without a default cannot be
+     * resolved, or if properties refer to each other in a cycle
+     */
+    public String resolve(PlaceholderResolver resolver) {
+        if (isLiteral()) {
+            return text;
+        }
+        return resolve(resolver, null);
+    }
+
+    private String resolve(PlaceholderResolver resolver, Set<String> visiting) {
+        if (parts.length == 1) {
+            return parts[0].resolve(resolver, visiting);
+        }
+        StringBuilder result = new StringBuilder();
+        for (Part part : parts) {
+            result.append(part.resolve(resolver, visiting));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Strategy to look up the raw value of a placeholder.
+     */
+    @FunctionalInterface
+    public interface PlaceholderResolver {
+
+        /**
+         * Resolve the supplied placeholder name to its raw value.
+         *
+         * @param placeholderName the name of the placeholder
+         * @return the raw value, or {@code null} if there is none
+         */
+        String resolvePlaceholder(String placeholderName);
+    }
+
+    private abstract static class Part {
+
+        abstract String resolve(PlaceholderResolver resolver, Set<String> visiting);
+    }
+
+    private static final class LiteralPart extends Part {
+
+        private final String value;
+
+        private LiteralPart(String value) {
+            this.value = value;
+        }
+
+        @Override
+        String resolve(PlaceholderResolver resolver, Set<String> visiting) {
+            return value;
+        }
+    }
+
+    private static final class PlaceholderPart extends Part {
+
+        private final String text;
+        private final PlaceholderTemplate key;
+        private final PlaceholderTemplate defaultValue;
+
+        private PlaceholderPart(String text, PlaceholderTemplate key, PlaceholderTemplate defaultValue) {
+            this.text = text;
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        String resolve(PlaceholderResolver resolver, Set<String> visiting) {
+            String name = (key.isLiteral() ? key.text : key.resolve(resolver, visiting));
+            String value = resolver.resolvePlaceholder(name);
+            if (value == null) {
+                if (defaultValue == null) {
+                    throw new IllegalArgumentException("Could not resolve placeholder '" + name + "' in value \"" + text + "\"");
+                }
+                return (defaultValue.isLiteral() ? defaultValue.text : defaultValue.resolve(resolver, visiting));
+            }
+            if (!value.contains(PLACEHOLDER_PREFIX)) {
+                return value;
+            }
+            // The property value refers to other properties itself
+            Set<String> names = (visiting != null ? visiting : new HashSet<>());
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Circular placeholder reference '" + name + "' in property definitions");
+            }
+            try {
+                return compile(value).resolve(resolver, names);
+            } finally {
+                names.remove(name);
+            }
+        }
+    }
+}
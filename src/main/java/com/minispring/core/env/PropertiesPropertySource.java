@@ -0,0 +1,48 @@
+package com.minispring.core.env;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * {@link PropertySource} implementation that extracts properties from a
+ * {@link java.util.Properties} object, e.g. the system properties or a
+ * properties file loaded from the classpath.
+ */
+public class PropertiesPropertySource extends MapPropertySource {
+
+    /**
+     * Create a new {@code PropertiesPropertySource} with the given name and properties.
+     *
+     * @param name the associated name
+     * @param source the properties
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public PropertiesPropertySource(String name, Properties source) {
+        super(name, (Map) source);
+    }
+
+    /**
+     * Load a properties file from the classpath.
+     *
+     * @param location the resource location, e.g. {@code "application.properties"}
+     * @param classLoader the class loader to load the resource with
+     * @return the property source, or {@code null} if there is no such resource
+     * @throws IllegalStateException if the resource cannot be read
+     */
+    public static PropertiesPropertySource fromClasspath(String location, ClassLoader classLoader) {
+        URL url = classLoader.getResource(location);
+        if (url == null) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = url.openStream()) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load properties from location [" + url + "]", e);
+        }
+        return new PropertiesPropertySource("classpath:" + location, properties);
+    }
+}
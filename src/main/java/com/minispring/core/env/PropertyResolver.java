@@ -0,0 +1,57 @@
+package com.minispring.core.env;
+
+/**
+ * Interface for resolving properties against any underlying source.
+ *
+ * @see Environment
+ */
+public interface PropertyResolver {
+
+    /**
+     * Return whether the given property key is available for resolution.
+     *
+     * @param key the property name to resolve
+     * @return whether the property is available
+     */
+    boolean containsProperty(String key);
+
+    /**
+     * Return the property value associated with the given key, with placeholders
+     * in the value resolved.
+     *
+     * @param key the property name to resolve
+     * @return the property value, or {@code null} if the key cannot be resolved
+     */
+    String getProperty(String key);
+
+    /**
+     * Return the property value associated with the given key, or
+     * {@code defaultValue} if the key cannot be resolved.
+     *
+     * @param key the property name to resolve
+     * @param defaultValue the default value to return if no value is found
+     * @return the property value, or the default value
+     */
+    String getProperty(String key, String defaultValue);
+
+    /**
+     * Resolve ${...} placeholders in the given text. Placeholders may declare a
+     * default value after a colon, {@code ${name:default}}, and may be nested in
+     * both the name and the default value.
+     *
+     * @param text the String to resolve
+     * @return the resolved String
+     * @throws IllegalArgumentException if a placeholder without a default cannot be resolved
+     */
+    String resolvePlaceholders(String text);
+
+    /**
+     * Resolve the placeholders of a template compiled ahead of time, e.g. once per
+     * injection point.
+     *
+     * @param template the compiled template
+     * @return the resolved String
+     * @throws IllegalArgumentException if a placeholder without a default cannot be resolved
+     */
+    String resolvePlaceholders(PlaceholderTemplate template);
+}
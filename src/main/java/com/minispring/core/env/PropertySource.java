@@ -0,0 +1,69 @@
+package com.minispring.core.env;
+
+/**
+ * Abstract base class representing a source of name/value property pairs.
+ * The underlying source object may be of any type that encapsulates properties,
+ * e.g. a {@link java.util.Properties} object, a {@link java.util.Map} or the
+ * command-line arguments of the application.
+ *
+ * @param <T> the source type
+ * @see MutablePropertySources
+ */
+public abstract class PropertySource<T> {
+
+    protected final String name;
+
+    protected final T source;
+
+    /**
+     * Create a new {@code PropertySource} with the given name and source object.
+     *
+     * @param name the associated name
+     * @param source the source object
+     */
+    public PropertySource(String name, T source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    /**
+     * Return the name of this {@code PropertySource}.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return the underlying source object for this {@code PropertySource}.
+     *
+     * @return the source object
+     */
+    public T getSource() {
+        return source;
+    }
+
+    /**
+     * Return whether this {@code PropertySource} contains the given name.
+     *
+     * @param name the property name to find
+     * @return whether the property is present
+     */
+    public boolean containsProperty(String name) {
+        return (getProperty(name) != null);
+    }
+
+    /**
+     * Return the value associated with the given name.
+     *
+     * @param name the property to find
+     * @return the raw value, or {@code null} if not found
+     */
+    public abstract Object getProperty(String name);
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " {name='" + name + "'}";
+    }
+}
@@ -0,0 +1,71 @@
+package com.minispring.core.env;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PropertySource} for the arguments passed to the application.
+ * Option arguments take the form {@code --name=value} or {@code --name}, the
+ * latter with an empty value; all other arguments are available as
+ * {@linkplain #getNonOptionArgs() non-option arguments}. An option given
+ * several times resolves to its values joined by commas.
+ */
+public class SimpleCommandLinePropertySource extends PropertySource<String[]> {
+
+    /** Name of the command-line property source. */
+    public static final String COMMAND_LINE_PROPERTY_SOURCE_NAME = "commandLineArgs";
+
+    private final Map<String, String> optionArgs;
+
+    private final List<String> nonOptionArgs;
+
+    /**
+     * Create a new {@code SimpleCommandLinePropertySource} for the given arguments.
+     *
+     * @param args the command-line arguments
+     * @throws IllegalArgumentException if an option argument has no name
+     */
+    public SimpleCommandLinePropertySource(String... args) {
+        super(COMMAND_LINE_PROPERTY_SOURCE_NAME, args);
+        Map<String, String> options = new HashMap<>();
+        List<String> nonOptions = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                nonOptions.add(arg);
+                continue;
+            }
+            String option = arg.substring(2);
+            int separator = option.indexOf('=');
+            String optionName = (separator != -1 ? option.substring(0, separator) : option);
+            String optionValue = (separator != -1 ? option.substring(separator + 1) : "");
+            if (optionName.isEmpty()) {
+                throw new IllegalArgumentException("Invalid argument syntax: " + arg);
+            }
+            options.merge(optionName, optionValue, (existing, value) -> existing + "," + value);
+        }
+        this.optionArgs = options;
+        this.nonOptionArgs = Collections.unmodifiableList(nonOptions);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return optionArgs.get(name);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return optionArgs.containsKey(name);
+    }
+
+    /**
+     * Return the arguments that are not options, in the order they were given.
+     *
+     * @return the non-option arguments
+     */
+    public List<String> getNonOptionArgs() {
+        return nonOptionArgs;
+    }
+}
@@ -0,0 +1,118 @@
+package com.minispring.core.env;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Environment} implementation suitable for standalone applications.
+ * Properties are resolved against the following sources, highest precedence first:
+ * <ol>
+ * <li>the command-line arguments, if added by
+ * {@link com.minispring.MiniSpringApplication#run} as a {@link SimpleCommandLinePropertySource}</li>
+ * <li>the JVM system properties</li>
+ * <li>the system environment variables, with relaxed names</li>
+ * <li>{@code application.properties} at the root of the classpath, if present</li>
+ * </ol>
+ * Templates passed to {@link #resolvePlaceholders(String)} are compiled once and cached.
+ */
+public class StandardEnvironment implements Environment {
+
+    /** Name of the system properties property source. */
+    public static final String SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME = "systemProperties";
+
+    /** Name of the system environment property source. */
+    public static final String SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME = "systemEnvironment";
+
+    /** Location of the application properties file on the classpath. */
+    public static final String APPLICATION_PROPERTIES_LOCATION = "application.properties";
+
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+
+    private final MutablePropertySources propertySources = new MutablePropertySources();
+
+    private final Map<String, PlaceholderTemplate> templateCache = new ConcurrentHashMap<>(64);
+
+    private final PlaceholderTemplate.PlaceholderResolver rawPropertyResolver = this::getRawProperty;
+
+    /**
+     * Create a new {@code StandardEnvironment} with the default property sources.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public StandardEnvironment() {
+        propertySources.addLast(new PropertiesPropertySource(SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, System.getProperties()));
+        propertySources.addLast(new SystemEnvironmentPropertySource(SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+                (Map) System.getenv()));
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        PropertiesPropertySource applicationProperties = PropertiesPropertySource.fromClasspath(
+                APPLICATION_PROPERTIES_LOCATION, (classLoader != null ? classLoader : getClass().getClassLoader()));
+        if (applicationProperties != null) {
+            propertySources.addLast(applicationProperties);
+        }
+    }
+
+    @Override
+    public MutablePropertySources getPropertySources() {
+        return propertySources;
+    }
+
+    @Override
+    public boolean containsProperty(String key) {
+        for (PropertySource<?> propertySource : propertySources) {
+            if (propertySource.containsProperty(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getProperty(String key) {
+        String value = getRawProperty(key);
+        return (value != null ? PlaceholderTemplate.compile(value).resolve(rawPropertyResolver) : null);
+    }
+
+    @Override
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return (value != null ? value : defaultValue);
+    }
+
+    @Override
+    public String resolvePlaceholders(String text) {
+        PlaceholderTemplate template = templateCache.get(text);
+        if (template == null) {
+            template = PlaceholderTemplate.compile(text);
+            if (templateCache.size() < MAX_CACHED_TEMPLATES) {
+                templateCache.put(text, template);
+            }
+        }
+        return template.resolve(rawPropertyResolver);
+    }
+
+    @Override
+    public String resolvePlaceholders(PlaceholderTemplate template) {
+        return template.resolve(rawPropertyResolver);
+    }
+
+    /**
+     * Return the value of the given key from the first property source containing it,
+     * without resolving placeholders in the value.
+     *
+     * @param key the property name
+     * @return the raw value, or {@code null} if not found
+     */
+    protected String getRawProperty(String key) {
+        for (PropertySource<?> propertySource : propertySources) {
+            Object value = propertySource.getProperty(key);
+            if (value != null) {
+                return String.valueOf(value);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " {propertySources=" + propertySources + "}";
+    }
+}
@@ -0,0 +1,56 @@
+package com.minispring.core.env;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link MapPropertySource} for the system environment variables, compensating
+ * for the constraints of shell variable names. A property {@code order.prefix}
+ * or {@code order-prefix} also matches the variables {@code order_prefix},
+ * {@code ORDER.PREFIX} and {@code ORDER_PREFIX}. The variable a property name
+ * maps to is looked up once and remembered.
+ */
+public class SystemEnvironmentPropertySource extends MapPropertySource {
+
+    private static final String NO_MATCH = "";
+
+    private final Map<String, String> resolvedNames = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new {@code SystemEnvironmentPropertySource} with the given name
+     * and environment variables.
+     *
+     * @param name the associated name
+     * @param source the environment variables
+     */
+    public SystemEnvironmentPropertySource(String name, Map<String, Object> source) {
+        super(name, source);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return (getProperty(name) != null);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        String actualName = resolvedNames.get(name);
+        if (actualName == null) {
+            actualName = resolvePropertyName(name);
+            resolvedNames.put(name, actualName);
+        }
+        return (actualName.isEmpty() ? null : source.get(actualName));
+    }
+
+    private String resolvePropertyName(String name) {
+        String underscored = name.replace('.', '_').replace('-', '_');
+        for (String candidate : new String[] { name, underscored, name.toUpperCase(Locale.ROOT),
+                underscored.toUpperCase(Locale.ROOT) }) {
+            if (source.containsKey(candidate)) {
+                return candidate;
+            }
+        }
+        return NO_MATCH;
+    }
+}
@@ -0,0 +1,28 @@
+package com.minispring.core.metrics;
+
+/**
+ * Instruments the application startup phase using {@link StartupStep steps}.
+ * The container records the phases of a context refresh and the creation of each
+ * bean as steps; implementations decide whether and where the steps are recorded.
+ *
+ * @see com.minispring.core.metrics.buffering.BufferingApplicationStartup
+ * @see com.minispring.core.metrics.jfr.FlightRecorderApplicationStartup
+ */
+public interface ApplicationStartup {
+
+    /**
+     * Default "no op" {@code ApplicationStartup} implementation. Steps it starts
+     * are a shared constant whose methods do nothing, so instrumentation costs
+     * a few inlined calls when startup tracking is not enabled.
+     */
+    ApplicationStartup DEFAULT = new DefaultApplicationStartup();
+
+    /**
+     * Create a new step and mark its beginning. A step started on a thread
+     * while another step of that thread is still running becomes its child.
+     *
+     * @param name the step name, e.g. {@code "minispring.beans.instantiate"}
+     * @return the started step
+     */
+    StartupStep start(String name);
+}
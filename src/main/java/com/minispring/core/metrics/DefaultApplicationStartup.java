@@ -0,0 +1,42 @@
+package com.minispring.core.metrics;
+
+/**
+ * Default "no op" {@code ApplicationStartup} implementation, available as
+ * {@link ApplicationStartup#DEFAULT}.
+ */
+final class DefaultApplicationStartup implements ApplicationStartup {
+
+    private static final DefaultStartupStep DEFAULT_STARTUP_STEP = new DefaultStartupStep();
+
+    @Override
+    public StartupStep start(String name) {
+        return DEFAULT_STARTUP_STEP;
+    }
+
+    private static final class DefaultStartupStep implements StartupStep {
+
+        @Override
+        public String getName() {
+            return "default";
+        }
+
+        @Override
+        public long getId() {
+            return 0L;
+        }
+
+        @Override
+        public Long getParentId() {
+            return null;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            return this;
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
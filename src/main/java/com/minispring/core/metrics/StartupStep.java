@@ -0,0 +1,45 @@
+package com.minispring.core.metrics;
+
+/**
+ * Step recording metrics about a particular phase or action happening during
+ * the {@link ApplicationStartup}. A step is started with
+ * {@link ApplicationStartup#start(String)}, may be tagged with key/value
+ * information and must be {@linkplain #end() ended} by the thread that started it.
+ */
+public interface StartupStep {
+
+    /**
+     * Return the name of the startup step.
+     *
+     * @return the step name
+     */
+    String getName();
+
+    /**
+     * Return the unique id for this step within the application startup.
+     *
+     * @return the step id
+     */
+    long getId();
+
+    /**
+     * Return the id of the parent step, if available.
+     *
+     * @return the parent step id, or {@code null} for a root step
+     */
+    Long getParentId();
+
+    /**
+     * Add a {@code key:value} tag to the step.
+     *
+     * @param key the tag key
+     * @param value the tag value
+     * @return this step
+     */
+    StartupStep tag(String key, String value);
+
+    /**
+     * Record the end of this step.
+     */
+    void end();
+}
@@ -0,0 +1,147 @@
+package com.minispring.core.metrics.buffering;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.minispring.core.metrics.ApplicationStartup;
+import com.minispring.core.metrics.StartupStep;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers ended steps in memory
+ * and exposes them as a {@link StartupTimeline}. The number of recorded steps is
+ * bounded by the capacity; steps ending once the buffer is full are counted but
+ * not kept.
+ *
+ * <p>Parent/child relationships follow the thread that starts a step: the creation
+ * of a dependency while its dependent bean is being populated is recorded as a
+ * child step of the dependent's populate step.
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+    private final int capacity;
+
+    private final Instant startTime = Instant.now();
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong idSequence = new AtomicLong();
+
+    private final ThreadLocal<BufferedStartupStep> currentStep = new ThreadLocal<>();
+
+    private final ConcurrentLinkedQueue<StartupTimeline.TimelineEvent> events = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger recordedSteps = new AtomicInteger();
+
+    /**
+     * Create a new buffered {@code ApplicationStartup} with a limited capacity.
+     *
+     * @param capacity the maximum number of steps to record
+     */
+    public BufferingApplicationStartup(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        BufferedStartupStep parent = currentStep.get();
+        BufferedStartupStep step = new BufferedStartupStep(idSequence.getAndIncrement(), name, parent, System.nanoTime());
+        currentStep.set(step);
+        return step;
+    }
+
+    private void record(BufferedStartupStep step, long endNanos) {
+        if (currentStep.get() == step) {
+            if (step.parent != null) {
+                currentStep.set(step.parent);
+            } else {
+                currentStep.remove();
+            }
+        }
+        if (recordedSteps.incrementAndGet() <= capacity) {
+            events.add(new StartupTimeline.TimelineEvent(step.name, step.id, step.getParentId(),
+                    Collections.unmodifiableMap(step.tags), step.threadName,
+                    step.startNanos - startNanos, endNanos - step.startNanos));
+        }
+    }
+
+    /**
+     * Return the timeline of the steps recorded so far, ordered by start time.
+     * Steps that have not ended yet are not included.
+     *
+     * @return the startup timeline
+     */
+    public StartupTimeline getBufferedTimeline() {
+        List<StartupTimeline.TimelineEvent> snapshot = new ArrayList<>(events);
+        snapshot.sort((a, b) -> Long.compare(a.getStartOffsetNanos(), b.getStartOffsetNanos()));
+        return new StartupTimeline(startTime, snapshot, Math.max(0, recordedSteps.get() - capacity));
+    }
+
+    /**
+     * Return the number of steps that ended after the buffer was full.
+     *
+     * @return the number of dropped steps
+     */
+    public int getDroppedStepCount() {
+        return Math.max(0, recordedSteps.get() - capacity);
+    }
+
+    private final class BufferedStartupStep implements StartupStep {
+
+        private final long id;
+        private final String name;
+        private final BufferedStartupStep parent;
+        private final long startNanos;
+        private final String threadName = Thread.currentThread().getName();
+        private final Map<String, String> tags = new LinkedHashMap<>(4);
+        private boolean ended;
+
+        private BufferedStartupStep(long id, String name, BufferedStartupStep parent, long startNanos) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getParentId() {
+            return (parent != null ? parent.id : null);
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            if (ended) {
+                throw new IllegalStateException("StartupStep has already ended.");
+            }
+            tags.put(key, value);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            if (!ended) {
+                ended = true;
+                record(this, System.nanoTime());
+            }
+        }
+    }
+}
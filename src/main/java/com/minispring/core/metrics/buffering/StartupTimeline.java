@@ -0,0 +1,174 @@
+package com.minispring.core.metrics.buffering;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the steps recorded by a {@link BufferingApplicationStartup},
+ * ordered by their start time.
+ */
+public class StartupTimeline {
+
+    private final Instant startTime;
+
+    private final List<TimelineEvent> events;
+
+    private final int droppedStepCount;
+
+    StartupTimeline(Instant startTime, List<TimelineEvent> events, int droppedStepCount) {
+        this.startTime = startTime;
+        this.events = events;
+        this.droppedStepCount = droppedStepCount;
+    }
+
+    /**
+     * Return the start time of the application startup.
+     *
+     * @return the instant the startup recorder was created
+     */
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Return the recorded events, ordered by start time.
+     *
+     * @return the recorded events
+     */
+    public List<TimelineEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Return the number of steps that were not recorded because the buffer was full.
+     *
+     * @return the number of dropped steps
+     */
+    public int getDroppedStepCount() {
+        return droppedStepCount;
+    }
+
+    /**
+     * Render the timeline as an indented tree, one step per line with its duration
+     * and tags, children below their parent.
+     *
+     * @return the formatted timeline
+     */
+    public String format() {
+        Map<Long, List<TimelineEvent>> children = new HashMap<>();
+        List<TimelineEvent> roots = new ArrayList<>();
+        Map<Long, TimelineEvent> byId = new HashMap<>();
+        for (TimelineEvent event : events) {
+            byId.put(event.getId(), event);
+        }
+        for (TimelineEvent event : events) {
+            Long parentId = event.getParentId();
+            if (parentId != null && byId.containsKey(parentId)) {
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(event);
+            } else {
+                roots.add(event);
+            }
+        }
+        StringBuilder result = new StringBuilder();
+        for (TimelineEvent root : roots) {
+            format(root, 0, children, result);
+        }
+        if (droppedStepCount > 0) {
+            result.append(droppedStepCount).append(" more steps not recorded\n");
+        }
+        return result.toString();
+    }
+
+    private static void format(TimelineEvent event, int depth, Map<Long, List<TimelineEvent>> children,
+                               StringBuilder result) {
+        for (int i = 0; i < depth; i++) {
+            result.append("  ");
+        }
+        result.append(event.getName()).append(' ')
+                .append(String.format("%.3f", event.getDurationNanos() / 1_000_000.0)).append(" ms");
+        if (!event.getTags().isEmpty()) {
+            result.append(' ').append(event.getTags());
+        }
+        result.append('\n');
+        for (TimelineEvent child : children.getOrDefault(event.getId(), Collections.emptyList())) {
+            format(child, depth + 1, children, result);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    /**
+     * Event on the timeline: a recorded step with its start offset and duration.
+     */
+    public static class TimelineEvent {
+
+        private final String name;
+        private final long id;
+        private final Long parentId;
+        private final Map<String, String> tags;
+        private final String threadName;
+        private final long startOffsetNanos;
+        private final long durationNanos;
+
+        TimelineEvent(String name, long id, Long parentId, Map<String, String> tags, String threadName,
+                      long startOffsetNanos, long durationNanos) {
+            this.name = name;
+            this.id = id;
+            this.parentId = parentId;
+            this.tags = tags;
+            this.threadName = threadName;
+            this.startOffsetNanos = startOffsetNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Long getParentId() {
+            return parentId;
+        }
+
+        public Map<String, String> getTags() {
+            return tags;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * Return the time between the start of the application startup and the start of this step.
+         *
+         * @return the start offset in nanoseconds
+         */
+        public long getStartOffsetNanos() {
+            return startOffsetNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public Duration getDuration() {
+            return Duration.ofNanos(durationNanos);
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + tags + " " + Duration.ofNanos(durationNanos);
+        }
+    }
+}
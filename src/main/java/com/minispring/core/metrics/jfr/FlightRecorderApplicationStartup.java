@@ -0,0 +1,38 @@
+package com.minispring.core.metrics.jfr;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.minispring.core.metrics.ApplicationStartup;
+import com.minispring.core.metrics.StartupStep;
+
+/**
+ * {@link ApplicationStartup} implementation for Java Flight Recorder: every step is
+ * committed as a {@code com.minispring.StartupStep} event, which is only recorded
+ * while a recording with that event enabled is running, e.g.
+ * {@code java -XX:StartFlightRecording:filename=recording.jfr,duration=10s}.
+ * Requires a JVM that ships the {@code jdk.jfr} module (Java 11+, or 8u262+).
+ */
+public class FlightRecorderApplicationStartup implements ApplicationStartup {
+
+    private final AtomicLong idSequence = new AtomicLong();
+
+    private final ThreadLocal<FlightRecorderStartupStep> currentStep = new ThreadLocal<>();
+
+    @Override
+    public StartupStep start(String name) {
+        FlightRecorderStartupStep parent = currentStep.get();
+        FlightRecorderStartupStep step = new FlightRecorderStartupStep(idSequence.getAndIncrement(), name, parent, this);
+        currentStep.set(step);
+        return step;
+    }
+
+    void recordEnd(FlightRecorderStartupStep step) {
+        if (currentStep.get() == step) {
+            if (step.getParent() != null) {
+                currentStep.set(step.getParent());
+            } else {
+                currentStep.remove();
+            }
+        }
+    }
+}
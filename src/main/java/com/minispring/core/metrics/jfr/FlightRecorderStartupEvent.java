@@ -0,0 +1,35 @@
+package com.minispring.core.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link Event} extension for recording a {@link FlightRecorderStartupStep} in Java Flight Recorder.
+ */
+@Name("com.minispring.StartupStep")
+@Category("MiniSpring")
+@Label("Startup Step")
+@Description("Mini Spring startup step")
+class FlightRecorderStartupEvent extends Event {
+
+    @Label("Event Id")
+    long eventId;
+
+    @Label("Parent Id")
+    long parentId;
+
+    @Label("Name")
+    String name;
+
+    @Label("Tags")
+    String tags = "";
+
+    FlightRecorderStartupEvent(long eventId, String name, long parentId) {
+        this.eventId = eventId;
+        this.name = name;
+        this.parentId = parentId;
+    }
+}
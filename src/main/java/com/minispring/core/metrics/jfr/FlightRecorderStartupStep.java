@@ -0,0 +1,66 @@
+package com.minispring.core.metrics.jfr;
+
+import com.minispring.core.metrics.StartupStep;
+
+/**
+ * {@link StartupStep} implementation for Java Flight Recorder, backed by a
+ * {@link FlightRecorderStartupEvent} that begins when the step starts and is
+ * committed when it ends.
+ */
+class FlightRecorderStartupStep implements StartupStep {
+
+    private final FlightRecorderStartupEvent event;
+    private final FlightRecorderStartupStep parent;
+    private final FlightRecorderApplicationStartup applicationStartup;
+    private StringBuilder tags;
+
+    FlightRecorderStartupStep(long id, String name, FlightRecorderStartupStep parent,
+                              FlightRecorderApplicationStartup applicationStartup) {
+        this.event = new FlightRecorderStartupEvent(id, name, (parent != null ? parent.getId() : -1L));
+        this.parent = parent;
+        this.applicationStartup = applicationStartup;
+        this.event.begin();
+    }
+
+    FlightRecorderStartupStep getParent() {
+        return parent;
+    }
+
+    @Override
+    public String getName() {
+        return event.name;
+    }
+
+    @Override
+    public long getId() {
+        return event.eventId;
+    }
+
+    @Override
+    public Long getParentId() {
+        return (parent != null ? parent.getId() : null);
+    }
+
+    @Override
+    public StartupStep tag(String key, String value) {
+        if (tags == null) {
+            tags = new StringBuilder();
+        } else {
+            tags.append(", ");
+        }
+        tags.append(key).append('=').append(value);
+        return this;
+    }
+
+    @Override
+    public void end() {
+        event.end();
+        if (event.shouldCommit()) {
+            if (tags != null) {
+                event.tags = tags.toString();
+            }
+            event.commit();
+        }
+        applicationStartup.recordEnd(this);
+    }
+}
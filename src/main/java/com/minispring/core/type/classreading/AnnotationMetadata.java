@@ -0,0 +1,81 @@
+package com.minispring.core.type.classreading;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The class-level annotations of a class, read from its class file without loading
+ * the class. Annotation attribute values are kept as {@code String}, boxed primitives
+ * ({@code Boolean} for {@code boolean}), enum constant names, or {@code Object[]}
+ * for arrays; class literals and nested annotations are not kept.
+ * Attributes not present in the class file take their default value, which is not
+ * known here.
+ *
+ * @see ClassFileAnnotationReader
+ */
+public final class AnnotationMetadata {
+
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private final String className;
+    private final int accessFlags;
+    private final Map<String, Map<String, Object>> annotations;
+
+    AnnotationMetadata(String className, int accessFlags, Map<String, Map<String, Object>> annotations) {
+        this.className = className;
+        this.accessFlags = accessFlags;
+        this.annotations = annotations;
+    }
+
+    /**
+     * Return the binary name of the class, e.g. {@code com.example.Outer$Inner}.
+     *
+     * @return the class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Return whether the class is a plain or abstract class, rather than an
+     * interface, an annotation type or an enum.
+     *
+     * @return whether the class is a class
+     */
+    public boolean isClass() {
+        return (accessFlags & (ACC_INTERFACE | ACC_ANNOTATION | ACC_ENUM)) == 0;
+    }
+
+    public boolean isAbstract() {
+        return (accessFlags & ACC_ABSTRACT) != 0;
+    }
+
+    /**
+     * Return whether the class is directly annotated with the given annotation type.
+     *
+     * @param annotationType the fully qualified name of the annotation type
+     * @return whether the annotation is present
+     */
+    public boolean hasAnnotation(String annotationType) {
+        return annotations.containsKey(annotationType);
+    }
+
+    /**
+     * Return the attributes present in the class file for the given annotation type.
+     *
+     * @param annotationType the fully qualified name of the annotation type
+     * @return the attributes by name, or {@code null} if the annotation is not present
+     */
+    public Map<String, Object> getAnnotationAttributes(String annotationType) {
+        Map<String, Object> attributes = annotations.get(annotationType);
+        return (attributes != null ? Collections.unmodifiableMap(attributes) : null);
+    }
+
+    @Override
+    public String toString() {
+        return className + " " + annotations;
+    }
+}
@@ -0,0 +1,254 @@
+package com.minispring.core.type.classreading;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the class-level {@code RuntimeVisibleAnnotations} attribute of a class file.
+ * The constant pool is indexed without decoding it, fields and methods are skipped
+ * by their lengths, and only the class attributes are parsed, so reading a class
+ * file is a single pass over its bytes that creates no objects for classes without
+ * the required annotation.
+ */
+public final class ClassFileAnnotationReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private ClassFileAnnotationReader() {
+    }
+
+    /**
+     * Read the class-level annotations of the given class file, if its constant pool
+     * refers to the given annotation type.
+     *
+     * @param classFile the bytes of the class file
+     * @param requiredAnnotationType the fully qualified name of an annotation type that
+     * the class must refer to, or {@code null} to read every class file
+     * @return the annotation metadata, or {@code null} if the class does not refer to
+     * the required annotation type
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static AnnotationMetadata read(byte[] classFile, String requiredAnnotationType) {
+        try {
+            return new Parser(classFile).parse(requiredAnnotationType != null
+                    ? descriptor(requiredAnnotationType).getBytes(StandardCharsets.UTF_8) : null);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or malformed class file", e);
+        }
+    }
+
+    private static String descriptor(String className) {
+        return 'L' + className.replace('.', '/') + ';';
+    }
+
+    /**
+     * Single-use parser over the bytes of one class file.
+     */
+    private static final class Parser {
+
+        private final ByteBuffer buffer;
+        private int[] constantOffsets;
+
+        Parser(byte[] classFile) {
+            this.buffer = ByteBuffer.wrap(classFile);
+        }
+
+        AnnotationMetadata parse(byte[] requiredDescriptor) {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a class file");
+            }
+            buffer.getShort(); // minor version
+            buffer.getShort(); // major version
+            if (!readConstantPool(requiredDescriptor)) {
+                return null;
+            }
+
+            int accessFlags = u2();
+            String className = classInfo(u2()).replace('/', '.');
+            buffer.getShort(); // super class
+            skip(u2() * 2); // interfaces
+            skipMembers(); // fields
+            skipMembers(); // methods
+
+            Map<String, Map<String, Object>> annotations = new LinkedHashMap<>();
+            int attributeCount = u2();
+            for (int i = 0; i < attributeCount; i++) {
+                String name = utf8(u2());
+                int length = buffer.getInt();
+                if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                    int annotationCount = u2();
+                    for (int j = 0; j < annotationCount; j++) {
+                        readAnnotation(annotations);
+                    }
+                } else {
+                    skip(length);
+                }
+            }
+            return new AnnotationMetadata(className, accessFlags, annotations);
+        }
+
+        /**
+         * Record the offset of every constant and check whether one of the UTF-8
+         * constants is the required descriptor.
+         */
+        private boolean readConstantPool(byte[] requiredDescriptor) {
+            int count = u2();
+            constantOffsets = new int[count];
+            boolean found = (requiredDescriptor == null);
+            for (int i = 1; i < count; i++) {
+                constantOffsets[i] = buffer.position();
+                int tag = buffer.get();
+                switch (tag) {
+                    case 1: // Utf8
+                        int length = u2();
+                        if (!found && length == requiredDescriptor.length) {
+                            found = regionMatches(buffer.position(), requiredDescriptor);
+                        }
+                        skip(length);
+                        break;
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                    case 18: // InvokeDynamic
+                        skip(4);
+                        break;
+                    case 5: // Long
+                    case 6: // Double
+                        skip(8);
+                        i++;
+                        break;
+                    case 7: // Class
+                    case 8: // String
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        skip(2);
+                        break;
+                    case 15: // MethodHandle
+                        skip(3);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+                }
+            }
+            return found;
+        }
+
+        private boolean regionMatches(int offset, byte[] bytes) {
+            for (int i = 0; i < bytes.length; i++) {
+                if (buffer.get(offset + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void skipMembers() {
+            int memberCount = u2();
+            for (int i = 0; i < memberCount; i++) {
+                skip(6); // access flags, name, descriptor
+                int attributeCount = u2();
+                for (int j = 0; j < attributeCount; j++) {
+                    buffer.getShort();
+                    skip(buffer.getInt());
+                }
+            }
+        }
+
+        private void readAnnotation(Map<String, Map<String, Object>> annotations) {
+            String type = typeName(utf8(u2()));
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            int pairCount = u2();
+            for (int i = 0; i < pairCount; i++) {
+                String name = utf8(u2());
+                Object value = readElementValue();
+                if (value != null) {
+                    attributes.put(name, value);
+                }
+            }
+            if (annotations != null) {
+                annotations.put(type, attributes);
+            }
+        }
+
+        private Object readElementValue() {
+            int tag = buffer.get();
+            switch (tag) {
+                case 'B':
+                    return (byte) constantInt(u2());
+                case 'C':
+                    return (char) constantInt(u2());
+                case 'S':
+                    return (short) constantInt(u2());
+                case 'I':
+                    return constantInt(u2());
+                case 'Z':
+                    return constantInt(u2()) != 0;
+                case 'J':
+                    return buffer.getLong(constantOffsets[u2()] + 1);
+                case 'F':
+                    return buffer.getFloat(constantOffsets[u2()] + 1);
+                case 'D':
+                    return buffer.getDouble(constantOffsets[u2()] + 1);
+                case 's':
+                    return utf8(u2());
+                case 'e':
+                    buffer.getShort(); // enum type
+                    return utf8(u2());
+                case 'c':
+                    buffer.getShort(); // class literal
+                    return null;
+                case '@':
+                    readAnnotation(null);
+                    return null;
+                case '[':
+                    Object[] values = new Object[u2()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = readElementValue();
+                    }
+                    return values;
+                default:
+                    throw new IllegalArgumentException("Unknown element value tag " + (char) tag);
+            }
+        }
+
+        private int constantInt(int index) {
+            return buffer.getInt(constantOffsets[index] + 1);
+        }
+
+        private String classInfo(int index) {
+            return utf8(buffer.getShort(constantOffsets[index] + 1) & 0xFFFF);
+        }
+
+        /**
+         * Decode a UTF-8 constant. Class files use modified UTF-8, which only differs
+         * from standard UTF-8 for NUL and supplementary characters.
+         */
+        private String utf8(int index) {
+            int offset = constantOffsets[index];
+            int length = buffer.getShort(offset + 1) & 0xFFFF;
+            return new String(buffer.array(), offset + 3, length, StandardCharsets.UTF_8);
+        }
+
+        private static String typeName(String descriptor) {
+            return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+        }
+
+        private int u2() {
+            return buffer.getShort() & 0xFFFF;
+        }
+
+        private void skip(int length) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.minispring.exception;
+
+/**
+ * Exception thrown when a proxy cannot be created for a bean, e.g. because its
+ * class is final or cannot be subclassed from its class loader.
+ */
+public class AopConfigException extends BeansException {
+
+    public AopConfigException(String message) {
+        super(message);
+    }
+
+    public AopConfigException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
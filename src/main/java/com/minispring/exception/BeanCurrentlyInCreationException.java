@@ -0,0 +1,22 @@
+package com.minispring.exception;
+
+import java.util.List;
+
+/**
+ * Exception thrown in case of a reference to a bean that's currently in creation.
+ * Typically happens when constructor autowiring matches the currently constructed bean.
+ */
+public class BeanCurrentlyInCreationException extends BeansException {
+
+    private final String beanName;
+
+    public BeanCurrentlyInCreationException(String beanName, List<String> creationChain) {
+        super("Error creating bean with name '" + beanName + "': Requested bean is currently in creation: "
+                + "Is there an unresolvable circular reference? " + String.join(" -> ", creationChain));
+        this.beanName = beanName;
+    }
+
+    public String getBeanName() {
+        return this.beanName;
+    }
+}
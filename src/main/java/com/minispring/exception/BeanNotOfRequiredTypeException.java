@@ -0,0 +1,32 @@
+package com.minispring.exception;
+
+/**
+ * Exception thrown when a bean doesn't match the expected type, typically because
+ * it is a JDK dynamic proxy that only implements the interfaces of the bean class.
+ */
+public class BeanNotOfRequiredTypeException extends BeansException {
+
+    private final String beanName;
+    private final Class<?> requiredType;
+    private final Class<?> actualType;
+
+    public BeanNotOfRequiredTypeException(String beanName, Class<?> requiredType, Class<?> actualType) {
+        super("Bean named '" + beanName + "' is expected to be of type '" + requiredType.getName()
+                + "' but was actually of type '" + actualType.getName() + "'");
+        this.beanName = beanName;
+        this.requiredType = requiredType;
+        this.actualType = actualType;
+    }
+
+    public String getBeanName() {
+        return this.beanName;
+    }
+
+    public Class<?> getRequiredType() {
+        return this.requiredType;
+    }
+
+    public Class<?> getActualType() {
+        return this.actualType;
+    }
+}
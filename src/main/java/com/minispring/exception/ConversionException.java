@@ -0,0 +1,17 @@
+package com.minispring.exception;
+
+/**
+ * Exception thrown when a value cannot be converted to the requested type,
+ * either because no converter is registered for the types involved or because
+ * the converter failed.
+ */
+public class ConversionException extends RuntimeException {
+
+    public ConversionException(String message) {
+        super(message);
+    }
+
+    public ConversionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -7,18 +7,35 @@ package com.minispring.exception;
 public class NoSuchBeanDefinitionException extends BeansException {
 
     private final String beanName;
+    private final Class<?> beanType;
 
     public NoSuchBeanDefinitionException(String beanName) {
         super("No bean named '" + beanName + "' available");
         this.beanName = beanName;
+        this.beanType = null;
     }
 
     public NoSuchBeanDefinitionException(String beanName, String message) {
         super("No bean named '" + beanName + "' available: " + message);
         this.beanName = beanName;
+        this.beanType = null;
+    }
+
+    public NoSuchBeanDefinitionException(Class<?> beanType) {
+        this(beanType, "expected at least 1 bean which qualifies as autowire candidate");
+    }
+
+    public NoSuchBeanDefinitionException(Class<?> beanType, String message) {
+        super("No qualifying bean of type '" + beanType.getName() + "' available: " + message);
+        this.beanName = null;
+        this.beanType = beanType;
     }
 
     public String getBeanName() {
         return this.beanName;
     }
-}
\ No newline at end of file
+
+    public Class<?> getBeanType() {
+        return this.beanType;
+    }
+}
@@ -0,0 +1,28 @@
+package com.minispring.exception;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception thrown when a BeanFactory is asked for a bean instance by type for which
+ * multiple matching candidates have been found when only one matching bean was expected.
+ */
+public class NoUniqueBeanDefinitionException extends NoSuchBeanDefinitionException {
+
+    private final List<String> beanNamesFound;
+
+    public NoUniqueBeanDefinitionException(Class<?> beanType, String... beanNamesFound) {
+        super(beanType, "expected single matching bean but found " + beanNamesFound.length + ": "
+                + String.join(",", beanNamesFound));
+        this.beanNamesFound = Collections.unmodifiableList(Arrays.asList(beanNamesFound));
+    }
+
+    public int getNumberOfBeansFound() {
+        return this.beanNamesFound.size();
+    }
+
+    public List<String> getBeanNamesFound() {
+        return this.beanNamesFound;
+    }
+}
@@ -0,0 +1,21 @@
+package com.minispring.scheduling;
+
+/**
+ * Handle of a task scheduled with a {@link TaskScheduler}.
+ */
+public interface ScheduledTask {
+
+    /**
+     * Cancel all future runs of the task. A run in progress is not interrupted.
+     *
+     * @return {@code false} if the task had already been cancelled or had completed
+     */
+    boolean cancel();
+
+    /**
+     * Return whether the task has been cancelled.
+     *
+     * @return whether the task has been cancelled
+     */
+    boolean isCancelled();
+}
@@ -0,0 +1,58 @@
+package com.minispring.scheduling;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import com.minispring.scheduling.support.CronExpression;
+
+/**
+ * Schedules tasks to run once or periodically. Periodic tasks are rescheduled when a
+ * run completes, so runs of one task never overlap. A failing run is logged and does
+ * not stop a periodic task.
+ */
+public interface TaskScheduler {
+
+    /**
+     * Run a task once after the given delay.
+     *
+     * @param task the task
+     * @param delay the delay
+     * @param unit the unit of the delay
+     * @return the handle of the task
+     */
+    ScheduledTask schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Run a task periodically, starting runs a fixed period apart; a run that ends
+     * late is followed immediately by the next one.
+     *
+     * @param task the task
+     * @param initialDelay the delay before the first run
+     * @param period the period between the starts of runs
+     * @param unit the unit of the delay and period
+     * @return the handle of the task
+     */
+    ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit);
+
+    /**
+     * Run a task periodically, with a fixed delay between the end of a run and the
+     * start of the next.
+     *
+     * @param task the task
+     * @param initialDelay the delay before the first run
+     * @param delay the delay after each run
+     * @param unit the unit of the delays
+     * @return the handle of the task
+     */
+    ScheduledTask scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit);
+
+    /**
+     * Run a task at the times matched by a cron expression.
+     *
+     * @param task the task
+     * @param cronExpression the cron expression
+     * @param zone the time zone to evaluate the expression in
+     * @return the handle of the task
+     */
+    ScheduledTask schedule(Runnable task, CronExpression cronExpression, ZoneId zone);
+}
@@ -0,0 +1,446 @@
+package com.minispring.scheduling.concurrent;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.minispring.scheduling.ScheduledTask;
+import com.minispring.scheduling.TaskScheduler;
+import com.minispring.scheduling.support.CronExpression;
+
+/**
+ * {@link TaskScheduler} keeping its timers in a hashed timing wheel: a ring of buckets,
+ * one per tick, that a single worker thread advances every tick. A timer lands in the
+ * bucket of its deadline, with the number of full rotations left before it is due, so
+ * scheduling and cancelling cost O(1) and thousands of timers cost one thread and a
+ * few objects each. Timers are precise to one tick.
+ *
+ * <p>Timers are handed to the worker through lock-free queues and only the worker
+ * touches the buckets. Due tasks run on the task executor, so a long-running task does
+ * not delay the others. The worker is started by the first scheduled task and stopped
+ * by {@link #close()}, which cancels all tasks.
+ */
+public class HashedWheelTaskScheduler implements TaskScheduler, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTaskScheduler.class);
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_SHUTDOWN = 2;
+
+    /** Most pending timers moved into the wheel per tick, so that a burst cannot stall the worker. */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> TIMEOUT_STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    private final Executor taskExecutor;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Thread worker;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private volatile int state = STATE_INIT;
+    private long startTime;
+    private long tick;
+
+    /**
+     * Create a scheduler with a tick of 10 milliseconds and 512 buckets.
+     *
+     * @param taskExecutor the executor to run due tasks on
+     */
+    public HashedWheelTaskScheduler(Executor taskExecutor) {
+        this(taskExecutor, 10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * Create a scheduler.
+     *
+     * @param taskExecutor the executor to run due tasks on
+     * @param tickDuration the duration of a tick, i.e. the precision of the timers
+     * @param unit the unit of the tick duration
+     * @param ticksPerWheel the number of buckets, rounded up to a power of two
+     */
+    public HashedWheelTaskScheduler(Executor taskExecutor, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid tick duration " + tickDuration
+                    + " or ticks per wheel " + ticksPerWheel);
+        }
+        this.taskExecutor = taskExecutor;
+        this.tickNanos = unit.toNanos(tickDuration);
+        int wheelSize = (ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1);
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+        this.worker = new Thread(this::runWorker, "minispring-scheduler");
+        this.worker.setDaemon(true);
+    }
+
+    @Override
+    public ScheduledTask schedule(Runnable task, long delay, TimeUnit unit) {
+        RepeatingTask scheduledTask = new RepeatingTask(task, now -> -1L);
+        scheduledTask.scheduleNext(unit.toNanos(delay));
+        return scheduledTask;
+    }
+
+    @Override
+    public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        long periodNanos = unit.toNanos(period);
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        long initialDelayNanos = unit.toNanos(initialDelay);
+        long[] nextStart = {System.nanoTime() + initialDelayNanos};
+        RepeatingTask scheduledTask = new RepeatingTask(task, now -> {
+            nextStart[0] += periodNanos;
+            return Math.max(0L, nextStart[0] - now);
+        });
+        scheduledTask.scheduleNext(initialDelayNanos);
+        return scheduledTask;
+    }
+
+    @Override
+    public ScheduledTask scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        long delayNanos = unit.toNanos(delay);
+        if (delayNanos < 0) {
+            throw new IllegalArgumentException("Delay must not be negative: " + delay);
+        }
+        RepeatingTask scheduledTask = new RepeatingTask(task, now -> delayNanos);
+        scheduledTask.scheduleNext(unit.toNanos(initialDelay));
+        return scheduledTask;
+    }
+
+    @Override
+    public ScheduledTask schedule(Runnable task, CronExpression cronExpression, ZoneId zone) {
+        ZonedDateTime[] lastScheduled = {ZonedDateTime.now(zone)};
+        NextDelay nextDelay = now -> {
+            ZonedDateTime current = ZonedDateTime.now(zone);
+            ZonedDateTime after = (current.isAfter(lastScheduled[0]) ? current : lastScheduled[0]);
+            ZonedDateTime next = cronExpression.next(after);
+            if (next == null) {
+                logger.warn("Cron expression {} matches no future time, not rescheduling {}", cronExpression, task);
+                return -1L;
+            }
+            lastScheduled[0] = next;
+            return Math.max(0L, Duration.between(current, next).toNanos());
+        };
+        RepeatingTask scheduledTask = new RepeatingTask(task, nextDelay);
+        long firstDelay = nextDelay.next(System.nanoTime());
+        if (firstDelay >= 0) {
+            scheduledTask.scheduleNext(firstDelay);
+        }
+        return scheduledTask;
+    }
+
+    /**
+     * Stop the worker thread and cancel all tasks. Runs in progress on the task
+     * executor are not interrupted.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            int previousState = state;
+            state = STATE_SHUTDOWN;
+            if (previousState != STATE_STARTED) {
+                return;
+            }
+        }
+        LockSupport.unpark(worker);
+        if (Thread.currentThread() != worker) {
+            try {
+                worker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Return whether the scheduler has been closed.
+     *
+     * @return whether the scheduler is closed
+     */
+    public boolean isClosed() {
+        return state == STATE_SHUTDOWN;
+    }
+
+    private Timeout newTimeout(Runnable action, long delayNanos) {
+        if (state != STATE_STARTED) {
+            start();
+        }
+        long deadline = System.nanoTime() - startTime + delayNanos;
+        if (delayNanos > 0 && deadline < 0) {
+            deadline = Long.MAX_VALUE;
+        }
+        Timeout timeout = new Timeout(action, deadline);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private synchronized void start() {
+        if (state == STATE_INIT) {
+            startTime = System.nanoTime();
+            state = STATE_STARTED;
+            worker.start();
+        } else if (state == STATE_SHUTDOWN) {
+            throw new IllegalStateException("Scheduler has been closed");
+        }
+    }
+
+    private void runWorker() {
+        while (state == STATE_STARTED) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            processCancelledTimeouts();
+            transferPendingTimeouts();
+            wheel[(int) (tick & mask)].expireTimeouts();
+            tick++;
+        }
+        for (Bucket bucket : wheel) {
+            bucket.clear();
+        }
+        pendingTimeouts.clear();
+        cancelledTimeouts.clear();
+    }
+
+    /**
+     * Sleep until the end of the current tick.
+     *
+     * @return {@code false} if the scheduler has been closed meanwhile
+     */
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+            if (state != STATE_STARTED) {
+                return false;
+            }
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                break;
+            }
+            if (timeout.state != Timeout.STATE_INIT) {
+                continue;
+            }
+            long calculatedTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculatedTick - tick) / wheel.length;
+            long targetTick = Math.max(calculatedTick, tick);
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Computes the delay before the next run of a task, in nanoseconds, given
+     * {@link System#nanoTime()}; negative if the task is not to run again.
+     */
+    private interface NextDelay {
+
+        long next(long now);
+    }
+
+    /**
+     * A scheduled task, rescheduled with a new timer after each run until cancelled.
+     */
+    private final class RepeatingTask implements ScheduledTask, Runnable {
+
+        private final Runnable task;
+        private final NextDelay nextDelay;
+        private volatile Timeout timeout;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        RepeatingTask(Runnable task, NextDelay nextDelay) {
+            this.task = task;
+            this.nextDelay = nextDelay;
+        }
+
+        void scheduleNext(long delayNanos) {
+            Timeout next = newTimeout(this, delayNanos);
+            timeout = next;
+            if (cancelled) {
+                next.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                logger.error("Scheduled task {} failed", task, ex);
+            }
+            long delay = nextDelay.next(System.nanoTime());
+            if (delay < 0 || cancelled || state == STATE_SHUTDOWN) {
+                done = true;
+                return;
+            }
+            try {
+                scheduleNext(delay);
+            } catch (IllegalStateException ex) {
+                // closed concurrently
+                done = true;
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (cancelled || done) {
+                return false;
+            }
+            cancelled = true;
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+
+    /**
+     * A timer in the wheel. Its links and remaining rounds are only accessed by the worker.
+     */
+    private final class Timeout {
+
+        static final int STATE_INIT = 0;
+        static final int STATE_CANCELLED = 1;
+        static final int STATE_EXPIRED = 2;
+
+        final Runnable action;
+        final long deadline;
+        long remainingRounds;
+        Bucket bucket;
+        Timeout prev;
+        Timeout next;
+        volatile int state = STATE_INIT;
+
+        Timeout(Runnable action, long deadline) {
+            this.action = action;
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            if (TIMEOUT_STATE.compareAndSet(this, STATE_INIT, STATE_CANCELLED)) {
+                cancelledTimeouts.add(this);
+            }
+        }
+
+        void expire() {
+            if (TIMEOUT_STATE.compareAndSet(this, STATE_INIT, STATE_EXPIRED)) {
+                try {
+                    taskExecutor.execute(action);
+                } catch (RejectedExecutionException ex) {
+                    logger.error("Task executor rejected scheduled task {}", action, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of the timers of one tick.
+     */
+    private final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+                tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /** Expire the timers due in this tick and count down the rounds of the others. */
+        void expireTimeouts() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.state == Timeout.STATE_CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void clear() {
+            while (head != null) {
+                remove(head);
+            }
+        }
+    }
+}
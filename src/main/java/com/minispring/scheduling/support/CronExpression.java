@@ -0,0 +1,176 @@
+package com.minispring.scheduling.support;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Cron expression of six space-separated fields: second, minute, hour, day of month,
+ * month and day of week. Five fields are read as an expression without seconds, which
+ * then run at second 0. Each field is {@code *}, a value, a range {@code a-b}, any of
+ * them with a step {@code /n}, or a comma-separated list of these. Months and days of
+ * week may be given by their three-letter English names; Sunday is 0 or 7. {@code ?}
+ * is accepted as {@code *} in the day fields. As in Spring, a time must match both the
+ * day of month and the day of week. The macros {@code @yearly}, {@code @monthly},
+ * {@code @weekly}, {@code @daily}, {@code @midnight} and {@code @hourly} are supported.
+ */
+public final class CronExpression {
+
+    private static final String[] MONTH_NAMES = {
+            "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    /** Years searched for a matching time before giving up, e.g. for February 30. */
+    private static final int MAX_YEARS = 4;
+
+    private final String expression;
+    private final BitSet seconds;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        this.seconds = parseField(fields[0], 0, 59, null, expression);
+        this.minutes = parseField(fields[1], 0, 59, null, expression);
+        this.hours = parseField(fields[2], 0, 23, null, expression);
+        this.daysOfMonth = parseField(fields[3], 1, 31, null, expression);
+        this.months = parseField(fields[4], 1, 12, MONTH_NAMES, expression);
+        this.daysOfWeek = parseField(fields[5], 0, 7, DAY_NAMES, expression);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+            daysOfWeek.clear(7);
+        }
+    }
+
+    /**
+     * Parse a cron expression.
+     *
+     * @param expression the expression
+     * @return the parsed expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static CronExpression parse(String expression) {
+        String trimmed = expression.trim();
+        switch (trimmed.toLowerCase(Locale.ROOT)) {
+            case "@yearly":
+            case "@annually":
+                return new CronExpression(expression, "0 0 0 1 1 *".split(" "));
+            case "@monthly":
+                return new CronExpression(expression, "0 0 0 1 * *".split(" "));
+            case "@weekly":
+                return new CronExpression(expression, "0 0 0 * * 0".split(" "));
+            case "@daily":
+            case "@midnight":
+                return new CronExpression(expression, "0 0 0 * * *".split(" "));
+            case "@hourly":
+                return new CronExpression(expression, "0 0 * * * *".split(" "));
+            default:
+                break;
+        }
+        String[] fields = trimmed.split("\\s+");
+        if (fields.length == 5) {
+            String[] withSeconds = new String[6];
+            withSeconds[0] = "0";
+            System.arraycopy(fields, 0, withSeconds, 1, 5);
+            fields = withSeconds;
+        }
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Cron expression must have 5 or 6 fields, found "
+                    + fields.length + " in \"" + expression + "\"");
+        }
+        return new CronExpression(expression, fields);
+    }
+
+    /**
+     * Return the first time after the given one that matches this expression.
+     *
+     * @param after the time to start from, exclusive
+     * @return the next matching time, or {@code null} if none exists in the following years
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime time = after.plusSeconds(1).truncatedTo(ChronoUnit.SECONDS);
+        int maxYear = after.getYear() + MAX_YEARS;
+        while (time.getYear() <= maxYear) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.plusMonths(1).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+            } else if (!daysOfMonth.get(time.getDayOfMonth())
+                    || !daysOfWeek.get(time.getDayOfWeek().getValue() % 7)) {
+                time = time.plusDays(1).truncatedTo(ChronoUnit.DAYS);
+            } else if (!hours.get(time.getHour())) {
+                time = time.plusHours(1).truncatedTo(ChronoUnit.HOURS);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1).truncatedTo(ChronoUnit.MINUTES);
+            } else if (!seconds.get(time.getSecond())) {
+                int nextSecond = seconds.nextSetBit(time.getSecond());
+                time = (nextSecond >= 0 ? time.withSecond(nextSecond) : time.plusMinutes(1).withSecond(0));
+            } else {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    private static BitSet parseField(String field, int min, int max, String[] names, String expression) {
+        BitSet bits = new BitSet(max + 1);
+        try {
+            for (String part : field.split(",")) {
+                int step = 1;
+                int slash = part.indexOf('/');
+                String range = part;
+                if (slash != -1) {
+                    step = Integer.parseInt(part.substring(slash + 1));
+                    range = part.substring(0, slash);
+                    if (step <= 0) {
+                        throw new IllegalArgumentException("step must be positive");
+                    }
+                }
+                int start;
+                int end;
+                if (range.equals("*") || range.equals("?")) {
+                    start = min;
+                    end = max;
+                } else {
+                    int dash = range.indexOf('-');
+                    if (dash != -1) {
+                        start = parseValue(range.substring(0, dash), names);
+                        end = parseValue(range.substring(dash + 1), names);
+                    } else {
+                        start = parseValue(range, names);
+                        end = (slash != -1 ? max : start);
+                    }
+                }
+                if (start < min || end > max || start > end) {
+                    throw new IllegalArgumentException("range " + range + " is not within " + min + "-" + max);
+                }
+                for (int i = start; i <= end; i += step) {
+                    bits.set(i);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid field \"" + field + "\" in cron expression \""
+                    + expression + "\": " + e.getMessage(), e);
+        }
+        return bits;
+    }
+
+    private static int parseValue(String value, String[] names) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    return i + (names == MONTH_NAMES ? 1 : 0);
+                }
+            }
+        }
+        return Integer.parseInt(value);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,249 @@
+package com.minispring.scheduling.support;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.minispring.annotation.Scheduled;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.BeanPostProcessor;
+import com.minispring.beans.factory.ConfigurableListableBeanFactory;
+import com.minispring.beans.factory.support.BeanAccessorStrategy;
+import com.minispring.core.ClassUtils;
+import com.minispring.exception.BeansException;
+import com.minispring.scheduling.ScheduledTask;
+import com.minispring.scheduling.TaskScheduler;
+
+/**
+ * {@link BeanPostProcessor} collecting the {@link Scheduled} methods of singleton beans.
+ * It only applies to bean classes that declare such methods, which are found and
+ * validated once per class. The methods are scheduled when {@link #start()} is called
+ * at the end of the context refresh, or right away for beans created later, and are
+ * called on the exposed bean, so that its proxy applies. A method that cannot be
+ * called on the exposed bean, such as one no interface of its JDK proxy declares,
+ * fails the creation of the bean.
+ *
+ * <p>Tasks run on the {@value #DEFAULT_TASK_SCHEDULER_BEAN_NAME} bean if defined,
+ * otherwise on the default scheduler given to the processor.
+ */
+public class ScheduledAnnotationBeanPostProcessor implements BeanPostProcessor {
+
+    /** Name of the {@link TaskScheduler} bean used for {@link Scheduled} methods, if defined. */
+    public static final String DEFAULT_TASK_SCHEDULER_BEAN_NAME = "taskScheduler";
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledAnnotationBeanPostProcessor.class);
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    private final BeanAccessorStrategy accessorStrategy;
+
+    private final Supplier<? extends TaskScheduler> defaultScheduler;
+
+    private final Map<Class<?>, List<Method>> scheduledMethodsCache = new ConcurrentHashMap<>(64);
+
+    private final List<Runnable> pendingRegistrations = new ArrayList<>();
+
+    private final List<ScheduledTask> scheduledTasks = new CopyOnWriteArrayList<>();
+
+    private boolean started;
+
+    /**
+     * Create a processor for the beans of the given factory.
+     *
+     * @param beanFactory the factory creating the beans
+     * @param accessorStrategy the strategy creating the invokers of the scheduled methods
+     * @param defaultScheduler supplies the scheduler to use if no
+     * {@value #DEFAULT_TASK_SCHEDULER_BEAN_NAME} bean is defined
+     */
+    public ScheduledAnnotationBeanPostProcessor(ConfigurableListableBeanFactory beanFactory,
+                                                BeanAccessorStrategy accessorStrategy,
+                                                Supplier<? extends TaskScheduler> defaultScheduler) {
+        this.beanFactory = beanFactory;
+        this.accessorStrategy = accessorStrategy;
+        this.defaultScheduler = defaultScheduler;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> beanClass) {
+        return !findScheduledMethods(beanClass).isEmpty();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+        if (!beanDefinition.isSingleton()) {
+            throw new BeansException("Bean '" + beanName + "' declares @Scheduled methods but is not a singleton");
+        }
+        for (Method method : findScheduledMethods(beanDefinition.getBeanClass())) {
+            // Resolve the method to call on the exposed bean now, so that it is rejected during the refresh
+            Method invocableMethod = beanFactory.getInvocableMethod(method, beanDefinition.getBeanClass());
+            BeanAccessorStrategy.MethodInvoker invoker = accessorStrategy.methodInvoker(invocableMethod);
+            Runnable registration = () -> schedule(beanName, method, invoker);
+            synchronized (pendingRegistrations) {
+                if (!started) {
+                    pendingRegistrations.add(registration);
+                    continue;
+                }
+            }
+            registration.run();
+        }
+        return bean;
+    }
+
+    /**
+     * Schedule the methods of the beans created so far and of all beans created from
+     * now on.
+     */
+    public void start() {
+        List<Runnable> registrations;
+        synchronized (pendingRegistrations) {
+            started = true;
+            registrations = new ArrayList<>(pendingRegistrations);
+            pendingRegistrations.clear();
+        }
+        for (Runnable registration : registrations) {
+            registration.run();
+        }
+        if (!scheduledTasks.isEmpty()) {
+            logger.info("Scheduled {} @Scheduled methods", scheduledTasks.size());
+        }
+    }
+
+    /**
+     * Cancel all scheduled tasks. Runs in progress complete.
+     */
+    public void cancelScheduledTasks() {
+        synchronized (pendingRegistrations) {
+            started = false;
+            pendingRegistrations.clear();
+        }
+        for (ScheduledTask task : scheduledTasks) {
+            task.cancel();
+        }
+        scheduledTasks.clear();
+    }
+
+    /**
+     * Return the tasks scheduled for {@link Scheduled} methods.
+     *
+     * @return the scheduled tasks
+     */
+    public List<ScheduledTask> getScheduledTasks() {
+        return Collections.unmodifiableList(scheduledTasks);
+    }
+
+    private void schedule(String beanName, Method method, BeanAccessorStrategy.MethodInvoker invoker) {
+        Scheduled scheduled = method.getAnnotation(Scheduled.class);
+        TaskScheduler scheduler = getTaskScheduler();
+        Runnable task = new ScheduledMethodRunnable(beanName, method, invoker);
+        long initialDelay = Math.max(0L, scheduled.initialDelay());
+        ScheduledTask scheduledTask;
+        if (!scheduled.cron().isEmpty()) {
+            ZoneId zone = (scheduled.zone().isEmpty() ? ZoneId.systemDefault() : ZoneId.of(scheduled.zone()));
+            scheduledTask = scheduler.schedule(task, CronExpression.parse(scheduled.cron()), zone);
+        } else if (scheduled.fixedRate() >= 0) {
+            scheduledTask = scheduler.scheduleAtFixedRate(task, initialDelay, scheduled.fixedRate(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            scheduledTask = scheduler.scheduleWithFixedDelay(task, initialDelay, scheduled.fixedDelay(),
+                    TimeUnit.MILLISECONDS);
+        }
+        scheduledTasks.add(scheduledTask);
+    }
+
+    private TaskScheduler getTaskScheduler() {
+        if (beanFactory.containsBean(DEFAULT_TASK_SCHEDULER_BEAN_NAME)) {
+            return beanFactory.getBean(DEFAULT_TASK_SCHEDULER_BEAN_NAME, TaskScheduler.class);
+        }
+        return defaultScheduler.get();
+    }
+
+    private List<Method> findScheduledMethods(Class<?> beanClass) {
+        List<Method> methods = scheduledMethodsCache.get(beanClass);
+        if (methods == null) {
+            methods = scheduledMethodsCache.computeIfAbsent(beanClass, ScheduledAnnotationBeanPostProcessor::introspect);
+        }
+        return methods;
+    }
+
+    private static List<Method> introspect(Class<?> beanClass) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : ClassUtils.getAllMethods(beanClass)) {
+            Scheduled scheduled = method.getAnnotation(Scheduled.class);
+            if (scheduled == null) {
+                continue;
+            }
+            if (method.getParameterCount() != 0) {
+                throw new BeansException("@Scheduled method " + method + " must not declare parameters");
+            }
+            int triggers = (scheduled.fixedRate() >= 0 ? 1 : 0) + (scheduled.fixedDelay() >= 0 ? 1 : 0)
+                    + (scheduled.cron().isEmpty() ? 0 : 1);
+            if (triggers != 1) {
+                throw new BeansException("@Scheduled method " + method
+                        + " must specify exactly one of fixedRate, fixedDelay and cron");
+            }
+            if (!scheduled.cron().isEmpty()) {
+                try {
+                    CronExpression.parse(scheduled.cron());
+                } catch (IllegalArgumentException e) {
+                    throw new BeansException("Invalid cron expression on @Scheduled method " + method, e);
+                }
+            }
+            methods.add(method);
+        }
+        return (methods.isEmpty() ? Collections.emptyList() : methods);
+    }
+
+    /**
+     * Calls a scheduled method on the bean through an invoker resolved when the task
+     * was registered. The bean is looked up on the first run so that the fully
+     * initialized, possibly proxied singleton is used.
+     */
+    private final class ScheduledMethodRunnable implements Runnable {
+
+        private final String beanName;
+        private final Method method;
+        private final BeanAccessorStrategy.MethodInvoker invoker;
+        private volatile Object bean;
+
+        ScheduledMethodRunnable(String beanName, Method method, BeanAccessorStrategy.MethodInvoker invoker) {
+            this.beanName = beanName;
+            this.method = method;
+            this.invoker = invoker;
+        }
+
+        @Override
+        public void run() {
+            Object target = bean;
+            if (target == null) {
+                target = beanFactory.getBean(beanName);
+                bean = target;
+            }
+            try {
+                invoker.invoke(target, NO_ARGUMENTS);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return beanName + "." + method.getName();
+        }
+    }
+}
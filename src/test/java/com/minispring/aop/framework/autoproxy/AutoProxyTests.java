@@ -0,0 +1,230 @@
+package com.minispring.aop.framework.autoproxy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.aop.framework.ProxyFactory;
+import com.minispring.aop.support.AnnotationMatchingPointcut;
+import com.minispring.aop.support.DefaultPointcutAdvisor;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.exception.AopConfigException;
+import com.minispring.exception.BeanNotOfRequiredTypeException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the proxies created by {@link AdvisorAutoProxyCreator} for advised beans.
+ */
+public class AutoProxyTests {
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Before
+    public void createBeanFactory() {
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.addAdvisor(new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Shout.class),
+                invocation -> ((String) invocation.proceed()).toUpperCase()));
+    }
+
+    @Test
+    public void beanWithInterfaceIsSubclassProxyByDefault() {
+        beanFactory.registerBeanDefinition("greeter", new BeanDefinition(InterfaceGreeter.class));
+        InterfaceGreeter greeter = beanFactory.getBean("greeter", InterfaceGreeter.class);
+        assertFalse(Proxy.isProxyClass(greeter.getClass()));
+        assertEquals("HELLO", greeter.greet());
+    }
+
+    @Test
+    public void advisedBeanIsFoundAndInjectedByClass() {
+        beanFactory.registerBeanDefinition("greeter", new BeanDefinition(InterfaceGreeter.class));
+        beanFactory.registerBeanDefinition("client", new BeanDefinition(GreeterClient.class));
+        InterfaceGreeter greeter = beanFactory.getBean(InterfaceGreeter.class);
+        assertSame(greeter, beanFactory.getBean(Greeter.class));
+        assertSame(greeter, beanFactory.getBean(GreeterClient.class).getGreeter());
+        assertEquals("HELLO", greeter.greet());
+    }
+
+    @Test
+    public void beanWithInterfaceIsJdkProxyWithoutProxyTargetClass() {
+        beanFactory.setProxyTargetClass(false);
+        beanFactory.registerBeanDefinition("greeter", new BeanDefinition(InterfaceGreeter.class));
+        Greeter greeter = beanFactory.getBean("greeter", Greeter.class);
+        assertTrue(Proxy.isProxyClass(greeter.getClass()));
+        assertEquals("HELLO", greeter.greet());
+    }
+
+    @Test
+    public void beanWithoutInterfaceIsSubclassProxy() {
+        beanFactory.registerBeanDefinition("greeter", new BeanDefinition(ClassGreeter.class));
+        ClassGreeter greeter = beanFactory.getBean("greeter", ClassGreeter.class);
+        assertFalse(Proxy.isProxyClass(greeter.getClass()));
+        assertNotSame(ClassGreeter.class, greeter.getClass());
+        assertEquals("HELLO", greeter.greet());
+        assertEquals("quiet", greeter.whisper());
+    }
+
+    @Test
+    public void jdkProxyLookedUpByClassIsRejectedWithTypedException() {
+        beanFactory.setProxyTargetClass(false);
+        beanFactory.registerBeanDefinition("greeter", new BeanDefinition(InterfaceGreeter.class));
+        try {
+            beanFactory.getBean(InterfaceGreeter.class);
+            fail("Expected the JDK proxy not to match its bean class");
+        } catch (BeanNotOfRequiredTypeException e) {
+            assertEquals("greeter", e.getBeanName());
+            assertEquals(InterfaceGreeter.class, e.getRequiredType());
+            assertTrue(Proxy.isProxyClass(e.getActualType()));
+        }
+        assertEquals("HELLO", beanFactory.getBean(Greeter.class).greet());
+    }
+
+    @Test
+    public void beanWithoutAdvisedMethodsIsNotProxied() {
+        beanFactory.registerBeanDefinition("plain", new BeanDefinition(PlainGreeter.class));
+        assertSame(PlainGreeter.class, beanFactory.getBean("plain").getClass());
+    }
+
+    @Test
+    public void circularReferenceIsInjectedWithProxy() {
+        beanFactory.registerBeanDefinition("ping", new BeanDefinition(PingService.class));
+        beanFactory.registerBeanDefinition("pong", new BeanDefinition(PongService.class));
+        Ping ping = beanFactory.getBean("ping", Ping.class);
+        Pong pong = beanFactory.getBean("pong", Pong.class);
+        assertTrue(ping instanceof PingService);
+        assertNotSame(PingService.class, ping.getClass());
+        assertSame(ping, pong.getPing());
+        assertSame(pong, ping.getPong());
+        assertEquals("PING PONG PING", ping.ping());
+        assertEquals("PONG PING", pong.pong());
+    }
+
+    @Test
+    public void invocableMethodOfJdkProxyIsInterfaceMethod() throws NoSuchMethodException {
+        beanFactory.setProxyTargetClass(false);
+        beanFactory.registerBeanDefinition("greeter", new BeanDefinition(InterfaceGreeter.class));
+        Method implementation = InterfaceGreeter.class.getMethod("greet");
+        assertEquals(Greeter.class.getMethod("greet"),
+                beanFactory.getInvocableMethod(implementation, InterfaceGreeter.class));
+        try {
+            beanFactory.getInvocableMethod(InterfaceGreeter.class.getMethod("undeclared"), InterfaceGreeter.class);
+            fail("Expected a method no interface declares to be rejected");
+        } catch (AopConfigException expected) {
+        }
+        assertEquals(implementation, ProxyFactory.getInvocableMethod(implementation, new InterfaceGreeter()));
+    }
+
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Shout {
+    }
+
+    public interface Greeter {
+
+        String greet();
+    }
+
+    public static class InterfaceGreeter implements Greeter {
+
+        @Override
+        @Shout
+        public String greet() {
+            return "hello";
+        }
+
+        public String undeclared() {
+            return "undeclared";
+        }
+    }
+
+    public static class ClassGreeter {
+
+        @Shout
+        public String greet() {
+            return "hello";
+        }
+
+        public String whisper() {
+            return "quiet";
+        }
+    }
+
+    public static class PlainGreeter implements Greeter {
+
+        @Override
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    public static class GreeterClient {
+
+        @Autowired
+        private InterfaceGreeter greeter;
+
+        public InterfaceGreeter getGreeter() {
+            return greeter;
+        }
+    }
+
+    public interface Ping {
+
+        String ping();
+
+        Pong getPong();
+    }
+
+    public interface Pong {
+
+        String pong();
+
+        Ping getPing();
+    }
+
+    public static class PingService implements Ping {
+
+        @Autowired
+        private Pong pong;
+
+        @Override
+        @Shout
+        public String ping() {
+            return "ping " + pong.pong();
+        }
+
+        @Override
+        public Pong getPong() {
+            return pong;
+        }
+    }
+
+    public static class PongService implements Pong {
+
+        @Autowired
+        private Ping ping;
+
+        @Override
+        @Shout
+        public String pong() {
+            return "pong ping";
+        }
+
+        @Override
+        public Ping getPing() {
+            return ping;
+        }
+    }
+}
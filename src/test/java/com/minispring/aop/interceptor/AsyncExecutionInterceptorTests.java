@@ -0,0 +1,257 @@
+package com.minispring.aop.interceptor;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.Async;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.core.env.MapPropertySource;
+import com.minispring.core.env.StandardEnvironment;
+import com.minispring.exception.AopConfigException;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link Async} methods run by an {@link AsyncExecutionInterceptor}.
+ */
+public class AsyncExecutionInterceptorTests {
+
+    private static final LinkedBlockingQueue<String> recordingThreads = new LinkedBlockingQueue<>();
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void clearRecordingThreads() {
+        recordingThreads.clear();
+    }
+
+    @After
+    public void closeContext() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    public void futureCompletesWithResultOfMethod() throws Exception {
+        ReportService service = createContext(true, "pool").getBean(ReportService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> future = service.render(release);
+        assertFalse("caller waited for the method", future.isDone());
+
+        release.countDown();
+        assertTrue(future.get(10, TimeUnit.SECONDS).startsWith("rendered on task-"));
+    }
+
+    @Test
+    public void futureCompletesWithFailureOfMethod() throws Exception {
+        ReportService service = createContext(true, "pool").getBean(ReportService.class);
+        assertFailure(service.fail(), IOException.class, "failed");
+        assertFailure(service.returnFailedFuture(), IllegalStateException.class, "failed future");
+    }
+
+    @Test
+    public void voidMethodRunsOnExecutor() throws Exception {
+        ReportService service = createContext(true, "pool").getBean(ReportService.class);
+        service.record();
+        assertTrue(recordingThreads.poll(10, TimeUnit.SECONDS).startsWith("task-"));
+
+        // The failure is logged instead of thrown to the caller
+        service.recordAndFail();
+        assertTrue(recordingThreads.poll(10, TimeUnit.SECONDS).startsWith("task-"));
+    }
+
+    @Test
+    public void executorIsNamedByQualifier() throws Exception {
+        ReportService service = createContext(true, "pool").getBean(ReportService.class);
+        assertTrue(service.export().get(10, TimeUnit.SECONDS).startsWith("exported on export-"));
+    }
+
+    @Test
+    public void defaultExecutorIsUsedWithoutTaskExecutorBean() throws Exception {
+        ReportService service = createContext(false, "pool").getBean(ReportService.class);
+        assertTrue(service.render(new CountDownLatch(0)).get(10, TimeUnit.SECONDS)
+                .startsWith("rendered on minispring-async-"));
+    }
+
+    @Test
+    public void unknownExecutionModeIsRejected() {
+        ReportService service = createContext(false, "fibers").getBean(ReportService.class);
+        try {
+            service.record();
+            fail("Expected BeansException");
+        } catch (BeansException expected) {
+            assertTrue(expected.getMessage().contains("Unknown minispring.task.execution.mode 'fibers'"));
+        }
+    }
+
+    @Test
+    public void taskExecutorBeanIsUsedByDefault() throws Exception {
+        ReportService service = createContext(true, "pool").getBean(ReportService.class);
+        service.render(new CountDownLatch(0)).get(10, TimeUnit.SECONDS);
+        service.render(new CountDownLatch(0)).get(10, TimeUnit.SECONDS);
+        assertEquals(2, context.getBean("taskExecutor", NamedExecutor.class).tasks.get());
+    }
+
+    @Test
+    public void asyncClassOnlyInterceptsMethodsReturningVoidOrFuture() throws Exception {
+        AsyncClassService service = createContext(true, "pool").getBean(AsyncClassService.class);
+        assertEquals(Thread.currentThread().getName(), service.currentThread());
+        assertTrue(service.futureThread().get(10, TimeUnit.SECONDS).startsWith("task-"));
+    }
+
+    @Test
+    public void asyncMethodWithOtherReturnTypeIsRejected() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        context = new AnnotationConfigApplicationContext(beanFactory);
+        context.register(InvalidService.class);
+        try {
+            context.refresh();
+            fail("Expected BeansException");
+        } catch (BeansException expected) {
+            Throwable cause = expected;
+            while (cause != null && !(cause instanceof AopConfigException)) {
+                cause = cause.getCause();
+            }
+            assertNotNull("no AopConfigException in the causes", cause);
+            assertTrue(cause.getMessage().contains("must return void or CompletableFuture"));
+        }
+    }
+
+    private AnnotationConfigApplicationContext createContext(boolean taskExecutor, String executionMode) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        if (taskExecutor) {
+            beanFactory.registerBeanDefinition(AsyncExecutionInterceptor.DEFAULT_TASK_EXECUTOR_BEAN_NAME,
+                    new BeanDefinition(NamedExecutor.class));
+        }
+        beanFactory.registerBeanDefinition("exportExecutor", new BeanDefinition(ExportExecutor.class));
+        context = new AnnotationConfigApplicationContext(beanFactory);
+        ((StandardEnvironment) context.getEnvironment()).getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap(AnnotationConfigApplicationContext.TASK_EXECUTION_MODE_PROPERTY, executionMode)));
+        context.register(ReportService.class, AsyncClassService.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void assertFailure(CompletableFuture<?> future, Class<? extends Throwable> failureType,
+                                      String message) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch (ExecutionException expected) {
+            assertSame(failureType, expected.getCause().getClass());
+            assertEquals(message, expected.getCause().getMessage());
+        }
+    }
+
+    public static class NamedExecutor implements Executor {
+
+        private final AtomicInteger tasks = new AtomicInteger();
+
+        private final ExecutorService executor;
+
+        public NamedExecutor() {
+            this("task-");
+        }
+
+        protected NamedExecutor(String threadNamePrefix) {
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, threadNamePrefix + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.incrementAndGet();
+            executor.execute(command);
+        }
+    }
+
+    public static class ExportExecutor extends NamedExecutor {
+
+        public ExportExecutor() {
+            super("export-");
+        }
+    }
+
+    public static class ReportService {
+
+        @Async
+        public CompletableFuture<String> render(CountDownLatch release) throws InterruptedException {
+            release.await(10, TimeUnit.SECONDS);
+            return CompletableFuture.completedFuture("rendered on " + Thread.currentThread().getName());
+        }
+
+        @Async("exportExecutor")
+        public CompletableFuture<String> export() {
+            return CompletableFuture.completedFuture("exported on " + Thread.currentThread().getName());
+        }
+
+        @Async
+        public CompletableFuture<String> fail() throws IOException {
+            throw new IOException("failed");
+        }
+
+        @Async
+        public CompletableFuture<String> returnFailedFuture() {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("failed future"));
+            return future;
+        }
+
+        @Async
+        public void record() {
+            recordingThreads.add(Thread.currentThread().getName());
+        }
+
+        @Async
+        public void recordAndFail() {
+            recordingThreads.add(Thread.currentThread().getName());
+            throw new IllegalStateException("expected");
+        }
+    }
+
+    @Async
+    public static class AsyncClassService {
+
+        public String currentThread() {
+            return Thread.currentThread().getName();
+        }
+
+        public CompletableFuture<String> futureThread() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+    }
+
+    public static class InvalidService {
+
+        @Async
+        public String notAsync() {
+            return "value";
+        }
+    }
+}
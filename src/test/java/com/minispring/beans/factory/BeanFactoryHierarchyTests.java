@@ -0,0 +1,77 @@
+package com.minispring.beans.factory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.beans.factory.support.InjectionMetadata;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for parent/child {@link DefaultListableBeanFactory} lookups and their
+ * per-class metadata caches.
+ */
+public class BeanFactoryHierarchyTests {
+
+    private DefaultListableBeanFactory parent;
+
+    private DefaultListableBeanFactory child;
+
+    @Before
+    public void createFactories() {
+        parent = new DefaultListableBeanFactory();
+        parent.registerBeanDefinition("shared", new BeanDefinition(Shared.class));
+        child = new DefaultListableBeanFactory(parent);
+        child.registerBeanDefinition("local", new BeanDefinition(Local.class));
+    }
+
+    @Test
+    public void childResolvesBeansOfParent() {
+        assertTrue(child.containsBean("shared"));
+        assertFalse(child.containsLocalBean("shared"));
+        assertSame(parent.getBean("shared"), child.getBean("shared"));
+        assertSame(parent, child.getParentBeanFactory());
+    }
+
+    @Test
+    public void parentDoesNotSeeBeansOfChild() {
+        assertTrue(child.containsLocalBean("local"));
+        assertFalse(parent.containsBean("local"));
+        try {
+            parent.getBean("local");
+            fail("Expected the child bean to be invisible to the parent");
+        } catch (BeansException expected) {
+        }
+    }
+
+    @Test
+    public void childReusesMetadataOfParent() {
+        InjectionMetadata parentMetadata = parent.getInjectionMetadata(Shared.class);
+        assertSame(parentMetadata, child.getInjectionMetadata(Shared.class));
+    }
+
+    @Test
+    public void childDoesNotCacheMetadataInParent() {
+        InjectionMetadata childMetadata = child.getInjectionMetadata(Local.class);
+        assertNotSame(childMetadata, parent.getInjectionMetadata(Local.class));
+    }
+
+    @Test
+    public void registeredMetadataStaysInChild() {
+        InjectionMetadata registered = InjectionMetadata.forClass(Shared.class, child.getBeanAccessorStrategy());
+        child.registerInjectionMetadata(registered);
+        assertSame(registered, child.getInjectionMetadata(Shared.class));
+        assertNotSame(registered, parent.getInjectionMetadata(Shared.class));
+    }
+
+    public static class Shared {
+    }
+
+    public static class Local {
+    }
+}
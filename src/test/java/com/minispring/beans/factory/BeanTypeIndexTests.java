@@ -0,0 +1,121 @@
+package com.minispring.beans.factory;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.minispring.exception.NoSuchBeanDefinitionException;
+import com.minispring.exception.NoUniqueBeanDefinitionException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the type index that {@link DefaultListableBeanFactory} resolves by-type
+ * lookups through.
+ */
+public class BeanTypeIndexTests {
+
+    @Test
+    public void beanIsIndexedUnderAllSupertypes() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("jdbcRepository", new BeanDefinition(JdbcRepository.class));
+
+        JdbcRepository repository = beanFactory.getBean(JdbcRepository.class);
+        assertSame(repository, beanFactory.getBean(AbstractRepository.class));
+        assertSame(repository, beanFactory.getBean(Repository.class));
+        assertSame(repository, beanFactory.getBean(Named.class));
+        assertArrayEquals(new String[] {"jdbcRepository"}, beanFactory.getBeanNamesForType(Object.class));
+    }
+
+    @Test
+    public void unknownTypeHasNoBeans() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("jdbcRepository", new BeanDefinition(JdbcRepository.class));
+
+        assertEquals(0, beanFactory.getBeanNamesForType(Runnable.class).length);
+        assertTrue(beanFactory.getBeansOfType(Runnable.class).isEmpty());
+        try {
+            beanFactory.getBean(Runnable.class);
+            fail("Expected NoSuchBeanDefinitionException");
+        } catch (NoSuchBeanDefinitionException expected) {
+            assertSame(Runnable.class, expected.getBeanType());
+        }
+    }
+
+    @Test
+    public void severalCandidatesAreNotUnique() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("jdbcRepository", new BeanDefinition(JdbcRepository.class));
+        beanFactory.registerBeanDefinition("memoryRepository", new BeanDefinition(MemoryRepository.class));
+
+        try {
+            beanFactory.getBean(Repository.class);
+            fail("Expected NoUniqueBeanDefinitionException");
+        } catch (NoUniqueBeanDefinitionException expected) {
+            assertEquals(Arrays.asList("jdbcRepository", "memoryRepository"), expected.getBeanNamesFound());
+        }
+        assertSame(beanFactory.getBean("memoryRepository"), beanFactory.getBean(MemoryRepository.class));
+    }
+
+    @Test
+    public void beansOfTypeAreInRegistrationOrder() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("memoryRepository", new BeanDefinition(MemoryRepository.class));
+        beanFactory.registerBeanDefinition("other", new BeanDefinition(Other.class));
+        beanFactory.registerBeanDefinition("jdbcRepository", new BeanDefinition(JdbcRepository.class));
+
+        Map<String, Repository> repositories = beanFactory.getBeansOfType(Repository.class);
+        assertEquals(Arrays.asList("memoryRepository", "jdbcRepository"), Arrays.asList(
+                repositories.keySet().toArray()));
+        assertSame(beanFactory.getBean("jdbcRepository"), repositories.get("jdbcRepository"));
+    }
+
+    @Test
+    public void replacedDefinitionIsReindexed() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(JdbcRepository.class));
+        beanFactory.registerBeanDefinition("other", new BeanDefinition(Other.class));
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(MemoryRepository.class));
+
+        assertArrayEquals(new String[] {"repository", "other"}, beanFactory.getBeanDefinitionNames());
+        assertEquals(0, beanFactory.getBeanNamesForType(AbstractRepository.class).length);
+        assertEquals(0, beanFactory.getBeanNamesForType(JdbcRepository.class).length);
+        assertArrayEquals(new String[] {"repository"}, beanFactory.getBeanNamesForType(Named.class));
+        assertEquals(2, beanFactory.getBeanNamesForType(Object.class).length);
+        assertTrue(beanFactory.getBean(Repository.class) instanceof MemoryRepository);
+    }
+
+    @Test
+    public void returnedNamesAreCopies() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("jdbcRepository", new BeanDefinition(JdbcRepository.class));
+
+        beanFactory.getBeanNamesForType(Repository.class)[0] = "changed";
+        beanFactory.getBeanDefinitionNames()[0] = "changed";
+        assertArrayEquals(new String[] {"jdbcRepository"}, beanFactory.getBeanNamesForType(Repository.class));
+        assertArrayEquals(new String[] {"jdbcRepository"}, beanFactory.getBeanDefinitionNames());
+    }
+
+    public interface Named {
+    }
+
+    public interface Repository extends Named {
+    }
+
+    public abstract static class AbstractRepository implements Repository {
+    }
+
+    public static class JdbcRepository extends AbstractRepository {
+    }
+
+    public static class MemoryRepository implements Repository {
+    }
+
+    public static class Other {
+    }
+}
@@ -0,0 +1,128 @@
+package com.minispring.beans.factory;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.exception.BeanCurrentlyInCreationException;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for circular references between singletons, resolved through early
+ * singleton references where the injection style allows it.
+ */
+public class CircularReferenceTests {
+
+    @Test
+    public void fieldInjectionCycleIsResolved() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("a", new BeanDefinition(FieldA.class));
+        beanFactory.registerBeanDefinition("b", new BeanDefinition(FieldB.class));
+
+        FieldA a = beanFactory.getBean("a", FieldA.class);
+        FieldB b = beanFactory.getBean("b", FieldB.class);
+        assertSame(b, a.b);
+        assertSame(a, b.a);
+    }
+
+    @Test
+    public void setterInjectionCycleIsResolved() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("a", new BeanDefinition(SetterA.class));
+        beanFactory.registerBeanDefinition("b", new BeanDefinition(SetterB.class));
+
+        SetterB b = beanFactory.getBean("b", SetterB.class);
+        SetterA a = beanFactory.getBean("a", SetterA.class);
+        assertSame(b, a.b);
+        assertSame(a, b.a);
+    }
+
+    @Test
+    public void selfReferenceIsResolved() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("self", new BeanDefinition(SelfReferencing.class));
+
+        SelfReferencing self = beanFactory.getBean("self", SelfReferencing.class);
+        assertSame(self, self.self);
+    }
+
+    @Test
+    public void constructorInjectionCycleFailsWithChain() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("a", new BeanDefinition(ConstructorA.class));
+        beanFactory.registerBeanDefinition("b", new BeanDefinition(ConstructorB.class));
+
+        try {
+            beanFactory.getBean("a");
+            fail("Expected the constructor cycle to be rejected");
+        } catch (BeansException e) {
+            BeanCurrentlyInCreationException cause = findCurrentlyInCreationException(e);
+            assertTrue("Unexpected failure: " + e, cause != null);
+            assertTrue(cause.getMessage(), cause.getMessage().endsWith("a -> b -> a"));
+        }
+    }
+
+    private static BeanCurrentlyInCreationException findCurrentlyInCreationException(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BeanCurrentlyInCreationException) {
+                return (BeanCurrentlyInCreationException) cause;
+            }
+        }
+        return null;
+    }
+
+    public static class FieldA {
+
+        @Autowired
+        FieldB b;
+    }
+
+    public static class FieldB {
+
+        @Autowired
+        FieldA a;
+    }
+
+    public static class SetterA {
+
+        SetterB b;
+
+        @Autowired
+        public void setB(SetterB b) {
+            this.b = b;
+        }
+    }
+
+    public static class SetterB {
+
+        SetterA a;
+
+        @Autowired
+        public void setA(SetterA a) {
+            this.a = a;
+        }
+    }
+
+    public static class SelfReferencing {
+
+        @Autowired
+        SelfReferencing self;
+    }
+
+    public static class ConstructorA {
+
+        @Autowired
+        public ConstructorA(ConstructorB b) {
+        }
+    }
+
+    public static class ConstructorB {
+
+        @Autowired
+        public ConstructorB(ConstructorA a) {
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.minispring.beans.factory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for beans of a {@link Scope} registered on the factory.
+ */
+public class CustomScopeTests {
+
+    @Test
+    public void scopeDecidesOnInstance() {
+        MapScope scope = new MapScope();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerScope("conversation", scope);
+        assertSame(scope, beanFactory.getRegisteredScope("conversation"));
+        beanFactory.registerBeanDefinition("cart", scopedDefinition(Cart.class, "conversation"));
+
+        Cart cart = beanFactory.getBean(Cart.class);
+        assertSame(cart, beanFactory.getBean("cart"));
+        assertSame(cart, scope.objects.get("cart"));
+
+        assertSame(cart, scope.remove("cart"));
+        assertNotSame(cart, beanFactory.getBean("cart"));
+        assertEquals(2, scope.creations);
+    }
+
+    @Test
+    public void scopedBeanIsInjectedLikePrototype() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerScope("conversation", new MapScope());
+        beanFactory.registerBeanDefinition("cart", scopedDefinition(Cart.class, "conversation"));
+        beanFactory.registerBeanDefinition("checkout", new BeanDefinition(Checkout.class));
+        beanFactory.preInstantiateSingletons();
+
+        assertSame(beanFactory.getBean("cart"), beanFactory.getBean(Checkout.class).cart);
+    }
+
+    @Test
+    public void unregisteredScopeIsReported() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("cart", scopedDefinition(Cart.class, "conversation"));
+        assertNull(beanFactory.getRegisteredScope("conversation"));
+        try {
+            beanFactory.getBean("cart");
+            fail("Expected BeansException");
+        } catch (BeansException expected) {
+            assertTrue(expected.getMessage().contains("'conversation'"));
+        }
+    }
+
+    @Test
+    public void builtInScopesCannotBeReplaced() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (String scopeName : new String[] {BeanDefinition.SCOPE_SINGLETON, BeanDefinition.SCOPE_PROTOTYPE,
+                BeanDefinition.SCOPE_POOLED}) {
+            try {
+                beanFactory.registerScope(scopeName, new MapScope());
+                fail("Expected IllegalArgumentException for " + scopeName);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void scopeNameResolvesFlags() {
+        BeanDefinition beanDefinition = scopedDefinition(Cart.class, BeanDefinition.SCOPE_PROTOTYPE);
+        assertTrue(beanDefinition.isPrototype());
+        beanDefinition.setScope("conversation");
+        assertEquals("conversation", beanDefinition.getScope());
+        assertTrue(!beanDefinition.isSingleton() && !beanDefinition.isPrototype() && !beanDefinition.isPooled());
+    }
+
+    private static BeanDefinition scopedDefinition(Class<?> beanClass, String scope) {
+        BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+        beanDefinition.setScope(scope);
+        return beanDefinition;
+    }
+
+    private static class MapScope implements Scope {
+
+        private final Map<String, Object> objects = new HashMap<>();
+
+        private int creations;
+
+        @Override
+        public Object get(String name, ObjectFactory<?> objectFactory) {
+            return objects.computeIfAbsent(name, key -> {
+                creations++;
+                return objectFactory.getObject();
+            });
+        }
+
+        @Override
+        public Object remove(String name) {
+            return objects.remove(name);
+        }
+    }
+
+    public static class Cart {
+    }
+
+    public static class Checkout {
+
+        @Autowired
+        private Cart cart;
+    }
+}
@@ -0,0 +1,269 @@
+package com.minispring.beans.factory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.PreDestroy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link DefaultListableBeanFactory#destroySingletons(long)}.
+ */
+public class DestroySingletonsTests {
+
+    /** Destroy callbacks in the order they were called. */
+    private static final List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+
+    private static volatile CountDownLatch leavesDestroying;
+
+    private static volatile CountDownLatch slowInterrupted;
+
+    @Before
+    public void resetCallbacks() {
+        destroyed.clear();
+        leavesDestroying = new CountDownLatch(0);
+        slowInterrupted = new CountDownLatch(1);
+    }
+
+    @Test
+    public void dependentsAreDestroyedBeforeTheirDependencies() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        // Dependencies first, so that destroying in registration order would be wrong
+        beanFactory.registerBeanDefinition("leaf", new BeanDefinition(Leaf.class));
+        beanFactory.registerBeanDefinition("middle", new BeanDefinition(Middle.class));
+        beanFactory.registerBeanDefinition("top", new BeanDefinition(Top.class));
+        beanFactory.preInstantiateSingletons();
+        beanFactory.destroySingletons(10000);
+
+        assertEquals(Arrays.asList("top", "middle", "leaf"), destroyed);
+    }
+
+    @Test
+    public void singletonsWithoutCallbacksAreFollowedTransitively() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("leaf", new BeanDefinition(Leaf.class));
+        beanFactory.registerBeanDefinition("plain", new BeanDefinition(Plain.class));
+        beanFactory.registerBeanDefinition("plainUser", new BeanDefinition(PlainUser.class));
+        beanFactory.preInstantiateSingletons();
+        beanFactory.destroySingletons(10000);
+
+        assertEquals(Arrays.asList("plainUser", "leaf"), destroyed);
+    }
+
+    @Test
+    public void independentSingletonsAreDestroyedConcurrently() {
+        leavesDestroying = new CountDownLatch(2);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("left", new BeanDefinition(AwaitingLeaf.class));
+        beanFactory.registerBeanDefinition("right", new BeanDefinition(AwaitingLeaf.class));
+        beanFactory.preInstantiateSingletons();
+        beanFactory.destroySingletons(10000);
+
+        assertEquals(Arrays.asList("awaitingLeaf", "awaitingLeaf"), destroyed);
+    }
+
+    @Test
+    public void preDestroyMethodsAreCalledBeforeDisposableBean() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("resource", new BeanDefinition(Resource.class));
+        beanFactory.preInstantiateSingletons();
+        beanFactory.destroySingletons(10000);
+
+        assertEquals(Arrays.asList("resource.close", "baseResource.close", "resource.destroy"), destroyed);
+    }
+
+    @Test
+    public void failingCallbackDoesNotStopDestruction() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("leaf", new BeanDefinition(Leaf.class));
+        beanFactory.registerBeanDefinition("failing", new BeanDefinition(Failing.class));
+        beanFactory.preInstantiateSingletons();
+        beanFactory.destroySingletons(10000);
+
+        assertEquals(Arrays.asList("failing", "leaf"), destroyed);
+    }
+
+    @Test
+    public void pendingCallbacksAreAbandonedAfterTimeout() throws InterruptedException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("leaf", new BeanDefinition(Leaf.class));
+        beanFactory.registerBeanDefinition("slow", new BeanDefinition(Slow.class));
+        beanFactory.registerBeanDefinition("other", new BeanDefinition(Other.class));
+        beanFactory.preInstantiateSingletons();
+
+        long start = System.nanoTime();
+        beanFactory.destroySingletons(200);
+        assertTrue("waited past the timeout", System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+        assertTrue("slow callback not interrupted", slowInterrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(destroyed.contains("other"));
+        assertFalse("dependency of abandoned singleton destroyed", destroyed.contains("leaf"));
+    }
+
+    @Test
+    public void beanPoolsAreClosedBeforeSingletonsAreDestroyed() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("leaf", new BeanDefinition(Leaf.class));
+        BeanDefinition worker = new BeanDefinition(Worker.class);
+        worker.setScope(BeanDefinition.SCOPE_POOLED);
+        beanFactory.registerBeanDefinition("worker", worker);
+        beanFactory.preInstantiateSingletons();
+        beanFactory.releaseBean("worker", beanFactory.getBean("worker"));
+        beanFactory.destroySingletons(10000);
+
+        assertEquals(Arrays.asList("worker", "leaf"), destroyed);
+    }
+
+    @Test
+    public void singletonsAreDestroyedOnce() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("leaf", new BeanDefinition(Leaf.class));
+        beanFactory.preInstantiateSingletons();
+        beanFactory.destroySingletons(10000);
+        beanFactory.destroySingletons(10000);
+
+        assertEquals(Collections.singletonList("leaf"), destroyed);
+    }
+
+    public static class Leaf {
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("leaf");
+        }
+    }
+
+    public static class Middle {
+
+        private final Leaf leaf;
+
+        @Autowired
+        public Middle(Leaf leaf) {
+            this.leaf = leaf;
+        }
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("middle");
+        }
+    }
+
+    public static class Top implements DisposableBean {
+
+        @Autowired
+        private Middle middle;
+
+        @Override
+        public void destroy() {
+            destroyed.add("top");
+        }
+    }
+
+    public static class Plain {
+
+        @Autowired
+        private Leaf leaf;
+    }
+
+    public static class PlainUser {
+
+        @Autowired
+        private Plain plain;
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("plainUser");
+        }
+    }
+
+    public static class AwaitingLeaf {
+
+        @PreDestroy
+        public void close() throws InterruptedException {
+            leavesDestroying.countDown();
+            if (!leavesDestroying.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Independent singletons were not destroyed concurrently");
+            }
+            destroyed.add("awaitingLeaf");
+        }
+    }
+
+    public static class BaseResource {
+
+        @PreDestroy
+        public void closeBase() {
+            destroyed.add("baseResource.close");
+        }
+    }
+
+    public static class Resource extends BaseResource implements DisposableBean {
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("resource.close");
+        }
+
+        @Override
+        public void destroy() {
+            destroyed.add("resource.destroy");
+        }
+    }
+
+    public static class Failing {
+
+        @Autowired
+        private Leaf leaf;
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("failing");
+            throw new IllegalStateException("Cannot destroy failing");
+        }
+    }
+
+    public static class Slow {
+
+        @Autowired
+        private Leaf leaf;
+
+        @PreDestroy
+        public void close() {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                destroyed.add("slow");
+            } catch (InterruptedException e) {
+                slowInterrupted.countDown();
+            }
+        }
+    }
+
+    public static class Other {
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("other");
+        }
+    }
+
+    public static class Worker {
+
+        @Autowired
+        private Leaf leaf;
+
+        @PreDestroy
+        public void close() {
+            destroyed.add("worker");
+        }
+    }
+}
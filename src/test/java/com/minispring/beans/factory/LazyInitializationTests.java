@@ -0,0 +1,181 @@
+package com.minispring.beans.factory;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Lazy;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for lazily initialized singletons and {@link Lazy} injection points.
+ */
+public class LazyInitializationTests {
+
+    private static final AtomicInteger engineInstances = new AtomicInteger();
+
+    @Before
+    public void resetCounters() {
+        engineInstances.set(0);
+    }
+
+    @Test
+    public void lazySingletonIsCreatedOnFirstLookup() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition engine = new BeanDefinition(DieselEngine.class);
+        engine.setLazyInit(true);
+        beanFactory.registerBeanDefinition("engine", engine);
+        beanFactory.preInstantiateSingletons();
+        assertEquals(0, engineInstances.get());
+
+        assertSame(beanFactory.getBean("engine"), beanFactory.getBean(Engine.class));
+        assertEquals(1, engineInstances.get());
+    }
+
+    @Test
+    public void defaultLazyInitAppliesToDefinitionsWithoutExplicitFlag() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setDefaultLazyInit(true);
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(DieselEngine.class));
+        beanFactory.preInstantiateSingletons();
+        assertEquals(0, engineInstances.get());
+
+        BeanDefinition eager = new BeanDefinition(DieselEngine.class);
+        eager.setLazyInit(false);
+        beanFactory.registerBeanDefinition("eagerEngine", eager);
+        beanFactory.preInstantiateSingletons();
+        assertEquals(1, engineInstances.get());
+    }
+
+    @Test
+    public void lazyInitializationOfContext() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                new DefaultListableBeanFactory());
+        context.setLazyInitialization(true);
+        context.register(DieselEngine.class);
+        context.refresh();
+        assertEquals(0, engineInstances.get());
+        assertNotNull(context.getBean(Engine.class));
+        assertEquals(1, engineInstances.get());
+        context.close();
+    }
+
+    @Test
+    public void lazyFieldResolvesTargetOnFirstUse() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        BeanDefinition engine = new BeanDefinition(DieselEngine.class);
+        engine.setLazyInit(true);
+        beanFactory.registerBeanDefinition("engine", engine);
+        beanFactory.preInstantiateSingletons();
+
+        Car car = beanFactory.getBean(Car.class);
+        assertTrue(Proxy.isProxyClass(car.engine.getClass()));
+        assertEquals("lazy dependency of an eager singleton created", 0, engineInstances.get());
+
+        assertEquals("diesel", car.engine.start());
+        assertEquals("diesel", car.engine.start());
+        assertEquals(1, engineInstances.get());
+        assertEquals(2, beanFactory.getBean(DieselEngine.class).starts);
+    }
+
+    @Test
+    public void lazyConstructorParameterBreaksConstructorCycle() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("driver", new BeanDefinition(Driver.class));
+        beanFactory.registerBeanDefinition("garage", new BeanDefinition(Garage.class));
+        beanFactory.preInstantiateSingletons();
+
+        Driver driver = beanFactory.getBean(Driver.class);
+        Garage garage = beanFactory.getBean(Garage.class);
+        assertSame(driver, garage.driver);
+        assertEquals("garage", driver.garage.name());
+    }
+
+    @Test
+    public void lazyInjectionPointOfClassTypeIsRejected() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("mechanic", new BeanDefinition(Mechanic.class));
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(DieselEngine.class));
+        try {
+            beanFactory.getBean("mechanic");
+            fail("Expected BeansException");
+        } catch (BeansException expected) {
+            assertTrue(expected.getMessage().contains("must be declared as an interface type"));
+        }
+    }
+
+    public interface Engine {
+
+        String start();
+    }
+
+    public static class DieselEngine implements Engine {
+
+        private int starts;
+
+        public DieselEngine() {
+            engineInstances.incrementAndGet();
+        }
+
+        @Override
+        public String start() {
+            starts++;
+            return "diesel";
+        }
+    }
+
+    public static class Car {
+
+        @Autowired
+        @Lazy
+        private Engine engine;
+    }
+
+    public interface Named {
+
+        String name();
+    }
+
+    public static class Driver {
+
+        private final Named garage;
+
+        @Autowired
+        public Driver(@Lazy Named garage) {
+            this.garage = garage;
+        }
+    }
+
+    public static class Garage implements Named {
+
+        private final Driver driver;
+
+        @Autowired
+        public Garage(Driver driver) {
+            this.driver = driver;
+        }
+
+        @Override
+        public String name() {
+            return "garage";
+        }
+    }
+
+    public static class Mechanic {
+
+        @Autowired
+        @Lazy
+        private DieselEngine engine;
+    }
+}
@@ -0,0 +1,247 @@
+package com.minispring.beans.factory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link DefaultListableBeanFactory#preInstantiateSingletons()} with a
+ * pre-instantiation executor.
+ */
+public class ParallelPreInstantiationTests {
+
+    /** Task of the executor each bean was constructed in. */
+    private static final Map<String, Integer> creationTasks = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Integer> currentTask = new ThreadLocal<>();
+
+    private static volatile CountDownLatch leavesConstructed;
+
+    private ExecutorService executorService;
+
+    private final AtomicInteger tasks = new AtomicInteger();
+
+    @Before
+    public void createExecutor() {
+        creationTasks.clear();
+        leavesConstructed = new CountDownLatch(0);
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void eachSingletonIsCreatedAfterItsDependencies() {
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        // Dependents first, so that creating in registration order would create
+        // the dependencies as part of their dependents
+        beanFactory.registerBeanDefinition("top", new BeanDefinition(Top.class));
+        beanFactory.registerBeanDefinition("middle", new BeanDefinition(Middle.class));
+        beanFactory.registerBeanDefinition("leaf", new BeanDefinition(Leaf.class));
+        beanFactory.preInstantiateSingletons();
+
+        assertEquals(3, creationTasks.size());
+        assertEquals("each singleton in a task of its own", 3, creationTasks.values().stream().distinct().count());
+        assertTrue(creationTasks.get("leaf") < creationTasks.get("middle"));
+        assertTrue(creationTasks.get("middle") < creationTasks.get("top"));
+        Top top = beanFactory.getBean(Top.class);
+        assertSame(beanFactory.getBean(Middle.class), top.middle);
+        assertSame(beanFactory.getBean(Leaf.class), top.middle.leaf);
+    }
+
+    @Test
+    public void independentSingletonsAreCreatedConcurrently() {
+        leavesConstructed = new CountDownLatch(2);
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        beanFactory.registerBeanDefinition("left", new BeanDefinition(AwaitingLeaf.class));
+        beanFactory.registerBeanDefinition("right", new BeanDefinition(AwaitingLeaf.class));
+        beanFactory.preInstantiateSingletons();
+
+        assertEquals(2, beanFactory.getBeansOfType(AwaitingLeaf.class).size());
+        assertEquals(2, creationTasks.values().stream().distinct().count());
+    }
+
+    @Test
+    public void lazySingletonsAreNotCreated() {
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        BeanDefinition leaf = new BeanDefinition(Leaf.class);
+        leaf.setLazyInit(true);
+        beanFactory.registerBeanDefinition("leaf", leaf);
+        beanFactory.registerBeanDefinition("other", new BeanDefinition(Other.class));
+        beanFactory.preInstantiateSingletons();
+
+        assertFalse(creationTasks.containsKey("leaf"));
+        assertTrue(creationTasks.containsKey("other"));
+    }
+
+    @Test
+    public void dependencyCycleDoesNotHang() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            DefaultListableBeanFactory beanFactory = createBeanFactory();
+            beanFactory.registerBeanDefinition("cycleLeft", new BeanDefinition(CycleLeft.class));
+            beanFactory.registerBeanDefinition("cycleRight", new BeanDefinition(CycleRight.class));
+            beanFactory.registerBeanDefinition("cycleUser", new BeanDefinition(CycleUser.class));
+
+            ExecutorService caller = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> refresh = caller.submit(beanFactory::preInstantiateSingletons);
+                refresh.get(10, TimeUnit.SECONDS);
+            } finally {
+                caller.shutdownNow();
+            }
+
+            CycleLeft left = beanFactory.getBean(CycleLeft.class);
+            CycleRight right = beanFactory.getBean(CycleRight.class);
+            assertSame(right, left.right);
+            assertSame(left, right.left);
+            assertSame(left, beanFactory.getBean(CycleUser.class).left);
+        }
+    }
+
+    @Test
+    public void failureOfSingletonIsPropagated() {
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        beanFactory.registerBeanDefinition("other", new BeanDefinition(Other.class));
+        beanFactory.registerBeanDefinition("failing", new BeanDefinition(Failing.class));
+        beanFactory.registerBeanDefinition("failingUser", new BeanDefinition(FailingUser.class));
+        try {
+            beanFactory.preInstantiateSingletons();
+            fail("Expected BeansException");
+        } catch (BeansException expected) {
+            Throwable cause = expected;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            assertEquals("Cannot create failing", cause.getMessage());
+        }
+        assertFalse("dependent of failed singleton created", creationTasks.containsKey("failingUser"));
+        assertNotNull(creationTasks.get("other"));
+    }
+
+    private DefaultListableBeanFactory createBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setPreInstantiationExecutor(task -> {
+            int taskNumber = tasks.incrementAndGet();
+            executorService.execute(() -> {
+                currentTask.set(taskNumber);
+                try {
+                    task.run();
+                } finally {
+                    currentTask.remove();
+                }
+            });
+        });
+        return beanFactory;
+    }
+
+    private static void created(String beanName) {
+        creationTasks.put(beanName, currentTask.get());
+    }
+
+    public static class Leaf {
+
+        public Leaf() {
+            created("leaf");
+        }
+    }
+
+    public static class Middle {
+
+        private final Leaf leaf;
+
+        @Autowired
+        public Middle(Leaf leaf) {
+            created("middle");
+            this.leaf = leaf;
+        }
+    }
+
+    public static class Top {
+
+        @Autowired
+        private Middle middle;
+
+        public Top() {
+            created("top");
+        }
+    }
+
+    public static class AwaitingLeaf {
+
+        public AwaitingLeaf() throws InterruptedException {
+            created("leaf" + System.identityHashCode(this));
+            leavesConstructed.countDown();
+            if (!leavesConstructed.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Independent singletons were not created concurrently");
+            }
+        }
+    }
+
+    public static class Other {
+
+        public Other() {
+            created("other");
+        }
+    }
+
+    public static class CycleLeft {
+
+        @Autowired
+        private CycleRight right;
+    }
+
+    public static class CycleRight {
+
+        @Autowired
+        private CycleLeft left;
+    }
+
+    public static class CycleUser {
+
+        private final CycleLeft left;
+
+        @Autowired
+        public CycleUser(CycleLeft left) {
+            this.left = left;
+        }
+    }
+
+    public static class Failing {
+
+        public Failing() {
+            throw new IllegalStateException("Cannot create failing");
+        }
+    }
+
+    public static class FailingUser {
+
+        @Autowired
+        private Failing failing;
+
+        public FailingUser() {
+            created("failingUser");
+        }
+    }
+}
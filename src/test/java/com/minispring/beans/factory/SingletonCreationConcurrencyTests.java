@@ -0,0 +1,182 @@
+package com.minispring.beans.factory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that singletons requested by many threads at once on a fresh factory are
+ * created exactly once, and never exposed to another thread before they are populated.
+ */
+public class SingletonCreationConcurrencyTests {
+
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final int ROUNDS = 50;
+
+    private static final AtomicInteger slowInstances = new AtomicInteger();
+
+    private static final AtomicInteger dependentInstances = new AtomicInteger();
+
+    private static volatile CountDownLatch constructed;
+
+    @Test
+    public void concurrentFirstAccessCreatesEachSingletonOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            slowInstances.set(0);
+            dependentInstances.set(0);
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.registerBeanDefinition("slowSingleton", new BeanDefinition(SlowSingleton.class));
+            beanFactory.registerBeanDefinition("dependentSingleton", new BeanDefinition(DependentSingleton.class));
+
+            Object[] beans = new Object[THREADS];
+            runConcurrently(thread -> beans[thread] = (thread % 2 == 0
+                    ? beanFactory.getBean("slowSingleton")
+                    : beanFactory.getBean(DependentSingleton.class).getSlowSingleton()));
+
+            assertEquals("slowSingleton instances in round " + round, 1, slowInstances.get());
+            assertEquals("dependentSingleton instances in round " + round, 1, dependentInstances.get());
+            for (Object bean : beans) {
+                assertSame(beans[0], bean);
+            }
+        }
+    }
+
+    @Test
+    public void circularReferenceRequestedFromTwoThreadsIsCreatedOnOne() throws Exception {
+        for (int round = 0; round < 5; round++) {
+            constructed = new CountDownLatch(2);
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.registerBeanDefinition("left", new BeanDefinition(Left.class));
+            beanFactory.registerBeanDefinition("right", new BeanDefinition(Right.class));
+
+            Object[] beans = new Object[2];
+            runConcurrently(2, thread -> {
+                if (thread == 0) {
+                    Left left = beanFactory.getBean("left", Left.class);
+                    assertNotNull("left returned before right was injected", left.getRight());
+                    assertSame(left, left.getRight().getLeft());
+                    beans[0] = left;
+                } else {
+                    Right right = beanFactory.getBean("right", Right.class);
+                    assertNotNull("right returned before left was injected", right.getLeft());
+                    assertSame(right, right.getLeft().getRight());
+                    beans[1] = right;
+                }
+            });
+
+            assertSame(beanFactory.getBean("left"), beans[0]);
+            assertSame(beanFactory.getBean("right"), beans[1]);
+        }
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        runConcurrently(THREADS, task);
+    }
+
+    private static void runConcurrently(int threads, ThreadTask task) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(thread);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue("Threads did not finish", done.await(30, TimeUnit.SECONDS));
+        Throwable e = failure.get();
+        if (e != null) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private interface ThreadTask {
+
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Singleton that takes a while to construct, widening the race window.
+     */
+    public static class SlowSingleton {
+
+        public SlowSingleton() throws InterruptedException {
+            slowInstances.incrementAndGet();
+            Thread.sleep(2);
+        }
+    }
+
+    /**
+     * Singleton depending on the slow singleton, so both are created by racing threads.
+     */
+    public static class DependentSingleton {
+
+        @Autowired
+        private SlowSingleton slowSingleton;
+
+        public DependentSingleton() {
+            dependentInstances.incrementAndGet();
+        }
+
+        public SlowSingleton getSlowSingleton() {
+            return slowSingleton;
+        }
+    }
+
+    /**
+     * Waits in its constructor until the first instances of both sides of the cycle
+     * exist, so that each is being created by its own thread.
+     */
+    private static void awaitOtherSide() throws InterruptedException {
+        CountDownLatch latch = constructed;
+        latch.countDown();
+        latch.await(5, TimeUnit.SECONDS);
+    }
+
+    public static class Left {
+
+        @Autowired
+        private Right right;
+
+        public Left() throws InterruptedException {
+            awaitOtherSide();
+        }
+
+        public Right getRight() {
+            return right;
+        }
+    }
+
+    public static class Right {
+
+        @Autowired
+        private Left left;
+
+        public Right() throws InterruptedException {
+            awaitOtherSide();
+        }
+
+        public Left getLeft() {
+            return left;
+        }
+    }
+}
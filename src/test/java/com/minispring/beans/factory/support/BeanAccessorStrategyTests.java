@@ -0,0 +1,137 @@
+package com.minispring.beans.factory.support;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Value;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that every {@link BeanAccessorStrategy} constructs, injects and invokes
+ * alike. Their throughput is compared by {@code BeanAccessorBenchmark} in the
+ * {@code mini-spring-benchmarks} module.
+ */
+@RunWith(Parameterized.class)
+public class BeanAccessorStrategyTests {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> strategies() {
+        return Arrays.asList(new Object[][] {
+                { "reflective", new ReflectiveBeanAccessorStrategy() },
+                { "methodHandle", new MethodHandleBeanAccessorStrategy() },
+                { "generated", new GeneratedBeanAccessorStrategy() }
+        });
+    }
+
+    private final BeanAccessorStrategy strategy;
+
+    public BeanAccessorStrategyTests(String name, BeanAccessorStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Test
+    public void instantiatorPassesConstructorArguments() throws Throwable {
+        Repository repository = new Repository();
+        Object handler = strategy.instantiator(RequestHandler.class.getConstructor(Repository.class))
+                .newInstance(new Object[] { repository });
+        assertSame(repository, ((RequestHandler) handler).constructorRepository);
+    }
+
+    @Test
+    public void noArgInstantiatorCreatesNewInstances() throws Throwable {
+        BeanAccessorStrategy.Instantiator instantiator = strategy.instantiator(Repository.class.getConstructor());
+        assertNotSame(instantiator.newInstance(new Object[0]), instantiator.newInstance(new Object[0]));
+    }
+
+    @Test
+    public void fieldWriterSetsPrivateAndPrimitiveFields() throws Throwable {
+        RequestHandler handler = new RequestHandler(null);
+        Repository repository = new Repository();
+        strategy.fieldWriter(RequestHandler.class.getDeclaredField("fieldRepository")).set(handler, repository);
+        strategy.fieldWriter(RequestHandler.class.getDeclaredField("timeout")).set(handler, 30);
+        assertSame(repository, handler.fieldRepository);
+        assertEquals(30, handler.timeout);
+    }
+
+    @Test
+    public void methodInvokerReturnsResult() throws Throwable {
+        RequestHandler handler = new RequestHandler(null);
+        Object result = strategy.methodInvoker(RequestHandler.class.getMethod("describe", String.class))
+                .invoke(handler, new Object[] { "handler" });
+        assertEquals("handler:0", result);
+    }
+
+    @Test
+    public void methodInvokerRethrowsCheckedExceptionUnwrapped() throws Throwable {
+        try {
+            strategy.methodInvoker(RequestHandler.class.getMethod("fail")).invoke(new RequestHandler(null), new Object[0]);
+            fail("Expected the method's exception");
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void factoryInjectsPrototypeThroughStrategy() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setBeanAccessorStrategy(strategy);
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(Repository.class));
+        BeanDefinition prototype = new BeanDefinition(RequestHandler.class);
+        prototype.setScope("prototype");
+        beanFactory.registerBeanDefinition("requestHandler", prototype);
+
+        RequestHandler handler = beanFactory.getBean("requestHandler", RequestHandler.class);
+        Repository repository = beanFactory.getBean(Repository.class);
+        assertSame(repository, handler.constructorRepository);
+        assertSame(repository, handler.fieldRepository);
+        assertSame(repository, handler.setterRepository);
+        assertEquals(30, handler.timeout);
+        assertNotSame(handler, beanFactory.getBean("requestHandler"));
+    }
+
+    public static class Repository {
+    }
+
+    public static class RequestHandler {
+
+        private final Repository constructorRepository;
+
+        @Autowired
+        private Repository fieldRepository;
+
+        @Value("30")
+        private int timeout;
+
+        private Repository setterRepository;
+
+        @Autowired
+        public RequestHandler(Repository constructorRepository) {
+            this.constructorRepository = constructorRepository;
+        }
+
+        @Autowired
+        public void setSetterRepository(Repository setterRepository) {
+            this.setterRepository = setterRepository;
+        }
+
+        public String describe(String name) {
+            return name + ":" + timeout;
+        }
+
+        public void fail() throws IOException {
+            throw new IOException("failed");
+        }
+    }
+}
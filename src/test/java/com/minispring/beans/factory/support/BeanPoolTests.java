@@ -0,0 +1,215 @@
+package com.minispring.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.BeanPoolConfig;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link BeanPool} and the {@code "pooled"} scope.
+ */
+public class BeanPoolTests {
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final List<Object> destroyed = new ArrayList<>();
+
+    @Test
+    public void returnedInstanceIsReused() {
+        BeanPool pool = createPool(config(0, 2, -1, 0));
+        Object first = pool.borrow();
+        pool.release(first);
+        assertSame(first, pool.borrow());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void minIdleInstancesAreCreatedUpFront() {
+        BeanPool pool = createPool(config(2, 4, -1, 0));
+        assertEquals(2, created.get());
+        assertEquals(2, pool.getIdleCount());
+        pool.borrow();
+        pool.borrow();
+        assertEquals(2, created.get());
+        assertEquals(2, pool.getBorrowedCount());
+    }
+
+    @Test
+    public void exhaustedPoolFailsAfterMaxWait() {
+        BeanPool pool = createPool(config(0, 2, -1, 10));
+        pool.borrow();
+        pool.borrow();
+        try {
+            pool.borrow();
+            fail("Expected the pool to be exhausted");
+        } catch (BeansException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("exhausted"));
+        }
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    public void releaseUnblocksWaitingBorrower() throws InterruptedException {
+        BeanPool pool = createPool(config(0, 1, -1, 5_000));
+        Object instance = pool.borrow();
+        Object[] borrowed = new Object[1];
+        Thread borrower = new Thread(() -> borrowed[0] = pool.borrow());
+        borrower.start();
+        pool.release(instance);
+        borrower.join(5_000);
+        assertSame(instance, borrowed[0]);
+    }
+
+    @Test
+    public void idleInstancesBeyondMinIdleAreEvicted() {
+        BeanPool pool = createPool(config(1, 4, 0, 0));
+        Object first = pool.borrow();
+        Object second = pool.borrow();
+        pool.release(first);
+        pool.release(second);
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, destroyed.size());
+    }
+
+    @Test
+    public void closeDestroysIdleAndLaterReturnedInstances() {
+        BeanPool pool = createPool(config(0, 4, -1, 0));
+        Object idle = pool.borrow();
+        Object borrowed = pool.borrow();
+        pool.release(idle);
+        pool.close();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, destroyed.size());
+        pool.release(borrowed);
+        assertEquals(2, destroyed.size());
+        assertSame(borrowed, destroyed.get(1));
+    }
+
+    @Test
+    public void doubleReleaseIsRejected() {
+        BeanPool pool = createPool(config(0, 1, -1, 0));
+        Object instance = pool.borrow();
+        pool.release(instance);
+        try {
+            pool.release(instance);
+            fail("Expected the second release to be rejected");
+        } catch (BeansException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not currently borrowed"));
+        }
+        assertEquals(0, pool.getBorrowedCount());
+        pool.borrow();
+        try {
+            pool.borrow();
+            fail("Expected the pool to stay bounded by maxSize");
+        } catch (BeansException expected) {
+        }
+    }
+
+    @Test
+    public void foreignInstanceIsRejected() {
+        BeanPool pool = createPool(config(0, 2, -1, 0));
+        pool.borrow();
+        try {
+            pool.release(new Parser());
+            fail("Expected an instance not borrowed from the pool to be rejected");
+        } catch (BeansException expected) {
+        }
+        assertEquals(1, pool.getBorrowedCount());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void invalidConfigurationIsRejected() {
+        try {
+            createPool(config(3, 2, -1, 0));
+            fail("Expected minIdle above maxSize to be rejected");
+        } catch (BeansException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Invalid pool configuration"));
+        }
+    }
+
+    @Test
+    public void pooledScopeBorrowsAndReleasesThroughFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(Parser.class);
+        beanDefinition.setScope(BeanDefinition.SCOPE_POOLED);
+        beanDefinition.setPoolConfig(config(0, 2, -1, 10));
+        beanFactory.registerBeanDefinition("parser", beanDefinition);
+
+        Parser first = beanFactory.getBean("parser", Parser.class);
+        Parser second = beanFactory.getBean("parser", Parser.class);
+        assertNotSame(first, second);
+        try {
+            beanFactory.getBean("parser");
+            fail("Expected the pool to be exhausted");
+        } catch (BeansException expected) {
+        }
+        beanFactory.releaseBean("parser", first);
+        assertSame(first, beanFactory.getBean("parser"));
+    }
+
+    @Test
+    public void pooledBeanFilledWithPooledDependencyUpFront() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (Class<?> beanClass : new Class<?>[] {Parser.class, Optimizer.class}) {
+            BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+            beanDefinition.setScope(BeanDefinition.SCOPE_POOLED);
+            beanDefinition.setPoolConfig(config(1, 2, -1, 0));
+            beanFactory.registerBeanDefinition(beanClass == Parser.class ? "parser" : "optimizer", beanDefinition);
+        }
+
+        // Both names hash to the same bin of the pool map, so filling one pool must not update the map
+        Optimizer optimizer = beanFactory.getBean("optimizer", Optimizer.class);
+        assertNotNull(optimizer.getParser());
+        beanFactory.releaseBean("optimizer", optimizer);
+        assertSame(optimizer, beanFactory.getBean("optimizer"));
+        try {
+            beanFactory.releaseBean("parser", new Parser());
+            fail("Expected an instance not borrowed from the pool to be rejected");
+        } catch (BeansException expected) {
+        }
+    }
+
+    private BeanPool createPool(BeanPoolConfig config) {
+        return new BeanPool("parser", () -> {
+            created.incrementAndGet();
+            return new Parser();
+        }, config, destroyed::add);
+    }
+
+    private static BeanPoolConfig config(int minIdle, int maxSize, long maxIdleMillis, long maxWaitMillis) {
+        BeanPoolConfig config = new BeanPoolConfig();
+        config.setMinIdle(minIdle);
+        config.setMaxSize(maxSize);
+        config.setMaxIdleMillis(maxIdleMillis);
+        config.setMaxWaitMillis(maxWaitMillis);
+        return config;
+    }
+
+    public static class Parser {
+    }
+
+    public static class Optimizer {
+
+        @Autowired
+        private Parser parser;
+
+        public Parser getParser() {
+            return parser;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.minispring.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.Cacheable;
+import com.minispring.annotation.Component;
+import com.minispring.beans.factory.BeanPostProcessor;
+import com.minispring.cache.concurrent.BoundedCacheManager;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.core.Ordered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ * Tests for the {@link BeanPostProcessor} chain applied by
+ * {@link AbstractAutowireCapableBeanFactory#initializeBean}.
+ */
+public class BeanPostProcessorChainTests {
+
+    private static final List<String> calls = new ArrayList<>();
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void createContext() {
+        calls.clear();
+        context = new AnnotationConfigApplicationContext(BoundedCacheManager.class,
+                StoppingProcessor.class, RecordingProcessor.class, CachingService.class);
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void nullFromBeforeInitializationEndsOnlyThatChain() {
+        context.getBean(Service.class);
+        assertEquals(2, calls.size());
+        assertEquals("stopping.before:cachingService", calls.get(0));
+        assertEquals("recording.after:cachingService", calls.get(1));
+    }
+
+    @Test
+    public void nullFromBeforeInitializationStillProxiesBean() {
+        Service service = context.getBean(Service.class);
+        assertNotSame(CachingService.class, service.getClass());
+        assertEquals(service.next(), service.next());
+    }
+
+    public interface Service {
+
+        int next();
+    }
+
+    @Component
+    public static class CachingService implements Service {
+
+        private int counter;
+
+        @Override
+        @Cacheable("counter")
+        public int next() {
+            return ++counter;
+        }
+    }
+
+    @Component
+    public static class StoppingProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public boolean appliesTo(Class<?> beanClass) {
+            return beanClass == CachingService.class;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            calls.add("stopping.before:" + beanName);
+            return null;
+        }
+
+        @Override
+        public int getOrder() {
+            return 1;
+        }
+    }
+
+    @Component
+    public static class RecordingProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public boolean appliesTo(Class<?> beanClass) {
+            return beanClass == CachingService.class;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            calls.add("recording.before:" + beanName);
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            calls.add("recording.after:" + beanName);
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return 2;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Component;
+import com.minispring.annotation.Value;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link GeneratedBeanAccessorStrategy} with the accessors that
+ * {@link BeanAccessorsGenerator} generated for the components of this class, as the
+ * test classes are compiled with the generator.
+ */
+public class GeneratedBeanAccessorStrategyTests {
+
+    @Test
+    public void accessorsAreGeneratedForNonPrivateInjectionPoints() throws Exception {
+        GeneratedBeanAccessors accessors = loadAccessors(Gadget.class);
+        assertTrue(accessors.indexOf(Gadget.class.getDeclaredConstructor(Part.class, int.class)) >= 0);
+        assertTrue(accessors.indexOf(Gadget.class.getDeclaredField("part")) >= 0);
+        assertTrue(accessors.indexOf(Gadget.class.getDeclaredField("label")) >= 0);
+        assertTrue(accessors.indexOf(Gadget.class.getDeclaredMethod("configure", Part.class, int[].class, List.class)) >= 0);
+
+        assertEquals(-1, accessors.indexOf(Gadget.class.getDeclaredField("hiddenPart")));
+        assertEquals(-1, accessors.indexOf(Gadget.class.getDeclaredConstructor()));
+        assertEquals(-1, accessors.indexOf(Gadget.class.getDeclaredMethod("describe")));
+    }
+
+    @Test
+    public void accessorsAreOnlyGeneratedForComponents() {
+        try {
+            Class.forName(Part.class.getName() + GeneratedBeanAccessors.CLASS_NAME_SUFFIX);
+        } catch (ClassNotFoundException e) {
+            fail("Expected accessors for the default constructor of " + Part.class.getName());
+        }
+        try {
+            Class.forName(PlainPart.class.getName() + GeneratedBeanAccessors.CLASS_NAME_SUFFIX);
+            fail("Expected no accessors for a class that is no component");
+        } catch (ClassNotFoundException expected) {
+        }
+    }
+
+    @Test
+    public void generatedAccessorsConstructAssignAndInvoke() throws Throwable {
+        GeneratedBeanAccessorStrategy strategy = new GeneratedBeanAccessorStrategy(new RecordingAccessorStrategy());
+        Part part = new Part();
+        Gadget gadget = (Gadget) strategy.instantiator(Gadget.class.getDeclaredConstructor(Part.class, int.class))
+                .newInstance(new Object[] {part, 7});
+        assertSame(part, gadget.constructorPart);
+        assertEquals(7, gadget.size);
+
+        strategy.fieldWriter(Gadget.class.getDeclaredField("part")).set(gadget, part);
+        assertSame(part, gadget.part);
+        Method configure = Gadget.class.getDeclaredMethod("configure", Part.class, int[].class, List.class);
+        Object result = strategy.methodInvoker(configure)
+                .invoke(gadget, new Object[] {part, new int[] {1, 2}, Arrays.asList("a", "b")});
+        assertEquals("2:[a, b]", result);
+    }
+
+    @Test
+    public void membersWithoutAccessorsAreDelegated() throws Exception {
+        RecordingAccessorStrategy delegate = new RecordingAccessorStrategy();
+        GeneratedBeanAccessorStrategy strategy = new GeneratedBeanAccessorStrategy(delegate);
+        Field hiddenPart = Gadget.class.getDeclaredField("hiddenPart");
+        Constructor<PlainPart> plainConstructor = PlainPart.class.getDeclaredConstructor();
+        strategy.fieldWriter(Gadget.class.getDeclaredField("part"));
+        strategy.fieldWriter(hiddenPart);
+        strategy.instantiator(plainConstructor);
+        assertEquals(Arrays.asList(hiddenPart, plainConstructor), delegate.members);
+    }
+
+    @Test
+    public void factoryCreatesBeanThroughGeneratedAccessors() {
+        RecordingAccessorStrategy delegate = new RecordingAccessorStrategy();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setBeanAccessorStrategy(new GeneratedBeanAccessorStrategy(delegate));
+        beanFactory.registerBeanDefinition("part", new BeanDefinition(Part.class));
+        beanFactory.registerBeanDefinition("gadget", new BeanDefinition(Gadget.class));
+
+        Gadget gadget = beanFactory.getBean(Gadget.class);
+        Part part = beanFactory.getBean(Part.class);
+        assertSame(part, gadget.constructorPart);
+        assertSame(part, gadget.part);
+        assertSame(part, gadget.hiddenPart);
+        assertEquals(3, gadget.size);
+        assertEquals("gadget", gadget.label);
+        assertSame(part, gadget.configuredPart);
+        assertArrayEquals(new int[] {1, 2}, gadget.sizes);
+        assertEquals(Arrays.asList("x", "y"), gadget.names);
+        assertEquals("only the private field is delegated", 1, delegate.members.size());
+    }
+
+    private static GeneratedBeanAccessors loadAccessors(Class<?> beanClass) throws Exception {
+        return (GeneratedBeanAccessors) Class.forName(beanClass.getName() + GeneratedBeanAccessors.CLASS_NAME_SUFFIX)
+                .getDeclaredConstructor().newInstance();
+    }
+
+    @Component
+    public static class Part {
+    }
+
+    public static class PlainPart {
+    }
+
+    @Component
+    public static class Gadget {
+
+        final Part constructorPart;
+
+        final int size;
+
+        @Autowired
+        Part part;
+
+        @Autowired
+        private Part hiddenPart;
+
+        @Value("gadget")
+        protected String label;
+
+        Part configuredPart;
+
+        int[] sizes;
+
+        List<String> names;
+
+        public Gadget() {
+            this(null, 0);
+        }
+
+        @Autowired
+        public Gadget(Part constructorPart, @Value("3") int size) {
+            this.constructorPart = constructorPart;
+            this.size = size;
+        }
+
+        @Autowired
+        String configure(Part configuredPart, @Value("1,2") int[] sizes, @Value("x,y") List<String> names) {
+            this.configuredPart = configuredPart;
+            this.sizes = sizes;
+            this.names = names;
+            return sizes.length + ":" + names;
+        }
+
+        public String describe() {
+            return label;
+        }
+    }
+
+    private static class RecordingAccessorStrategy extends ReflectiveBeanAccessorStrategy {
+
+        private final List<Member> members = new ArrayList<>();
+
+        @Override
+        public Instantiator instantiator(Constructor<?> constructor) {
+            members.add(constructor);
+            return super.instantiator(constructor);
+        }
+
+        @Override
+        public FieldWriter fieldWriter(Field field) {
+            members.add(field);
+            return super.fieldWriter(field);
+        }
+
+        @Override
+        public MethodInvoker methodInvoker(Method method) {
+            members.add(method);
+            return super.methodInvoker(method);
+        }
+    }
+}
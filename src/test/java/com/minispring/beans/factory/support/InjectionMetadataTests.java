@@ -0,0 +1,230 @@
+package com.minispring.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Lazy;
+import com.minispring.annotation.Value;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link InjectionMetadata} and its per-class cache in
+ * {@link AbstractAutowireCapableBeanFactory}.
+ */
+public class InjectionMetadataTests {
+
+    @Test
+    public void autowiredConstructorIsPreferred() throws Exception {
+        InjectionMetadata metadata = InjectionMetadata.forClass(Service.class, new ReflectiveBeanAccessorStrategy());
+        assertSame(Service.class, metadata.getTargetClass());
+        assertEquals(Service.class.getDeclaredConstructor(Repository.class, Clock.class), metadata.getConstructor());
+        assertTrue(metadata.isAutowiredConstructor());
+    }
+
+    @Test
+    public void defaultConstructorIsUsedWithoutAutowiredOne() throws Exception {
+        InjectionMetadata metadata = InjectionMetadata.forClass(Repository.class, new ReflectiveBeanAccessorStrategy());
+        assertEquals(Repository.class.getDeclaredConstructor(), metadata.getConstructor());
+        assertFalse(metadata.isAutowiredConstructor());
+        assertTrue(metadata.getInjectedMembers().isEmpty());
+    }
+
+    @Test
+    public void injectionPointsIncludeInheritedMembers() throws Exception {
+        InjectionMetadata metadata = InjectionMetadata.forClass(Service.class, new ReflectiveBeanAccessorStrategy());
+        assertEquals(new LinkedHashSet<>(Arrays.asList(
+                        Service.class.getDeclaredField("auditor"),
+                        Service.class.getDeclaredField("name"),
+                        Service.class.getDeclaredField("ticker"),
+                        BaseService.class.getDeclaredField("listener"),
+                        BaseService.class.getDeclaredMethod("setRegistry", Registry.class))),
+                new LinkedHashSet<>(metadata.getInjectedMembers()));
+    }
+
+    @Test
+    public void dependencyTypesLeaveOutLazyAndValueInjectionPoints() {
+        InjectionMetadata metadata = InjectionMetadata.forClass(Service.class, new ReflectiveBeanAccessorStrategy());
+        assertEquals(new LinkedHashSet<>(Arrays.asList(Repository.class, Clock.class, Auditor.class,
+                Listener.class, Registry.class)), metadata.getDependencyTypes());
+    }
+
+    @Test
+    public void memberThatIsNoInjectionPointIsRejected() throws Exception {
+        Field field = Repository.class.getDeclaredField("plain");
+        try {
+            InjectionMetadata.forMembers(Repository.class, Repository.class.getDeclaredConstructor(), false,
+                    Collections.singletonList(field), new ReflectiveBeanAccessorStrategy());
+            fail("Expected BeansException");
+        } catch (BeansException expected) {
+            assertTrue(expected.getMessage().contains("Not an injection point"));
+        }
+    }
+
+    @Test
+    public void metadataIsBuiltOncePerClass() {
+        CountingAccessorStrategy strategy = new CountingAccessorStrategy();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setBeanAccessorStrategy(strategy);
+        BeanDefinition prototype = new BeanDefinition(Repository.class);
+        prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("first", prototype);
+        beanFactory.registerBeanDefinition("second", new BeanDefinition(Repository.class));
+
+        assertNotSame(beanFactory.getBean("first"), beanFactory.getBean("first"));
+        beanFactory.getBean("second");
+        InjectionMetadata metadata = beanFactory.getInjectionMetadata(Repository.class);
+        assertSame(metadata, beanFactory.getInjectionMetadata(Repository.class));
+        assertEquals(1, strategy.introspections.get());
+    }
+
+    @Test
+    public void changingAccessorStrategyDiscardsMetadata() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        InjectionMetadata metadata = beanFactory.getInjectionMetadata(Repository.class);
+        beanFactory.setBeanAccessorStrategy(new ReflectiveBeanAccessorStrategy());
+        assertNotSame(metadata, beanFactory.getInjectionMetadata(Repository.class));
+    }
+
+    @Test
+    public void childFactoryReusesMetadataOfParent() {
+        CountingAccessorStrategy strategy = new CountingAccessorStrategy();
+        DefaultListableBeanFactory parent = new DefaultListableBeanFactory();
+        parent.setBeanAccessorStrategy(strategy);
+        InjectionMetadata metadata = parent.getInjectionMetadata(Repository.class);
+
+        DefaultListableBeanFactory child = new DefaultListableBeanFactory(parent);
+        assertSame(metadata, child.getInjectionMetadata(Repository.class));
+        child.getInjectionMetadata(Clock.class);
+        assertEquals(2, strategy.introspections.get());
+
+        // Classes introspected by the child are not cached in the parent
+        parent.getInjectionMetadata(Clock.class);
+        assertEquals(3, strategy.introspections.get());
+    }
+
+    @Test
+    public void childFactoryWithOtherStrategyIntrospectsAgain() {
+        DefaultListableBeanFactory parent = new DefaultListableBeanFactory();
+        InjectionMetadata metadata = parent.getInjectionMetadata(Repository.class);
+
+        DefaultListableBeanFactory child = new DefaultListableBeanFactory(parent);
+        child.setBeanAccessorStrategy(new ReflectiveBeanAccessorStrategy());
+        assertNotSame(metadata, child.getInjectionMetadata(Repository.class));
+    }
+
+    @Test
+    public void registeredMetadataIsUsedWithoutIntrospection() throws Exception {
+        CountingAccessorStrategy strategy = new CountingAccessorStrategy();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setBeanAccessorStrategy(strategy);
+        List<Field> members = Collections.singletonList(Consumer.class.getDeclaredField("clock"));
+        InjectionMetadata metadata = InjectionMetadata.forMembers(Consumer.class,
+                Consumer.class.getDeclaredConstructor(), false, members, strategy);
+        assertEquals(1, strategy.introspections.get());
+        beanFactory.registerInjectionMetadata(metadata);
+        beanFactory.registerBeanDefinition("consumer", new BeanDefinition(Consumer.class));
+        beanFactory.registerBeanDefinition("clock", new BeanDefinition(Clock.class));
+        beanFactory.registerBeanDefinition("auditor", new BeanDefinition(Auditor.class));
+
+        assertSame(metadata, beanFactory.getInjectionMetadata(Consumer.class));
+        Consumer consumer = beanFactory.getBean(Consumer.class);
+        assertSame(beanFactory.getBean(Clock.class), consumer.clock);
+        assertNull("member left out of the registered metadata was injected", consumer.auditor);
+        assertEquals(2, strategy.introspections.get());
+    }
+
+    public static class Repository {
+
+        private String plain;
+
+        public Repository() {
+        }
+
+        public Repository(String plain) {
+            this.plain = plain;
+        }
+    }
+
+    public static class Clock {
+    }
+
+    public static class Consumer {
+
+        @Autowired
+        private Clock clock;
+
+        @Autowired
+        private Auditor auditor;
+    }
+
+    public static class Auditor {
+    }
+
+    public interface Ticker {
+    }
+
+    public static class Listener {
+    }
+
+    public static class Registry {
+    }
+
+    public abstract static class BaseService {
+
+        @Autowired
+        private Listener listener;
+
+        @Autowired
+        public void setRegistry(Registry registry) {
+        }
+    }
+
+    public static class Service extends BaseService {
+
+        @Autowired
+        private Auditor auditor;
+
+        @Value("${service.name:default}")
+        private String name;
+
+        @Autowired
+        @Lazy
+        private Ticker ticker;
+
+        public Service() {
+        }
+
+        @Autowired
+        public Service(Repository repository, Clock clock) {
+        }
+    }
+
+    private static class CountingAccessorStrategy extends ReflectiveBeanAccessorStrategy {
+
+        private final AtomicInteger introspections = new AtomicInteger();
+
+        @Override
+        public Instantiator instantiator(Constructor<?> constructor) {
+            introspections.incrementAndGet();
+            return super.instantiator(constructor);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.minispring.beans.factory.support;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Value;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.core.convert.support.DefaultConversionService;
+import com.minispring.core.env.MapPropertySource;
+import com.minispring.core.env.StandardEnvironment;
+import com.minispring.exception.BeansException;
+import com.minispring.exception.ConversionException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the conversion of {@link Value} expressions to the type of their
+ * injection point.
+ */
+public class ValueInjectionTests {
+
+    private final Map<String, Object> properties = new HashMap<>();
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Before
+    public void createBeanFactory() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setEnvironment(environment);
+    }
+
+    @Test
+    public void valuesAreConvertedToDeclaredTypes() {
+        properties.put("server.timeout", "10s");
+        properties.put("server.ports", "8080, 8443");
+        beanFactory.registerBeanDefinition("settings", new BeanDefinition(Settings.class));
+
+        Settings settings = beanFactory.getBean(Settings.class);
+        assertEquals(Duration.ofSeconds(10), settings.timeout);
+        assertArrayEquals(new int[] {8080, 8443}, settings.ports);
+        assertEquals(Arrays.asList(8080, 8443), settings.portList);
+        assertEquals(TimeUnit.MINUTES, settings.unit);
+        assertEquals(3, settings.retries);
+        assertTrue(settings.enabled);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), settings.tags);
+        assertEquals(Duration.ofMinutes(1), settings.interval);
+    }
+
+    @Test
+    public void collectionsAreNotSharedBetweenInstances() {
+        BeanDefinition prototype = new BeanDefinition(Settings.class);
+        prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("settings", prototype);
+
+        Settings first = beanFactory.getBean(Settings.class);
+        Settings second = beanFactory.getBean(Settings.class);
+        assertNotSame(first.ports, second.ports);
+        assertNotSame(first.portList, second.portList);
+        assertSame(first.timeout, second.timeout);
+    }
+
+    @Test
+    public void changedPropertySourcesAreResolvedAgain() {
+        BeanDefinition prototype = new BeanDefinition(Settings.class);
+        prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("settings", prototype);
+        assertEquals(Duration.ofSeconds(30), beanFactory.getBean(Settings.class).timeout);
+
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("server.timeout", "PT1M");
+        ((StandardEnvironment) beanFactory.getEnvironment()).getPropertySources()
+                .addFirst(new MapPropertySource("overrides", overrides));
+        assertEquals(Duration.ofMinutes(1), beanFactory.getBean(Settings.class).timeout);
+    }
+
+    @Test
+    public void inconvertibleValueFailsBeanCreation() {
+        properties.put("server.timeout", "soon");
+        beanFactory.registerBeanDefinition("settings", new BeanDefinition(Settings.class));
+        try {
+            beanFactory.getBean(Settings.class);
+            fail("Expected BeansException");
+        } catch (BeansException expected) {
+            Throwable cause = expected.getCause();
+            while (cause != null && !(cause instanceof ConversionException)) {
+                cause = cause.getCause();
+            }
+            assertNotNull("no ConversionException in the causes", cause);
+            assertTrue(cause.getMessage().contains("'soon'"));
+        }
+    }
+
+    @Test
+    public void conversionServiceBeanOfContextIsUsed() {
+        DefaultListableBeanFactory contextBeanFactory = new DefaultListableBeanFactory();
+        contextBeanFactory.registerBeanDefinition(DefaultConversionService.CONVERSION_SERVICE_BEAN_NAME,
+                new BeanDefinition(MoneyConversionService.class));
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(contextBeanFactory);
+        context.register(Wallet.class);
+        context.refresh();
+
+        Wallet wallet = context.getBean(Wallet.class);
+        assertEquals(250, wallet.balance.cents);
+        assertEquals(Arrays.asList(1, 2), Arrays.asList(wallet.coins[0].cents, wallet.coins[1].cents));
+        assertEquals(3, wallet.count);
+        context.close();
+    }
+
+    public static class Settings {
+
+        @Value("${server.timeout:30s}")
+        private Duration timeout;
+
+        @Value("${server.ports:80,443}")
+        private int[] ports;
+
+        @Value("${server.ports:80,443}")
+        private List<Integer> portList;
+
+        @Value("${server.unit:MINUTES}")
+        private TimeUnit unit;
+
+        @Value("${server.retries:3}")
+        private int retries;
+
+        @Value("${server.enabled:on}")
+        private boolean enabled;
+
+        @Value("${server.tags:a,b}")
+        private Set<String> tags;
+
+        private Duration interval;
+
+        @Autowired
+        public void setInterval(@Value("${server.interval:1m}") Duration interval) {
+            this.interval = interval;
+        }
+    }
+
+    public static class Money {
+
+        private final int cents;
+
+        public Money(int cents) {
+            this.cents = cents;
+        }
+    }
+
+    public static class MoneyConversionService extends DefaultConversionService {
+
+        public MoneyConversionService() {
+            addConverter(String.class, Money.class, source -> new Money(Integer.parseInt(source)));
+        }
+    }
+
+    public static class Wallet {
+
+        @Value("250")
+        private Money balance;
+
+        @Value("1,2")
+        private Money[] coins;
+
+        @Value("3")
+        private int count;
+    }
+}
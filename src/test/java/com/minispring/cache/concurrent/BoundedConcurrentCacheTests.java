@@ -0,0 +1,218 @@
+package com.minispring.cache.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.minispring.cache.CacheStats;
+import com.minispring.cache.concurrent.BoundedConcurrentCache.EvictionPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link BoundedConcurrentCache}.
+ */
+public class BoundedConcurrentCacheTests {
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("lru", 3, EvictionPolicy.LRU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        // The buffered read of "a" is applied before the next write evicts
+        assertEquals(1, cache.get("a"));
+        cache.put("d", 4);
+
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(4, cache.get("d"));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void replacedEntryKeepsSize() {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("lru", 2, EvictionPolicy.LRU);
+        cache.put("a", 1);
+        cache.put("a", 2);
+        cache.put("b", 3);
+        assertEquals(2, cache.get("a"));
+        assertEquals(2, cache.size());
+        assertEquals(0, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void tinyLfuRejectsNewKeyUsedLessOften() {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("lfu", 2, EvictionPolicy.TINY_LFU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        for (int i = 0; i < 5; i++) {
+            cache.get("a");
+            cache.get("b");
+        }
+
+        cache.put("scan", 3);
+        assertNull("A one-hit wonder must not evict popular entries", cache.get("scan"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(2, cache.get("b"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void tinyLfuAdmitsNewKeyOnceUsedMoreOften() {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("lfu", 2, EvictionPolicy.TINY_LFU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("b");
+        for (int i = 0; i < 3; i++) {
+            cache.put("c", 3);
+        }
+        assertEquals(3, cache.get("c"));
+        assertNull("The least recently used entry makes room", cache.get("a"));
+        assertEquals(2, cache.get("b"));
+    }
+
+    @Test
+    public void lruAdmitsEveryNewKey() {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("lru", 2, EvictionPolicy.LRU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        for (int i = 0; i < 5; i++) {
+            cache.get("a");
+            cache.get("b");
+        }
+        cache.put("scan", 3);
+        assertEquals(3, cache.get("scan"));
+    }
+
+    @Test
+    public void entriesExpireAfterTimeToLive() throws InterruptedException {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("ttl", 10, EvictionPolicy.LRU, Duration.ofMillis(50));
+        cache.put("a", 1);
+        assertEquals(1, cache.get("a"));
+        Thread.sleep(80);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0, stats.getEvictionCount());
+
+        cache.put("a", 2);
+        assertEquals("A rewritten entry lives again", 2, cache.get("a"));
+    }
+
+    @Test
+    public void expiredEntryIsEvictedEvenIfPopular() throws InterruptedException {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("ttl", 1, EvictionPolicy.TINY_LFU,
+                Duration.ofMillis(50));
+        cache.put("popular", 1);
+        for (int i = 0; i < 10; i++) {
+            cache.get("popular");
+        }
+        Thread.sleep(80);
+        cache.put("fresh", 2);
+        assertEquals(2, cache.get("fresh"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictAndClearRemoveEntries() {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("lru", 10, EvictionPolicy.LRU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.evict("a");
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("b"));
+        cache.put("c", 3);
+        assertEquals(3, cache.get("c"));
+    }
+
+    @Test
+    public void statsCountHitsAndMisses() {
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("stats", 10, EvictionPolicy.LRU);
+        assertEquals(1.0, cache.getStats().getHitRate(), 0.0);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+        CacheStats stats = cache.getStats();
+        assertEquals(3, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0.75, stats.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void invalidArgumentsAreRejected() {
+        try {
+            new BoundedConcurrentCache("invalid", 0, EvictionPolicy.LRU);
+            fail("Expected a non-positive maximum size to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new BoundedConcurrentCache("nulls", 1, EvictionPolicy.LRU).put("a", null);
+            fail("Expected a null value to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void lossyReadBuffersKeepCacheConsistentUnderContention() throws Exception {
+        int threads = 8;
+        int keys = 64;
+        BoundedConcurrentCache cache = new BoundedConcurrentCache("contended", 32, EvictionPolicy.TINY_LFU);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 20_000; i++) {
+                        int key = (i * 31 + thread) % keys;
+                        Object value = cache.get(key);
+                        if (value == null) {
+                            cache.put(key, "value" + key);
+                        } else if (!value.equals("value" + key)) {
+                            throw new AssertionError("Wrong value " + value + " for key " + key);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue("Threads did not finish", done.await(30, TimeUnit.SECONDS));
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        assertTrue("Size " + cache.size(), cache.size() <= 32);
+        CacheStats stats = cache.getStats();
+        assertEquals(threads * 20_000L, stats.getHitCount() + stats.getMissCount());
+        assertTrue(stats.getHitCount() > 0);
+        // Every remaining entry is still linked, so clearing leaves nothing behind
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.put("after", 1);
+        assertEquals(1, cache.get("after"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.minispring.cache.concurrent;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link FrequencySketch}.
+ */
+public class FrequencySketchTests {
+
+    @Test
+    public void unusedKeyHasNoFrequency() {
+        assertEquals(0, new FrequencySketch(64).frequency("unused"));
+    }
+
+    @Test
+    public void frequencyCountsUsesUpToFifteen() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 1; i <= 20; i++) {
+            sketch.increment("key");
+            assertEquals(Math.min(i, 15), sketch.frequency("key"));
+        }
+    }
+
+    @Test
+    public void countersAreHalvedAfterSampleSize() {
+        // 16 entries give a sample size of 160 recorded uses
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("popular");
+        }
+        assertEquals(15, sketch.frequency("popular"));
+        for (int i = 0; i < 145; i++) {
+            sketch.increment(i);
+        }
+        int frequency = sketch.frequency("popular");
+        assertTrue("Frequency after reset " + frequency, frequency >= 7 && frequency < 15);
+    }
+
+    @Test
+    public void frequentKeyOutranksRareKeys() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("frequent");
+        }
+        for (int i = 0; i < 500; i++) {
+            sketch.increment("rare" + i);
+        }
+        int frequent = sketch.frequency("frequent");
+        for (int i = 0; i < 500; i++) {
+            assertTrue(sketch.frequency("rare" + i) < frequent);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.minispring.cache.interceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.CacheEvict;
+import com.minispring.annotation.Cacheable;
+import com.minispring.annotation.Component;
+import com.minispring.cache.CacheManager;
+import com.minispring.cache.concurrent.BoundedCacheManager;
+import com.minispring.context.AnnotationConfigApplicationContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link CacheInterceptor} applying {@link Cacheable} and {@link CacheEvict}.
+ */
+public class CacheInterceptorTests {
+
+    private AnnotationConfigApplicationContext context;
+
+    private ItemService service;
+
+    @Before
+    public void createContext() {
+        context = new AnnotationConfigApplicationContext(BoundedCacheManager.class, ItemService.class);
+        service = context.getBean(ItemService.class);
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void resultIsCachedPerKey() {
+        assertEquals("item1#1", service.find(1));
+        assertEquals("item1#1", service.find(1));
+        assertEquals("item2#2", service.find(2));
+        assertEquals(2, service.getLoads());
+        assertEquals(1, context.getBean(CacheManager.class).getCache("items").getStats().getHitCount());
+    }
+
+    @Test
+    public void keysOfSeveralArgumentsAreCompared() {
+        assertEquals("a:1#1", service.find("a", 1));
+        assertEquals("a:1#1", service.find("a", 1));
+        assertEquals("a:2#2", service.find("a", 2));
+        assertEquals(2, service.getLoads());
+    }
+
+    @Test
+    public void nullResultIsCached() {
+        assertNull(service.find(0));
+        assertNull(service.find(0));
+        assertEquals(1, service.getLoads());
+    }
+
+    @Test
+    public void evictRemovesEntryAfterInvocation() {
+        service.find(1);
+        service.find(2);
+        service.update(1);
+        assertEquals("item1#3", service.find(1));
+        assertEquals("item2#2", service.find(2));
+    }
+
+    @Test
+    public void evictAfterInvocationKeepsEntryIfMethodFails() {
+        service.find(1);
+        try {
+            service.failingUpdate(1);
+            fail("Expected the update to fail");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals("item1#1", service.find(1));
+    }
+
+    @Test
+    public void evictBeforeInvocationRemovesEntryEvenIfMethodFails() {
+        service.find(1);
+        try {
+            service.failingUpdateEvictingFirst(1);
+            fail("Expected the update to fail");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals("item1#2", service.find(1));
+    }
+
+    @Test
+    public void evictAllEntriesClearsCache() {
+        service.find(1);
+        service.find(2);
+        service.reload();
+        assertEquals("item1#3", service.find(1));
+        assertEquals("item2#4", service.find(2));
+    }
+
+    @Component
+    public static class ItemService {
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Cacheable("items")
+        public String find(int id) {
+            int load = loads.incrementAndGet();
+            return (id == 0 ? null : "item" + id + "#" + load);
+        }
+
+        @Cacheable("items")
+        public String find(String name, int version) {
+            return name + ":" + version + "#" + loads.incrementAndGet();
+        }
+
+        @CacheEvict("items")
+        public void update(int id) {
+        }
+
+        @CacheEvict("items")
+        public void failingUpdate(int id) {
+            throw new IllegalStateException("expected");
+        }
+
+        @CacheEvict(value = "items", beforeInvocation = true)
+        public void failingUpdateEvictingFirst(int id) {
+            throw new IllegalStateException("expected");
+        }
+
+        @CacheEvict(value = "items", allEntries = true)
+        public void reload() {
+        }
+
+        public int getLoads() {
+            return loads.get();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.minispring.cache.interceptor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link SimpleKey} and {@link SimpleKeyGenerator}.
+ */
+public class SimpleKeyTests {
+
+    @Test
+    public void noArgumentsGiveEmptyKey() {
+        assertSame(SimpleKey.EMPTY, SimpleKeyGenerator.generateKey(new Object[0]));
+        assertEquals(SimpleKey.EMPTY, SimpleKey.of());
+    }
+
+    @Test
+    public void singleArgumentIsItsOwnKey() {
+        assertSame("key", SimpleKeyGenerator.generateKey(new Object[] {"key"}));
+    }
+
+    @Test
+    public void singleNullOrArrayArgumentIsWrapped() {
+        Object nullKey = SimpleKeyGenerator.generateKey(new Object[] {null});
+        assertEquals(SimpleKey.of((Object) null), nullKey);
+        assertNotEquals(SimpleKey.EMPTY, nullKey);
+
+        Object arrayKey = SimpleKeyGenerator.generateKey(new Object[] {new int[] {1, 2}});
+        assertEquals(arrayKey, SimpleKeyGenerator.generateKey(new Object[] {new int[] {1, 2}}));
+        assertEquals(arrayKey.hashCode(), SimpleKeyGenerator.generateKey(new Object[] {new int[] {1, 2}}).hashCode());
+        assertNotEquals(arrayKey, SimpleKeyGenerator.generateKey(new Object[] {new int[] {2, 1}}));
+    }
+
+    @Test
+    public void keysOfTwoArgumentsAreEqualHoweverCreated() {
+        SimpleKey key = SimpleKey.of("a", 1);
+        assertEquals(key, SimpleKey.of(new Object[] {"a", 1}));
+        assertEquals(key.hashCode(), SimpleKey.of(new Object[] {"a", 1}).hashCode());
+        assertEquals(key, SimpleKeyGenerator.generateKey(new Object[] {"a", 1}));
+        assertNotEquals(key, SimpleKey.of(1, "a"));
+        assertEquals(SimpleKey.of(null, null), SimpleKey.of(null, null));
+        assertEquals(SimpleKey.of(new long[] {1}, "a"), SimpleKey.of(new long[] {1}, "a"));
+        assertEquals(SimpleKey.of(new long[] {1}, "a").hashCode(), SimpleKey.of(new long[] {1}, "a").hashCode());
+    }
+
+    @Test
+    public void keysOfDifferentArgumentCountsDiffer() {
+        SimpleKey one = SimpleKey.of((Object) "a");
+        SimpleKey two = SimpleKey.of("a", null);
+        SimpleKey three = SimpleKey.of("a", null, null);
+        assertNotEquals(SimpleKey.EMPTY, one);
+        assertNotEquals(one, two);
+        assertNotEquals(two, one);
+        assertNotEquals(two, three);
+        assertNotEquals(three, two);
+        assertNotEquals(SimpleKey.EMPTY, SimpleKey.of(null, null));
+    }
+
+    @Test
+    public void keysOfThreeArgumentsCompareElementByElement() {
+        Object[] args = {"a", new String[] {"b"}, 3};
+        SimpleKey key = SimpleKey.of(args);
+        args[2] = 4;
+        assertEquals("The arguments are copied", SimpleKey.of("a", new String[] {"b"}, 3), key);
+        assertEquals(SimpleKey.of("a", new String[] {"b"}, 3).hashCode(), key.hashCode());
+        assertNotEquals(SimpleKey.of("a", new String[] {"c"}, 3), key);
+    }
+}
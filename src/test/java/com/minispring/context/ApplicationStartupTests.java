@@ -0,0 +1,90 @@
+package com.minispring.context;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.core.metrics.ApplicationStartup;
+import com.minispring.core.metrics.buffering.BufferingApplicationStartup;
+import com.minispring.core.metrics.buffering.StartupTimeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the startup steps an {@link AnnotationConfigApplicationContext} records.
+ */
+public class ApplicationStartupTests {
+
+    @Test
+    public void refreshRecordsPhasesAndBeanCreation() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                new DefaultListableBeanFactory());
+        context.setApplicationStartup(new BufferingApplicationStartup(256));
+        context.register(Service.class, Repository.class);
+        context.refresh();
+        StartupTimeline timeline = context.getStartupTimeline();
+        context.close();
+
+        StartupTimeline.TimelineEvent register = find(timeline, "minispring.context.register", null);
+        assertNull(register.getParentId());
+        assertTrue(register.getTags().get("classes").contains(Service.class.getName()));
+
+        StartupTimeline.TimelineEvent refresh = find(timeline, "minispring.context.refresh", null);
+        StartupTimeline.TimelineEvent preInstantiate = find(timeline, "minispring.context.beans.pre-instantiate", null);
+        assertEquals(Long.valueOf(refresh.getId()), preInstantiate.getParentId());
+
+        StartupTimeline.TimelineEvent service = find(timeline, "minispring.beans.instantiate", "service");
+        assertEquals(Service.class.getName(), service.getTags().get("beanType"));
+        assertEquals(Long.valueOf(preInstantiate.getId()), service.getParentId());
+        StartupTimeline.TimelineEvent populate = child(timeline, service, "minispring.beans.instantiate.populate");
+        assertNotNull(child(timeline, service, "minispring.beans.instantiate.construct"));
+        assertNotNull(child(timeline, service, "minispring.beans.instantiate.initialize"));
+
+        // The repository is created while the service is populated
+        StartupTimeline.TimelineEvent repository = find(timeline, "minispring.beans.instantiate", "repository");
+        assertEquals(Long.valueOf(populate.getId()), repository.getParentId());
+    }
+
+    @Test
+    public void timelineIsOnlyAvailableWhenBuffering() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Repository.class);
+        assertSame(ApplicationStartup.DEFAULT, context.getApplicationStartup());
+        assertNull(context.getStartupTimeline());
+        context.close();
+    }
+
+    private static StartupTimeline.TimelineEvent find(StartupTimeline timeline, String name, String beanName) {
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if (event.getName().equals(name) && (beanName == null || beanName.equals(event.getTags().get("beanName")))) {
+                return event;
+            }
+        }
+        throw new AssertionError("No step " + name + " in\n" + timeline.format());
+    }
+
+    private static StartupTimeline.TimelineEvent child(StartupTimeline timeline, StartupTimeline.TimelineEvent parent,
+                                                       String name) {
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+        for (StartupTimeline.TimelineEvent event : events) {
+            if (event.getName().equals(name) && Long.valueOf(parent.getId()).equals(event.getParentId())) {
+                return event;
+            }
+        }
+        throw new AssertionError("No child step " + name + " of " + parent + " in\n" + timeline.format());
+    }
+
+    public static class Repository {
+    }
+
+    public static class Service {
+
+        @Autowired
+        private Repository repository;
+    }
+}
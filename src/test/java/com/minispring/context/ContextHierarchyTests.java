@@ -0,0 +1,131 @@
+package com.minispring.context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.annotation.Component;
+import com.minispring.annotation.PreDestroy;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for bean lookups and destruction in parent/child application contexts.
+ */
+public class ContextHierarchyTests {
+
+    private AnnotationConfigApplicationContext parent;
+
+    @Before
+    public void createParent() {
+        parent = new AnnotationConfigApplicationContext(SharedRepository.class);
+    }
+
+    @After
+    public void closeParent() {
+        parent.close();
+    }
+
+    @Test
+    public void childInjectsAndLooksUpBeansOfParent() {
+        AnnotationConfigApplicationContext child = new AnnotationConfigApplicationContext(parent, TenantService.class);
+        try {
+            SharedRepository repository = parent.getBean(SharedRepository.class);
+            assertSame(repository, child.getBean(TenantService.class).getRepository());
+            assertSame(repository, child.getBean(SharedRepository.class));
+            assertSame(parent, child.getParent());
+        } finally {
+            child.close();
+        }
+    }
+
+    @Test
+    public void parentDoesNotSeeBeansOfChild() {
+        AnnotationConfigApplicationContext child = new AnnotationConfigApplicationContext(parent, TenantService.class);
+        try {
+            try {
+                parent.getBean(TenantService.class);
+                fail("Expected the child bean to be invisible to the parent");
+            } catch (BeansException expected) {
+            }
+            assertTrue(child.getBeanFactory().containsLocalBean(beanName(child, TenantService.class)));
+            assertFalse(parent.containsBean(beanName(child, TenantService.class)));
+        } finally {
+            child.close();
+        }
+    }
+
+    @Test
+    public void siblingsHaveTheirOwnBeans() {
+        AnnotationConfigApplicationContext first = new AnnotationConfigApplicationContext(parent, TenantService.class);
+        AnnotationConfigApplicationContext second = new AnnotationConfigApplicationContext(parent, TenantService.class);
+        try {
+            assertNotSame(first.getBean(TenantService.class), second.getBean(TenantService.class));
+            assertSame(first.getBean(TenantService.class).getRepository(),
+                    second.getBean(TenantService.class).getRepository());
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void closingChildKeepsBeansOfParent() {
+        AnnotationConfigApplicationContext child = new AnnotationConfigApplicationContext(parent, TenantService.class);
+        TenantService service = child.getBean(TenantService.class);
+        child.close();
+        assertTrue(service.isDestroyed());
+        assertFalse(parent.getBean(SharedRepository.class).isDestroyed());
+        assertTrue(parent.isActive());
+    }
+
+    private static String beanName(AnnotationConfigApplicationContext context, Class<?> beanClass) {
+        String[] beanNames = context.getBeanFactory().getBeanNamesForType(beanClass);
+        assertEquals(1, beanNames.length);
+        return beanNames[0];
+    }
+
+    @Component
+    public static class SharedRepository {
+
+        private volatile boolean destroyed;
+
+        @PreDestroy
+        public void destroy() {
+            destroyed = true;
+        }
+
+        public boolean isDestroyed() {
+            return destroyed;
+        }
+    }
+
+    @Component
+    public static class TenantService {
+
+        @Autowired
+        private SharedRepository repository;
+
+        private volatile boolean destroyed;
+
+        public SharedRepository getRepository() {
+            return repository;
+        }
+
+        @PreDestroy
+        public void destroy() {
+            destroyed = true;
+        }
+
+        public boolean isDestroyed() {
+            return destroyed;
+        }
+    }
+}
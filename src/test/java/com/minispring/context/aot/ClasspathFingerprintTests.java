@@ -0,0 +1,102 @@
+package com.minispring.context.aot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests for {@link ClasspathFingerprint}.
+ */
+public class ClasspathFingerprintTests {
+
+    private static final List<String> SOURCES = Collections.singletonList("scan:com.example");
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path classes;
+
+    private Path jar;
+
+    private String classPath;
+
+    private Path snapshotFile;
+
+    @Before
+    public void createClassPath() throws IOException {
+        classes = temporaryFolder.newFolder("classes").toPath();
+        write(classes.resolve("com/example/Service.class"), "service");
+        jar = temporaryFolder.newFile("library.jar").toPath();
+        write(jar, "library");
+        classPath = classes + File.pathSeparator + jar + File.pathSeparator + "missing.jar";
+        snapshotFile = classes.resolve("context.snapshot");
+    }
+
+    @Test
+    public void unchangedClassPathGivesSameFingerprint() {
+        assertEquals(fingerprint(), fingerprint());
+    }
+
+    @Test
+    public void changedSourcesChangeFingerprint() {
+        assertNotEquals(fingerprint(), ClasspathFingerprint.compute(classPath,
+                Arrays.asList("scan:com.example", "class:com.example.Config"), snapshotFile));
+    }
+
+    @Test
+    public void addedClassChangesFingerprint() throws IOException {
+        String before = fingerprint();
+        write(classes.resolve("com/example/Repository.class"), "repository");
+        assertNotEquals(before, fingerprint());
+    }
+
+    @Test
+    public void recompiledClassChangesFingerprint() throws IOException {
+        String before = fingerprint();
+        Path classFile = classes.resolve("com/example/Service.class");
+        FileTime lastModified = Files.getLastModifiedTime(classFile);
+        write(classFile, "service recompiled");
+        Files.setLastModifiedTime(classFile, lastModified);
+        assertNotEquals(before, fingerprint());
+    }
+
+    @Test
+    public void modifiedJarChangesFingerprint() throws IOException {
+        String before = fingerprint();
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() - 60_000));
+        assertNotEquals(before, fingerprint());
+    }
+
+    @Test
+    public void snapshotFileIsExcluded() throws IOException {
+        String before = fingerprint();
+        write(snapshotFile, "snapshot");
+        write(classes.resolve("context.snapshot1234.tmp"), "partial snapshot");
+        assertEquals(before, fingerprint());
+        write(classes.resolve("other.snapshot"), "other");
+        assertNotEquals(before, fingerprint());
+    }
+
+    private String fingerprint() {
+        return ClasspathFingerprint.compute(classPath, SOURCES, snapshotFile);
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,189 @@
+package com.minispring.context.aot;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.minispring.annotation.Autowired;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.core.TestCompiler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link ContextSnapshot} and its use by {@link AnnotationConfigApplicationContext}.
+ */
+public class ContextSnapshotTests {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void snapshotSurvivesRoundTripInCreationPlanOrder() throws IOException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("client", new BeanDefinition(Client.class));
+        BeanDefinition repository = new BeanDefinition(Repository.class);
+        repository.setLazyInit(true);
+        beanFactory.registerBeanDefinition("repository", repository);
+        BeanDefinition command = new BeanDefinition(Command.class);
+        command.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("command", command);
+
+        Path file = temporaryFolder.getRoot().toPath().resolve("context.snapshot");
+        ContextSnapshot.capture(beanFactory, "fingerprint").writeTo(file);
+        ContextSnapshot snapshot = ContextSnapshot.readFrom(file);
+        assertEquals("fingerprint", snapshot.getFingerprint());
+        assertEquals(Arrays.asList("repository", "client", "command"), snapshot.getBeanNames());
+
+        DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+        snapshot.applyTo(restored, getClass().getClassLoader());
+        assertArrayEquals(new String[] {"repository", "client", "command"}, restored.getBeanDefinitionNames());
+        assertTrue(restored.getBeanDefinition("repository").isLazyInit());
+        assertTrue(restored.getBeanDefinition("command").isPrototype());
+        Client client = restored.getBean(Client.class);
+        assertSame(restored.getBean(Repository.class), client.repository);
+        assertSame(restored.getBean(Repository.class), restored.getBean(Command.class).repository);
+    }
+
+    @Test
+    public void fileThatIsNotSnapshotIsRejected() throws IOException {
+        Path file = temporaryFolder.newFile("context.snapshot").toPath();
+        Files.write(file, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+        try {
+            ContextSnapshot.readFrom(file);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            assertEquals("Not a context snapshot", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void snapshotNamingMissingClassLeavesFactoryUntouched() throws Exception {
+        Path classes = temporaryFolder.newFolder("classes").toPath();
+        TestCompiler.compile(classes, Collections.singletonMap("snapshot.Removed",
+                "package snapshot;\npublic class Removed {\n}\n"));
+        Path file = temporaryFolder.getRoot().toPath().resolve("context.snapshot");
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()},
+                getClass().getClassLoader())) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.registerBeanDefinition("repository", new BeanDefinition(Repository.class));
+            beanFactory.registerBeanDefinition("removed",
+                    new BeanDefinition(classLoader.loadClass("snapshot.Removed")));
+            ContextSnapshot.capture(beanFactory, "fingerprint").writeTo(file);
+        }
+
+        DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+        restored.registerBeanDefinition("client", new BeanDefinition(Client.class));
+        try {
+            ContextSnapshot.readFrom(file).applyTo(restored, getClass().getClassLoader());
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("snapshot.Removed"));
+        }
+        assertArrayEquals(new String[] {"client"}, restored.getBeanDefinitionNames());
+    }
+
+    @Test
+    public void contextWritesSnapshotAndRestoresFromIt() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("context.snapshot");
+        AnnotationConfigApplicationContext context = createContext(file);
+        assertTrue(context.containsBean("client"));
+        context.close();
+        ContextSnapshot written = ContextSnapshot.readFrom(file);
+        assertEquals(Arrays.asList("repository", "client"), written.getBeanNames());
+
+        // A snapshot with the current fingerprint is used in place of the registrations
+        writeSnapshot(file, written.getFingerprint(), "command", Command.class);
+        context = createContext(file);
+        assertTrue(context.containsBean("command"));
+        assertFalse(context.containsBean("client"));
+        context.close();
+    }
+
+    @Test
+    public void staleSnapshotLeadsToRescan() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("context.snapshot");
+        writeSnapshot(file, "stale", "command", Command.class);
+
+        AnnotationConfigApplicationContext context = createContext(file);
+        assertTrue(context.containsBean("client"));
+        assertFalse(context.containsBean("command"));
+        context.close();
+
+        ContextSnapshot rewritten = ContextSnapshot.readFrom(file);
+        assertNotEquals("stale", rewritten.getFingerprint());
+        assertEquals(Arrays.asList("repository", "client"), rewritten.getBeanNames());
+    }
+
+    @Test
+    public void unresolvableSnapshotLeadsToRescan() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("context.snapshot");
+        createContext(file).close();
+        String fingerprint = ContextSnapshot.readFrom(file).getFingerprint();
+
+        Path classes = temporaryFolder.newFolder("classes").toPath();
+        TestCompiler.compile(classes, Collections.singletonMap("snapshot.Removed",
+                "package snapshot;\npublic class Removed {\n}\n"));
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()},
+                getClass().getClassLoader())) {
+            writeSnapshot(file, fingerprint, "removed", classLoader.loadClass("snapshot.Removed"));
+        }
+
+        AnnotationConfigApplicationContext context = createContext(file);
+        assertTrue(context.containsBean("client"));
+        assertFalse(context.containsBean("removed"));
+        context.close();
+    }
+
+    private static AnnotationConfigApplicationContext createContext(Path snapshotFile) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(new DefaultListableBeanFactory());
+        context.setSnapshotFile(snapshotFile);
+        context.register(Client.class, Repository.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void writeSnapshot(Path file, String fingerprint, String beanName, Class<?> beanClass)
+            throws IOException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("repository", new BeanDefinition(Repository.class));
+        beanFactory.registerBeanDefinition(beanName, new BeanDefinition(beanClass));
+        ContextSnapshot.capture(beanFactory, fingerprint).writeTo(file);
+    }
+
+    public static class Repository {
+    }
+
+    public static class Client {
+
+        @Autowired
+        private Repository repository;
+    }
+
+    public static class Command {
+
+        private final Repository repository;
+
+        @Autowired
+        public Command(Repository repository) {
+            this.repository = repository;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.minispring.context.event;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.annotation.EventListener;
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.context.ApplicationListener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the delivery of published events to {@link ApplicationListener} beans
+ * and {@link EventListener} methods, synchronously and on an executor.
+ */
+public class ApplicationEventMulticasterTests {
+
+    private static final int LISTENERS_PER_KIND = 50;
+
+    private static final LongAdder deliveries = new LongAdder();
+
+    private static final LongAdder misdeliveries = new LongAdder();
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void createContext() {
+        deliveries.reset();
+        misdeliveries.reset();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (int i = 0; i < LISTENERS_PER_KIND; i++) {
+            beanFactory.registerBeanDefinition("orderListener" + i, new BeanDefinition(OrderListener.class));
+            beanFactory.registerBeanDefinition("orderHandler" + i, new BeanDefinition(OrderHandler.class));
+            beanFactory.registerBeanDefinition("auditListener" + i, new BeanDefinition(AuditListener.class));
+        }
+        context = new AnnotationConfigApplicationContext(beanFactory);
+        context.refresh();
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void eventIsDeliveredToMatchingListenersOnly() {
+        context.publishEvent(new OrderPlacedEvent(42));
+        assertEquals(2 * LISTENERS_PER_KIND, deliveries.sum());
+        assertEquals(0, misdeliveries.sum());
+    }
+
+    @Test
+    public void eventsAreDeliveredOnTaskExecutor() throws InterruptedException {
+        SimpleApplicationEventMulticaster multicaster =
+                (SimpleApplicationEventMulticaster) context.getApplicationEventMulticaster();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        multicaster.setTaskExecutor(executor);
+        try {
+            int events = 100;
+            for (int i = 0; i < events; i++) {
+                context.publishEvent(new OrderPlacedEvent(i));
+            }
+        } finally {
+            multicaster.setTaskExecutor(null);
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100L * 2 * LISTENERS_PER_KIND, deliveries.sum());
+        assertEquals(0, misdeliveries.sum());
+    }
+
+    public static class OrderPlacedEvent {
+
+        private final long orderId;
+
+        public OrderPlacedEvent(long orderId) {
+            this.orderId = orderId;
+        }
+
+        public long getOrderId() {
+            return orderId;
+        }
+    }
+
+    public static class AuditEvent {
+    }
+
+    public static class OrderListener implements ApplicationListener<OrderPlacedEvent> {
+
+        @Override
+        public void onApplicationEvent(OrderPlacedEvent event) {
+            deliveries.increment();
+        }
+    }
+
+    public static class OrderHandler {
+
+        @EventListener
+        public void onOrderPlaced(OrderPlacedEvent event) {
+            deliveries.increment();
+        }
+    }
+
+    public static class AuditListener implements ApplicationListener<AuditEvent> {
+
+        @Override
+        public void onApplicationEvent(AuditEvent event) {
+            misdeliveries.increment();
+        }
+    }
+}
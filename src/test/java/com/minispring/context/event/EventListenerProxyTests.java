@@ -0,0 +1,109 @@
+package com.minispring.context.event;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Cacheable;
+import com.minispring.annotation.Component;
+import com.minispring.annotation.EventListener;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.cache.concurrent.BoundedCacheManager;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.exception.AopConfigException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link EventListener} methods of beans exposed as JDK proxies, i.e. with
+ * {@code proxyTargetClass} turned off.
+ */
+public class EventListenerProxyTests {
+
+    @Test
+    public void listenerDeclaredOnInterfaceIsCalledThroughProxy() {
+        AnnotationConfigApplicationContext context = createContext(BoundedCacheManager.class, CachingService.class);
+        try {
+            Service service = context.getBean(Service.class);
+            assertTrue(Proxy.isProxyClass(service.getClass()));
+            assertEquals(1, service.getRefreshCount());
+            assertEquals(service.lookup("key"), service.lookup("key"));
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void listenerNotDeclaredOnInterfaceIsRejectedOnRefresh() {
+        try {
+            createContext(BoundedCacheManager.class, UndeclaredListenerService.class);
+            fail("Expected the listener method to be rejected");
+        } catch (AopConfigException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("onRefresh"));
+        }
+    }
+
+    private static AnnotationConfigApplicationContext createContext(Class<?>... componentClasses) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setProxyTargetClass(false);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(beanFactory);
+        context.register(componentClasses);
+        context.refresh();
+        return context;
+    }
+
+    public interface Service {
+
+        String lookup(String key);
+
+        void onRefresh(ContextRefreshedEvent event);
+
+        int getRefreshCount();
+    }
+
+    @Component
+    public static class CachingService implements Service {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+        private final AtomicInteger refreshes = new AtomicInteger();
+
+        @Override
+        @Cacheable("lookups")
+        public String lookup(String key) {
+            return key + lookups.incrementAndGet();
+        }
+
+        @Override
+        @EventListener
+        public void onRefresh(ContextRefreshedEvent event) {
+            refreshes.incrementAndGet();
+        }
+
+        @Override
+        public int getRefreshCount() {
+            return refreshes.get();
+        }
+    }
+
+    public interface Lookup {
+
+        String lookup(String key);
+    }
+
+    @Component
+    public static class UndeclaredListenerService implements Lookup {
+
+        @Override
+        @Cacheable("lookups")
+        public String lookup(String key) {
+            return key;
+        }
+
+        @EventListener
+        public void onRefresh(ContextRefreshedEvent event) {
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.minispring.context.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the index written by {@link CandidateComponentsIndexer} and read by
+ * {@link CandidateComponentsIndexLoader}.
+ */
+public class CandidateComponentsIndexerTests {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void componentsAreIndexedWithNameScopeAndLazyInit() throws IOException {
+        Path classes = compile(
+                "package fixture;\n"
+                        + "@com.minispring.annotation.Component\n"
+                        + "public class DefaultNamed {\n"
+                        + "    @com.minispring.annotation.Component(\"inner\")\n"
+                        + "    @com.minispring.annotation.Scope(\"prototype\")\n"
+                        + "    public static class Nested {\n"
+                        + "    }\n"
+                        + "}\n",
+                "package fixture.sub;\n"
+                        + "@com.minispring.annotation.Component\n"
+                        + "@com.minispring.annotation.Lazy\n"
+                        + "public class LazyComponent {\n"
+                        + "}\n",
+                "package fixture.sub;\n"
+                        + "@com.minispring.annotation.Component\n"
+                        + "@com.minispring.annotation.Lazy(false)\n"
+                        + "public class EagerComponent {\n"
+                        + "}\n",
+                "package fixture;\n"
+                        + "public class NotAComponent {\n"
+                        + "}\n");
+
+        Map<String, CandidateComponentsIndex.Entry> entries = loadIndex(classes);
+        assertEquals(entries.keySet().toString(), 4, entries.size());
+        assertEntry(entries.get("fixture.DefaultNamed"), "defaultNamed", "singleton", null);
+        assertEntry(entries.get("fixture.DefaultNamed$Nested"), "inner", "prototype", null);
+        assertEntry(entries.get("fixture.sub.LazyComponent"), "lazyComponent", "singleton", true);
+        assertEntry(entries.get("fixture.sub.EagerComponent"), "eagerComponent", "singleton", false);
+    }
+
+    @Test
+    public void candidatesOfPackageIncludeSubPackagesOnly() throws IOException {
+        Path classes = compile(
+                "package fixture;\n"
+                        + "@com.minispring.annotation.Component\n"
+                        + "public class Top {\n"
+                        + "}\n",
+                "package fixture.sub;\n"
+                        + "@com.minispring.annotation.Component\n"
+                        + "public class Nested {\n"
+                        + "}\n",
+                "package fixtures;\n"
+                        + "@com.minispring.annotation.Component\n"
+                        + "public class Sibling {\n"
+                        + "}\n");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null)) {
+            CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(classLoader);
+            assertNotNull(index);
+            assertEquals(2, index.getCandidateComponents("fixture").size());
+            assertEquals(1, index.getCandidateComponents("fixture.sub").size());
+            assertEquals(1, index.getCandidateComponents("fixtures").size());
+            assertTrue(index.getCandidateComponents("fix").isEmpty());
+        }
+    }
+
+    @Test
+    public void noIndexIsWrittenWithoutComponents() throws IOException {
+        Path classes = compile("package fixture;\n"
+                + "public class NotAComponent {\n"
+                + "}\n");
+        assertFalse(Files.exists(classes.resolve(CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION)));
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null)) {
+            assertNull(CandidateComponentsIndexLoader.loadIndex(classLoader));
+        }
+    }
+
+    @Test
+    public void writtenEntriesAreReadBack() throws IOException {
+        List<CandidateComponentsIndex.Entry> written = Arrays.asList(
+                new CandidateComponentsIndex.Entry("a.First", "first", "singleton", null),
+                new CandidateComponentsIndex.Entry("a.Second", "second", "pooled", true));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CandidateComponentsIndex.write(written, out);
+        assertEquals("a.First=first,singleton\na.Second=second,pooled,true\n",
+                new String(out.toByteArray(), StandardCharsets.ISO_8859_1));
+
+        List<CandidateComponentsIndex.Entry> read = new ArrayList<>();
+        CandidateComponentsIndex.read(new ByteArrayInputStream(out.toByteArray()), read);
+        Map<String, CandidateComponentsIndex.Entry> entries = new HashMap<>();
+        for (CandidateComponentsIndex.Entry entry : read) {
+            entries.put(entry.getClassName(), entry);
+        }
+        assertEntry(entries.get("a.First"), "first", "singleton", null);
+        assertEntry(entries.get("a.Second"), "second", "pooled", true);
+    }
+
+    private Path compile(String... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("Tests must run on a JDK", compiler);
+        Path sourceDirectory = temporaryFolder.newFolder().toPath();
+        Path classes = temporaryFolder.newFolder().toPath();
+        List<String> arguments = new ArrayList<>(Arrays.asList("-processor", CandidateComponentsIndexer.class.getName(),
+                "-classpath", System.getProperty("java.class.path"), "-d", classes.toString()));
+        for (int i = 0; i < sources.length; i++) {
+            Path sourceFile = sourceDirectory.resolve(i + "/" + className(sources[i]) + ".java");
+            Files.createDirectories(sourceFile.getParent());
+            Files.write(sourceFile, sources[i].getBytes(StandardCharsets.UTF_8));
+            arguments.add(sourceFile.toString());
+        }
+        assertEquals("Compilation failed", 0, compiler.run(null, null, null, arguments.toArray(new String[0])));
+        return classes;
+    }
+
+    private static String className(String source) {
+        int start = source.indexOf("public class ") + "public class ".length();
+        return source.substring(start, source.indexOf(' ', start));
+    }
+
+    private static Map<String, CandidateComponentsIndex.Entry> loadIndex(Path classes) throws IOException {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null)) {
+            CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(classLoader);
+            assertNotNull("No index written", index);
+            Map<String, CandidateComponentsIndex.Entry> entries = new HashMap<>();
+            for (CandidateComponentsIndex.Entry entry : index.getEntries()) {
+                entries.put(entry.getClassName(), entry);
+            }
+            return entries;
+        }
+    }
+
+    private static void assertEntry(CandidateComponentsIndex.Entry entry, String beanName, String scope,
+                                    Boolean lazyInit) {
+        assertNotNull(entry);
+        assertEquals(beanName, entry.getBeanName());
+        assertEquals(scope, entry.getScope());
+        assertEquals(lazyInit, entry.getLazyInit());
+    }
+}
@@ -0,0 +1,190 @@
+package com.minispring.context.scope;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.beans.factory.BeanDefinition;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.AnnotationConfigApplicationContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link UnitOfWork} and the {@link UnitOfWorkScope} and
+ * {@link SimpleThreadScope} registered by the application context.
+ */
+public class UnitOfWorkTests {
+
+    private static final AtomicInteger slowInstances = new AtomicInteger();
+
+    private AnnotationConfigApplicationContext context;
+
+    private ExecutorService executor;
+
+    @Before
+    public void createContext() {
+        slowInstances.set(0);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("requestState", scoped(RequestState.class, UnitOfWorkScope.SCOPE_NAME));
+        beanFactory.registerBeanDefinition("slowState", scoped(SlowState.class, UnitOfWorkScope.SCOPE_NAME));
+        beanFactory.registerBeanDefinition("threadState", scoped(RequestState.class, SimpleThreadScope.SCOPE_NAME));
+        context = new AnnotationConfigApplicationContext(beanFactory);
+        context.refresh();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void closeContext() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Test
+    public void unitOfWorkIsBoundWhileTaskRuns() throws Exception {
+        assertNull(UnitOfWork.current());
+        AtomicReference<UnitOfWork> outer = new AtomicReference<>();
+        UnitOfWork.run(() -> {
+            outer.set(UnitOfWork.current());
+            assertNotNull(outer.get());
+            UnitOfWork.run(() -> assertNotSame(outer.get(), UnitOfWork.current()));
+            assertSame(outer.get(), UnitOfWork.current());
+        });
+        assertNull(UnitOfWork.current());
+        assertEquals("done", UnitOfWork.call(() -> "done"));
+    }
+
+    @Test
+    public void unitOfWorkIsUnboundWhenTaskFails() {
+        try {
+            UnitOfWork.call(() -> {
+                throw new IllegalStateException("expected");
+            });
+            fail("Expected IllegalStateException");
+        } catch (Exception expected) {
+            assertEquals("expected", expected.getMessage());
+        }
+        assertNull(UnitOfWork.current());
+        try {
+            UnitOfWork.run(() -> {
+                throw new IllegalArgumentException("expected");
+            });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertNull(UnitOfWork.current());
+    }
+
+    @Test
+    public void scopedBeanIsSharedWithinUnitOfWork() throws Exception {
+        RequestState first = UnitOfWork.call(() -> {
+            RequestState state = context.getBean("requestState", RequestState.class);
+            assertSame(state, context.getBean("requestState"));
+            return state;
+        });
+        RequestState second = UnitOfWork.call(() -> context.getBean("requestState", RequestState.class));
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void scopedBeanOutsideUnitOfWorkFails() {
+        try {
+            context.getBean("requestState");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("No unit of work"));
+        }
+    }
+
+    @Test
+    public void wrappedTasksShareUnitOfWork() throws Exception {
+        UnitOfWork.run(() -> {
+            UnitOfWork unitOfWork = UnitOfWork.current();
+            Object state = context.getBean("requestState");
+            ExecutorService worker = Executors.newSingleThreadExecutor();
+            try {
+                Future<Object> fromOtherThread = worker.submit(unitOfWork.wrap(() -> context.getBean("requestState")));
+                assertSame(state, fromOtherThread.get(10, TimeUnit.SECONDS));
+                // The worker thread is unbound again once the wrapped task returns
+                assertNull(worker.submit(UnitOfWork::current).get(10, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            } finally {
+                worker.shutdown();
+            }
+        });
+    }
+
+    @Test
+    public void concurrentTasksOfUnitOfWorkCreateBeanOnce() throws Exception {
+        UnitOfWork.call(() -> {
+            UnitOfWork unitOfWork = UnitOfWork.current();
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] results = new Future<?>[4];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = executor.submit(unitOfWork.wrap(() -> {
+                    start.await();
+                    return context.getBean("slowState");
+                }));
+            }
+            start.countDown();
+            Object state = results[0].get(10, TimeUnit.SECONDS);
+            for (Future<?> result : results) {
+                assertSame(state, result.get(10, TimeUnit.SECONDS));
+            }
+            return null;
+        });
+        assertEquals(1, slowInstances.get());
+    }
+
+    @Test
+    public void removedBeanIsCreatedAgain() throws Exception {
+        UnitOfWork.call(() -> {
+            Object state = context.getBean("requestState");
+            UnitOfWorkScope scope = (UnitOfWorkScope) context.getBeanFactory()
+                    .getRegisteredScope(UnitOfWorkScope.SCOPE_NAME);
+            assertSame(state, scope.remove("requestState"));
+            assertNotSame(state, context.getBean("requestState"));
+            return null;
+        });
+    }
+
+    @Test
+    public void threadScopeHasInstancePerThread() throws Exception {
+        Object state = context.getBean("threadState");
+        assertSame(state, context.getBean("threadState"));
+        Object otherState = executor.submit(() -> context.getBean("threadState")).get(10, TimeUnit.SECONDS);
+        assertNotSame(state, otherState);
+    }
+
+    private static BeanDefinition scoped(Class<?> beanClass, String scope) {
+        BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+        beanDefinition.setScope(scope);
+        return beanDefinition;
+    }
+
+    public static class RequestState {
+    }
+
+    public static class SlowState {
+
+        public SlowState() throws InterruptedException {
+            slowInstances.incrementAndGet();
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.minispring.context.support;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.index.CandidateComponentsIndexLoader;
+import com.minispring.core.TestCompiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ClassPathBeanDefinitionScanner} on a classpath with a components
+ * index, as the test classes are compiled with the indexer.
+ */
+public class ClassPathBeanDefinitionScannerTests {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testClasspathHasComponentsIndex() {
+        assertNotNull(CandidateComponentsIndexLoader.loadIndex(getClass().getClassLoader()));
+    }
+
+    @Test
+    public void indexedPackageIsReadFromIndex() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(beanFactory);
+        assertEquals(2, scanner.scan("com.minispring.test.service"));
+        assertEquals(new HashSet<>(Arrays.asList("orderService", "userServiceImpl")),
+                new HashSet<>(Arrays.asList(beanFactory.getBeanDefinitionNames())));
+    }
+
+    @Test
+    public void packageWithoutIndexedComponentsIsScanned() throws Exception {
+        Path classes = temporaryFolder.newFolder("classes").toPath();
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("unindexed.Clock", "package unindexed;\n"
+                + "@com.minispring.annotation.Component(\"clock\")\n"
+                + "public class Clock {\n"
+                + "}\n");
+        sources.put("unindexed.sub.Timer", "package unindexed.sub;\n"
+                + "@com.minispring.annotation.Component\n"
+                + "@com.minispring.annotation.Scope(\"prototype\")\n"
+                + "public class Timer {\n"
+                + "}\n");
+        TestCompiler.compile(classes, sources);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()},
+                getClass().getClassLoader())) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(beanFactory, classLoader);
+            assertEquals(2, scanner.scan("unindexed"));
+
+            Object clock = beanFactory.getBean("clock");
+            assertSame(classLoader, clock.getClass().getClassLoader());
+            assertSame(clock, beanFactory.getBean("clock"));
+            assertTrue(beanFactory.getBeanDefinition("timer").isPrototype());
+        }
+    }
+
+    @Test
+    public void lazyAnnotationOverridesLazyInitOfScan() throws Exception {
+        Path classes = temporaryFolder.newFolder("classes").toPath();
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("lazy.Plain", "package lazy;\n"
+                + "@com.minispring.annotation.Component\n"
+                + "public class Plain {\n"
+                + "}\n");
+        sources.put("lazy.Lazy", "package lazy;\n"
+                + "@com.minispring.annotation.Component\n"
+                + "@com.minispring.annotation.Lazy\n"
+                + "public class Lazy {\n"
+                + "}\n");
+        sources.put("lazy.Eager", "package lazy;\n"
+                + "@com.minispring.annotation.Component\n"
+                + "@com.minispring.annotation.Lazy(false)\n"
+                + "public class Eager {\n"
+                + "}\n");
+        TestCompiler.compile(classes, sources);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()},
+                getClass().getClassLoader())) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(beanFactory, classLoader);
+            assertEquals(3, scanner.scan("lazy"));
+            assertNull(beanFactory.getBeanDefinition("plain").getLazyInit());
+            assertEquals(Boolean.TRUE, beanFactory.getBeanDefinition("lazy").getLazyInit());
+            assertEquals(Boolean.FALSE, beanFactory.getBeanDefinition("eager").getLazyInit());
+
+            DefaultListableBeanFactory lazyBeanFactory = new DefaultListableBeanFactory();
+            ClassPathBeanDefinitionScanner lazyScanner = new ClassPathBeanDefinitionScanner(lazyBeanFactory,
+                    classLoader);
+            lazyScanner.setLazyInit(true);
+            assertEquals(3, lazyScanner.scan("lazy"));
+            assertEquals(Boolean.TRUE, lazyBeanFactory.getBeanDefinition("plain").getLazyInit());
+            assertEquals(Boolean.TRUE, lazyBeanFactory.getBeanDefinition("lazy").getLazyInit());
+            assertEquals(Boolean.FALSE, lazyBeanFactory.getBeanDefinition("eager").getLazyInit());
+        }
+    }
+}
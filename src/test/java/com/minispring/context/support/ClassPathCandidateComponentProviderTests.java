@@ -0,0 +1,165 @@
+package com.minispring.context.support;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.context.index.CandidateComponentsIndex;
+import com.minispring.core.TestCompiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ClassPathCandidateComponentProvider} on class files compiled at
+ * test time, in a directory and in a jar.
+ */
+public class ClassPathCandidateComponentProviderTests {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path classes;
+
+    @Before
+    public void compileFixtures() throws IOException {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("scanned.Plain", "package scanned;\n"
+                + "@com.minispring.annotation.Component\n"
+                + "public class Plain {\n"
+                + "}\n");
+        sources.put("scanned.Configured", "package scanned;\n"
+                + "@com.minispring.annotation.Component(\"custom\")\n"
+                + "@com.minispring.annotation.Scope(\"prototype\")\n"
+                + "@com.minispring.annotation.Lazy(false)\n"
+                + "public class Configured {\n"
+                + "}\n");
+        sources.put("scanned.sub.Lazy", "package scanned.sub;\n"
+                + "@com.minispring.annotation.Component\n"
+                + "@com.minispring.annotation.Lazy\n"
+                + "public class Lazy {\n"
+                + "    @com.minispring.annotation.Component\n"
+                + "    public static class Inner {\n"
+                + "    }\n"
+                + "}\n");
+        sources.put("scanned.NotAComponent", "package scanned;\n"
+                + "@com.minispring.annotation.Scope(\"prototype\")\n"
+                + "public class NotAComponent {\n"
+                + "}\n");
+        sources.put("scanned.ComponentInterface", "package scanned;\n"
+                + "@com.minispring.annotation.Component\n"
+                + "public interface ComponentInterface {\n"
+                + "}\n");
+        classes = temporaryFolder.newFolder("classes").toPath();
+        TestCompiler.compile(classes, sources);
+    }
+
+    @Test
+    public void componentsAreFoundInDirectory() throws IOException {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null)) {
+            assertCandidates(new ClassPathCandidateComponentProvider(classLoader).findCandidateComponents("scanned"));
+        }
+    }
+
+    @Test
+    public void componentsAreFoundInJar() throws IOException {
+        Path jar = createJar(classes);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            assertCandidates(new ClassPathCandidateComponentProvider(classLoader).findCandidateComponents("scanned"));
+        }
+    }
+
+    @Test
+    public void componentFromJarIsRegistered() throws IOException {
+        Path jar = createJar(classes);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toUri().toURL()},
+                getClass().getClassLoader())) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(beanFactory, classLoader);
+            assertEquals(4, scanner.scan("scanned"));
+            Object plain = beanFactory.getBean("plain");
+            assertEquals("scanned.Plain", plain.getClass().getName());
+            assertSame(classLoader, plain.getClass().getClassLoader());
+            assertTrue(beanFactory.getBeanDefinition("custom").isPrototype());
+        }
+    }
+
+    @Test
+    public void subPackageIsScannedAlone() throws IOException {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null)) {
+            List<CandidateComponentsIndex.Entry> candidates =
+                    new ClassPathCandidateComponentProvider(classLoader).findCandidateComponents("scanned.sub");
+            assertEquals(2, candidates.size());
+            assertTrue(new ClassPathCandidateComponentProvider(classLoader)
+                    .findCandidateComponents("scanned.missing").isEmpty());
+        }
+    }
+
+    private static void assertCandidates(List<CandidateComponentsIndex.Entry> candidates) {
+        Map<String, CandidateComponentsIndex.Entry> byClassName = new HashMap<>();
+        for (CandidateComponentsIndex.Entry candidate : candidates) {
+            byClassName.put(candidate.getClassName(), candidate);
+        }
+        assertEquals(byClassName.keySet().toString(), 4, byClassName.size());
+        assertFalse(byClassName.containsKey("scanned.NotAComponent"));
+        assertFalse(byClassName.containsKey("scanned.ComponentInterface"));
+
+        CandidateComponentsIndex.Entry plain = byClassName.get("scanned.Plain");
+        assertEquals("plain", plain.getBeanName());
+        assertEquals("singleton", plain.getScope());
+        assertNull(plain.getLazyInit());
+
+        CandidateComponentsIndex.Entry configured = byClassName.get("scanned.Configured");
+        assertEquals("custom", configured.getBeanName());
+        assertEquals("prototype", configured.getScope());
+        assertEquals(Boolean.FALSE, configured.getLazyInit());
+
+        CandidateComponentsIndex.Entry lazy = byClassName.get("scanned.sub.Lazy");
+        assertEquals("lazy", lazy.getBeanName());
+        assertEquals(Boolean.TRUE, lazy.getLazyInit());
+
+        CandidateComponentsIndex.Entry inner = byClassName.get("scanned.sub.Lazy$Inner");
+        assertNotNull(inner);
+        assertEquals("lazy$Inner", inner.getBeanName());
+    }
+
+    private Path createJar(Path directory) throws IOException {
+        Path jar = temporaryFolder.newFile("components.jar").toPath();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted()::iterator) {
+                String name = directory.relativize(path).toString().replace('\\', '/');
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (Files.isDirectory(path)) {
+                    out.putNextEntry(new JarEntry(name + "/"));
+                } else {
+                    out.putNextEntry(new JarEntry(name));
+                    Files.copy(path, out);
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,47 @@
+package com.minispring.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Compiles test fixtures at test time, so that they are neither indexed by the
+ * components indexer nor visible to the class loader of the tests.
+ */
+public final class TestCompiler {
+
+    private TestCompiler() {
+    }
+
+    /**
+     * Compile the given sources into the given directory, without annotation processing.
+     *
+     * @param outputDirectory the directory to write the class files to
+     * @param sources the source code by fully qualified class name
+     */
+    public static void compile(Path outputDirectory, Map<String, String> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("Tests must run on a JDK", compiler);
+        Path sourceDirectory = Files.createTempDirectory("sources");
+        List<String> arguments = new ArrayList<>(Arrays.asList("-proc:none", "-nowarn",
+                "-classpath", System.getProperty("java.class.path"), "-d", outputDirectory.toString()));
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path sourceFile = sourceDirectory.resolve(source.getKey().replace('.', '/') + ".java");
+            Files.createDirectories(sourceFile.getParent());
+            Files.write(sourceFile, source.getValue().getBytes(StandardCharsets.UTF_8));
+            arguments.add(sourceFile.toString());
+        }
+        assertEquals("Compilation failed", 0, compiler.run(null, null, null, arguments.toArray(new String[0])));
+    }
+}
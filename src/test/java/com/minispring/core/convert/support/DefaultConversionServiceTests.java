@@ -0,0 +1,200 @@
+package com.minispring.core.convert.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.minispring.core.convert.TypeDescriptor;
+import com.minispring.exception.ConversionException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link DefaultConversionService} and the converters it registers.
+ */
+public class DefaultConversionServiceTests {
+
+    private final DefaultConversionService conversionService = new DefaultConversionService();
+
+    @Test
+    public void stringToNumbers() {
+        assertEquals(Integer.valueOf(42), conversionService.convert(" 42 ", Integer.class));
+        assertEquals(Integer.valueOf(42), conversionService.convert("42", int.class));
+        assertEquals(Long.valueOf(-7), conversionService.convert("-7", Long.class));
+        assertEquals(Double.valueOf(1.5), conversionService.convert("1.5", double.class));
+        assertEquals(Integer.valueOf(255), conversionService.convert("0xFF", Integer.class));
+    }
+
+    @Test
+    public void numberToNumber() {
+        assertEquals(Long.valueOf(42), conversionService.convert(42, Long.class));
+        assertEquals(Integer.valueOf(42), conversionService.convert(42L, int.class));
+        try {
+            conversionService.convert(Long.MAX_VALUE, Integer.class);
+            fail("Expected ConversionException");
+        } catch (ConversionException expected) {
+        }
+    }
+
+    @Test
+    public void stringToBoolean() {
+        assertEquals(Boolean.TRUE, conversionService.convert("yes", Boolean.class));
+        assertEquals(Boolean.TRUE, conversionService.convert("ON", boolean.class));
+        assertEquals(Boolean.FALSE, conversionService.convert("0", Boolean.class));
+        assertNull(conversionService.convert("", Boolean.class));
+        try {
+            conversionService.convert("maybe", Boolean.class);
+            fail("Expected ConversionException");
+        } catch (ConversionException expected) {
+            assertTrue(expected.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void emptyStringToPrimitiveFails() {
+        try {
+            conversionService.convert("", boolean.class);
+            fail("Expected ConversionException");
+        } catch (ConversionException expected) {
+            assertTrue(expected.getMessage().contains("primitive"));
+        }
+        try {
+            conversionService.convert(null, int.class);
+            fail("Expected ConversionException");
+        } catch (ConversionException expected) {
+            assertTrue(expected.getMessage().contains("primitive"));
+        }
+        assertNull(conversionService.convert(null, Integer.class));
+    }
+
+    @Test
+    public void stringToCharacterAndEnum() {
+        assertEquals(Character.valueOf('x'), conversionService.convert("x", char.class));
+        assertSame(TimeUnit.SECONDS, conversionService.convert("SECONDS", TimeUnit.class));
+        try {
+            conversionService.convert("xy", Character.class);
+            fail("Expected ConversionException");
+        } catch (ConversionException expected) {
+        }
+    }
+
+    @Test
+    public void stringToDuration() {
+        assertEquals(Duration.ofSeconds(30), conversionService.convert("PT30S", Duration.class));
+        assertEquals(Duration.ofSeconds(30), conversionService.convert("30s", Duration.class));
+        assertEquals(Duration.ofMillis(500), conversionService.convert("500", Duration.class));
+        assertEquals(Duration.ofMinutes(-2), conversionService.convert("-2m", Duration.class));
+        assertEquals(Duration.ofDays(1), conversionService.convert("1d", Duration.class));
+        try {
+            conversionService.convert("5 weeks", Duration.class);
+            fail("Expected ConversionException");
+        } catch (ConversionException expected) {
+        }
+    }
+
+    @Test
+    public void objectToString() {
+        assertEquals("42", conversionService.convert(42, String.class));
+        assertEquals("SECONDS", conversionService.convert(TimeUnit.SECONDS, String.class));
+    }
+
+    @Test
+    public void stringToArraysAndCollections() {
+        assertArrayEquals(new int[] {80, 443}, (int[]) conversionService.convert("80, 443", int[].class));
+        assertArrayEquals(new String[] {"a", "b"}, conversionService.convert("a,b", String[].class));
+        assertArrayEquals(new String[0], conversionService.convert(" ", String[].class));
+
+        assertEquals(Arrays.asList(3, 1, 2), conversionService.convert("3,1,2",
+                TypeDescriptor.collection(List.class, Integer.class)));
+        Object set = conversionService.convert("b,a,b", TypeDescriptor.collection(Set.class, String.class));
+        assertEquals(LinkedHashSet.class, set.getClass());
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<>((Set<?>) set));
+        Object sortedSet = conversionService.convert("3,1,2", TypeDescriptor.collection(SortedSet.class, Long.class));
+        assertEquals(new TreeSet<>(Arrays.asList(1L, 2L, 3L)), sortedSet);
+    }
+
+    @Test
+    public void collectionElementsAreConverted() {
+        List<String> source = Arrays.asList("1", "2");
+        Object result = conversionService.convert(source, TypeDescriptor.collection(Collection.class, Integer.class));
+        assertEquals(Arrays.asList(1, 2), result);
+        assertArrayEquals(new Long[] {1L, 2L}, conversionService.convert(source, Long[].class));
+        assertArrayEquals(new Integer[] {1, 2},
+                conversionService.convert(new String[] {"1", "2"}, Integer[].class));
+        assertSame(source, conversionService.convert(source, List.class));
+    }
+
+    @Test
+    public void noConverterFound() {
+        assertFalse(conversionService.canConvert(Integer.class, Duration.class));
+        assertTrue(conversionService.canConvert(String.class, int.class));
+        assertTrue(conversionService.canConvert(Integer.class, Number.class));
+        try {
+            conversionService.convert(42, Duration.class);
+            fail("Expected ConversionException");
+        } catch (ConversionException expected) {
+            assertTrue(expected.getMessage().startsWith("No converter found"));
+        }
+    }
+
+    @Test
+    public void addedConverterTakesEffect() {
+        assertFalse(conversionService.canConvert(String.class, Money.class));
+        conversionService.addConverter(String.class, Money.class, source -> new Money(Integer.parseInt(source)));
+        assertTrue(conversionService.canConvert(String.class, Money.class));
+        assertEquals(12, conversionService.convert("12", Money.class).cents);
+        assertArrayEquals(new Money[] {new Money(1), new Money(2)}, conversionService.convert("1,2", Money[].class));
+    }
+
+    @Test
+    public void plainConverterDoesNotApplyToSubtypes() {
+        conversionService.addConverter(String.class, Money.class, source -> new Money(Integer.parseInt(source)));
+        assertFalse(conversionService.canConvert(String.class, Euro.class));
+    }
+
+    @Test
+    public void sharedInstanceIsReused() {
+        assertSame(DefaultConversionService.getSharedInstance(), DefaultConversionService.getSharedInstance());
+    }
+
+    public static class Money {
+
+        private final int cents;
+
+        public Money(int cents) {
+            this.cents = cents;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof Money && ((Money) other).cents == cents);
+        }
+
+        @Override
+        public int hashCode() {
+            return cents;
+        }
+    }
+
+    public static class Euro extends Money {
+
+        public Euro(int cents) {
+            super(cents);
+        }
+    }
+}
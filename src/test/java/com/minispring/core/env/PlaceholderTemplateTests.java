@@ -0,0 +1,125 @@
+package com.minispring.core.env;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link PlaceholderTemplate} and placeholder resolution by
+ * {@link StandardEnvironment}.
+ */
+public class PlaceholderTemplateTests {
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    @Test
+    public void textWithoutPlaceholdersIsLiteral() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("jdbc:h2:mem:test");
+        assertTrue(template.isLiteral());
+        assertEquals("jdbc:h2:mem:test", resolve("jdbc:h2:mem:test"));
+    }
+
+    @Test
+    public void placeholdersAreReplacedWithinText() {
+        properties.put("host", "localhost");
+        properties.put("port", "8080");
+        assertFalse(PlaceholderTemplate.compile("http://${host}:${port}/").isLiteral());
+        assertEquals("http://localhost:8080/", resolve("http://${host}:${port}/"));
+    }
+
+    @Test
+    public void defaultIsUsedForMissingProperty() {
+        assertEquals("30", resolve("${timeout:30}"));
+        assertEquals("", resolve("${timeout:}"));
+    }
+
+    @Test
+    public void defaultMayContainSeparator() {
+        assertEquals("jdbc:h2:mem:test", resolve("${db.url:jdbc:h2:mem:test}"));
+    }
+
+    @Test
+    public void nestedPlaceholdersInNameAndDefault() {
+        String text = "${db.${profile}.url:${db.url:jdbc:h2:mem:test}}";
+        properties.put("profile", "dev");
+        assertEquals("jdbc:h2:mem:test", resolve(text));
+        properties.put("db.url", "jdbc:h2:mem:shared");
+        assertEquals("jdbc:h2:mem:shared", resolve(text));
+        properties.put("db.dev.url", "jdbc:h2:mem:dev");
+        assertEquals("jdbc:h2:mem:dev", resolve(text));
+    }
+
+    @Test
+    public void placeholdersInPropertyValuesAreResolved() {
+        properties.put("base", "/opt/app");
+        properties.put("logs", "${base}/logs");
+        properties.put("archive", "${logs}/archive");
+        assertEquals("/opt/app/logs/archive", resolve("${archive}"));
+    }
+
+    @Test
+    public void unterminatedPlaceholderIsLiteral() {
+        assertEquals("${unterminated", resolve("${unterminated"));
+    }
+
+    @Test
+    public void missingPropertyWithoutDefaultFails() {
+        try {
+            resolve("${missing}");
+            fail("Expected the placeholder to be unresolvable");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("'missing'"));
+        }
+    }
+
+    @Test
+    public void circularPropertyReferenceFails() {
+        properties.put("a", "${b}");
+        properties.put("b", "x-${a}");
+        try {
+            resolve("${a}");
+            fail("Expected the circular reference to be detected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Circular placeholder reference"));
+        }
+    }
+
+    @Test
+    public void selfReferencingPropertyFails() {
+        properties.put("a", "${a}");
+        try {
+            resolve("${a}");
+            fail("Expected the circular reference to be detected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Circular placeholder reference"));
+        }
+    }
+
+    @Test
+    public void repeatedReferenceIsNotCircular() {
+        properties.put("name", "app");
+        properties.put("both", "${name}-${name}");
+        assertEquals("app-app", resolve("${both}"));
+    }
+
+    @Test
+    public void environmentResolvesFromFirstPropertySource() {
+        StandardEnvironment environment = new StandardEnvironment();
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("user.home", "/override");
+        overrides.put("app.dir", "${user.home}/app");
+        environment.getPropertySources().addFirst(new MapPropertySource("overrides", overrides));
+        assertEquals("/override/app", environment.resolvePlaceholders("${app.dir}"));
+        assertEquals("/override/app", environment.getProperty("app.dir"));
+    }
+
+    private String resolve(String text) {
+        return PlaceholderTemplate.compile(text).resolve(properties::get);
+    }
+}
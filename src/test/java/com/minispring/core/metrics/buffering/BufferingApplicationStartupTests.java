@@ -0,0 +1,120 @@
+package com.minispring.core.metrics.buffering;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.minispring.core.metrics.StartupStep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link BufferingApplicationStartup} and {@link StartupTimeline}.
+ */
+public class BufferingApplicationStartupTests {
+
+    @Test
+    public void nestedStepsHaveParent() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        StartupStep refresh = startup.start("refresh");
+        StartupStep scan = startup.start("scan").tag("package", "com.example");
+        scan.end();
+        StartupStep instantiate = startup.start("instantiate");
+        instantiate.end();
+        refresh.end();
+        StartupStep close = startup.start("close");
+        close.end();
+
+        List<StartupTimeline.TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+        assertEquals(4, events.size());
+        assertEquals("refresh", events.get(0).getName());
+        assertNull(events.get(0).getParentId());
+        assertEquals("scan", events.get(1).getName());
+        assertEquals(Long.valueOf(refresh.getId()), events.get(1).getParentId());
+        assertEquals("com.example", events.get(1).getTags().get("package"));
+        assertEquals(Long.valueOf(refresh.getId()), events.get(2).getParentId());
+        assertNull(events.get(3).getParentId());
+        assertTrue(events.get(0).getDurationNanos() >= events.get(1).getDurationNanos());
+    }
+
+    @Test
+    public void stepsOfOtherThreadsAreNotChildren() throws Exception {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        StartupStep refresh = startup.start("refresh");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> startup.start("worker").end()).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        refresh.end();
+
+        List<StartupTimeline.TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+        assertEquals("worker", events.get(1).getName());
+        assertNull(events.get(1).getParentId());
+        assertNotEquals(events.get(0).getThreadName(), events.get(1).getThreadName());
+    }
+
+    @Test
+    public void unendedStepsAreNotRecorded() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        StartupStep step = startup.start("refresh");
+        assertTrue(startup.getBufferedTimeline().getEvents().isEmpty());
+        step.end();
+        step.end();
+        assertEquals(1, startup.getBufferedTimeline().getEvents().size());
+    }
+
+    @Test
+    public void stepCannotBeTaggedAfterEnd() {
+        StartupStep step = new BufferingApplicationStartup(16).start("refresh");
+        step.end();
+        try {
+            step.tag("key", "value");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void stepsBeyondCapacityAreDropped() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(2);
+        for (int i = 0; i < 5; i++) {
+            startup.start("step" + i).end();
+        }
+        StartupTimeline timeline = startup.getBufferedTimeline();
+        assertEquals(2, timeline.getEvents().size());
+        assertEquals(3, timeline.getDroppedStepCount());
+        assertEquals(3, startup.getDroppedStepCount());
+        assertTrue(timeline.format().endsWith("3 more steps not recorded\n"));
+    }
+
+    @Test
+    public void capacityMustBePositive() {
+        try {
+            new BufferingApplicationStartup(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void formatIndentsChildren() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        StartupStep refresh = startup.start("refresh");
+        startup.start("scan").tag("package", "com.example").end();
+        refresh.end();
+
+        String[] lines = startup.getBufferedTimeline().format().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0], lines[0].matches("refresh \\d+\\.\\d{3} ms"));
+        assertTrue(lines[1], lines[1].matches("  scan \\d+\\.\\d{3} ms \\{package=com.example\\}"));
+    }
+}
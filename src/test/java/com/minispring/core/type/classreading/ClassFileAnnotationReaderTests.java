@@ -0,0 +1,206 @@
+package com.minispring.core.type.classreading;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.minispring.annotation.Component;
+import com.minispring.annotation.Lazy;
+import com.minispring.annotation.Scope;
+import com.minispring.core.TestCompiler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link ClassFileAnnotationReader}.
+ */
+public class ClassFileAnnotationReaderTests {
+
+    private static final String COMPONENT = Component.class.getName();
+    private static final String SCOPE = Scope.class.getName();
+    private static final String LAZY = Lazy.class.getName();
+    private static final String LIMITS = Limits.class.getName();
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void componentAttributesAreRead() throws IOException {
+        AnnotationMetadata metadata = ClassFileAnnotationReader.read(classFile(NamedPrototype.class), COMPONENT);
+        assertNotNull(metadata);
+        assertEquals(NamedPrototype.class.getName(), metadata.getClassName());
+        assertTrue(metadata.isClass());
+        assertFalse(metadata.isAbstract());
+        assertEquals("named", metadata.getAnnotationAttributes(COMPONENT).get("value"));
+        assertEquals("prototype", metadata.getAnnotationAttributes(SCOPE).get("value"));
+        assertEquals(Boolean.FALSE, metadata.getAnnotationAttributes(LAZY).get("value"));
+    }
+
+    @Test
+    public void defaultAttributesAreAbsent() throws IOException {
+        AnnotationMetadata metadata = ClassFileAnnotationReader.read(classFile(DefaultLazy.class), COMPONENT);
+        assertNotNull(metadata);
+        assertEquals(Collections.emptyMap(), metadata.getAnnotationAttributes(COMPONENT));
+        assertTrue(metadata.hasAnnotation(LAZY));
+        assertEquals(Collections.emptyMap(), metadata.getAnnotationAttributes(LAZY));
+        assertFalse(metadata.hasAnnotation(SCOPE));
+        assertNull(metadata.getAnnotationAttributes(SCOPE));
+    }
+
+    @Test
+    public void classWithoutRequiredAnnotationIsSkipped() throws IOException {
+        assertNull(ClassFileAnnotationReader.read(classFile(Plain.class), COMPONENT));
+        assertNull(ClassFileAnnotationReader.read(classFile(ScopedOnly.class), COMPONENT));
+
+        AnnotationMetadata metadata = ClassFileAnnotationReader.read(classFile(Plain.class), null);
+        assertNotNull(metadata);
+        assertEquals(Plain.class.getName(), metadata.getClassName());
+        assertFalse(metadata.hasAnnotation(COMPONENT));
+    }
+
+    @Test
+    public void interfacesAndAbstractClassesAreRecognized() throws IOException {
+        AnnotationMetadata metadata = ClassFileAnnotationReader.read(classFile(AnnotatedInterface.class), COMPONENT);
+        assertNotNull(metadata);
+        assertFalse(metadata.isClass());
+
+        metadata = ClassFileAnnotationReader.read(classFile(AbstractComponent.class), COMPONENT);
+        assertNotNull(metadata);
+        assertTrue(metadata.isClass());
+        assertTrue(metadata.isAbstract());
+    }
+
+    @Test
+    public void arrayAndNumericAttributesAreRead() throws IOException {
+        AnnotationMetadata metadata = ClassFileAnnotationReader.read(classFile(Limited.class), LIMITS);
+        assertNotNull(metadata);
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(LIMITS);
+        assertEquals(12_345_678_901L, attributes.get("max"));
+        assertEquals(0.25, attributes.get("ratio"));
+        assertEquals(7, attributes.get("count"));
+        assertArrayEquals(new Object[] {"a", "b"}, (Object[]) attributes.get("names"));
+        assertFalse(attributes.containsKey("type"));
+    }
+
+    @Test
+    public void largeConstantPoolWithLongsAndDoublesIsIndexedCorrectly() throws IOException {
+        StringBuilder source = new StringBuilder("package generated;\n")
+                .append("@").append(LIMITS.replace('$', '.'))
+                .append("(max = 98765432109L, ratio = 1.5, count = 3, names = {\"last\"})\n")
+                .append("@com.minispring.annotation.Component(\"wide\")\n")
+                .append("public class Wide {\n");
+        // Each long and double constant takes two constant pool slots
+        for (int i = 0; i < 200; i++) {
+            source.append("    public static final long L").append(i).append(" = ").append(10_000_000_000L + i)
+                    .append("L;\n");
+            source.append("    public static final double D").append(i).append(" = ").append(i).append(".5;\n");
+        }
+        source.append("}\n");
+        Path classes = temporaryFolder.newFolder().toPath();
+        TestCompiler.compile(classes, Collections.singletonMap("generated.Wide", source.toString()));
+        byte[] classFile = Files.readAllBytes(classes.resolve("generated/Wide.class"));
+        assertTrue("Constant pool not large enough", (((classFile[8] & 0xFF) << 8) | (classFile[9] & 0xFF)) > 800);
+
+        AnnotationMetadata metadata = ClassFileAnnotationReader.read(classFile, COMPONENT);
+        assertNotNull(metadata);
+        assertEquals("generated.Wide", metadata.getClassName());
+        assertEquals("wide", metadata.getAnnotationAttributes(COMPONENT).get("value"));
+        Map<String, Object> limits = metadata.getAnnotationAttributes(LIMITS);
+        assertEquals(98_765_432_109L, limits.get("max"));
+        assertEquals(1.5, limits.get("ratio"));
+        assertEquals(3, limits.get("count"));
+        assertArrayEquals(new Object[] {"last"}, (Object[]) limits.get("names"));
+    }
+
+    @Test
+    public void malformedClassFileIsRejected() throws IOException {
+        try {
+            ClassFileAnnotationReader.read(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}, COMPONENT);
+            fail("Expected a non-class file to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+        byte[] classFile = classFile(NamedPrototype.class);
+        try {
+            ClassFileAnnotationReader.read(Arrays.copyOf(classFile, classFile.length / 2), COMPONENT);
+            fail("Expected a truncated class file to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static byte[] classFile(Class<?> clazz) throws IOException {
+        String name = clazz.getName();
+        try (InputStream in = clazz.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Limits {
+
+        long max();
+
+        double ratio();
+
+        int count() default 0;
+
+        String[] names() default {};
+
+        Class<?> type() default Object.class;
+    }
+
+    @Component("named")
+    @Scope("prototype")
+    @Lazy(false)
+    public static class NamedPrototype {
+    }
+
+    @Component
+    @Lazy
+    public static class DefaultLazy {
+    }
+
+    public static class Plain {
+    }
+
+    @Scope("prototype")
+    public static class ScopedOnly {
+    }
+
+    @Component
+    public interface AnnotatedInterface {
+    }
+
+    @Component
+    public abstract static class AbstractComponent {
+    }
+
+    @Limits(max = 12_345_678_901L, ratio = 0.25, count = 7, names = {"a", "b"}, type = String.class)
+    public static class Limited {
+    }
+}
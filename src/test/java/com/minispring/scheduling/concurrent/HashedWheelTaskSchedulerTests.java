@@ -0,0 +1,201 @@
+package com.minispring.scheduling.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.minispring.scheduling.ScheduledTask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link HashedWheelTaskScheduler}.
+ */
+public class HashedWheelTaskSchedulerTests {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private ExecutorService executor;
+
+    private HashedWheelTaskScheduler scheduler;
+
+    @Before
+    public void createScheduler() {
+        executor = Executors.newCachedThreadPool();
+        scheduler = new HashedWheelTaskScheduler(executor, 1, TimeUnit.MILLISECONDS, 64);
+    }
+
+    @After
+    public void closeScheduler() {
+        scheduler.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void oneShotTaskRunsOnceAfterDelay() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        long start = System.nanoTime();
+        long[] elapsed = new long[1];
+        ScheduledTask task = scheduler.schedule(() -> {
+            elapsed[0] = System.nanoTime() - start;
+            runs.incrementAndGet();
+            ran.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue("Ran after " + elapsed[0] + "ns", elapsed[0] >= TimeUnit.MILLISECONDS.toNanos(50));
+        Thread.sleep(50);
+        assertEquals(1, runs.get());
+        assertFalse("A completed task cannot be cancelled", task.cancel());
+    }
+
+    @Test
+    public void fixedRateStartsRunsPeriodApart() throws InterruptedException {
+        List<Long> starts = recordStarts(task -> scheduler.scheduleAtFixedRate(task, 0, 100, TimeUnit.MILLISECONDS));
+        long total = TimeUnit.NANOSECONDS.toMillis(starts.get(4) - starts.get(0));
+        // Four periods of 100ms, regardless of the 50ms each run takes
+        assertTrue("Four periods took " + total + "ms", total >= 395 && total < 550);
+    }
+
+    @Test
+    public void fixedDelayWaitsAfterEachRun() throws InterruptedException {
+        List<Long> starts = recordStarts(task -> scheduler.scheduleWithFixedDelay(task, 0, 100, TimeUnit.MILLISECONDS));
+        long total = TimeUnit.NANOSECONDS.toMillis(starts.get(4) - starts.get(0));
+        // Four runs of 50ms, each followed by a delay of 100ms
+        assertTrue("Four delays took " + total + "ms", total >= 600);
+    }
+
+    @Test
+    public void periodicRunsNeverOverlap() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch runs = new CountDownLatch(5);
+        ScheduledTask task = scheduler.scheduleAtFixedRate(() -> {
+            if (running.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            sleep(20);
+            running.decrementAndGet();
+            runs.countDown();
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        assertTrue(runs.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        task.cancel();
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    public void failingRunDoesNotStopPeriodicTask() throws InterruptedException {
+        CountDownLatch runs = new CountDownLatch(3);
+        scheduler.scheduleWithFixedDelay(() -> {
+            runs.countDown();
+            throw new IllegalStateException("expected");
+        }, 0, 5, TimeUnit.MILLISECONDS);
+        assertTrue(runs.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancelledTaskDoesNotRunAgain() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch firstRun = new CountDownLatch(1);
+        ScheduledTask task = scheduler.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            firstRun.countDown();
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        assertTrue(firstRun.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue(task.cancel());
+        assertTrue(task.isCancelled());
+        assertFalse("A task can only be cancelled once", task.cancel());
+        // A run already handed to the executor may still complete
+        Thread.sleep(30);
+        int runsAfterCancel = runs.get();
+        Thread.sleep(100);
+        assertEquals(runsAfterCancel, runs.get());
+    }
+
+    @Test
+    public void taskCancelledBeforeItsDelayNeverRuns() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledTask task = scheduler.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        assertTrue(task.cancel());
+        Thread.sleep(150);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void closeStopsTasksAndRejectsNewOnes() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch firstRun = new CountDownLatch(1);
+        scheduler.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            firstRun.countDown();
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(firstRun.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        scheduler.close();
+        assertTrue(scheduler.isClosed());
+        Thread.sleep(30);
+        int runsAfterClose = runs.get();
+        Thread.sleep(100);
+        assertEquals(runsAfterClose, runs.get());
+        try {
+            scheduler.schedule(runs::incrementAndGet, 0, TimeUnit.MILLISECONDS);
+            fail("Expected a closed scheduler to reject tasks");
+        } catch (IllegalStateException expected) {
+        }
+        scheduler.close();
+    }
+
+    @Test
+    public void timersBeyondOneWheelRotationWaitForTheirRound() throws InterruptedException {
+        // 64 buckets of 1ms, so a 150ms timer shares its bucket with earlier deadlines for two rounds
+        CountDownLatch ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        long[] elapsed = new long[1];
+        scheduler.schedule(() -> {
+            elapsed[0] = System.nanoTime() - start;
+            ran.countDown();
+        }, 150, TimeUnit.MILLISECONDS);
+        assertTrue(ran.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue("Ran after " + elapsed[0] + "ns", elapsed[0] >= TimeUnit.MILLISECONDS.toNanos(150));
+    }
+
+    private static List<Long> recordStarts(TaskSubmission submission) throws InterruptedException {
+        List<Long> starts = new CopyOnWriteArrayList<>();
+        CountDownLatch runs = new CountDownLatch(5);
+        ScheduledTask task = submission.submit(() -> {
+            starts.add(System.nanoTime());
+            runs.countDown();
+            sleep(50);
+        });
+        assertTrue(runs.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        task.cancel();
+        return starts;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface TaskSubmission {
+
+        ScheduledTask submit(Runnable task);
+    }
+}
@@ -0,0 +1,144 @@
+package com.minispring.scheduling.support;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link CronExpression}. Times are in UTC, starting from Saturday 2026-10-17.
+ */
+public class CronExpressionTests {
+
+    private static final ZonedDateTime SATURDAY = time(2026, 10, 17, 10, 0, 7);
+
+    @Test
+    public void everySecondMatchesNextSecond() {
+        assertNext("* * * * * *", SATURDAY, time(2026, 10, 17, 10, 0, 8));
+    }
+
+    @Test
+    public void fiveFieldsRunAtSecondZero() {
+        assertNext("30 8 * * *", SATURDAY, time(2026, 10, 18, 8, 30, 0));
+    }
+
+    @Test
+    public void rangesAreInclusive() {
+        assertNext("0 0 9-17 * * MON-FRI", SATURDAY, time(2026, 10, 19, 9, 0, 0));
+        assertNext("0 0 9-17 * * MON-FRI", time(2026, 10, 19, 17, 0, 0), time(2026, 10, 20, 9, 0, 0));
+        assertNext("0 0 9-17 * * *", time(2026, 10, 19, 16, 30, 0), time(2026, 10, 19, 17, 0, 0));
+    }
+
+    @Test
+    public void stepsStartAtRangeOrValue() {
+        assertNext("*/15 * * * * *", SATURDAY, time(2026, 10, 17, 10, 0, 15));
+        assertNext("*/15 * * * * *", time(2026, 10, 17, 10, 0, 45), time(2026, 10, 17, 10, 1, 0));
+        assertNext("0 5/20 * * * *", SATURDAY, time(2026, 10, 17, 10, 5, 0));
+        assertNext("0 5/20 * * * *", time(2026, 10, 17, 10, 45, 0), time(2026, 10, 17, 11, 5, 0));
+        assertNext("0 10-30/10 * * * *", time(2026, 10, 17, 10, 20, 0), time(2026, 10, 17, 10, 30, 0));
+        assertNext("0 10-30/10 * * * *", time(2026, 10, 17, 10, 30, 0), time(2026, 10, 17, 11, 10, 0));
+    }
+
+    @Test
+    public void listsCombineValuesAndRanges() {
+        assertNext("0 0 0,12 * * *", SATURDAY, time(2026, 10, 17, 12, 0, 0));
+        assertNext("0 0 1,3-4 * * *", time(2026, 10, 17, 1, 0, 0), time(2026, 10, 17, 3, 0, 0));
+    }
+
+    @Test
+    public void monthAndDayNamesAreCaseInsensitive() {
+        assertNext("0 0 0 1 JAN,jul *", SATURDAY, time(2027, 1, 1, 0, 0, 0));
+        assertNext("0 0 0 1 Feb-Mar *", SATURDAY, time(2027, 2, 1, 0, 0, 0));
+        assertNext("0 0 12 * * tue", SATURDAY, time(2026, 10, 20, 12, 0, 0));
+    }
+
+    @Test
+    public void sundayIsZeroOrSeven() {
+        ZonedDateTime sunday = time(2026, 10, 18, 0, 0, 0);
+        assertNext("0 0 0 * * 0", SATURDAY, sunday);
+        assertNext("0 0 0 * * 7", SATURDAY, sunday);
+        assertNext("0 0 0 * * SUN", SATURDAY, sunday);
+        assertNext("0 0 0 * * 6-7", time(2026, 10, 17, 0, 0, 0), sunday);
+        assertNext("0 0 0 * * 6-7", sunday, time(2026, 10, 24, 0, 0, 0));
+    }
+
+    @Test
+    public void questionMarkMatchesAnyDay() {
+        assertNext("0 0 0 ? * MON", SATURDAY, time(2026, 10, 19, 0, 0, 0));
+    }
+
+    @Test
+    public void dayOfMonthAndDayOfWeekMustBothMatch() {
+        assertNext("0 0 0 13 * FRI", SATURDAY, time(2026, 11, 13, 0, 0, 0));
+    }
+
+    @Test
+    public void macrosExpandToFields() {
+        assertNext("@hourly", SATURDAY, time(2026, 10, 17, 11, 0, 0));
+        assertNext("@daily", SATURDAY, time(2026, 10, 18, 0, 0, 0));
+        assertNext("@midnight", SATURDAY, time(2026, 10, 18, 0, 0, 0));
+        assertNext("@weekly", SATURDAY, time(2026, 10, 18, 0, 0, 0));
+        assertNext("@monthly", SATURDAY, time(2026, 11, 1, 0, 0, 0));
+        assertNext("@yearly", SATURDAY, time(2027, 1, 1, 0, 0, 0));
+        assertNext(" @Annually ", SATURDAY, time(2027, 1, 1, 0, 0, 0));
+    }
+
+    @Test
+    public void monthsWithoutTheDayAreSkipped() {
+        assertNext("0 0 0 31 * *", time(2026, 4, 15, 0, 0, 0), time(2026, 5, 31, 0, 0, 0));
+        assertNext("0 0 0 31 * *", time(2026, 5, 31, 0, 0, 0), time(2026, 7, 31, 0, 0, 0));
+        assertNext("0 30 23 31 12 *", SATURDAY, time(2026, 12, 31, 23, 30, 0));
+    }
+
+    @Test
+    public void leapDayIsFoundYearsAhead() {
+        assertNext("0 0 0 29 2 *", SATURDAY, time(2028, 2, 29, 0, 0, 0));
+    }
+
+    @Test
+    public void impossibleDateHasNoNextTime() {
+        assertNull(CronExpression.parse("0 0 0 30 2 *").next(SATURDAY));
+        assertNull(CronExpression.parse("0 0 0 31 APR,JUN *").next(SATURDAY));
+    }
+
+    @Test
+    public void invalidExpressionsAreRejected() {
+        assertInvalid("* * * *", "5 or 6 fields");
+        assertInvalid("60 * * * * *", "\"60\"");
+        assertInvalid("0 0 24 * * *", "\"24\"");
+        assertInvalid("0 0 0 0 * *", "\"0\"");
+        assertInvalid("0 0 0 * 13 *", "\"13\"");
+        assertInvalid("0 0 0 * * 8", "\"8\"");
+        assertInvalid("*/0 * * * * *", "step");
+        assertInvalid("0 0 17-9 * * *", "17-9");
+        assertInvalid("0 0 0 * FOO *", "FOO");
+    }
+
+    @Test
+    public void toStringReturnsExpression() {
+        assertEquals("@daily", CronExpression.parse("@daily").toString());
+        assertEquals("0 0 * * * *", CronExpression.parse("0 0 * * * *").toString());
+    }
+
+    private static void assertNext(String expression, ZonedDateTime after, ZonedDateTime expected) {
+        assertEquals(expression + " after " + after, expected, CronExpression.parse(expression).next(after));
+    }
+
+    private static void assertInvalid(String expression, String messagePart) {
+        try {
+            CronExpression.parse(expression);
+            fail("Expected \"" + expression + "\" to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(messagePart));
+        }
+    }
+
+    private static ZonedDateTime time(int year, int month, int day, int hour, int minute, int second) {
+        return ZonedDateTime.of(year, month, day, hour, minute, second, 0, ZoneOffset.UTC);
+    }
+}
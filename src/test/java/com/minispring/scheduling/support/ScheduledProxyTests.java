@@ -0,0 +1,105 @@
+package com.minispring.scheduling.support;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.minispring.annotation.Cacheable;
+import com.minispring.annotation.Component;
+import com.minispring.annotation.Scheduled;
+import com.minispring.beans.factory.DefaultListableBeanFactory;
+import com.minispring.cache.concurrent.BoundedCacheManager;
+import com.minispring.context.AnnotationConfigApplicationContext;
+import com.minispring.exception.AopConfigException;
+import com.minispring.exception.BeansException;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link Scheduled} methods of beans exposed as JDK proxies, i.e. with
+ * {@code proxyTargetClass} turned off.
+ */
+public class ScheduledProxyTests {
+
+    private static volatile CountDownLatch ticks;
+
+    @Test
+    public void scheduledMethodDeclaredOnInterfaceRunsThroughProxy() throws InterruptedException {
+        ticks = new CountDownLatch(3);
+        AnnotationConfigApplicationContext context = createContext(BoundedCacheManager.class, TickingService.class);
+        try {
+            assertTrue(Proxy.isProxyClass(context.getBean(Ticking.class).getClass()));
+            assertTrue("Scheduled method did not run", ticks.await(5, TimeUnit.SECONDS));
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void scheduledMethodNotDeclaredOnInterfaceIsRejectedOnRefresh() {
+        try {
+            createContext(BoundedCacheManager.class, UndeclaredTickService.class);
+            fail("Expected the scheduled method to be rejected");
+        } catch (BeansException e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof AopConfigException)) {
+                cause = cause.getCause();
+            }
+            assertTrue("Unexpected failure: " + e, cause != null && cause.getMessage().contains("tick"));
+        }
+    }
+
+    private static AnnotationConfigApplicationContext createContext(Class<?>... componentClasses) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setProxyTargetClass(false);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(beanFactory);
+        context.register(componentClasses);
+        context.refresh();
+        return context;
+    }
+
+    public interface Ticking {
+
+        String lookup(String key);
+
+        void tick();
+    }
+
+    @Component
+    public static class TickingService implements Ticking {
+
+        @Override
+        @Cacheable("lookups")
+        public String lookup(String key) {
+            return key;
+        }
+
+        @Override
+        @Scheduled(fixedRate = 10)
+        public void tick() {
+            ticks.countDown();
+        }
+    }
+
+    public interface Lookup {
+
+        String lookup(String key);
+    }
+
+    @Component
+    public static class UndeclaredTickService implements Lookup {
+
+        @Override
+        @Cacheable("lookups")
+        public String lookup(String key) {
+            return key;
+        }
+
+        @Scheduled(fixedRate = 10)
+        public void tick() {
+        }
+    }
+}